@@ -0,0 +1,637 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.mtrop.doom.exception.WadException;
+import net.mtrop.doom.struct.io.SerializerUtils;
+import net.mtrop.doom.util.TextUtils;
+
+/**
+ * A read-only, random-access WAD container where each distinct piece of entry content is stored
+ * compressed (deflate) and independently, so that any entry can be read without decompressing the others.
+ * <p>
+ * This class presents the original WAD's entries and data through the {@link Wad} interface, so
+ * {@link #getData(WadEntry)}, {@link #getDataAs(WadEntry, Class)}, scanners, and the like all work transparently.
+ * Entry offsets are offsets into the <i>uncompressed</i> content, as though this were a regular WAD
+ * with all of its unaddressed data removed. Recently decompressed content is kept in a small cache.
+ * <p>
+ * Use {@link #createFrom(File, Wad)} to convert a regular WAD to this format, and {@link #decompressTo(File)} to
+ * convert it back to a regular WAD.
+ * <p>
+ * File format (all values little-endian):
+ * <pre>
+ * Header (32 bytes):
+ *     "ZWAD"          magic number
+ *     "IWAD"/"PWAD"   original WAD type
+ *     int             format version (1)
+ *     int             entry count
+ *     int             chunk count
+ *     int             uncompressed content length
+ *     long            offset to chunk table
+ * Chunk data (compressed content, each chunk distinct)
+ * Chunk table (24 bytes each):
+ *     long            file offset of chunk data
+ *     int             stored (compressed) length
+ *     int             uncompressed length
+ *     int             uncompressed content offset
+ *     int             storage method (0 = stored, 1 = deflate)
+ * Entry list (16 bytes each, same as a WAD entry list, offsets into uncompressed content)
+ * </pre>
+ * <p><b>All methods in this implementation cannot be guaranteed to be thread-safe.</b>
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class CompressedWadFile implements Wad, AutoCloseable
+{
+	/** Default maximum amount of bytes of decompressed content to keep cached. */
+	public static final int DEFAULT_CACHE_SIZE = 8 * 1024 * 1024;
+
+	/** Storage method: stored without compression. */
+	public static final int METHOD_STORED = 0;
+	/** Storage method: deflate. */
+	public static final int METHOD_DEFLATE = 1;
+
+	/** Magic number. */
+	private static final String MAGIC = "ZWAD";
+	/** Current format version. */
+	private static final int VERSION = 1;
+	/** Header length in bytes. */
+	private static final int HEADER_LENGTH = 32;
+	/** Chunk table entry length in bytes. */
+	private static final int CHUNK_LENGTH = 24;
+	/** Content starts after the header in regular WADs. */
+	private static final int CONTENT_START = 12;
+	/** Maximum amount of uncompressed bytes compressed in parallel at once. */
+	private static final int COMPRESS_BATCH_BYTES = 32 * 1024 * 1024;
+
+	/** File handle. */
+	private RandomAccessFile file;
+	/** Type of Wad (IWAD or PWAD). */
+	private Type type;
+	/** List of this Wad's entries. */
+	private List<WadEntry> entries;
+	/** Uncompressed content length. */
+	private int contentLength;
+
+	/** Chunk file offsets. */
+	private long[] chunkFileOffsets;
+	/** Chunk stored lengths. */
+	private int[] chunkStoredLengths;
+	/** Chunk uncompressed lengths. */
+	private int[] chunkLengths;
+	/** Chunk uncompressed content offsets (ascending). */
+	private int[] chunkContentOffsets;
+	/** Chunk storage methods. */
+	private int[] chunkMethods;
+
+	/** Inflater for decompression. */
+	private Inflater inflater;
+	/** Decompressed chunk cache, in access order. */
+	private LinkedHashMap<Integer, byte[]> cache;
+	/** Maximum cache size in bytes. */
+	private int cacheSize;
+	/** Current cached bytes. */
+	private int cachedBytes;
+
+	/**
+	 * Opens a CompressedWadFile from a file specified by "path."
+	 * @param path the path to the File.
+	 * @throws IOException if the file can't be read.
+	 * @throws FileNotFoundException if the file can't be found.
+	 * @throws SecurityException if you don't have permission to access the file.
+	 * @throws WadException if the file isn't a compressed Wad file.
+	 * @throws NullPointerException if <code>path</code> is null.
+	 */
+	public CompressedWadFile(String path) throws IOException
+	{
+		this(new File(path), DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Opens a CompressedWadFile from a file.
+	 * @param f the file.
+	 * @throws IOException if the file can't be read.
+	 * @throws FileNotFoundException if the file can't be found.
+	 * @throws SecurityException if you don't have permission to access the file.
+	 * @throws WadException if the file isn't a compressed Wad file.
+	 * @throws NullPointerException if <code>f</code> is null.
+	 */
+	public CompressedWadFile(File f) throws IOException
+	{
+		this(f, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Opens a CompressedWadFile from a file.
+	 * @param f the file.
+	 * @param cacheSize the maximum amount of decompressed content to keep cached, in bytes (0 or less for no caching).
+	 * @throws IOException if the file can't be read.
+	 * @throws FileNotFoundException if the file can't be found.
+	 * @throws SecurityException if you don't have permission to access the file.
+	 * @throws WadException if the file isn't a compressed Wad file.
+	 * @throws NullPointerException if <code>f</code> is null.
+	 */
+	public CompressedWadFile(File f, int cacheSize) throws IOException
+	{
+		if (!f.exists())
+			throw new FileNotFoundException(f.getPath() + " does not exist!");
+
+		this.file = new RandomAccessFile(f, "r");
+		this.inflater = new Inflater();
+		this.cache = new LinkedHashMap<>(16, 0.75f, true);
+		this.cacheSize = cacheSize;
+		this.cachedBytes = 0;
+
+		try {
+			readHeaderAndTables();
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks if a file is a compressed WAD file.
+	 * This opens the provided file for reading only, inspects the first four bytes for a valid header, and then closes it.
+	 * @param file the file to inspect.
+	 * @return true if the file exists, is a file, and is a compressed WAD file, or false otherwise.
+	 * @throws IOException if the file cannot be read.
+	 * @throws SecurityException if you don't have permission to read the file.
+	 */
+	public static boolean isCompressedWAD(File file) throws IOException
+	{
+		if (!file.exists() || file.isDirectory())
+			return false;
+
+		byte[] buf = new byte[4];
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+		{
+			if (raf.read(buf) != 4)
+				return false;
+			return MAGIC.equals(new String(buf, TextUtils.ASCII));
+		}
+	}
+
+	/**
+	 * Creates a new compressed WAD file from all of the entries in another Wad, using the default compression level.
+	 * Entries that share the exact same content in the source are stored once.
+	 * Data that is not addressed by any entry in the source is discarded.
+	 * <p><b>NOTE: This will overwrite the destination file, if it exists!</b>
+	 * @param targetFile the file to create.
+	 * @param source the source Wad.
+	 * @return the newly created file, opened.
+	 * @throws IOException if an error occurs on read from the source Wad or write to the target.
+	 * @throws UnsupportedOperationException if the provided Wad is not an implementation that you can read data from.
+	 */
+	public static CompressedWadFile createFrom(File targetFile, Wad source) throws IOException
+	{
+		return createFrom(targetFile, source, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Creates a new compressed WAD file from all of the entries in another Wad.
+	 * Entries that share the exact same content in the source are stored once.
+	 * Data that is not addressed by any entry in the source is discarded.
+	 * Content is compressed in parallel, and content that does not get smaller when compressed is stored as-is.
+	 * <p><b>NOTE: This will overwrite the destination file, if it exists!</b>
+	 * @param targetFile the file to create.
+	 * @param source the source Wad.
+	 * @param level the deflate compression level (0-9, or {@link Deflater#DEFAULT_COMPRESSION}).
+	 * @return the newly created file, opened.
+	 * @throws IOException if an error occurs on read from the source Wad or write to the target.
+	 * @throws UnsupportedOperationException if the provided Wad is not an implementation that you can read data from.
+	 */
+	public static CompressedWadFile createFrom(File targetFile, Wad source, int level) throws IOException
+	{
+		int entryCount = source.getEntryCount();
+		WadEntry[] outEntries = new WadEntry[entryCount];
+
+		// Figure out distinct content chunks.
+		Map<Long, Integer> chunkMap = new HashMap<>();
+		List<WadEntry> chunkSources = new ArrayList<>();
+		int contentOffset = CONTENT_START;
+		int[] chunkContentOffsets = new int[entryCount];
+		for (int i = 0; i < entryCount; i++)
+		{
+			WadEntry entry = source.getEntry(i);
+			if (entry.getSize() == 0)
+			{
+				outEntries[i] = WadEntry.create(entry.getName(), CONTENT_START, 0);
+				continue;
+			}
+
+			Long key = ((long)entry.getOffset() << 32) | (entry.getSize() & 0x0ffffffffL);
+			Integer chunk = chunkMap.get(key);
+			if (chunk == null)
+			{
+				chunk = chunkSources.size();
+				chunkMap.put(key, chunk);
+				chunkSources.add(entry);
+				chunkContentOffsets[chunk] = contentOffset;
+				contentOffset += entry.getSize();
+			}
+			outEntries[i] = WadEntry.create(entry.getName(), chunkContentOffsets[chunk], entry.getSize());
+		}
+
+		int chunkCount = chunkSources.size();
+		long[] fileOffsets = new long[chunkCount];
+		int[] storedLengths = new int[chunkCount];
+		int[] methods = new int[chunkCount];
+
+		try (RandomAccessFile out = new RandomAccessFile(targetFile, "rw"))
+		{
+			out.setLength(0L);
+			out.seek(HEADER_LENGTH);
+
+			List<byte[]> batch = new ArrayList<>();
+			int batchStart = 0;
+			int batchBytes = 0;
+			for (int c = 0; c <= chunkCount; c++)
+			{
+				if (c == chunkCount || batchBytes >= COMPRESS_BATCH_BYTES)
+				{
+					byte[][] compressed = batch.parallelStream()
+						.map((data) -> compress(data, level))
+						.toArray(byte[][]::new);
+					for (int x = 0; x < compressed.length; x++)
+					{
+						int chunk = batchStart + x;
+						byte[] raw = batch.get(x);
+						fileOffsets[chunk] = out.getFilePointer();
+						if (compressed[x] != null)
+						{
+							methods[chunk] = METHOD_DEFLATE;
+							storedLengths[chunk] = compressed[x].length;
+							out.write(compressed[x]);
+						}
+						else
+						{
+							methods[chunk] = METHOD_STORED;
+							storedLengths[chunk] = raw.length;
+							out.write(raw);
+						}
+					}
+					batch.clear();
+					batchStart = c;
+					batchBytes = 0;
+				}
+				if (c < chunkCount)
+				{
+					byte[] data = source.getData(chunkSources.get(c));
+					batch.add(data);
+					batchBytes += data.length;
+				}
+			}
+
+			long tableOffset = out.getFilePointer();
+			byte[] chunkBytes = new byte[CHUNK_LENGTH * chunkCount];
+			for (int c = 0; c < chunkCount; c++)
+			{
+				int o = c * CHUNK_LENGTH;
+				SerializerUtils.longToBytes(fileOffsets[c], SerializerUtils.LITTLE_ENDIAN, chunkBytes, o);
+				SerializerUtils.intToBytes(storedLengths[c], SerializerUtils.LITTLE_ENDIAN, chunkBytes, o + 8);
+				SerializerUtils.intToBytes(chunkSources.get(c).getSize(), SerializerUtils.LITTLE_ENDIAN, chunkBytes, o + 12);
+				SerializerUtils.intToBytes(chunkContentOffsets[c], SerializerUtils.LITTLE_ENDIAN, chunkBytes, o + 16);
+				SerializerUtils.intToBytes(methods[c], SerializerUtils.LITTLE_ENDIAN, chunkBytes, o + 20);
+			}
+			out.write(chunkBytes);
+
+			byte[] entryBytes = new byte[WadEntry.LENGTH * entryCount];
+			for (int i = 0; i < entryCount; i++)
+				System.arraycopy(outEntries[i].toBytes(), 0, entryBytes, i * WadEntry.LENGTH, WadEntry.LENGTH);
+			out.write(entryBytes);
+
+			byte[] header = new byte[HEADER_LENGTH];
+			System.arraycopy(MAGIC.getBytes(TextUtils.ASCII), 0, header, 0, 4);
+			System.arraycopy((source.isIWAD() ? Type.IWAD : Type.PWAD).name().getBytes(TextUtils.ASCII), 0, header, 4, 4);
+			SerializerUtils.intToBytes(VERSION, SerializerUtils.LITTLE_ENDIAN, header, 8);
+			SerializerUtils.intToBytes(entryCount, SerializerUtils.LITTLE_ENDIAN, header, 12);
+			SerializerUtils.intToBytes(chunkCount, SerializerUtils.LITTLE_ENDIAN, header, 16);
+			SerializerUtils.intToBytes(contentOffset - CONTENT_START, SerializerUtils.LITTLE_ENDIAN, header, 20);
+			SerializerUtils.longToBytes(tableOffset, SerializerUtils.LITTLE_ENDIAN, header, 24);
+			out.seek(0L);
+			out.write(header);
+		}
+
+		return new CompressedWadFile(targetFile);
+	}
+
+	/**
+	 * Compresses data.
+	 * @return the compressed data, or null if compression did not make it smaller.
+	 */
+	private static byte[] compress(byte[] data, int level)
+	{
+		Deflater deflater = new Deflater(level);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(data.length / 2, 64));
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished())
+			{
+				int len = deflater.deflate(buffer);
+				bos.write(buffer, 0, len);
+				if (bos.size() >= data.length)
+					return null;
+			}
+			return bos.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Creates a new regular WAD file from the entries and data in this one.
+	 * The resultant WAD is the same type (IWAD or PWAD) as this one.
+	 * <p><b>NOTE: This will overwrite the destination file, if it exists!</b>
+	 * @param targetFile the file to create.
+	 * @return the new WadFile, opened.
+	 * @throws IOException if an error occurs on read or write.
+	 */
+	public WadFile decompressTo(File targetFile) throws IOException
+	{
+		WadFile out = WadFile.extract(targetFile, this, mapEntries(0, getEntryCount()));
+		out.setType(type);
+		return out;
+	}
+
+	private void readHeaderAndTables() throws IOException
+	{
+		byte[] header = new byte[HEADER_LENGTH];
+		file.seek(0L);
+		if (file.read(header) != HEADER_LENGTH || !MAGIC.equals(new String(header, 0, 4, TextUtils.ASCII)))
+			throw new WadException("Not a compressed Wad file.");
+
+		try {
+			type = Type.valueOf(new String(header, 4, 4, TextUtils.ASCII));
+		} catch (IllegalArgumentException e) {
+			throw new WadException("Not a compressed Wad file: bad Wad type.");
+		}
+
+		int version = SerializerUtils.bytesToInt(header, 8, SerializerUtils.LITTLE_ENDIAN);
+		if (version != VERSION)
+			throw new WadException("Unsupported compressed Wad file version: " + version);
+
+		int entryCount = SerializerUtils.bytesToInt(header, 12, SerializerUtils.LITTLE_ENDIAN);
+		int chunkCount = SerializerUtils.bytesToInt(header, 16, SerializerUtils.LITTLE_ENDIAN);
+		contentLength = SerializerUtils.bytesToInt(header, 20, SerializerUtils.LITTLE_ENDIAN);
+		long tableOffset = SerializerUtils.bytesToLong(header, 24, SerializerUtils.LITTLE_ENDIAN);
+
+		chunkFileOffsets = new long[chunkCount];
+		chunkStoredLengths = new int[chunkCount];
+		chunkLengths = new int[chunkCount];
+		chunkContentOffsets = new int[chunkCount];
+		chunkMethods = new int[chunkCount];
+
+		byte[] chunkBytes = new byte[CHUNK_LENGTH * chunkCount];
+		file.seek(tableOffset);
+		file.readFully(chunkBytes);
+		for (int c = 0; c < chunkCount; c++)
+		{
+			int o = c * CHUNK_LENGTH;
+			chunkFileOffsets[c] = SerializerUtils.bytesToLong(chunkBytes, o, SerializerUtils.LITTLE_ENDIAN);
+			chunkStoredLengths[c] = SerializerUtils.bytesToInt(chunkBytes, o + 8, SerializerUtils.LITTLE_ENDIAN);
+			chunkLengths[c] = SerializerUtils.bytesToInt(chunkBytes, o + 12, SerializerUtils.LITTLE_ENDIAN);
+			chunkContentOffsets[c] = SerializerUtils.bytesToInt(chunkBytes, o + 16, SerializerUtils.LITTLE_ENDIAN);
+			chunkMethods[c] = SerializerUtils.bytesToInt(chunkBytes, o + 20, SerializerUtils.LITTLE_ENDIAN);
+			if (c > 0 && chunkContentOffsets[c] < chunkContentOffsets[c - 1] + chunkLengths[c - 1])
+				throw new WadException("Compressed Wad chunk table is not in content order.");
+		}
+
+		entries = new ArrayList<>(entryCount);
+		byte[] entryBytes = new byte[WadEntry.LENGTH * entryCount];
+		file.readFully(entryBytes);
+		for (int i = 0; i < entryCount; i++)
+			entries.add(WadEntry.create(Arrays.copyOfRange(entryBytes, i * WadEntry.LENGTH, (i + 1) * WadEntry.LENGTH)));
+	}
+
+	// Finds the chunk that contains a content offset, or -1 if none.
+	private int findChunk(int offset)
+	{
+		int i = Arrays.binarySearch(chunkContentOffsets, offset);
+		if (i < 0)
+			i = -i - 2;
+		if (i < 0 || offset >= chunkContentOffsets[i] + chunkLengths[i])
+			return -1;
+		return i;
+	}
+
+	// Gets a chunk's decompressed data, from the cache if present. Returned array must not be modified.
+	private byte[] getChunkData(int chunk) throws IOException
+	{
+		byte[] out;
+		if ((out = cache.get(chunk)) != null)
+			return out;
+
+		byte[] stored = new byte[chunkStoredLengths[chunk]];
+		file.seek(chunkFileOffsets[chunk]);
+		file.readFully(stored);
+
+		switch (chunkMethods[chunk])
+		{
+			case METHOD_STORED:
+				out = stored;
+				break;
+			case METHOD_DEFLATE:
+				out = new byte[chunkLengths[chunk]];
+				inflater.reset();
+				inflater.setInput(stored);
+				try {
+					int len = 0;
+					while (len < out.length && !inflater.finished())
+					{
+						int amount = inflater.inflate(out, len, out.length - len);
+						if (amount == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+							break;
+						len += amount;
+					}
+					if (len != out.length)
+						throw new IOException("Compressed chunk " + chunk + " is truncated.");
+				} catch (DataFormatException e) {
+					throw new IOException("Compressed chunk " + chunk + " is corrupt.", e);
+				}
+				break;
+			default:
+				throw new IOException("Compressed chunk " + chunk + " has an unknown storage method: " + chunkMethods[chunk]);
+		}
+
+		if (out.length <= cacheSize)
+		{
+			cache.put(chunk, out);
+			cachedBytes += out.length;
+			Iterator<byte[]> it = cache.values().iterator();
+			while (cachedBytes > cacheSize && it.hasNext())
+			{
+				cachedBytes -= it.next().length;
+				it.remove();
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Clears the cache of decompressed content.
+	 */
+	public void clearCache()
+	{
+		cache.clear();
+		cachedBytes = 0;
+	}
+
+	/**
+	 * Gets the type of WAD that this was converted from.
+	 * @return the WAD type.
+	 */
+	public final Type getType()
+	{
+		return type;
+	}
+
+	/**
+	 * @return the amount of content data in this Wad in bytes, as stored (compressed).
+	 */
+	public long getStoredContentLength()
+	{
+		long out = 0L;
+		for (int i = 0; i < chunkStoredLengths.length; i++)
+			out += chunkStoredLengths[i];
+		return out;
+	}
+
+	@Override
+	public boolean isIWAD()
+	{
+		return type == Type.IWAD;
+	}
+
+	@Override
+	public boolean isPWAD()
+	{
+		return type == Type.PWAD;
+	}
+
+	@Override
+	public int getEntryCount()
+	{
+		return entries.size();
+	}
+
+	@Override
+	public int getContentLength()
+	{
+		return contentLength;
+	}
+
+	@Override
+	public WadEntry getEntry(int n)
+	{
+		return entries.get(n);
+	}
+
+	@Override
+	public void fetchContent(int offset, int length, byte[] dest, int destOffset) throws IOException
+	{
+		if (destOffset + length > dest.length)
+			throw new IndexOutOfBoundsException("length + destination offset exceeds dest length");
+
+		while (length > 0)
+		{
+			int chunk = findChunk(offset);
+			if (chunk < 0)
+				throw new IndexOutOfBoundsException("Content at offset " + offset + " is not addressed by any entry.");
+			byte[] data = getChunkData(chunk);
+			int start = offset - chunkContentOffsets[chunk];
+			int amount = Math.min(length, data.length - start);
+			System.arraycopy(data, start, dest, destOffset, amount);
+			offset += amount;
+			destOffset += amount;
+			length -= amount;
+		}
+	}
+
+	@Override
+	public Iterator<WadEntry> iterator()
+	{
+		return entries.iterator();
+	}
+
+	@Override
+	public WadEntry addEntryAt(int index, WadEntry entry) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support addEntryAt()");
+	}
+
+	@Override
+	public WadEntry addDataAt(int index, String entryName, InputStream in, int maxLength) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support addDataAt()");
+	}
+
+	@Override
+	public void replaceEntry(int index, byte[] data) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support replaceEntry()");
+	}
+
+	@Override
+	public void renameEntry(int index, String newName) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support renameEntry()");
+	}
+
+	@Override
+	public WadEntry removeEntry(int index) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support removeEntry()");
+	}
+
+	@Override
+	public WadEntry deleteEntry(int index) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support deleteEntry()");
+	}
+
+	@Override
+	public void unmapEntries(int startIndex, WadEntry... entryList) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support unmapEntries()");
+	}
+
+	@Override
+	public void setEntries(WadEntry... entryList) throws IOException
+	{
+		throw new UnsupportedOperationException("CompressedWadFile does not support setEntries()");
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		clearCache();
+		inflater.end();
+		file.close();
+	}
+
+}
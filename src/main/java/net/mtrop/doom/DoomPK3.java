@@ -10,6 +10,7 @@ package net.mtrop.doom;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -22,7 +23,14 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -32,7 +40,7 @@ import net.mtrop.doom.object.BinaryObject.Scanner;
 import net.mtrop.doom.object.BinaryObject.InlineScanner;
 import net.mtrop.doom.object.TextObject;
 import net.mtrop.doom.struct.io.IOUtils;
-import net.mtrop.doom.struct.trie.CaseInsensitiveTrieMap;
+import net.mtrop.doom.struct.trie.CaseInsensitiveRadixTrieMap;
 
 /**
  * Doom PK3 file. Contains a whole bunch of Doom resources,
@@ -49,7 +57,7 @@ public class DoomPK3 extends ZipFile
 	private String fileName;
 	
 	/** Map of PK3 directories and lists of internal files. */
-	private CaseInsensitiveTrieMap<ZipEntry> entryTable;
+	private CaseInsensitiveRadixTrieMap<ZipEntry> entryTable;
 	
 	/**
 	 * Opens a DoomPK3 file for reading and caches its contents.
@@ -71,7 +79,7 @@ public class DoomPK3 extends ZipFile
 	public DoomPK3(File pk3File) throws ZipException, IOException
 	{
 		super(pk3File);
-		this.entryTable = new CaseInsensitiveTrieMap<ZipEntry>();
+		this.entryTable = new CaseInsensitiveRadixTrieMap<ZipEntry>();
 		this.filePath = pk3File.getPath();
 		this.fileName = pk3File.getName();
 		refreshEntries();
@@ -102,7 +110,7 @@ public class DoomPK3 extends ZipFile
 	 */
 	public final void refreshEntries()
 	{
-		CaseInsensitiveTrieMap<ZipEntry> entryList = new CaseInsensitiveTrieMap<ZipEntry>();
+		CaseInsensitiveRadixTrieMap<ZipEntry> entryList = new CaseInsensitiveRadixTrieMap<ZipEntry>();
 		Enumeration<? extends ZipEntry> entries = entries();
 		while (entries.hasMoreElements())
 		{
@@ -171,12 +179,132 @@ public class DoomPK3 extends ZipFile
 	 */
 	private byte[] getData(ZipEntry entryName) throws IOException
 	{
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		try (InputStream in = getInputStream(entryName))
+		return readData(this, entryName);
+	}
+
+	/**
+	 * Gets the data for all entries in the PK3 whose names start with a prefix, 
+	 * reading and inflating them in parallel on separate handles to this file.
+	 * <p>The prefix is case-insensitive.
+	 * @param prefix the start of the entry names to read (for example, <code>"sprites/"</code>).
+	 * @return a map of entry name to entry data, in entry name order.
+	 * @throws IOException if a read error occurs.
+	 * @throws ZipException if a ZIP format error has occurred
+	 * @throws IllegalStateException if the zip file has been closed 
+	 * @since 2.23.0
+	 */
+	public Map<String, byte[]> getAllData(String prefix) throws IOException
+	{
+		return getAllData(prefix, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Gets the data for all entries in the PK3 whose names start with a prefix, 
+	 * reading and inflating them in parallel on separate handles to this file.
+	 * <p>The prefix is case-insensitive.
+	 * @param prefix the start of the entry names to read (for example, <code>"sprites/"</code>).
+	 * @param threads the maximum amount of threads to use (1 or less reads everything on the calling thread).
+	 * @return a map of entry name to entry data, in entry name order.
+	 * @throws IOException if a read error occurs.
+	 * @throws ZipException if a ZIP format error has occurred
+	 * @throws IllegalStateException if the zip file has been closed 
+	 * @since 2.23.0
+	 */
+	public Map<String, byte[]> getAllData(String prefix, int threads) throws IOException
+	{
+		return processEntries(prefix, threads, (zip, entry) -> readData(zip, entry));
+	}
+
+	/**
+	 * Gets the data for all entries in the PK3 whose names start with a prefix as deserialized objects, 
+	 * reading, inflating, and deserializing them in parallel on separate handles to this file.
+	 * <p>The prefix is case-insensitive.
+	 * @param <BO> a type that extends BinaryObject.
+	 * @param prefix the start of the entry names to read (for example, <code>"sounds/"</code>).
+	 * @param type the class type to deserialize into.
+	 * @return a map of entry name to deserialized object, in entry name order.
+	 * @throws IOException if a read error occurs, or an entry could not be deserialized.
+	 * @throws ZipException if a ZIP format error has occurred
+	 * @throws IllegalStateException if the zip file has been closed 
+	 * @see BinaryObject#create(Class, byte[])
+	 * @since 2.23.0
+	 */
+	public <BO extends BinaryObject> Map<String, BO> getAllDataAs(String prefix, Class<BO> type) throws IOException
+	{
+		return getAllDataAs(prefix, type, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Gets the data for all entries in the PK3 whose names start with a prefix as deserialized objects, 
+	 * reading, inflating, and deserializing them in parallel on separate handles to this file.
+	 * <p>The prefix is case-insensitive.
+	 * @param <BO> a type that extends BinaryObject.
+	 * @param prefix the start of the entry names to read (for example, <code>"sounds/"</code>).
+	 * @param type the class type to deserialize into.
+	 * @param threads the maximum amount of threads to use (1 or less reads everything on the calling thread).
+	 * @return a map of entry name to deserialized object, in entry name order.
+	 * @throws IOException if a read error occurs, or an entry could not be deserialized.
+	 * @throws ZipException if a ZIP format error has occurred
+	 * @throws IllegalStateException if the zip file has been closed 
+	 * @see BinaryObject#create(Class, byte[])
+	 * @since 2.23.0
+	 */
+	public <BO extends BinaryObject> Map<String, BO> getAllDataAs(String prefix, Class<BO> type, int threads) throws IOException
+	{
+		return processEntries(prefix, threads, (zip, entry) -> BinaryObject.create(type, readData(zip, entry)));
+	}
+
+	/**
+	 * Extracts all entries in the PK3 whose names start with a prefix to a directory,
+	 * keeping their paths, in parallel on separate handles to this file.
+	 * Missing directories are created, and existing files are overwritten.
+	 * <p>The prefix is case-insensitive.
+	 * @param prefix the start of the entry names to extract (for example, <code>"maps/"</code>, or <code>""</code> for everything).
+	 * @param directory the target directory.
+	 * @return the list of files written, in entry name order.
+	 * @throws IOException if a read or write error occurs, or an entry path would be written outside of the target directory.
+	 * @throws SecurityException if a file could not be created due to system permission.
+	 * @throws ZipException if a ZIP format error has occurred
+	 * @throws IllegalStateException if the zip file has been closed
+	 * @since 2.23.0
+	 */
+	public List<File> extractEntries(String prefix, File directory) throws IOException
+	{
+		return extractEntries(prefix, directory, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Extracts all entries in the PK3 whose names start with a prefix to a directory,
+	 * keeping their paths, in parallel on separate handles to this file.
+	 * Missing directories are created, and existing files are overwritten.
+	 * <p>The prefix is case-insensitive.
+	 * @param prefix the start of the entry names to extract (for example, <code>"maps/"</code>, or <code>""</code> for everything).
+	 * @param directory the target directory.
+	 * @param threads the maximum amount of threads to use (1 or less extracts everything on the calling thread).
+	 * @return the list of files written, in entry name order.
+	 * @throws IOException if a read or write error occurs, or an entry path would be written outside of the target directory.
+	 * @throws SecurityException if a file could not be created due to system permission.
+	 * @throws ZipException if a ZIP format error has occurred
+	 * @throws IllegalStateException if the zip file has been closed
+	 * @since 2.23.0
+	 */
+	public List<File> extractEntries(String prefix, File directory, int threads) throws IOException
+	{
+		final String rootPath = directory.getCanonicalPath() + File.separator;
+		return new ArrayList<>(processEntries(prefix, threads, (zip, entry) -> 
 		{
-			IOUtils.relay(in, bos);
-		}
-		return bos.toByteArray();
+			File outFile = new File(directory, entry.getName());
+			if (!outFile.getCanonicalPath().startsWith(rootPath))
+				throw new IOException("Entry \"" + entry.getName() + "\" would be extracted outside of the target directory.");
+			File parent = outFile.getParentFile();
+			if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory())
+				throw new IOException("Could not create directory: " + parent.getPath());
+			try (InputStream in = zip.getInputStream(entry); OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile)))
+			{
+				IOUtils.relay(in, out);
+			}
+			return outFile;
+		}).values());
 	}
 
 	/**
@@ -488,6 +616,126 @@ public class DoomPK3 extends ZipFile
 		return BinaryObject.inlineScanner(type, getInputStream(entryName), objectLength);
 	}
 
+	/**
+	 * Runs a handler for each entry that starts with a prefix.
+	 * If more than one thread is used, each worker opens its own handle to this file
+	 * and takes the next unhandled entry until none are left.
+	 */
+	private <T> Map<String, T> processEntries(String prefix, int threads, EntryHandler<T> handler) throws IOException
+	{
+		final List<String> names = getEntriesStartingWith(prefix);
+		final ZipEntry[] entries = new ZipEntry[names.size()];
+		for (int i = 0; i < entries.length; i++)
+			entries[i] = entryTable.get(names.get(i));
+		
+		final Object[] results = new Object[entries.length];
+		int workers = Math.min(threads, entries.length);
+		if (workers <= 1)
+		{
+			for (int i = 0; i < entries.length; i++)
+				results[i] = handler.handle(this, entries[i]);
+		}
+		else
+		{
+			final File sourceFile = new File(filePath);
+			final AtomicInteger next = new AtomicInteger(0);
+			ExecutorService executor = Executors.newFixedThreadPool(workers);
+			try
+			{
+				List<Future<Void>> futures = new ArrayList<>(workers);
+				for (int w = 0; w < workers; w++)
+				{
+					futures.add(executor.submit(() -> 
+					{
+						try (ZipFile zip = new ZipFile(sourceFile))
+						{
+							int i;
+							while ((i = next.getAndIncrement()) < entries.length)
+								results[i] = handler.handle(zip, entries[i]);
+						}
+						catch (IOException | RuntimeException e)
+						{
+							// Stop the other workers early.
+							next.set(entries.length);
+							throw e;
+						}
+						return null;
+					}));
+				}
+				for (Future<Void> future : futures)
+				{
+					try {
+						future.get();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException("Interrupted while reading entries.", e);
+					} catch (ExecutionException e) {
+						Throwable cause = e.getCause();
+						if (cause instanceof IOException)
+							throw (IOException)cause;
+						else if (cause instanceof RuntimeException)
+							throw (RuntimeException)cause;
+						else
+							throw new IOException(cause);
+					}
+				}
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+		}
+		
+		Map<String, T> out = new LinkedHashMap<>(Math.max(16, entries.length * 4 / 3 + 1));
+		for (int i = 0; i < entries.length; i++)
+		{
+			@SuppressWarnings("unchecked")
+			T result = (T)results[i];
+			out.put(names.get(i), result);
+		}
+		return out;
+	}
+
+	/**
+	 * Reads an entry's full data from a ZIP handle.
+	 * If the uncompressed size is known, the output array is allocated once at that size, 
+	 * and the data is read straight into it without intermediate buffering.
+	 */
+	private static byte[] readData(ZipFile zip, ZipEntry entry) throws IOException
+	{
+		long size = entry.getSize();
+		if (size < 0 || size > Integer.MAX_VALUE - 8)
+		{
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try (InputStream in = zip.getInputStream(entry))
+			{
+				IOUtils.relay(in, bos);
+			}
+			return bos.toByteArray();
+		}
+		
+		byte[] out = new byte[(int)size];
+		try (InputStream in = zip.getInputStream(entry))
+		{
+			int offset = 0;
+			int buf;
+			while (offset < out.length && (buf = in.read(out, offset, out.length - offset)) > 0)
+				offset += buf;
+			if (offset < out.length)
+				throw new EOFException("Entry \"" + entry.getName() + "\" ended early: expected " + out.length + " bytes, read " + offset + ".");
+		}
+		return out;
+	}
+
+	/**
+	 * A handler for a single entry, called from {@link #processEntries(String, int, EntryHandler)}.
+	 */
+	@FunctionalInterface
+	private interface EntryHandler<T>
+	{
+		T handle(ZipFile zip, ZipEntry entry) throws IOException;
+	}
+
 	/**
 	 * Gets the "entry name" for a ZipEntry, which is just the filename itself minus extension.
 	 * @param ze the ZipEntry to use.
@@ -0,0 +1,562 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import net.mtrop.doom.object.BinaryObject;
+
+/**
+ * A builder for PK3 (ZIP) archives.
+ * <p>
+ * Entries are added by path, and written out in a deterministic order (case-insensitive path order),
+ * with a fixed modified time, so that the same set of entries always produces the same archive.
+ * Adding an entry at a path that already exists (case-insensitively) replaces it.
+ * <p>
+ * On write, entries are compressed in parallel, in batches of bounded size. Each entry is either STORED or DEFLATED:
+ * entries that are already compressed (by file extension or data signature) are stored without trying,
+ * and the rest are stored only if deflating them does not reduce their size to at or below the "store ratio".
+ * <p>
+ * This writes plain ZIP archives (no ZIP64), so the total archive must be under 4 GB and 65535 entries.
+ * <p><b>This class is not thread-safe.</b>
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class DoomPK3Builder
+{
+	/** Default compressed size ratio (compressed/uncompressed) above which an entry is stored instead of deflated. */
+	public static final double DEFAULT_STORE_RATIO = 0.95;
+
+	/** Maximum amount of uncompressed bytes compressed in parallel at once. */
+	private static final int COMPRESS_BATCH_BYTES = 32 * 1024 * 1024;
+
+	/** File extensions of data that is normally already compressed. */
+	private static final String[] COMPRESSED_EXTENSIONS = {
+		"png", "jpg", "jpeg", "webp", "ogg", "opus", "mp3", "flac", "zip", "pk3", "pk7", "pke", "7z", "gz", "xz", "bz2"
+	};
+
+	/** Data signatures of data that is normally already compressed. */
+	private static final byte[][] COMPRESSED_SIGNATURES = {
+		{(byte)0x89, 'P', 'N', 'G'},
+		{(byte)0xFF, (byte)0xD8, (byte)0xFF},
+		{'O', 'g', 'g', 'S'},
+		{'f', 'L', 'a', 'C'},
+		{'I', 'D', '3'},
+		{'P', 'K', 0x03, 0x04},
+		{0x1F, (byte)0x8B},
+	};
+
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+	private static final int FLAG_UTF8 = 0x0800;
+	private static final int VERSION_NEEDED = 20;
+
+	/** Entries by path. */
+	private TreeMap<String, Source> entries;
+	/** Deflate compression level. */
+	private int compressionLevel;
+	/** Store ratio. */
+	private double storeRatio;
+	/** DOS-format modified time. */
+	private int dosTime;
+	/** DOS-format modified date. */
+	private int dosDate;
+
+	/**
+	 * Creates a new, empty builder,
+	 * using the default compression level, the default store ratio, and a modified time of 1980-01-01 00:00:00.
+	 */
+	public DoomPK3Builder()
+	{
+		this.entries = new TreeMap<>(DoomPK3Builder::comparePaths);
+		this.compressionLevel = Deflater.DEFAULT_COMPRESSION;
+		this.storeRatio = DEFAULT_STORE_RATIO;
+		this.dosTime = 0;
+		this.dosDate = (1 << 5) | 1;
+	}
+
+	/**
+	 * Sets the deflate compression level to use for compressed entries.
+	 * @param compressionLevel the level (0-9, or {@link Deflater#DEFAULT_COMPRESSION}).
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the level is out of range.
+	 */
+	public DoomPK3Builder setCompressionLevel(int compressionLevel)
+	{
+		if (compressionLevel != Deflater.DEFAULT_COMPRESSION && (compressionLevel < 0 || compressionLevel > 9))
+			throw new IllegalArgumentException("Compression level must be from 0 to 9.");
+		this.compressionLevel = compressionLevel;
+		return this;
+	}
+
+	/**
+	 * Sets the store ratio: if an entry's compressed size divided by its uncompressed size
+	 * is greater than this value, the entry is stored instead of deflated.
+	 * A value of 0 stores everything, and a value of 1 or more deflates everything that does not get bigger.
+	 * @param storeRatio the ratio.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the ratio is negative.
+	 */
+	public DoomPK3Builder setStoreRatio(double storeRatio)
+	{
+		if (storeRatio < 0.0)
+			throw new IllegalArgumentException("Store ratio cannot be negative.");
+		this.storeRatio = storeRatio;
+		return this;
+	}
+
+	/**
+	 * Sets the modified time written for every entry.
+	 * ZIP times have a two-second resolution, and cannot be before 1980.
+	 * @param time the time in milliseconds since the epoch, local time.
+	 * @return this builder.
+	 */
+	public DoomPK3Builder setModifiedTime(long time)
+	{
+		Calendar c = Calendar.getInstance();
+		c.setTimeInMillis(time);
+		int year = c.get(Calendar.YEAR);
+		if (year < 1980)
+		{
+			this.dosTime = 0;
+			this.dosDate = (1 << 5) | 1;
+		}
+		else
+		{
+			this.dosDate = ((year - 1980) << 9) | ((c.get(Calendar.MONTH) + 1) << 5) | c.get(Calendar.DAY_OF_MONTH);
+			this.dosTime = (c.get(Calendar.HOUR_OF_DAY) << 11) | (c.get(Calendar.MINUTE) << 5) | (c.get(Calendar.SECOND) >> 1);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds an entry from a byte array. The array is not copied.
+	 * @param path the entry path (for example, <code>"sprites/trooa1.png"</code>).
+	 * @param data the entry data.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the path is empty or ends with a separator.
+	 * @throws NullPointerException if <code>path</code> or <code>data</code> is <code>null</code>.
+	 */
+	public DoomPK3Builder addData(String path, byte[] data)
+	{
+		if (data == null)
+			throw new NullPointerException("data cannot be null.");
+		entries.put(normalizePath(path), new Source(data, null));
+		return this;
+	}
+
+	/**
+	 * Adds an entry from a serializable object.
+	 * The object is serialized immediately.
+	 * @param path the entry path.
+	 * @param data the object to serialize.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the path is empty or ends with a separator.
+	 * @throws NullPointerException if <code>path</code> or <code>data</code> is <code>null</code>.
+	 */
+	public DoomPK3Builder addData(String path, BinaryObject data)
+	{
+		return addData(path, data.toBytes());
+	}
+
+	/**
+	 * Adds an entry from a file.
+	 * The file is not read until the archive is written.
+	 * @param path the entry path.
+	 * @param file the source file.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the path is empty or ends with a separator.
+	 * @throws FileNotFoundException if the file does not exist, or is a directory.
+	 * @throws NullPointerException if <code>path</code> or <code>file</code> is <code>null</code>.
+	 */
+	public DoomPK3Builder addFile(String path, File file) throws FileNotFoundException
+	{
+		if (!file.isFile())
+			throw new FileNotFoundException(file.getPath() + " is not a file.");
+		entries.put(normalizePath(path), new Source(null, file));
+		return this;
+	}
+
+	/**
+	 * Adds all of the files in a directory and its subdirectories, using their paths relative to the directory.
+	 * The files are not read until the archive is written.
+	 * @param pathPrefix the path prefix to add to each path (for example, <code>"sprites/"</code>, or <code>""</code> for none).
+	 * @param directory the source directory.
+	 * @return this builder.
+	 * @throws FileNotFoundException if the directory does not exist, or is not a directory.
+	 * @throws NullPointerException if <code>pathPrefix</code> or <code>directory</code> is <code>null</code>.
+	 */
+	public DoomPK3Builder addDirectory(String pathPrefix, File directory) throws FileNotFoundException
+	{
+		if (!directory.isDirectory())
+			throw new FileNotFoundException(directory.getPath() + " is not a directory.");
+		String prefix = pathPrefix.replace('\\', '/');
+		if (prefix.length() > 0 && !prefix.endsWith("/"))
+			prefix = prefix + "/";
+		File[] files = directory.listFiles();
+		if (files != null) for (File f : files)
+		{
+			if (f.isDirectory())
+				addDirectory(prefix + f.getName() + "/", f);
+			else if (f.isFile())
+				addFile(prefix + f.getName(), f);
+		}
+		return this;
+	}
+
+	/**
+	 * Removes an entry.
+	 * @param path the entry path (case-insensitive).
+	 * @return true if an entry was removed, false if not.
+	 */
+	public boolean remove(String path)
+	{
+		return entries.remove(normalizePath(path)) != null;
+	}
+
+	/**
+	 * Checks if this builder contains an entry.
+	 * @param path the entry path (case-insensitive).
+	 * @return true if so, false if not.
+	 */
+	public boolean contains(String path)
+	{
+		return entries.containsKey(normalizePath(path));
+	}
+
+	/**
+	 * @return the entry paths in this builder, in the order they will be written.
+	 */
+	public List<String> getPaths()
+	{
+		return new ArrayList<>(entries.keySet());
+	}
+
+	/**
+	 * @return the amount of entries in this builder.
+	 */
+	public int getEntryCount()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Writes the archive to a file.
+	 * <p><b>NOTE: This will overwrite the destination file, if it exists!</b>
+	 * @param targetFile the file to write.
+	 * @throws IOException if an entry source cannot be read, the archive is too large, or the file cannot be written.
+	 * @throws SecurityException if the file could not be created due to system permission.
+	 */
+	public void writeTo(File targetFile) throws IOException
+	{
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(targetFile), 65536))
+		{
+			writeTo(out);
+		}
+	}
+
+	/**
+	 * Writes the archive to an output stream.
+	 * The stream is not closed.
+	 * @param out the output stream.
+	 * @throws IOException if an entry source cannot be read, the archive is too large, or the stream cannot be written to.
+	 */
+	public void writeTo(OutputStream out) throws IOException
+	{
+		if (entries.size() > 0xFFFF)
+			throw new IOException("Too many entries for a PK3: " + entries.size());
+
+		List<Map.Entry<String, Source>> list = new ArrayList<>(entries.entrySet());
+		byte[][] names = new byte[list.size()][];
+		int[] methods = new int[list.size()];
+		int[] crcs = new int[list.size()];
+		long[] compressedSizes = new long[list.size()];
+		long[] sizes = new long[list.size()];
+		long[] offsets = new long[list.size()];
+
+		long position = 0L;
+		int batchStart = 0;
+		while (batchStart < list.size())
+		{
+			// Gather a batch.
+			int batchEnd = batchStart;
+			long batchBytes = 0;
+			while (batchEnd < list.size() && (batchEnd == batchStart || batchBytes < COMPRESS_BATCH_BYTES))
+				batchBytes += list.get(batchEnd++).getValue().length();
+
+			final int start = batchStart;
+			Encoded[] encoded;
+			try {
+				encoded = list.subList(batchStart, batchEnd).parallelStream()
+					.map((entry) -> encode(entry.getKey(), entry.getValue()))
+					.toArray(Encoded[]::new);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+
+			for (int x = 0; x < encoded.length; x++)
+			{
+				int i = start + x;
+				Encoded e = encoded[x];
+				names[i] = list.get(i).getKey().getBytes(StandardCharsets.UTF_8);
+				methods[i] = e.method;
+				crcs[i] = e.crc;
+				compressedSizes[i] = e.data.length;
+				sizes[i] = e.size;
+				offsets[i] = position;
+
+				if (position + 30 + names[i].length + e.data.length > 0xFFFFFFFFL)
+					throw new IOException("Archive is too large for a PK3 without ZIP64.");
+
+				byte[] header = new byte[30];
+				putInt(header, 0, 0x04034b50);
+				putShort(header, 4, VERSION_NEEDED);
+				putShort(header, 6, FLAG_UTF8);
+				putShort(header, 8, methods[i]);
+				putShort(header, 10, dosTime);
+				putShort(header, 12, dosDate);
+				putInt(header, 14, crcs[i]);
+				putInt(header, 18, (int)compressedSizes[i]);
+				putInt(header, 22, (int)sizes[i]);
+				putShort(header, 26, names[i].length);
+				putShort(header, 28, 0);
+				out.write(header);
+				out.write(names[i]);
+				out.write(e.data);
+				position += header.length + names[i].length + e.data.length;
+			}
+			batchStart = batchEnd;
+		}
+
+		// Central directory.
+		long directoryOffset = position;
+		for (int i = 0; i < list.size(); i++)
+		{
+			byte[] header = new byte[46];
+			putInt(header, 0, 0x02014b50);
+			putShort(header, 4, VERSION_NEEDED);
+			putShort(header, 6, VERSION_NEEDED);
+			putShort(header, 8, FLAG_UTF8);
+			putShort(header, 10, methods[i]);
+			putShort(header, 12, dosTime);
+			putShort(header, 14, dosDate);
+			putInt(header, 16, crcs[i]);
+			putInt(header, 20, (int)compressedSizes[i]);
+			putInt(header, 24, (int)sizes[i]);
+			putShort(header, 28, names[i].length);
+			// extra length, comment length, disk number, internal attributes, external attributes are all 0.
+			putInt(header, 42, (int)offsets[i]);
+			out.write(header);
+			out.write(names[i]);
+			position += header.length + names[i].length;
+		}
+		long directoryLength = position - directoryOffset;
+		if (position > 0xFFFFFFFFL)
+			throw new IOException("Archive is too large for a PK3 without ZIP64.");
+
+		byte[] end = new byte[22];
+		putInt(end, 0, 0x06054b50);
+		putShort(end, 8, list.size());
+		putShort(end, 10, list.size());
+		putInt(end, 12, (int)directoryLength);
+		putInt(end, 16, (int)directoryOffset);
+		out.write(end);
+		out.flush();
+	}
+
+	/**
+	 * Reads and encodes a single entry.
+	 * Called from worker threads.
+	 */
+	private Encoded encode(String path, Source source)
+	{
+		byte[] data;
+		try {
+			data = source.getData();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+
+		byte[] compressed = null;
+		if (data.length > 0 && storeRatio > 0.0 && !isCompressed(path, data))
+			compressed = deflate(data, compressionLevel, (long)Math.min(data.length - 1, Math.floor(data.length * storeRatio)));
+
+		return compressed != null
+			? new Encoded(METHOD_DEFLATED, (int)crc.getValue(), data.length, compressed)
+			: new Encoded(METHOD_STORED, (int)crc.getValue(), data.length, data);
+	}
+
+	/**
+	 * Checks if data is likely already compressed, by path extension or data signature.
+	 */
+	private static boolean isCompressed(String path, byte[] data)
+	{
+		int slash = path.lastIndexOf('/');
+		int dot = path.lastIndexOf('.');
+		if (dot > slash)
+		{
+			String extension = path.substring(dot + 1);
+			for (String e : COMPRESSED_EXTENSIONS)
+				if (e.equalsIgnoreCase(extension))
+					return true;
+		}
+
+		for (byte[] signature : COMPRESSED_SIGNATURES)
+		{
+			if (data.length < signature.length)
+				continue;
+			boolean match = true;
+			for (int i = 0; match && i < signature.length; i++)
+				match = data[i] == signature[i];
+			if (match)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Raw-deflates data. Returns null if the result would be larger than the maximum length.
+	 */
+	private static byte[] deflate(byte[] data, int level, long maxLength)
+	{
+		Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(data.length / 2, 64));
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished())
+			{
+				int len = deflater.deflate(buffer);
+				bos.write(buffer, 0, len);
+				if (bos.size() > maxLength)
+					return null;
+			}
+			return bos.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Normalizes a path: separators are changed to forward slashes, and leading separators are removed.
+	 */
+	private static String normalizePath(String path)
+	{
+		String out = path.replace('\\', '/');
+		int i = 0;
+		while (i < out.length() && out.charAt(i) == '/')
+			i++;
+		out = out.substring(i);
+		if (out.isEmpty() || out.endsWith("/"))
+			throw new IllegalArgumentException("Bad entry path: \"" + path + "\"");
+		return out;
+	}
+
+	/**
+	 * Compares paths case-insensitively, with separators sorting first so that
+	 * directory contents are contiguous.
+	 */
+	private static int comparePaths(String a, String b)
+	{
+		int len = Math.min(a.length(), b.length());
+		for (int i = 0; i < len; i++)
+		{
+			char ca = a.charAt(i);
+			char cb = b.charAt(i);
+			if (ca == cb)
+				continue;
+			if (ca == '/')
+				return -1;
+			if (cb == '/')
+				return 1;
+			int c = Character.compare(Character.toLowerCase(Character.toUpperCase(ca)), Character.toLowerCase(Character.toUpperCase(cb)));
+			if (c != 0)
+				return c;
+		}
+		return a.length() - b.length();
+	}
+
+	private static void putShort(byte[] b, int offset, int value)
+	{
+		b[offset] = (byte)value;
+		b[offset + 1] = (byte)(value >>> 8);
+	}
+
+	private static void putInt(byte[] b, int offset, int value)
+	{
+		b[offset] = (byte)value;
+		b[offset + 1] = (byte)(value >>> 8);
+		b[offset + 2] = (byte)(value >>> 16);
+		b[offset + 3] = (byte)(value >>> 24);
+	}
+
+	/**
+	 * Entry source: either data in memory or a file.
+	 */
+	private static class Source
+	{
+		private byte[] data;
+		private File file;
+
+		private Source(byte[] data, File file)
+		{
+			this.data = data;
+			this.file = file;
+		}
+
+		private long length()
+		{
+			return data != null ? data.length : file.length();
+		}
+
+		private byte[] getData() throws IOException
+		{
+			return data != null ? data : Files.readAllBytes(file.toPath());
+		}
+	}
+
+	/**
+	 * A single encoded entry.
+	 */
+	private static class Encoded
+	{
+		private int method;
+		private int crc;
+		private int size;
+		private byte[] data;
+
+		private Encoded(int method, int crc, int size, byte[] data)
+		{
+			this.method = method;
+			this.crc = crc;
+			this.size = size;
+			this.data = data;
+		}
+	}
+
+}
@@ -0,0 +1,782 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import net.mtrop.doom.exception.WadException;
+import net.mtrop.doom.struct.io.SerializerUtils;
+import net.mtrop.doom.struct.trie.CaseInsensitiveRadixTrieMap;
+import net.mtrop.doom.util.PK3Utils;
+import net.mtrop.doom.util.TextUtils;
+
+/**
+ * A read-only virtual filesystem over a PK3, which can mount the WADs embedded in it
+ * (like <code>maps/map01.wad</code>) without extracting them.
+ * <p>
+ * The PK3's central directory is read directly, so that the data of STORED entries can be read
+ * from its exact location in the PK3 file. An embedded WAD that is STORED is mounted as a random-access view
+ * at that location: only its header and entry list are read on mount, and entry data is read on demand.
+ * An embedded WAD that is DEFLATED is inflated on demand into a cache of bounded size, and re-inflated
+ * if it is evicted and then needed again. The last inflated file that is too large for the cache is kept
+ * outside of it until another such file is inflated, so reading the entries of a large deflated WAD
+ * one after another only inflates it once.
+ * <p>
+ * Mounted WADs are read-only, and are only valid while this filesystem is open.
+ * <p>
+ * A single index of resources across the PK3 and all of its embedded WADs is built the first time
+ * {@link #getResources()} or {@link #findResources(String, String)} is called, and kept until this filesystem is closed.
+ * Each resource has a namespace: the top-level directory for PK3 files (<code>""</code> for root files),
+ * the namespace directory for WAD entries in namespace markers (see {@link PK3Utils}),
+ * <code>"maps"</code> for entries in WADs in <code>maps/</code>, or <code>""</code>.
+ * <p>
+ * ZIP64 archives are not supported.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class DoomPK3FileSystem implements AutoCloseable
+{
+	/** Default maximum amount of bytes of inflated data to keep cached. */
+	public static final int DEFAULT_CACHE_SIZE = 16 * 1024 * 1024;
+
+	private static final int SIG_LOCAL_HEADER = 0x04034b50;
+	private static final int SIG_CENTRAL_HEADER = 0x02014b50;
+	private static final int SIG_END_OF_DIRECTORY = 0x06054b50;
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+
+	/** File path. */
+	private String filePath;
+	/** File handle. */
+	private RandomAccessFile file;
+	/** Inflater for deflated entries. */
+	private Inflater inflater;
+	/** Entries by path. */
+	private CaseInsensitiveRadixTrieMap<FileEntry> entryTable;
+	/** Mounted WADs by path. */
+	private Map<String, MountedWad> mounted;
+	/** Inflated data cache, by path. */
+	private LinkedHashMap<String, byte[]> cache;
+	/** Maximum cache size in bytes. */
+	private int cacheSize;
+	/** Current cached bytes. */
+	private int cachedBytes;
+	/** Path of the last inflated file that was too large for the cache. */
+	private String pinnedPath;
+	/** Inflated data of the last inflated file that was too large for the cache. */
+	private byte[] pinnedData;
+	/** All resources, in order, or null if not built yet. */
+	private List<Resource> resources;
+	/** Resources by namespace and name (separated by a slash), or null if not built yet. */
+	private CaseInsensitiveRadixTrieMap<List<Resource>> resourceIndex;
+
+	/**
+	 * Opens a PK3 for reading, with the default cache size.
+	 * @param pk3File the file to open.
+	 * @throws ZipException if this is not a PK3/ZIP archive, or a ZIP64 archive.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public DoomPK3FileSystem(File pk3File) throws IOException
+	{
+		this(pk3File, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Opens a PK3 for reading.
+	 * @param pk3File the file to open.
+	 * @param cacheSize the maximum amount of bytes of inflated data to keep cached.
+	 * @throws ZipException if this is not a PK3/ZIP archive, or a ZIP64 archive.
+	 * @throws IOException if the file cannot be read.
+	 * @throws IllegalArgumentException if cacheSize is negative.
+	 */
+	public DoomPK3FileSystem(File pk3File, int cacheSize) throws IOException
+	{
+		if (cacheSize < 0)
+			throw new IllegalArgumentException("Cache size cannot be negative.");
+		this.filePath = pk3File.getPath();
+		this.file = new RandomAccessFile(pk3File, "r");
+		this.inflater = new Inflater(true);
+		this.entryTable = new CaseInsensitiveRadixTrieMap<>();
+		this.mounted = new HashMap<>();
+		this.cache = new LinkedHashMap<>(16, 0.75f, true);
+		this.cacheSize = cacheSize;
+		this.cachedBytes = 0;
+		this.pinnedPath = null;
+		this.pinnedData = null;
+		this.resources = null;
+		this.resourceIndex = null;
+
+		try {
+			readCentralDirectory();
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	// Reads the central directory.
+	private void readCentralDirectory() throws IOException
+	{
+		long length = file.length();
+		int tailLength = (int)Math.min(length, 22 + 65535);
+		byte[] tail = new byte[tailLength];
+		file.seek(length - tailLength);
+		file.readFully(tail);
+
+		int end = -1;
+		for (int i = tailLength - 22; end < 0 && i >= 0; i--)
+			if (getInt(tail, i) == SIG_END_OF_DIRECTORY)
+				end = i;
+		if (end < 0)
+			throw new ZipException("Not a ZIP archive: " + filePath);
+
+		int count = getShort(tail, end + 10);
+		long directoryLength = getInt(tail, end + 12) & 0xFFFFFFFFL;
+		long directoryOffset = getInt(tail, end + 16) & 0xFFFFFFFFL;
+		if (count == 0xFFFF || directoryLength == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL)
+			throw new ZipException("ZIP64 archives are not supported: " + filePath);
+
+		byte[] directory = new byte[(int)directoryLength];
+		file.seek(directoryOffset);
+		file.readFully(directory);
+
+		int pos = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (pos + 46 > directory.length || getInt(directory, pos) != SIG_CENTRAL_HEADER)
+				throw new ZipException("Bad ZIP central directory: " + filePath);
+			int method = getShort(directory, pos + 10);
+			long compressedSize = getInt(directory, pos + 20) & 0xFFFFFFFFL;
+			long size = getInt(directory, pos + 24) & 0xFFFFFFFFL;
+			int nameLength = getShort(directory, pos + 28);
+			int extraLength = getShort(directory, pos + 30);
+			int commentLength = getShort(directory, pos + 32);
+			long headerOffset = getInt(directory, pos + 42) & 0xFFFFFFFFL;
+			String name = new String(directory, pos + 46, nameLength, StandardCharsets.UTF_8);
+			pos += 46 + nameLength + extraLength + commentLength;
+
+			if (name.endsWith("/"))
+				continue;
+			if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || headerOffset == 0xFFFFFFFFL)
+				throw new ZipException("ZIP64 entries are not supported: " + name);
+			if (size > Integer.MAX_VALUE)
+				throw new ZipException("Entry is too large: " + name);
+			entryTable.put(name, new FileEntry(name, method, (int)compressedSize, (int)size, headerOffset));
+		}
+	}
+
+	/**
+	 * Gets this file's path.
+	 * @return this file's path.
+	 */
+	public final String getFilePath()
+	{
+		return filePath;
+	}
+
+	/**
+	 * @return the amount of files in this PK3 (not including directories).
+	 */
+	public int getFileCount()
+	{
+		return entryTable.size();
+	}
+
+	/**
+	 * Returns all file paths in the PK3 that start with a prefix.
+	 * This is treated case-insensitively.
+	 * @param prefix the start of the path (for example, <code>"maps/"</code>, or <code>""</code> for all).
+	 * @return the list of paths.
+	 */
+	public List<String> getPaths(String prefix)
+	{
+		List<String> out = new ArrayList<>();
+		entryTable.getKeysAfterKey(prefix, out);
+		return out;
+	}
+
+	/**
+	 * Checks if this PK3 contains a file. The path is case-insensitive.
+	 * @param path the file path.
+	 * @return true if so, false if not.
+	 */
+	public boolean contains(String path)
+	{
+		return entryTable.containsKey(path);
+	}
+
+	/**
+	 * Checks if a file in this PK3 is stored without compression (and is thus readable in place).
+	 * @param path the file path (case-insensitive).
+	 * @return true if so, false if not or if the file does not exist.
+	 */
+	public boolean isStored(String path)
+	{
+		FileEntry entry = entryTable.get(path);
+		return entry != null && entry.method == METHOD_STORED;
+	}
+
+	/**
+	 * Gets the uncompressed size of a file in this PK3.
+	 * @param path the file path (case-insensitive).
+	 * @return the size in bytes, or -1 if the file does not exist.
+	 */
+	public int getSize(String path)
+	{
+		FileEntry entry = entryTable.get(path);
+		return entry != null ? entry.size : -1;
+	}
+
+	/**
+	 * Gets the full data of a file in this PK3.
+	 * STORED files are read straight from the PK3 into the returned array.
+	 * @param path the file path (case-insensitive).
+	 * @return a new array containing the data, or null if the file does not exist.
+	 * @throws IOException if the data cannot be read.
+	 */
+	public byte[] getData(String path) throws IOException
+	{
+		FileEntry entry = entryTable.get(path);
+		if (entry == null)
+			return null;
+		byte[] out = new byte[entry.size];
+		readData(entry, 0, out, 0, entry.size);
+		return out;
+	}
+
+	/**
+	 * Gets an input stream for the data of a file in this PK3.
+	 * @param path the file path (case-insensitive).
+	 * @return an input stream, or null if the file does not exist.
+	 * @throws IOException if the data cannot be read.
+	 */
+	public InputStream getInputStream(String path) throws IOException
+	{
+		byte[] data = getData(path);
+		return data != null ? new ByteArrayInputStream(data) : null;
+	}
+
+	/**
+	 * Mounts an embedded WAD file, or returns the already-mounted WAD if it was mounted before.
+	 * Only the WAD's header and entry list are read from a STORED file;
+	 * a DEFLATED file is inflated into the cache.
+	 * @param path the file path (case-insensitive).
+	 * @return a read-only Wad, or null if the file does not exist.
+	 * @throws WadException if the file is not a WAD.
+	 * @throws IOException if the data cannot be read.
+	 */
+	public synchronized Wad mount(String path) throws IOException
+	{
+		FileEntry entry = entryTable.get(path);
+		if (entry == null)
+			return null;
+		MountedWad out;
+		if ((out = mounted.get(entry.path)) == null)
+		{
+			out = new MountedWad(entry);
+			mounted.put(entry.path, out);
+		}
+		return out;
+	}
+
+	/**
+	 * Gets the paths of all files in this PK3 that end in <code>.wad</code>.
+	 * @return the list of paths.
+	 */
+	public List<String> getWadPaths()
+	{
+		List<String> out = new ArrayList<>();
+		for (String path : getPaths(""))
+			if (path.toLowerCase().endsWith(".wad"))
+				out.add(path);
+		return out;
+	}
+
+	/**
+	 * Gets the index of all resources in this PK3 and in all of its embedded WADs, in order
+	 * (each embedded WAD's entries come right after it). Every embedded WAD is mounted
+	 * the first time the index is built.
+	 * @return a new list of the resources.
+	 * @throws IOException if an embedded WAD cannot be read.
+	 */
+	public synchronized List<Resource> getResources() throws IOException
+	{
+		buildResourceIndex();
+		return new ArrayList<>(resources);
+	}
+
+	/**
+	 * Finds all resources in a namespace with a name, in the order given by {@link #getResources()}.
+	 * @param namespace the namespace (for example, <code>"sprites"</code>, <code>"maps"</code>, or <code>""</code>).
+	 * @param name the resource name (case-insensitive).
+	 * @return the list of matching resources.
+	 * @throws IOException if an embedded WAD cannot be read.
+	 */
+	public synchronized List<Resource> findResources(String namespace, String name) throws IOException
+	{
+		buildResourceIndex();
+		List<Resource> found = resourceIndex.get(namespace + "/" + name);
+		return found != null ? new ArrayList<>(found) : new ArrayList<>();
+	}
+
+	// Builds the resource list and its index, if not built.
+	private void buildResourceIndex() throws IOException
+	{
+		if (resources != null)
+			return;
+
+		List<Resource> out = readResources();
+		CaseInsensitiveRadixTrieMap<List<Resource>> index = new CaseInsensitiveRadixTrieMap<>();
+		for (Resource r : out)
+		{
+			String key = r.namespace + "/" + r.name;
+			List<Resource> list;
+			if ((list = index.get(key)) == null)
+				index.put(key, list = new ArrayList<>(1));
+			list.add(r);
+		}
+		resources = Collections.unmodifiableList(out);
+		resourceIndex = index;
+	}
+
+	// Reads all resources.
+	private List<Resource> readResources() throws IOException
+	{
+		List<Resource> out = new ArrayList<>();
+		for (String path : getPaths(""))
+		{
+			int slash = path.indexOf('/');
+			String namespace = slash < 0 ? "" : path.substring(0, slash).toLowerCase();
+			out.add(new Resource(path, namespace, getResourceName(path), null, -1));
+			if (!path.toLowerCase().endsWith(".wad"))
+				continue;
+
+			Wad wad;
+			try {
+				wad = mount(path);
+			} catch (WadException e) {
+				continue; // not actually a WAD.
+			}
+
+			String wadNamespace = "maps".equals(namespace) ? "maps" : "";
+			String currentNamespace = null;
+			String endMarker = null;
+			for (int i = 0; i < wad.getEntryCount(); i++)
+			{
+				String name = wad.getEntry(i).getName();
+				if (currentNamespace == null)
+				{
+					String directory = PK3Utils.getNamespaceDirectory(name);
+					if (directory != null)
+					{
+						currentNamespace = directory.substring(0, directory.length() - 1);
+						endMarker = name.substring(0, name.length() - "_START".length()) + "_END";
+						continue;
+					}
+				}
+				else if (name.equals(endMarker))
+				{
+					currentNamespace = null;
+					continue;
+				}
+				out.add(new Resource(path + "/" + name, currentNamespace != null ? currentNamespace : wadNamespace, name, path, i));
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Gets the data for a resource.
+	 * @param resource the resource.
+	 * @return the data.
+	 * @throws IOException if the data cannot be read.
+	 */
+	public byte[] getData(Resource resource) throws IOException
+	{
+		if (resource.container == null)
+			return getData(resource.path);
+		Wad wad = mount(resource.container);
+		return wad.getData(resource.index);
+	}
+
+	/**
+	 * Clears the cache of inflated data.
+	 */
+	public synchronized void clearCache()
+	{
+		cache.clear();
+		cachedBytes = 0;
+		pinnedPath = null;
+		pinnedData = null;
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		clearCache();
+		mounted.clear();
+		resources = null;
+		resourceIndex = null;
+		inflater.end();
+		file.close();
+	}
+
+	// Gets the name of a resource from a path (file name, no extension, upper case).
+	private static String getResourceName(String path)
+	{
+		int slash = path.lastIndexOf('/') + 1;
+		int dot = path.lastIndexOf('.');
+		return (dot > slash ? path.substring(slash, dot) : path.substring(slash)).toUpperCase();
+	}
+
+	// Reads part of a file's data.
+	private synchronized void readData(FileEntry entry, int offset, byte[] dest, int destOffset, int length) throws IOException
+	{
+		if (offset < 0 || length < 0 || offset + length > entry.size)
+			throw new IndexOutOfBoundsException("Read is outside of the data of " + entry.path);
+		if (entry.method == METHOD_STORED)
+		{
+			file.seek(getDataOffset(entry) + offset);
+			file.readFully(dest, destOffset, length);
+		}
+		else
+		{
+			System.arraycopy(getInflatedData(entry), offset, dest, destOffset, length);
+		}
+	}
+
+	// Gets the offset to an entry's data in the file (after the local header).
+	private long getDataOffset(FileEntry entry) throws IOException
+	{
+		if (entry.dataOffset < 0)
+		{
+			byte[] header = new byte[30];
+			file.seek(entry.headerOffset);
+			file.readFully(header);
+			if (getInt(header, 0) != SIG_LOCAL_HEADER)
+				throw new ZipException("Bad local header for " + entry.path);
+			entry.dataOffset = entry.headerOffset + 30 + getShort(header, 26) + getShort(header, 28);
+		}
+		return entry.dataOffset;
+	}
+
+	// Gets the inflated data for a deflated entry, from the cache if present. Returned array must not be modified.
+	private byte[] getInflatedData(FileEntry entry) throws IOException
+	{
+		byte[] out;
+		if ((out = cache.get(entry.path)) != null)
+			return out;
+		if (entry.path.equals(pinnedPath))
+			return pinnedData;
+
+		if (entry.method != METHOD_DEFLATED)
+			throw new ZipException("Unsupported compression method " + entry.method + " for " + entry.path);
+
+		byte[] compressed = new byte[entry.compressedSize];
+		file.seek(getDataOffset(entry));
+		file.readFully(compressed);
+
+		out = new byte[entry.size];
+		inflater.reset();
+		inflater.setInput(compressed);
+		try {
+			int len = 0;
+			while (len < out.length && !inflater.finished())
+			{
+				int amount = inflater.inflate(out, len, out.length - len);
+				if (amount == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					break;
+				len += amount;
+			}
+			if (len != out.length)
+				throw new ZipException("Compressed data is truncated for " + entry.path);
+		} catch (DataFormatException e) {
+			throw new ZipException("Compressed data is corrupt for " + entry.path + ": " + e.getMessage());
+		}
+
+		if (out.length <= cacheSize)
+		{
+			cache.put(entry.path, out);
+			cachedBytes += out.length;
+			Iterator<byte[]> it = cache.values().iterator();
+			while (cachedBytes > cacheSize && it.hasNext())
+			{
+				cachedBytes -= it.next().length;
+				it.remove();
+			}
+		}
+		else
+		{
+			pinnedPath = entry.path;
+			pinnedData = out;
+		}
+		return out;
+	}
+
+	private static int getShort(byte[] b, int offset)
+	{
+		return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8);
+	}
+
+	private static int getInt(byte[] b, int offset)
+	{
+		return SerializerUtils.bytesToInt(b, offset, SerializerUtils.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * A single resource in the unified index.
+	 */
+	public static final class Resource
+	{
+		private String path;
+		private String namespace;
+		private String name;
+		private String container;
+		private int index;
+
+		private Resource(String path, String namespace, String name, String container, int index)
+		{
+			this.path = path;
+			this.namespace = namespace;
+			this.name = name;
+			this.container = container;
+			this.index = index;
+		}
+
+		/**
+		 * Gets the full path of this resource.
+		 * For entries in embedded WADs, this is the WAD's path, plus <code>"/"</code>, plus the entry name.
+		 * @return the path.
+		 */
+		public String getPath()
+		{
+			return path;
+		}
+
+		/**
+		 * @return the namespace of this resource.
+		 */
+		public String getNamespace()
+		{
+			return namespace;
+		}
+
+		/**
+		 * @return the name of this resource: the file name without extension in upper case, or the WAD entry name.
+		 */
+		public String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * @return the path of the embedded WAD that contains this resource, or null if this is a file in the PK3.
+		 */
+		public String getContainer()
+		{
+			return container;
+		}
+
+		/**
+		 * @return the entry index of this resource in its embedded WAD, or -1 if this is a file in the PK3.
+		 */
+		public int getIndex()
+		{
+			return index;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "Resource [" + namespace + "] " + path;
+		}
+	}
+
+	/**
+	 * A file entry from the central directory.
+	 */
+	private static class FileEntry
+	{
+		private String path;
+		private int method;
+		private int compressedSize;
+		private int size;
+		private long headerOffset;
+		private long dataOffset;
+
+		private FileEntry(String path, int method, int compressedSize, int size, long headerOffset)
+		{
+			this.path = path;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.headerOffset = headerOffset;
+			this.dataOffset = -1L;
+		}
+	}
+
+	/**
+	 * A read-only WAD view over an embedded WAD file.
+	 */
+	private class MountedWad implements Wad
+	{
+		private FileEntry source;
+		private Type type;
+		private List<WadEntry> entries;
+		private int contentLength;
+
+		private MountedWad(FileEntry source) throws IOException
+		{
+			this.source = source;
+			if (source.size < 12)
+				throw new WadException(source.path + " is not a WAD file.");
+
+			byte[] header = new byte[12];
+			readData(source, 0, header, 0, 12);
+			String typeName = new String(header, 0, 4, TextUtils.ASCII);
+			if ("IWAD".equals(typeName))
+				this.type = Type.IWAD;
+			else if ("PWAD".equals(typeName))
+				this.type = Type.PWAD;
+			else
+				throw new WadException(source.path + " is not a WAD file.");
+
+			int entryCount = getInt(header, 4);
+			int entryListOffset = getInt(header, 8);
+			if (entryCount < 0 || entryListOffset < 12 || (long)entryListOffset + entryCount * 16L > source.size)
+				throw new WadException(source.path + " has a bad entry list.");
+
+			byte[] list = new byte[entryCount * 16];
+			readData(source, entryListOffset, list, 0, list.length);
+			List<WadEntry> entryList = new ArrayList<>(entryCount);
+			byte[] entryBytes = new byte[16];
+			for (int i = 0; i < entryCount; i++)
+			{
+				System.arraycopy(list, i * 16, entryBytes, 0, 16);
+				entryList.add(WadEntry.create(entryBytes));
+			}
+			this.entries = Collections.unmodifiableList(entryList);
+			this.contentLength = entryListOffset - 12;
+		}
+
+		@Override
+		public boolean isIWAD()
+		{
+			return type == Type.IWAD;
+		}
+
+		@Override
+		public boolean isPWAD()
+		{
+			return type == Type.PWAD;
+		}
+
+		@Override
+		public int getEntryCount()
+		{
+			return entries.size();
+		}
+
+		@Override
+		public int getContentLength()
+		{
+			return contentLength;
+		}
+
+		@Override
+		public WadEntry getEntry(int n)
+		{
+			return entries.get(n);
+		}
+
+		@Override
+		public void fetchContent(int offset, int length, byte[] dest, int destOffset) throws IOException
+		{
+			if (destOffset + length > dest.length)
+				throw new IndexOutOfBoundsException("length + destination offset exceeds dest length");
+			readData(source, offset, dest, destOffset, length);
+		}
+
+		@Override
+		public Iterator<WadEntry> iterator()
+		{
+			return entries.iterator();
+		}
+
+		@Override
+		public WadEntry addEntryAt(int index, WadEntry entry) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support addEntryAt()");
+		}
+
+		@Override
+		public WadEntry addDataAt(int index, String entryName, InputStream in, int maxLength) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support addDataAt()");
+		}
+
+		@Override
+		public void replaceEntry(int index, byte[] data) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support replaceEntry()");
+		}
+
+		@Override
+		public void renameEntry(int index, String newName) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support renameEntry()");
+		}
+
+		@Override
+		public WadEntry removeEntry(int index) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support removeEntry()");
+		}
+
+		@Override
+		public WadEntry deleteEntry(int index) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support deleteEntry()");
+		}
+
+		@Override
+		public void unmapEntries(int startIndex, WadEntry... entryList) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support unmapEntries()");
+		}
+
+		@Override
+		public void setEntries(WadEntry... entryList) throws IOException
+		{
+			throw new UnsupportedOperationException("Mounted WADs do not support setEntries()");
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			// Nothing to close: the filesystem owns the file handle.
+		}
+
+	}
+
+}
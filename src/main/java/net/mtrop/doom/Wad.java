@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.stream.Stream;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.object.BinaryObject.Scanner;
@@ -1157,6 +1158,109 @@ public interface Wad extends Iterable<WadEntry>
 		return Arrays.asList(BinaryObject.create(type, data, data.length / objectLength));
 	}
 
+	/**
+	 * Retrieves the data of an entry at a particular index as a stream of deserialized objects.
+	 * <p>The entry's data is read once, and objects are deserialized lazily as the stream is consumed.
+	 * The stream is sized and splittable, so calling <code>parallel()</code> on it deserializes on several threads.
+	 * @param <BO> the result type.
+	 * @param n the index of the entry in the Wad.
+	 * @param type the class type to deserialize into.
+	 * @param objectLength the length of each individual object in bytes.
+	 * @return a sequential stream of the deserialized objects.
+	 * @throws IOException if the data couldn't be retrieved.
+	 * @throws ArrayIndexOutOfBoundsException if n &lt; 0 or &gt;= size.
+	 * @see BinaryObject#stream(Class, byte[], int)
+	 * @since 2.23.0
+	 */
+	default <BO extends BinaryObject> Stream<BO> streamDataAs(int n, Class<BO> type, int objectLength) throws IOException
+	{
+		return BinaryObject.stream(type, getData(n), objectLength);
+	}
+
+	/**
+	 * Retrieves the data of the first occurrence of a particular entry as a stream of deserialized objects.
+	 * <p>The entry's data is read once, and objects are deserialized lazily as the stream is consumed.
+	 * The stream is sized and splittable, so calling <code>parallel()</code> on it deserializes on several threads.
+	 * <p>The name is case-insensitive.
+	 * @param <BO> the result type.
+	 * @param entryName the name of the entry to find.
+	 * @param type the class type to deserialize into.
+	 * @param objectLength the length of each individual object in bytes.
+	 * @return a sequential stream of the deserialized objects, or null if the entry doesn't exist.
+	 * @throws IOException if the data couldn't be retrieved or the entry's offsets breach the file extents.
+	 * @throws NullPointerException if <code>entryName</code> is <code>null</code>.
+	 * @see BinaryObject#stream(Class, byte[], int)
+	 * @since 2.23.0
+	 */
+	default <BO extends BinaryObject> Stream<BO> streamDataAs(String entryName, Class<BO> type, int objectLength) throws IOException
+	{
+		byte[] data = getData(entryName);
+		return data != null ? BinaryObject.stream(type, data, objectLength) : null;
+	}
+
+	/**
+	 * Retrieves the data of the first occurrence of a particular entry from a starting index as a stream of deserialized objects.
+	 * <p>The entry's data is read once, and objects are deserialized lazily as the stream is consumed.
+	 * The stream is sized and splittable, so calling <code>parallel()</code> on it deserializes on several threads.
+	 * <p>The name is case-insensitive.
+	 * @param <BO> the result type.
+	 * @param entryName the name of the entry to find.
+	 * @param start the index with which to start the search.
+	 * @param type the class type to deserialize into.
+	 * @param objectLength the length of each individual object in bytes.
+	 * @return a sequential stream of the deserialized objects, or null if the entry doesn't exist.
+	 * @throws IOException if the data couldn't be retrieved or the entry's offsets breach the file extents.
+	 * @throws NullPointerException if <code>entryName</code> is <code>null</code>.
+	 * @see BinaryObject#stream(Class, byte[], int)
+	 * @since 2.23.0
+	 */
+	default <BO extends BinaryObject> Stream<BO> streamDataAs(String entryName, int start, Class<BO> type, int objectLength) throws IOException
+	{
+		byte[] data = getData(entryName, start);
+		return data != null ? BinaryObject.stream(type, data, objectLength) : null;
+	}
+
+	/**
+	 * Retrieves the data of the first occurrence of a particular entry from a starting entry (by name) as a stream of deserialized objects.
+	 * <p>The entry's data is read once, and objects are deserialized lazily as the stream is consumed.
+	 * The stream is sized and splittable, so calling <code>parallel()</code> on it deserializes on several threads.
+	 * <p>The names are case-insensitive.
+	 * @param <BO> the result type.
+	 * @param entryName the name of the entry to find.
+	 * @param startEntryName the starting entry (by name) with which to start the search.
+	 * @param type the class type to deserialize into.
+	 * @param objectLength the length of each individual object in bytes.
+	 * @return a sequential stream of the deserialized objects, or null if the entry doesn't exist.
+	 * @throws IOException if the data couldn't be retrieved or the entry's offsets breach the file extents.
+	 * @throws NullPointerException if <code>entryName</code> is <code>null</code>.
+	 * @see BinaryObject#stream(Class, byte[], int)
+	 * @since 2.23.0
+	 */
+	default <BO extends BinaryObject> Stream<BO> streamDataAs(String entryName, String startEntryName, Class<BO> type, int objectLength) throws IOException
+	{
+		byte[] data = getData(entryName, startEntryName);
+		return data != null ? BinaryObject.stream(type, data, objectLength) : null;
+	}
+
+	/**
+	 * Retrieves the data of the specified entry as a stream of deserialized objects.
+	 * <p>The entry's data is read once, and objects are deserialized lazily as the stream is consumed.
+	 * The stream is sized and splittable, so calling <code>parallel()</code> on it deserializes on several threads.
+	 * @param <BO> the result type.
+	 * @param entry the entry to use.
+	 * @param type the class type to deserialize into.
+	 * @param objectLength the length of each individual object in bytes.
+	 * @return a sequential stream of the deserialized objects.
+	 * @throws IOException if the data couldn't be retrieved or the entry's offsets breach the file extents.
+	 * @throws NullPointerException if <code>entry</code> is <code>null</code>.
+	 * @see BinaryObject#stream(Class, byte[], int)
+	 * @since 2.23.0
+	 */
+	default <BO extends BinaryObject> Stream<BO> streamDataAs(WadEntry entry, Class<BO> type, int objectLength) throws IOException
+	{
+		return BinaryObject.stream(type, getData(entry), objectLength);
+	}
+
 	/**
 	 * Retrieves the data of a particular entry at a specific index and returns it as 
 	 * a deserializing scanner iterator that returns independent instances of objects.
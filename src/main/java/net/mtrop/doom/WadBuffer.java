@@ -7,6 +7,8 @@
  ******************************************************************************/
 package net.mtrop.doom;
 
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -238,14 +240,17 @@ public class WadBuffer implements Wad
 		while (bytes < contentsize)
 		{
 			n = sr.readBytes(in, buffer, Math.min(contentsize - bytes, buffer.length));
+			if (n < 0)
+				throw new EOFException("Unexpected end of WAD content.");
 			content.append(buffer, 0, n);
 			bytes += n;
 		}
 		
+		DataInputStream din = new DataInputStream(in);
 		byte[] entrybuffer = new byte[16];
 		for (int x = 0; x < entryCount; x++)
 		{
-			sr.readBytes(in, entrybuffer);
+			din.readFully(entrybuffer);
 			WadEntry entry = WadEntry.create(entrybuffer);
 			entries.add(entry);
 		}
@@ -18,8 +18,15 @@ import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import net.mtrop.doom.exception.WadException;
 import net.mtrop.doom.object.BinaryObject;
@@ -28,6 +35,7 @@ import net.mtrop.doom.struct.io.SerialWriter;
 import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.NameUtils;
 import net.mtrop.doom.util.TextUtils;
+import net.mtrop.doom.util.WadUtils;
 
 /**
  * The class that reads WadFile information and provides random access to Wad files.
@@ -72,6 +80,11 @@ public class WadFile implements Wad, AutoCloseable
 	/** Flush on close switch. */
 	private boolean flushOnClose;
 	
+	/** File length at last read or write. */
+	private long stampLength;
+	/** File modified time at last read or write. */
+	private long stampModified;
+	
 	/**
 	 * Opens a WadFile from a file specified by "path."
 	 * The file will be opened in a mode appropriate for file permission capabilities. 
@@ -144,6 +157,18 @@ public class WadFile implements Wad, AutoCloseable
 		this.writeEnabled = readOnly == null ? f.canWrite() : !readOnly;
 		
 		this.file = new RandomAccessFile(f, writeEnabled ? "rws" : "r");
+		this.fileName = f.getName();
+		this.filePath = f.getPath();
+		this.fileAbsolutePath = f.getAbsolutePath();
+		this.entries = readEntryList();
+	}
+
+	/**
+	 * Reads the header and entry list from the open file, setting the type and entry list offset.
+	 * @return the list of entries read.
+	 */
+	private List<WadEntry> readEntryList() throws IOException
+	{
 		byte[] buffer = new byte[4];
 
 		// read header
@@ -159,17 +184,13 @@ public class WadFile implements Wad, AutoCloseable
 		if (head.equals(Type.PWAD.toString()))
 			type = Type.PWAD;
 		
-		this.fileName = f.getName();
-		this.filePath = f.getPath();
-		this.fileAbsolutePath = f.getAbsolutePath();
-		
 		file.read(buffer);
 		int size = SerializerUtils.bytesToInt(buffer, 0, SerializerUtils.LITTLE_ENDIAN);
 
 		file.read(buffer);
 		entryListOffset = SerializerUtils.bytesToInt(buffer, 0, SerializerUtils.LITTLE_ENDIAN);
 		
-		this.entries = new ArrayList<WadEntry>((size + 1) * 2);
+		List<WadEntry> out = new ArrayList<WadEntry>((size + 1) * 2);
 		
 		// seek to entry list.
 		file.seek(entryListOffset);
@@ -181,8 +202,83 @@ public class WadFile implements Wad, AutoCloseable
 			file.read(entrybytes);
 			WadEntry entry = WadEntry.create(entrybytes);
 			if (entry.getName().length() > 0 || entry.getSize() > 0)
-				entries.add(entry);
+				out.add(entry);
+		}
+		
+		updateFileStamp();
+		return out;
+	}
+
+	/**
+	 * Records the current length and modified time of the file, 
+	 * so that external changes can be detected by {@link #isChangedOnDisk()}.
+	 */
+	private void updateFileStamp() throws IOException
+	{
+		stampLength = file.length();
+		stampModified = new File(fileAbsolutePath).lastModified();
+	}
+
+	/**
+	 * Checks if the underlying file was changed by something other than this WadFile since it was opened
+	 * or since the last reload, by polling its length and last-modified time.
+	 * <p>Note that the precision of the last-modified time depends on the filesystem, so a same-length change
+	 * made very quickly after a previous one may not be detected this way - {@link #reloadEntries()} always re-reads the entry list.
+	 * @return true if the file length or last-modified time differ from the last known values, false otherwise.
+	 * @throws IOException if the file length could not be read.
+	 * @since 2.23.0
+	 */
+	public boolean isChangedOnDisk() throws IOException
+	{
+		File f = new File(fileAbsolutePath);
+		return !f.exists() || f.length() != stampLength || f.lastModified() != stampModified;
+	}
+
+	/**
+	 * Re-reads only the header and entry list of this WadFile from disk (re-opening the file handle in the same mode,
+	 * in case the file was replaced), and compares the new entry list to the previous one.
+	 * The returned {@link EntryListChanges} describe which entries stayed the same, so that derived caches or indices
+	 * need only be invalidated for entries whose name, offset, or size changed.
+	 * <p><b>NOTE: Unflushed changes made via {@link Adder} that were not yet committed are discarded.</b>
+	 * @return the differences between the previous and current entry lists.
+	 * @throws IOException if the file can't be re-opened or read.
+	 * @throws WadException if the file is no longer a Wad file.
+	 * @since 2.23.0
+	 */
+	public EntryListChanges reloadEntries() throws IOException
+	{
+		Type previousType = type;
+		int previousEntryListOffset = entryListOffset;
+		List<WadEntry> previous = entries;
+		
+		RandomAccessFile oldFile = file;
+		try {
+			file = new RandomAccessFile(new File(fileAbsolutePath), writeEnabled ? "rws" : "r");
+			entries = readEntryList();
+			oldFile.close();
+		} catch (IOException e) {
+			if (file != oldFile)
+				file.close();
+			file = oldFile;
+			type = previousType;
+			entryListOffset = previousEntryListOffset;
+			throw e;
 		}
+		flushOnClose = false;
+		
+		return new EntryListChanges(previousType != type, previous, entries);
+	}
+
+	/**
+	 * Calls {@link #reloadEntries()} if {@link #isChangedOnDisk()} returns true.
+	 * @return the differences between the previous and current entry lists, or null if no change was detected.
+	 * @throws IOException if the file can't be re-opened or read.
+	 * @throws WadException if the file is no longer a Wad file.
+	 * @since 2.23.0
+	 */
+	public EntryListChanges reloadEntriesIfChanged() throws IOException
+	{
+		return isChangedOnDisk() ? reloadEntries() : null;
 	}
 
 	/**
@@ -256,6 +352,57 @@ public class WadFile implements Wad, AutoCloseable
 		return out;
 	}
 
+	/**
+	 * Creates a new WadFile from a subset of entries (and their data) from another Wad,
+	 * optionally rearranging the content for read locality and aligning it.
+	 * <p>The entry list in the new WadFile is in the same order as the provided entries - only the 
+	 * placement of each entry's content in the file is affected.
+	 * <p><b>NOTE: This will overwrite the destination file, if it exists!</b>
+	 * @param targetFile the file to create.
+	 * @param source the the source Wad.
+	 * @param optimizeLayout if true, the content is written in the order returned by {@link WadUtils#getLayoutOrder(WadEntry...)}.
+	 * 		If false, the content is written in entry order.
+	 * @param alignment the byte alignment of the start of each non-empty entry's content, or 1 or less for no alignment.
+	 * 		Empty entries (like markers) are not aligned, and alignment padding is filled with zeroes.
+	 * @param entries the entries to copy over.
+	 * @return a new WadFile that only contains the desired entries, plus their data.
+	 * @throws IOException if an error occurs on read from the source Wad.
+	 * @since 2.23.0
+	 */
+	public static WadFile extract(File targetFile, Wad source, boolean optimizeLayout, int alignment, WadEntry ... entries) throws IOException
+	{
+		int[] order = optimizeLayout ? WadUtils.getLayoutOrder(entries) : null;
+		byte[] padding = alignment > 1 ? new byte[Math.min(alignment, 65536)] : null;
+		WadEntry[] outEntries = new WadEntry[entries.length];
+		
+		WadFile out = WadFile.createWadFile(targetFile);
+		out.file.seek(out.entryListOffset);
+		for (int n = 0; n < entries.length; n++)
+		{
+			int i = order != null ? order[n] : n;
+			WadEntry entry = entries[i];
+			
+			if (padding != null && entry.getSize() > 0)
+			{
+				int amount = (alignment - (out.entryListOffset % alignment)) % alignment;
+				out.entryListOffset += amount;
+				while (amount > 0)
+				{
+					int len = Math.min(amount, padding.length);
+					out.file.write(padding, 0, len);
+					amount -= len;
+				}
+			}
+			
+			byte[] data = source.getData(entry);
+			out.file.write(data);
+			outEntries[i] = WadEntry.create(entry.getName(), out.entryListOffset, data.length);
+			out.entryListOffset += data.length;
+		}
+		out.setEntries(outEntries);
+		return out;
+	}
+
 	private void writeHeader() throws IOException
 	{
 		file.seek(0);
@@ -285,6 +432,7 @@ public class WadFile implements Wad, AutoCloseable
 		writeHeader();
 		writeEntryList();
 		flushOnClose = false;
+		updateFileStamp();
 	}
 
 	/**
@@ -296,6 +444,7 @@ public class WadFile implements Wad, AutoCloseable
 	{
 		this.type = type;
 		writeHeader();
+		updateFileStamp();
 	}
 
 	/**
@@ -445,6 +594,7 @@ public class WadFile implements Wad, AutoCloseable
 		// update in file.
 		file.seek(entryListOffset + (16 * index) + 8);
 		file.write(entry.getNameBytes());
+		updateFileStamp();
 	}
 
 	@Override
@@ -464,6 +614,7 @@ public class WadFile implements Wad, AutoCloseable
 		{
 			file.seek(entry.getOffset());
 			file.write(data);
+			updateFileStamp();
 		}
 	}
 
@@ -548,6 +699,8 @@ public class WadFile implements Wad, AutoCloseable
 		
 		if (!noFlush)
 			flushEntries();
+		else
+			updateFileStamp();
 		return entry;
 	}
 
@@ -627,6 +780,129 @@ public class WadFile implements Wad, AutoCloseable
 		return total;
 	}
 
+	/**
+	 * The differences between two entry lists of the same WadFile, before and after a reload.
+	 * Entries are considered the same if their name, offset, and size are all the same.
+	 * @since 2.23.0
+	 * @see WadFile#reloadEntries()
+	 */
+	public static class EntryListChanges
+	{
+		private boolean typeChanged;
+		private int[] previousIndices;
+		private List<WadEntry> addedEntries;
+		private List<WadEntry> removedEntries;
+		private Set<String> changedNames;
+		
+		private EntryListChanges(boolean typeChanged, List<WadEntry> previous, List<WadEntry> current)
+		{
+			this.typeChanged = typeChanged;
+			this.previousIndices = new int[current.size()];
+			this.addedEntries = new ArrayList<>();
+			this.removedEntries = new ArrayList<>();
+			this.changedNames = new TreeSet<>();
+			
+			Map<String, Deque<Integer>> previousMap = new HashMap<>(previous.size() * 2);
+			for (int i = 0; i < previous.size(); i++)
+				previousMap.computeIfAbsent(getKey(previous.get(i)), (k) -> new LinkedList<>()).add(i);
+
+			boolean[] matched = new boolean[previous.size()];
+			for (int i = 0; i < current.size(); i++)
+			{
+				WadEntry entry = current.get(i);
+				Deque<Integer> candidates = previousMap.get(getKey(entry));
+				if (candidates != null && !candidates.isEmpty())
+				{
+					int p = candidates.pollFirst();
+					previousIndices[i] = p;
+					matched[p] = true;
+				}
+				else
+				{
+					previousIndices[i] = -1;
+					addedEntries.add(entry);
+					changedNames.add(entry.getName());
+				}
+			}
+			
+			for (int i = 0; i < previous.size(); i++)
+			{
+				if (!matched[i])
+				{
+					removedEntries.add(previous.get(i));
+					changedNames.add(previous.get(i).getName());
+				}
+			}
+		}
+		
+		private static String getKey(WadEntry entry)
+		{
+			return entry.getName() + '/' + entry.getOffset() + '/' + entry.getSize();
+		}
+		
+		/**
+		 * @return true if anything changed (type or any entries), false if not.
+		 */
+		public boolean hasChanges()
+		{
+			return typeChanged || !addedEntries.isEmpty() || !removedEntries.isEmpty() || !isSameOrder();
+		}
+		
+		private boolean isSameOrder()
+		{
+			for (int i = 0; i < previousIndices.length; i++)
+				if (previousIndices[i] != i)
+					return false;
+			return true;
+		}
+		
+		/**
+		 * @return true if the WAD type (IWAD/PWAD) changed, false if not.
+		 */
+		public boolean isTypeChanged()
+		{
+			return typeChanged;
+		}
+		
+		/**
+		 * Gets the index that an entry at an index in the current list was at in the previous list.
+		 * @param index the index in the current entry list.
+		 * @return the index in the previous list of the same entry, or -1 if the entry is new or changed.
+		 * @throws ArrayIndexOutOfBoundsException if index is &lt; 0 or &gt;= the current entry count.
+		 */
+		public int getPreviousIndex(int index)
+		{
+			return previousIndices[index];
+		}
+		
+		/**
+		 * @return the entries in the current list that are not in the previous list, in current list order.
+		 */
+		public List<WadEntry> getAddedEntries()
+		{
+			return Collections.unmodifiableList(addedEntries);
+		}
+		
+		/**
+		 * @return the entries in the previous list that are not in the current list, in previous list order.
+		 */
+		public List<WadEntry> getRemovedEntries()
+		{
+			return Collections.unmodifiableList(removedEntries);
+		}
+		
+		/**
+		 * Gets the names of every entry that was added, removed, or changed (by name, offset, or size).
+		 * Caches keyed by entry name need only invalidate these names.
+		 * @return the set of names, sorted.
+		 */
+		public Set<String> getChangedNames()
+		{
+			return Collections.unmodifiableSet(changedNames);
+		}
+		
+	}
+	
 	/**
 	 * Bulk add mechanism for WadFile.
 	 * All methods on this object manipulate the WadFile it is created from, and
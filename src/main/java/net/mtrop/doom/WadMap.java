@@ -7,6 +7,7 @@
  ******************************************************************************/
 package net.mtrop.doom;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -114,12 +115,23 @@ public class WadMap implements Wad
 		contentLength = sr.readInt(in) - 12;
 		
 		// skip content.
-		in.skip(contentLength);
+		DataInputStream din = new DataInputStream(in);
+		long skip = contentLength;
+		while (skip > 0)
+		{
+			long skipped = din.skip(skip);
+			if (skipped <= 0)
+			{
+				din.readByte();
+				skipped = 1;
+			}
+			skip -= skipped;
+		}
 		
 		byte[] entrybuffer = new byte[16];
 		for (int x = 0; x < entryCount; x++)
 		{
-			sr.readBytes(in, entrybuffer);
+			din.readFully(entrybuffer);
 			WadEntry entry = WadEntry.create(entrybuffer);
 			entries.add(entry);
 		}
@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.bsp;
+
+import java.util.stream.IntStream;
+
+import net.mtrop.doom.bsp.data.BSPNode;
+import net.mtrop.doom.bsp.data.BSPSegment;
+import net.mtrop.doom.bsp.data.BSPSubsector;
+import net.mtrop.doom.map.CompactDoomMap;
+import net.mtrop.doom.map.HexenMap;
+import net.mtrop.doom.map.MapGeometryReader;
+import net.mtrop.doom.map.MapView;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+
+/**
+ * Finds the subsector (and sector) that contains a point by walking a {@link BSPTree}'s nodes from the root.
+ * <p>The nodes are copied into primitive arrays on creation, and each subsector's sector is found from its first segment's
+ * linedef side, like the Doom engine does. Side tests use exact integer math on 16.16 fixed-point coordinates, and put
+ * points on a partition line on the same side that the Doom engine does.
+ * <p>A locator does not change after creation, so it is safe to query from several threads at once.
+ * Changes to the tree or map after creation are not reflected.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class BSPPointLocator
+{
+	/** Fixed-point fraction bits. */
+	private static final int FRACBITS = 16;
+
+	/** Partition line start X, per node. */
+	private int[] nodeX;
+	/** Partition line start Y, per node. */
+	private int[] nodeY;
+	/** Partition line delta X, per node. */
+	private int[] nodeDeltaX;
+	/** Partition line delta Y, per node. */
+	private int[] nodeDeltaY;
+	/** Right and left child index, per node (two per node). */
+	private int[] nodeChildren;
+	/** Sector index, per subsector (-1 if unknown). */
+	private int[] subsectorSector;
+
+	private BSPPointLocator(int nodeCount, int subsectorCount)
+	{
+		this.nodeX = new int[nodeCount];
+		this.nodeY = new int[nodeCount];
+		this.nodeDeltaX = new int[nodeCount];
+		this.nodeDeltaY = new int[nodeCount];
+		this.nodeChildren = new int[nodeCount * 2];
+		this.subsectorSector = new int[subsectorCount];
+	}
+
+	/**
+	 * Creates a point locator for a tree and its Doom-format map (or any view of Doom-format objects, like a {@link CompactDoomMap}).
+	 * @param tree the BSP tree.
+	 * @param map the map that the tree was built for.
+	 * @return a new locator.
+	 */
+	public static BSPPointLocator create(BSPTree tree, MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ?, ? extends DoomThing> map)
+	{
+		return create(tree, map, MapGeometryReader.DOOM);
+	}
+
+	/**
+	 * Creates a point locator for a tree and its Hexen-format map.
+	 * @param tree the BSP tree.
+	 * @param map the map that the tree was built for.
+	 * @return a new locator.
+	 */
+	public static BSPPointLocator create(BSPTree tree, HexenMap map)
+	{
+		return create(tree, map, MapGeometryReader.HEXEN);
+	}
+
+	/**
+	 * Creates a point locator for a tree and any map view, reading the map with a {@link MapGeometryReader}.
+	 * Only the map's linedefs and sidedefs are read (to find each subsector's sector), and they are not kept.
+	 * Subsectors whose sector cannot be found (bad segment, linedef, or sidedef references) have sector index -1.
+	 * @param <L> the linedef type.
+	 * @param <S> the sidedef type.
+	 * @param tree the BSP tree.
+	 * @param map the map that the tree was built for.
+	 * @param reader the reader for reading the geometry from the map's objects.
+	 * @return a new locator.
+	 */
+	public static <L, S> BSPPointLocator create(BSPTree tree, MapView<?, L, S, ?, ?> map, MapGeometryReader<?, ? super L, ? super S, ?> reader)
+	{
+		BSPPointLocator out = new BSPPointLocator(tree.getNodeCount(), tree.getSubsectorCount());
+		for (int i = 0; i < tree.getNodeCount(); i++)
+		{
+			BSPNode node = tree.getNode(i);
+			out.nodeX[i] = node.getPartitionLineX();
+			out.nodeY[i] = node.getPartitionLineY();
+			out.nodeDeltaX[i] = node.getPartitionDeltaX();
+			out.nodeDeltaY[i] = node.getPartitionDeltaY();
+			out.nodeChildren[i * 2] = node.getRightSubsectorIndex();
+			out.nodeChildren[i * 2 + 1] = node.getLeftSubsectorIndex();
+		}
+
+		int linedefCount = map.getLinedefCount();
+		int sidedefCount = map.getSidedefCount();
+		for (int i = 0; i < tree.getSubsectorCount(); i++)
+		{
+			out.subsectorSector[i] = -1;
+			BSPSubsector subsector = tree.getSubsector(i);
+			int segIndex = subsector.getSegStartIndex();
+			if (subsector.getSegCount() == 0 || segIndex < 0 || segIndex >= tree.getSegmentCount())
+				continue;
+			BSPSegment seg = tree.getSegment(segIndex);
+			if (seg.getLinedefIndex() < 0 || seg.getLinedefIndex() >= linedefCount)
+				continue;
+			L linedef = map.getLinedef(seg.getLinedefIndex());
+			int sidedef = seg.getDirection() == BSPSegment.DIRECTION_SAME_AS_LINEDEF 
+				? reader.getLinedefSidedefFront(linedef) 
+				: reader.getLinedefSidedefBack(linedef);
+			if (sidedef >= 0 && sidedef < sidedefCount)
+				out.subsectorSector[i] = reader.getSidedefSector(map.getSidedef(sidedef));
+		}
+		return out;
+	}
+
+	/**
+	 * @return the amount of nodes in the tree.
+	 */
+	public int getNodeCount()
+	{
+		return nodeX.length;
+	}
+
+	/**
+	 * @return the amount of subsectors in the tree.
+	 */
+	public int getSubsectorCount()
+	{
+		return subsectorSector.length;
+	}
+
+	/**
+	 * Gets the sector index of a subsector.
+	 * @param subsectorIndex the subsector index.
+	 * @return the sector index, or -1 if it could not be found when this locator was created.
+	 * @throws ArrayIndexOutOfBoundsException if the subsector index is out of range.
+	 */
+	public int getSubsectorSectorIndex(int subsectorIndex)
+	{
+		return subsectorSector[subsectorIndex];
+	}
+
+	/**
+	 * Gets the subsector that contains a point.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the subsector index, or -1 if the tree has no subsectors or is malformed (bad child references or cycles).
+	 */
+	public int getSubsectorIndex(int x, int y)
+	{
+		return locate((long)x << FRACBITS, (long)y << FRACBITS);
+	}
+
+	/**
+	 * Gets the subsector that contains a point.
+	 * The coordinates are converted to 16.16 fixed-point first (rounding down), as the Doom engine stores them.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the subsector index, or -1 if the tree has no subsectors or is malformed (bad child references or cycles).
+	 */
+	public int getSubsectorIndex(double x, double y)
+	{
+		return locate(toFixed(x), toFixed(y));
+	}
+
+	/**
+	 * Gets the sector that contains a point.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the sector index, or -1 if it cannot be found.
+	 * @see #getSubsectorIndex(int, int)
+	 */
+	public int getSectorIndex(int x, int y)
+	{
+		return getSector(getSubsectorIndex(x, y));
+	}
+
+	/**
+	 * Gets the sector that contains a point.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the sector index, or -1 if it cannot be found.
+	 * @see #getSubsectorIndex(double, double)
+	 */
+	public int getSectorIndex(double x, double y)
+	{
+		return getSector(getSubsectorIndex(x, y));
+	}
+
+	/**
+	 * Gets the sectors that contain many points.
+	 * @param x the points' X-coordinates.
+	 * @param y the points' Y-coordinates.
+	 * @param parallel if true, points are located on several threads (on the common fork-join pool).
+	 * @return an array of sector indices (or -1 where not found), one for each point.
+	 * @throws IllegalArgumentException if the coordinate arrays are not the same length.
+	 */
+	public int[] getSectorIndices(int[] x, int[] y, boolean parallel)
+	{
+		if (x.length != y.length)
+			throw new IllegalArgumentException("Coordinate arrays must be the same length.");
+		int[] out = new int[x.length];
+		IntStream points = IntStream.range(0, x.length);
+		(parallel ? points.parallel() : points).forEach((i) -> out[i] = getSectorIndex(x[i], y[i]));
+		return out;
+	}
+
+	/**
+	 * Gets the sectors that contain each thing in a Doom-format map (or any view of Doom-format objects).
+	 * @param map the map.
+	 * @param parallel if true, things are located on several threads (on the common fork-join pool).
+	 * @return an array of sector indices (or -1 where not found), one for each thing.
+	 */
+	public int[] getThingSectorIndices(MapView<?, ?, ?, ?, ? extends DoomThing> map, boolean parallel)
+	{
+		return getThingSectorIndices(map, MapGeometryReader.DOOM, parallel);
+	}
+
+	/**
+	 * Gets the sectors that contain each thing in a Hexen-format map.
+	 * @param map the map.
+	 * @param parallel if true, things are located on several threads (on the common fork-join pool).
+	 * @return an array of sector indices (or -1 where not found), one for each thing.
+	 */
+	public int[] getThingSectorIndices(HexenMap map, boolean parallel)
+	{
+		return getThingSectorIndices(map, MapGeometryReader.HEXEN, parallel);
+	}
+
+	/**
+	 * Gets the sectors that contain each thing in any map view, reading the things with a {@link MapGeometryReader}.
+	 * The things are read first, on the calling thread, so flyweight views are safe to use.
+	 * @param <T> the thing type.
+	 * @param map the map.
+	 * @param reader the reader for reading the geometry from the map's objects.
+	 * @param parallel if true, things are located on several threads (on the common fork-join pool).
+	 * @return an array of sector indices (or -1 where not found), one for each thing.
+	 */
+	public <T> int[] getThingSectorIndices(MapView<?, ?, ?, ?, T> map, MapGeometryReader<?, ?, ?, ? super T> reader, boolean parallel)
+	{
+		int thingCount = map.getThingCount();
+		long[] x = new long[thingCount];
+		long[] y = new long[thingCount];
+		for (int i = 0; i < thingCount; i++)
+		{
+			T thing = map.getThing(i);
+			x[i] = toFixed(reader.getThingX(thing));
+			y[i] = toFixed(reader.getThingY(thing));
+		}
+		int[] out = new int[thingCount];
+		IntStream things = IntStream.range(0, thingCount);
+		(parallel ? things.parallel() : things).forEach((i) -> out[i] = getSector(locate(x[i], y[i])));
+		return out;
+	}
+
+	private int getSector(int subsector)
+	{
+		return subsector < 0 ? -1 : subsectorSector[subsector];
+	}
+
+	// Walks the tree from the root. Coordinates are 16.16 fixed-point.
+	private int locate(long x, long y)
+	{
+		int nodeCount = nodeX.length;
+		if (nodeCount == 0)
+			return subsectorSector.length > 0 ? 0 : -1;
+
+		int node = nodeCount - 1;
+		// a well-formed tree cannot visit more nodes than it has.
+		for (int steps = 0; steps < nodeCount; steps++)
+		{
+			int child = nodeChildren[node * 2 + (isOnBack(node, x, y) ? 1 : 0)];
+			if ((child & BSPNode.LEAF_NODE_FLAG) != 0)
+			{
+				int subsector = child & (BSPNode.LEAF_NODE_FLAG - 1);
+				return subsector < subsectorSector.length ? subsector : -1;
+			}
+			if (child < 0 || child >= nodeCount)
+				return -1;
+			node = child;
+		}
+		return -1;
+	}
+
+	// Same results as R_PointOnSide in the Doom engine, but without precision loss.
+	private boolean isOnBack(int node, long x, long y)
+	{
+		long nx = (long)nodeX[node] << FRACBITS;
+		long ny = (long)nodeY[node] << FRACBITS;
+		long dx = nodeDeltaX[node];
+		long dy = nodeDeltaY[node];
+		if (dx == 0)
+			return x <= nx ? dy > 0 : dy < 0;
+		if (dy == 0)
+			return y <= ny ? dx < 0 : dx > 0;
+		return (y - ny) * dx >= dy * (x - nx);
+	}
+
+	private static long toFixed(double value)
+	{
+		return (long)Math.floor(value * (1 << FRACBITS));
+	}
+
+}
@@ -13,6 +13,7 @@ import java.util.List;
 import net.mtrop.doom.bsp.data.BSPNode;
 import net.mtrop.doom.bsp.data.BSPSegment;
 import net.mtrop.doom.bsp.data.BSPSubsector;
+import net.mtrop.doom.map.data.DoomVertex;
 
 /**
  * BSP Tree Abstraction.
@@ -26,12 +27,15 @@ public class BSPTree
 	private List<BSPSubsector> subsectors;
 	/** Nodes: List of Nodes. */
 	private List<BSPNode> nodes;
+	/** List of added vertices. */
+	private List<DoomVertex> vertices;
 	
 	public BSPTree()
 	{
 		segments = new ArrayList<BSPSegment>(1024);
 		subsectors = new ArrayList<BSPSubsector>(1024);
 		nodes = new ArrayList<BSPNode>(512);
+		vertices = new ArrayList<DoomVertex>(256);
 	}
 
 	/**
@@ -175,4 +179,58 @@ public class BSPTree
 		return nodes.get(i);
 	}
 
+	/**
+	 * Gets the underlying list of vertices added by node building (where segments were split). 
+	 * These come after the map's own vertices: the first added vertex's index is the map's vertex count.
+	 * @return the underlying list of added vertices.
+	 * @since 2.23.0
+	 */
+	public List<DoomVertex> getVertices()
+	{
+		return vertices;
+	}
+
+	/**
+	 * Replaces the list of added vertices.
+	 * Input objects are copied to the underlying list.
+	 * @param vertices the new list of vertices.
+	 * @since 2.23.0
+	 */
+	public void setVertices(Iterable<DoomVertex> vertices)
+	{
+		this.vertices.clear();
+		for (DoomVertex obj : vertices)
+			this.vertices.add(obj);
+	}
+
+	/**
+	 * Adds an added vertex to this tree.
+	 * @param vertex the vertex to add.
+	 * @since 2.23.0
+	 */
+	public void addVertex(DoomVertex vertex)
+	{
+		vertices.add(vertex);
+	}
+
+	/**
+	 * @return the amount of added vertices in this tree.
+	 * @since 2.23.0
+	 */
+	public int getVertexCount()
+	{
+		return vertices.size();
+	}
+
+	/**
+	 * Gets the added vertex at a specific index (in this tree's list, not the map's).
+	 * @param i the desired index.
+	 * @return the vertex at the index.
+	 * @since 2.23.0
+	 */
+	public DoomVertex getVertex(int i)
+	{
+		return vertices.get(i);
+	}
+
 }
@@ -0,0 +1,567 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.bsp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import net.mtrop.doom.bsp.data.BSPNode;
+import net.mtrop.doom.bsp.data.BSPSegment;
+import net.mtrop.doom.bsp.data.BSPSubsector;
+import net.mtrop.doom.map.CompactDoomMap;
+import net.mtrop.doom.map.HexenMap;
+import net.mtrop.doom.map.MapGeometryReader;
+import net.mtrop.doom.map.MapView;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+
+/**
+ * Builds a {@link BSPTree} (the NODES, SEGS, and SSECTORS of a map) from map geometry.
+ * <p>Each side of a linedef becomes a segment. Sets of segments are split by partition lines, chosen from the lines of 
+ * the segments themselves, until every set is convex; those sets become subsectors.
+ * Each candidate partition is scored by a cost: the amount of segments that it splits times the split cost, 
+ * plus the difference in segment counts between its sides times the balance cost, plus the diagonal cost if 
+ * it is not horizontal or vertical. The candidate with the lowest cost is used (the first one, on ties).
+ * <p>Split points are rounded to whole map units and added as new vertices, which come after the map's own vertices
+ * (see {@link BSPTree#getVertices()}). Segment angles and offsets are taken from their linedefs, so they stay accurate
+ * for split segments. Side tests use exact integer math.
+ * <p>If parallel building is enabled, candidate partitions are scored, and both sides of large sets are built, 
+ * on several threads (on the common fork-join pool). The output is the same either way.
+ * The builder itself holds only settings, and can be reused.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class BSPTreeBuilder
+{
+	/** Default cost for each split segment. */
+	public static final int DEFAULT_SPLIT_COST = 8;
+	/** Default cost for each segment of difference between the sides of a partition. */
+	public static final int DEFAULT_BALANCE_COST = 1;
+	/** Default cost for a partition that is not horizontal or vertical. */
+	public static final int DEFAULT_DIAGONAL_COST = 4;
+	/** Default maximum amount of candidate partitions scored for one set of segments. */
+	public static final int DEFAULT_CANDIDATE_LIMIT = 256;
+
+	/** Sets of at least this many segments are worth splitting up between threads. */
+	private static final int PARALLEL_THRESHOLD = 256;
+	/** Maximum tree depth. Sets at this depth become subsectors, convex or not. */
+	private static final int MAX_DEPTH = 512;
+
+	private static final int RIGHT = 0;
+	private static final int LEFT = 1;
+	private static final int SPLIT = 2;
+
+	/** Cost per split segment. */
+	private int splitCost;
+	/** Cost per segment of imbalance. */
+	private int balanceCost;
+	/** Cost for diagonal partitions. */
+	private int diagonalCost;
+	/** Maximum amount of candidates scored per set. */
+	private int candidateLimit;
+	/** Build in parallel. */
+	private boolean parallel;
+
+	/**
+	 * Creates a new builder with the default costs that builds trees on the calling thread.
+	 */
+	public BSPTreeBuilder()
+	{
+		this.splitCost = DEFAULT_SPLIT_COST;
+		this.balanceCost = DEFAULT_BALANCE_COST;
+		this.diagonalCost = DEFAULT_DIAGONAL_COST;
+		this.candidateLimit = DEFAULT_CANDIDATE_LIMIT;
+		this.parallel = false;
+	}
+
+	/**
+	 * Sets the cost for each segment split by a partition.
+	 * Higher costs make fewer segments (and added vertices), at the expense of a less balanced tree.
+	 * @param splitCost the cost.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the cost is negative.
+	 */
+	public BSPTreeBuilder setSplitCost(int splitCost)
+	{
+		if (splitCost < 0)
+			throw new IllegalArgumentException("Split cost cannot be negative.");
+		this.splitCost = splitCost;
+		return this;
+	}
+
+	/**
+	 * Sets the cost for each segment of difference between the amount of segments on each side of a partition.
+	 * Higher costs make a more balanced (shallower) tree.
+	 * @param balanceCost the cost.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the cost is negative.
+	 */
+	public BSPTreeBuilder setBalanceCost(int balanceCost)
+	{
+		if (balanceCost < 0)
+			throw new IllegalArgumentException("Balance cost cannot be negative.");
+		this.balanceCost = balanceCost;
+		return this;
+	}
+
+	/**
+	 * Sets the cost for a partition that is not horizontal or vertical.
+	 * Horizontal and vertical partitions split segments at exact points more often.
+	 * @param diagonalCost the cost.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the cost is negative.
+	 */
+	public BSPTreeBuilder setDiagonalCost(int diagonalCost)
+	{
+		if (diagonalCost < 0)
+			throw new IllegalArgumentException("Diagonal cost cannot be negative.");
+		this.diagonalCost = diagonalCost;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum amount of candidate partitions scored for one set of segments.
+	 * If a set has more candidates than this, an evenly-spaced sample of them is scored instead (all of them are scored 
+	 * if none of the sample is usable), which keeps large maps fast at some expense of tree quality.
+	 * @param candidateLimit the limit, or 0 for no limit.
+	 * @return this builder.
+	 * @throws IllegalArgumentException if the limit is negative.
+	 */
+	public BSPTreeBuilder setCandidateLimit(int candidateLimit)
+	{
+		if (candidateLimit < 0)
+			throw new IllegalArgumentException("Candidate limit cannot be negative.");
+		this.candidateLimit = candidateLimit;
+		return this;
+	}
+
+	/**
+	 * Sets if partitions are scored and built in parallel (on the common fork-join pool).
+	 * @param parallel true for parallel, false for not.
+	 * @return this builder.
+	 */
+	public BSPTreeBuilder setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+		return this;
+	}
+
+	/**
+	 * Builds a BSP tree from a Doom-format map (or any view of Doom-format objects, like a {@link CompactDoomMap}).
+	 * @param map the source map.
+	 * @return a new tree.
+	 * @throws IllegalArgumentException if the tree is too large for the vanilla node format.
+	 */
+	public BSPTree build(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ?, ? extends DoomThing> map)
+	{
+		return build(map, MapGeometryReader.DOOM);
+	}
+
+	/**
+	 * Builds a BSP tree from a Hexen-format map.
+	 * @param map the source map.
+	 * @return a new tree.
+	 * @throws IllegalArgumentException if the tree is too large for the vanilla node format.
+	 */
+	public BSPTree build(HexenMap map)
+	{
+		return build(map, MapGeometryReader.HEXEN);
+	}
+
+	/**
+	 * Builds a BSP tree from any map view, reading its geometry with a {@link MapGeometryReader}.
+	 * Coordinates are rounded to whole map units. Linedefs with vertex references that are out of range or no length 
+	 * are skipped, as are sides with sidedef references that are out of range.
+	 * @param <V> the vertex type.
+	 * @param <L> the linedef type.
+	 * @param map the source map.
+	 * @param reader the reader for reading the geometry from the map's objects.
+	 * @return a new tree.
+	 * @throws IllegalArgumentException if the tree is too large for the vanilla node format.
+	 */
+	public <V, L> BSPTree build(MapView<V, L, ?, ?, ?> map, MapGeometryReader<? super V, ? super L, ?, ?> reader)
+	{
+		int vertexCount = map.getVertexCount();
+		long[] vertexX = new long[vertexCount];
+		long[] vertexY = new long[vertexCount];
+		for (int i = 0; i < vertexCount; i++)
+		{
+			V vertex = map.getVertex(i);
+			vertexX[i] = Math.round(reader.getVertexX(vertex));
+			vertexY[i] = Math.round(reader.getVertexY(vertex));
+		}
+
+		int sidedefCount = map.getSidedefCount();
+		int linedefCount = map.getLinedefCount();
+		List<Seg> segs = new ArrayList<>(linedefCount * 2);
+		for (int i = 0; i < linedefCount; i++)
+		{
+			L linedef = map.getLinedef(i);
+			int start = reader.getLinedefVertexStart(linedef);
+			int end = reader.getLinedefVertexEnd(linedef);
+			if (start < 0 || start >= vertexCount || end < 0 || end >= vertexCount)
+				continue;
+			long x1 = vertexX[start], y1 = vertexY[start], x2 = vertexX[end], y2 = vertexY[end];
+			if (x1 == x2 && y1 == y2)
+				continue;
+
+			int angle = (int)Math.round(Math.atan2(y2 - y1, x2 - x1) * 32768.0 / Math.PI);
+			int front = reader.getLinedefSidedefFront(linedef);
+			int back = reader.getLinedefSidedefBack(linedef);
+			if (front >= 0 && front < sidedefCount)
+				segs.add(new Seg(x1, y1, x2, y2, start, end, i, BSPSegment.DIRECTION_SAME_AS_LINEDEF, angle & 0x0FFFF, x1, y1));
+			if (back >= 0 && back < sidedefCount)
+				segs.add(new Seg(x2, y2, x1, y1, end, start, i, BSPSegment.DIRECTION_OPPOSITE_LINEDEF, (angle + 32768) & 0x0FFFF, x2, y2));
+		}
+
+		BSPTree out = new BSPTree();
+		if (segs.isEmpty())
+			return out;
+
+		Tree root = new Builder(linedefCount).partition(segs.toArray(new Seg[segs.size()]), 0);
+
+		Map<Long, Integer> vertexIndices = new HashMap<>(vertexCount * 2);
+		for (int i = vertexCount - 1; i >= 0; i--)
+			vertexIndices.put(getKey(vertexX[i], vertexY[i]), i);
+		write(root, out, vertexIndices, vertexCount);
+		return out;
+	}
+
+	// Writes a tree to the output, children first. Returns the node index or the flagged subsector index.
+	private static int write(Tree tree, BSPTree out, Map<Long, Integer> vertexIndices, int vertexCount)
+	{
+		if (tree.segs != null)
+		{
+			int index = out.getSubsectorCount();
+			if (index >= BSPNode.LEAF_NODE_FLAG)
+				throw new IllegalArgumentException("Too many subsectors for the vanilla node format.");
+			BSPSubsector subsector = new BSPSubsector();
+			subsector.setSegStartIndex(out.getSegmentCount());
+			subsector.setSegCount(tree.segs.length);
+			for (Seg seg : tree.segs)
+			{
+				BSPSegment segment = new BSPSegment();
+				segment.setVertexStartIndex(seg.v1 >= 0 ? seg.v1 : getVertexIndex(seg.x1, seg.y1, out, vertexIndices, vertexCount));
+				segment.setVertexEndIndex(seg.v2 >= 0 ? seg.v2 : getVertexIndex(seg.x2, seg.y2, out, vertexIndices, vertexCount));
+				segment.setAngle(seg.angle);
+				segment.setLinedefIndex(seg.linedef);
+				segment.setDirection(seg.direction);
+				segment.setOffset((int)Math.round(Math.hypot(seg.x1 - seg.originX, seg.y1 - seg.originY)));
+				out.addSegment(segment);
+			}
+			out.addSubsector(subsector);
+			return index | BSPNode.LEAF_NODE_FLAG;
+		}
+
+		int right = write(tree.right, out, vertexIndices, vertexCount);
+		int left = write(tree.left, out, vertexIndices, vertexCount);
+		int index = out.getNodeCount();
+		if (index >= BSPNode.LEAF_NODE_FLAG)
+			throw new IllegalArgumentException("Too many nodes for the vanilla node format.");
+		BSPNode node = new BSPNode();
+		node.setPartitionLineX((int)tree.x);
+		node.setPartitionLineY((int)tree.y);
+		node.setPartitionDeltaX((int)tree.dx);
+		node.setPartitionDeltaY((int)tree.dy);
+		node.setRightRect((int)tree.rightBox[3], (int)tree.rightBox[1], (int)tree.rightBox[0], (int)tree.rightBox[2]);
+		node.setLeftRect((int)tree.leftBox[3], (int)tree.leftBox[1], (int)tree.leftBox[0], (int)tree.leftBox[2]);
+		node.setRightSubsectorIndex(right);
+		node.setLeftSubsectorIndex(left);
+		out.addNode(node);
+		return index;
+	}
+
+	// Gets the index of a vertex at a point, adding one if needed.
+	private static int getVertexIndex(long x, long y, BSPTree out, Map<Long, Integer> vertexIndices, int vertexCount)
+	{
+		Long key = getKey(x, y);
+		Integer index;
+		if ((index = vertexIndices.get(key)) == null)
+		{
+			DoomVertex vertex = new DoomVertex();
+			vertex.set((int)x, (int)y);
+			vertexIndices.put(key, index = vertexCount + out.getVertexCount());
+			out.addVertex(vertex);
+		}
+		return index;
+	}
+
+	private static long getKey(long x, long y)
+	{
+		return (x << 32) ^ (y & 0x0FFFFFFFFL);
+	}
+
+	/**
+	 * The state of a single build: the settings, copied, so that changing the builder does not affect a build in progress.
+	 */
+	private class Builder
+	{
+		private final int splitCost;
+		private final int balanceCost;
+		private final int diagonalCost;
+		private final int candidateLimit;
+		private final boolean parallel;
+		private final int linedefCount;
+
+		private Builder(int linedefCount)
+		{
+			this.splitCost = BSPTreeBuilder.this.splitCost;
+			this.balanceCost = BSPTreeBuilder.this.balanceCost;
+			this.diagonalCost = BSPTreeBuilder.this.diagonalCost;
+			this.candidateLimit = BSPTreeBuilder.this.candidateLimit;
+			this.parallel = BSPTreeBuilder.this.parallel;
+			this.linedefCount = linedefCount;
+		}
+
+		// Builds the tree for a set of segments.
+		private Tree partition(Seg[] segs, int depth)
+		{
+			int best = depth < MAX_DEPTH ? choosePartition(segs) : -1;
+			if (best < 0)
+				return new Tree(segs);
+
+			Seg partition = segs[best];
+			List<Seg> right = new ArrayList<>(segs.length);
+			List<Seg> left = new ArrayList<>(segs.length);
+			for (Seg seg : segs)
+			{
+				switch (classify(seg, partition))
+				{
+					case RIGHT:
+						right.add(seg);
+						break;
+					case LEFT:
+						left.add(seg);
+						break;
+					default:
+					{
+						long a = cross(partition, seg.x1, seg.y1);
+						double t = a / (double)(a - cross(partition, seg.x2, seg.y2));
+						long x = Math.round(seg.x1 + t * (seg.x2 - seg.x1));
+						long y = Math.round(seg.y1 + t * (seg.y2 - seg.y1));
+						Seg first = seg.split(seg.x1, seg.y1, seg.v1, x, y, -1);
+						Seg second = seg.split(x, y, -1, seg.x2, seg.y2, seg.v2);
+						(a > 0 ? right : left).add(first);
+						(a > 0 ? left : right).add(second);
+					}
+					break;
+				}
+			}
+
+			Seg[] rightSegs = right.toArray(new Seg[right.size()]);
+			Seg[] leftSegs = left.toArray(new Seg[left.size()]);
+			Tree out = new Tree(partition, getBox(rightSegs), getBox(leftSegs));
+			if (parallel && segs.length >= PARALLEL_THRESHOLD)
+			{
+				ForkJoinTask<Tree> leftTask = ForkJoinTask.adapt(() -> partition(leftSegs, depth + 1)).fork();
+				out.right = partition(rightSegs, depth + 1);
+				out.left = leftTask.join();
+			}
+			else
+			{
+				out.right = partition(rightSegs, depth + 1);
+				out.left = partition(leftSegs, depth + 1);
+			}
+			return out;
+		}
+
+		// Chooses the partition with the lowest cost. Returns its index, or -1 if there are none (the set is convex).
+		private int choosePartition(Seg[] segs)
+		{
+			// one candidate per linedef: the other side's line has the same cost.
+			int[] candidates = new int[segs.length];
+			int count = 0;
+			BitSet seen = new BitSet(linedefCount);
+			for (int i = 0; i < segs.length; i++)
+			{
+				if (seen.get(segs[i].linedef))
+					continue;
+				seen.set(segs[i].linedef);
+				candidates[count++] = i;
+			}
+
+			int best;
+			if (candidateLimit > 0 && count > candidateLimit)
+			{
+				int step = (count + candidateLimit - 1) / candidateLimit;
+				int[] sample = new int[(count + step - 1) / step];
+				for (int i = 0; i < sample.length; i++)
+					sample[i] = candidates[i * step];
+				if ((best = choosePartition(segs, sample, sample.length)) >= 0)
+					return best;
+			}
+			return choosePartition(segs, candidates, count);
+		}
+
+		private int choosePartition(Seg[] segs, int[] candidates, int count)
+		{
+			long[] costs = new long[count];
+			IntStream stream = IntStream.range(0, count);
+			(parallel && segs.length >= PARALLEL_THRESHOLD ? stream.parallel() : stream).forEach((i) -> costs[i] = getCost(segs, segs[candidates[i]]));
+			int best = -1;
+			for (int i = 0; i < count; i++)
+				if (costs[i] >= 0 && (best < 0 || costs[i] < costs[best]))
+					best = i;
+			return best < 0 ? -1 : candidates[best];
+		}
+
+		// Gets the cost of a partition, or -1 if it does not divide the segments.
+		private long getCost(Seg[] segs, Seg partition)
+		{
+			int right = 0, left = 0, splits = 0;
+			for (Seg seg : segs)
+			{
+				switch (classify(seg, partition))
+				{
+					case RIGHT:
+						right++;
+						break;
+					case LEFT:
+						left++;
+						break;
+					default:
+						splits++;
+						break;
+				}
+			}
+			if (left == 0 && splits == 0)
+				return -1;
+			long out = (long)splits * splitCost + (long)Math.abs(right - left) * balanceCost;
+			if (partition.x1 != partition.x2 && partition.y1 != partition.y2)
+				out += diagonalCost;
+			return out;
+		}
+	}
+
+	// Gets the side of a partition that a segment is on.
+	private static int classify(Seg seg, Seg partition)
+	{
+		long a = cross(partition, seg.x1, seg.y1);
+		long b = cross(partition, seg.x2, seg.y2);
+		if (a == 0 && b == 0)
+		{
+			long dot = (seg.x2 - seg.x1) * (partition.x2 - partition.x1) + (seg.y2 - seg.y1) * (partition.y2 - partition.y1);
+			return dot > 0 ? RIGHT : LEFT;
+		}
+		if (a >= 0 && b >= 0)
+			return RIGHT;
+		if (a <= 0 && b <= 0)
+			return LEFT;
+
+		// splits, unless the split point rounds to an end.
+		double t = a / (double)(a - b);
+		long x = Math.round(seg.x1 + t * (seg.x2 - seg.x1));
+		long y = Math.round(seg.y1 + t * (seg.y2 - seg.y1));
+		if (x == seg.x1 && y == seg.y1)
+			return b > 0 ? RIGHT : LEFT;
+		if (x == seg.x2 && y == seg.y2)
+			return a > 0 ? RIGHT : LEFT;
+		return SPLIT;
+	}
+
+	// Positive if on the right (front) of the partition, negative if on the left, 0 if on the line.
+	private static long cross(Seg partition, long x, long y)
+	{
+		return (x - partition.x1) * (partition.y2 - partition.y1) - (y - partition.y1) * (partition.x2 - partition.x1);
+	}
+
+	// Gets a bounding box (min x, min y, max x, max y).
+	private static long[] getBox(Seg[] segs)
+	{
+		long[] out = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+		for (Seg seg : segs)
+		{
+			out[0] = Math.min(out[0], Math.min(seg.x1, seg.x2));
+			out[1] = Math.min(out[1], Math.min(seg.y1, seg.y2));
+			out[2] = Math.max(out[2], Math.max(seg.x1, seg.x2));
+			out[3] = Math.max(out[3], Math.max(seg.y1, seg.y2));
+		}
+		return out;
+	}
+
+	/**
+	 * A segment being built.
+	 */
+	private static class Seg
+	{
+		private final long x1;
+		private final long y1;
+		private final long x2;
+		private final long y2;
+		/** Map vertex indices of the ends, or -1 for added vertices. */
+		private final int v1;
+		private final int v2;
+		private final int linedef;
+		private final int direction;
+		private final int angle;
+		/** The point that offsets are measured from (the start of the linedef, from this side). */
+		private final long originX;
+		private final long originY;
+
+		private Seg(long x1, long y1, long x2, long y2, int v1, int v2, int linedef, int direction, int angle, long originX, long originY)
+		{
+			this.x1 = x1;
+			this.y1 = y1;
+			this.x2 = x2;
+			this.y2 = y2;
+			this.v1 = v1;
+			this.v2 = v2;
+			this.linedef = linedef;
+			this.direction = direction;
+			this.angle = angle;
+			this.originX = originX;
+			this.originY = originY;
+		}
+
+		private Seg split(long x1, long y1, int v1, long x2, long y2, int v2)
+		{
+			return new Seg(x1, y1, x2, y2, v1, v2, linedef, direction, angle, originX, originY);
+		}
+	}
+
+	/**
+	 * A built tree: either a subsector (segs is not null) or a node.
+	 */
+	private static class Tree
+	{
+		private Seg[] segs;
+
+		private long x;
+		private long y;
+		private long dx;
+		private long dy;
+		private long[] rightBox;
+		private long[] leftBox;
+		private Tree right;
+		private Tree left;
+
+		private Tree(Seg[] segs)
+		{
+			this.segs = segs;
+		}
+
+		private Tree(Seg partition, long[] rightBox, long[] leftBox)
+		{
+			this.segs = null;
+			this.x = partition.x1;
+			this.y = partition.y1;
+			this.dx = partition.x2 - partition.x1;
+			this.dy = partition.y2 - partition.y1;
+			this.rightBox = rightBox;
+			this.leftBox = leftBox;
+		}
+	}
+
+}
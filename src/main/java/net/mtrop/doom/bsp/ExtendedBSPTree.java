@@ -0,0 +1,971 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.bsp;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import net.mtrop.doom.bsp.data.BSPNode;
+import net.mtrop.doom.bsp.data.BSPSegment;
+import net.mtrop.doom.bsp.data.BSPSubsector;
+import net.mtrop.doom.map.data.DoomVertex;
+
+/**
+ * A BSP tree with 32-bit indices and fixed-point coordinates, for the ZDoom extended and GL node formats and
+ * the glBSP GL node formats (see {@link NodeFormat}). It can also hold vanilla trees (see {@link #create(BSPTree, int)}).
+ * <p>Everything is stored in primitive arrays, sized on creation. 
+ * Vertex indices are unified: indices below {@link #getMapVertexCount()} refer to the map's vertices, and the rest
+ * refer to this tree's added vertices (minus the map vertex count), whichever way the format flags them.
+ * Coordinates of added vertices and partition lines are 16.16 fixed-point.
+ * <p>Compressed ZDoom formats are inflated and deflated while streaming, without buffering the whole lump.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class ExtendedBSPTree
+{
+	/** Leaf node flag. Child indices with this bit set are subsector indices (the rest of the bits), not node indices. */
+	public static final int LEAF_NODE_FLAG = 0x80000000;
+	/** Index value for no reference (a miniseg's linedef, or a segment without a partner). */
+	public static final int NO_INDEX = -1;
+
+	/** Fixed-point fraction bits. */
+	private static final int FRACBITS = 16;
+	/** Largest count accepted when reading, to stop bad data from causing huge allocations. */
+	private static final int MAX_COUNT = 1 << 26;
+
+	/** Amount of vertices in the map. */
+	private int mapVertexCount;
+
+	private int[] vertexX;
+	private int[] vertexY;
+
+	private int[] segmentStart;
+	private int[] segmentEnd;
+	private int[] segmentLinedef;
+	private int[] segmentSide;
+	private int[] segmentPartner;
+
+	private int[] subsectorStart;
+	private int[] subsectorCount;
+
+	private int[] nodeX;
+	private int[] nodeY;
+	private int[] nodeDeltaX;
+	private int[] nodeDeltaY;
+	/** Right box (top, bottom, left, right), then left box, per node. */
+	private int[] nodeRects;
+	/** Right child, then left child, per node. */
+	private int[] nodeChildren;
+
+	/**
+	 * Creates a new tree with everything set to zero.
+	 * @param mapVertexCount the amount of vertices in the map.
+	 * @param vertexCount the amount of added vertices.
+	 * @param segmentCount the amount of segments.
+	 * @param subsectorCount the amount of subsectors.
+	 * @param nodeCount the amount of nodes.
+	 * @throws IllegalArgumentException if any count is negative.
+	 */
+	public ExtendedBSPTree(int mapVertexCount, int vertexCount, int segmentCount, int subsectorCount, int nodeCount)
+	{
+		if (mapVertexCount < 0 || vertexCount < 0 || segmentCount < 0 || subsectorCount < 0 || nodeCount < 0)
+			throw new IllegalArgumentException("Counts cannot be negative.");
+		this.mapVertexCount = mapVertexCount;
+		this.vertexX = new int[vertexCount];
+		this.vertexY = new int[vertexCount];
+		this.segmentStart = new int[segmentCount];
+		this.segmentEnd = new int[segmentCount];
+		this.segmentLinedef = new int[segmentCount];
+		this.segmentSide = new int[segmentCount];
+		this.segmentPartner = new int[segmentCount];
+		this.subsectorStart = new int[subsectorCount];
+		this.subsectorCount = new int[subsectorCount];
+		this.nodeX = new int[nodeCount];
+		this.nodeY = new int[nodeCount];
+		this.nodeDeltaX = new int[nodeCount];
+		this.nodeDeltaY = new int[nodeCount];
+		this.nodeRects = new int[nodeCount * 8];
+		this.nodeChildren = new int[nodeCount * 2];
+	}
+
+	/**
+	 * Creates an extended tree from a vanilla tree.
+	 * Its added vertices (see {@link BSPTree#getVertices()}) are the added vertices of the new tree, and its segments have no partners.
+	 * @param tree the source tree.
+	 * @param mapVertexCount the amount of vertices in the map.
+	 * @return a new tree.
+	 */
+	public static ExtendedBSPTree create(BSPTree tree, int mapVertexCount)
+	{
+		ExtendedBSPTree out = new ExtendedBSPTree(mapVertexCount, tree.getVertexCount(), tree.getSegmentCount(), tree.getSubsectorCount(), tree.getNodeCount());
+		for (int i = 0; i < tree.getVertexCount(); i++)
+		{
+			DoomVertex vertex = tree.getVertex(i);
+			out.setVertex(i, vertex.getX() << FRACBITS, vertex.getY() << FRACBITS);
+		}
+		for (int i = 0; i < tree.getSegmentCount(); i++)
+		{
+			BSPSegment seg = tree.getSegment(i);
+			out.setSegment(i, seg.getVertexStartIndex(), seg.getVertexEndIndex(), seg.getLinedefIndex(), seg.getDirection(), NO_INDEX);
+		}
+		for (int i = 0; i < tree.getSubsectorCount(); i++)
+		{
+			BSPSubsector subsector = tree.getSubsector(i);
+			out.setSubsector(i, subsector.getSegStartIndex(), subsector.getSegCount());
+		}
+		for (int i = 0; i < tree.getNodeCount(); i++)
+		{
+			BSPNode node = tree.getNode(i);
+			out.setNode(i, 
+				node.getPartitionLineX() << FRACBITS, node.getPartitionLineY() << FRACBITS, 
+				node.getPartitionDeltaX() << FRACBITS, node.getPartitionDeltaY() << FRACBITS,
+				node.getRightRect(), node.getLeftRect(), 
+				toExtendedChild(node.getRightSubsectorIndex()), toExtendedChild(node.getLeftSubsectorIndex())
+			);
+		}
+		return out;
+	}
+
+	private static int toExtendedChild(int child)
+	{
+		return (child & BSPNode.LEAF_NODE_FLAG) != 0 ? (child & (BSPNode.LEAF_NODE_FLAG - 1)) | LEAF_NODE_FLAG : child;
+	}
+
+	/**
+	 * @return the amount of vertices in the map (the index of the first added vertex).
+	 */
+	public int getMapVertexCount()
+	{
+		return mapVertexCount;
+	}
+
+	/**
+	 * @return the amount of added vertices.
+	 */
+	public int getVertexCount()
+	{
+		return vertexX.length;
+	}
+
+	/**
+	 * Gets the X-coordinate of an added vertex.
+	 * @param i the index in the added vertices (not the unified index).
+	 * @return the coordinate, in 16.16 fixed-point.
+	 */
+	public int getVertexX(int i)
+	{
+		return vertexX[i];
+	}
+
+	/**
+	 * Gets the Y-coordinate of an added vertex.
+	 * @param i the index in the added vertices (not the unified index).
+	 * @return the coordinate, in 16.16 fixed-point.
+	 */
+	public int getVertexY(int i)
+	{
+		return vertexY[i];
+	}
+
+	/**
+	 * Sets an added vertex.
+	 * @param i the index in the added vertices (not the unified index).
+	 * @param x the X-coordinate, in 16.16 fixed-point.
+	 * @param y the Y-coordinate, in 16.16 fixed-point.
+	 */
+	public void setVertex(int i, int x, int y)
+	{
+		vertexX[i] = x;
+		vertexY[i] = y;
+	}
+
+	/**
+	 * @return the amount of segments.
+	 */
+	public int getSegmentCount()
+	{
+		return segmentStart.length;
+	}
+
+	/**
+	 * @param i the segment index.
+	 * @return the segment's starting vertex (unified index).
+	 */
+	public int getSegmentStartVertex(int i)
+	{
+		return segmentStart[i];
+	}
+
+	/**
+	 * @param i the segment index.
+	 * @return the segment's ending vertex (unified index).
+	 */
+	public int getSegmentEndVertex(int i)
+	{
+		return segmentEnd[i];
+	}
+
+	/**
+	 * @param i the segment index.
+	 * @return the segment's linedef, or {@link #NO_INDEX} for minisegs.
+	 */
+	public int getSegmentLinedef(int i)
+	{
+		return segmentLinedef[i];
+	}
+
+	/**
+	 * @param i the segment index.
+	 * @return the segment's linedef side (0 for front, 1 for back).
+	 */
+	public int getSegmentSide(int i)
+	{
+		return segmentSide[i];
+	}
+
+	/**
+	 * @param i the segment index.
+	 * @return the segment on the other side of this one (GL formats only), or {@link #NO_INDEX} if none.
+	 */
+	public int getSegmentPartner(int i)
+	{
+		return segmentPartner[i];
+	}
+
+	/**
+	 * Sets a segment.
+	 * @param i the segment index.
+	 * @param start the starting vertex (unified index).
+	 * @param end the ending vertex (unified index).
+	 * @param linedef the linedef, or {@link #NO_INDEX} for minisegs.
+	 * @param side the linedef side (0 for front, 1 for back).
+	 * @param partner the segment on the other side of this one, or {@link #NO_INDEX} if none.
+	 */
+	public void setSegment(int i, int start, int end, int linedef, int side, int partner)
+	{
+		segmentStart[i] = start;
+		segmentEnd[i] = end;
+		segmentLinedef[i] = linedef;
+		segmentSide[i] = side;
+		segmentPartner[i] = partner;
+	}
+
+	/**
+	 * @return the amount of subsectors.
+	 */
+	public int getSubsectorCount()
+	{
+		return subsectorStart.length;
+	}
+
+	/**
+	 * @param i the subsector index.
+	 * @return the index of the subsector's first segment.
+	 */
+	public int getSubsectorSegmentStart(int i)
+	{
+		return subsectorStart[i];
+	}
+
+	/**
+	 * @param i the subsector index.
+	 * @return the amount of segments in the subsector.
+	 */
+	public int getSubsectorSegmentCount(int i)
+	{
+		return subsectorCount[i];
+	}
+
+	/**
+	 * Sets a subsector.
+	 * @param i the subsector index.
+	 * @param start the index of the subsector's first segment.
+	 * @param count the amount of segments in the subsector.
+	 */
+	public void setSubsector(int i, int start, int count)
+	{
+		subsectorStart[i] = start;
+		subsectorCount[i] = count;
+	}
+
+	/**
+	 * @return the amount of nodes.
+	 */
+	public int getNodeCount()
+	{
+		return nodeX.length;
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return the X-coordinate of the node's partition line, in 16.16 fixed-point.
+	 */
+	public int getNodeX(int i)
+	{
+		return nodeX[i];
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return the Y-coordinate of the node's partition line, in 16.16 fixed-point.
+	 */
+	public int getNodeY(int i)
+	{
+		return nodeY[i];
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return the change in X to the end of the node's partition line, in 16.16 fixed-point.
+	 */
+	public int getNodeDeltaX(int i)
+	{
+		return nodeDeltaX[i];
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return the change in Y to the end of the node's partition line, in 16.16 fixed-point.
+	 */
+	public int getNodeDeltaY(int i)
+	{
+		return nodeDeltaY[i];
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return a new array of the node's right bounding box coordinates (top, bottom, left, right).
+	 */
+	public int[] getNodeRightRect(int i)
+	{
+		int[] out = new int[4];
+		System.arraycopy(nodeRects, i * 8, out, 0, 4);
+		return out;
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return a new array of the node's left bounding box coordinates (top, bottom, left, right).
+	 */
+	public int[] getNodeLeftRect(int i)
+	{
+		int[] out = new int[4];
+		System.arraycopy(nodeRects, i * 8 + 4, out, 0, 4);
+		return out;
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return the node's right child: a node index, or a subsector index combined with {@link #LEAF_NODE_FLAG}.
+	 */
+	public int getNodeRightChild(int i)
+	{
+		return nodeChildren[i * 2];
+	}
+
+	/**
+	 * @param i the node index.
+	 * @return the node's left child: a node index, or a subsector index combined with {@link #LEAF_NODE_FLAG}.
+	 */
+	public int getNodeLeftChild(int i)
+	{
+		return nodeChildren[i * 2 + 1];
+	}
+
+	/**
+	 * Sets a node.
+	 * @param i the node index.
+	 * @param x the X-coordinate of the partition line, in 16.16 fixed-point.
+	 * @param y the Y-coordinate of the partition line, in 16.16 fixed-point.
+	 * @param deltaX the change in X to the end of the partition line, in 16.16 fixed-point.
+	 * @param deltaY the change in Y to the end of the partition line, in 16.16 fixed-point.
+	 * @param rightRect the right bounding box coordinates (top, bottom, left, right).
+	 * @param leftRect the left bounding box coordinates (top, bottom, left, right).
+	 * @param rightChild the right child: a node index, or a subsector index combined with {@link #LEAF_NODE_FLAG}.
+	 * @param leftChild the left child: a node index, or a subsector index combined with {@link #LEAF_NODE_FLAG}.
+	 */
+	public void setNode(int i, int x, int y, int deltaX, int deltaY, int[] rightRect, int[] leftRect, int rightChild, int leftChild)
+	{
+		nodeX[i] = x;
+		nodeY[i] = y;
+		nodeDeltaX[i] = deltaX;
+		nodeDeltaY[i] = deltaY;
+		System.arraycopy(rightRect, 0, nodeRects, i * 8, 4);
+		System.arraycopy(leftRect, 0, nodeRects, i * 8 + 4, 4);
+		nodeChildren[i * 2] = rightChild;
+		nodeChildren[i * 2 + 1] = leftChild;
+	}
+
+	/**
+	 * Reads ZDoom nodes (any ZDoom {@link NodeFormat}), detecting the format by its signature.
+	 * Uncompressed data is read exactly up to the end of the node data. Compressed data is inflated as it is read,
+	 * through a buffer, so the stream can be read past the end of the compressed data: it should end where the node data ends,
+	 * like a lump does. The stream is not closed.
+	 * @param in the input stream (for example, the NODES, SSECTORS, or ZNODES lump).
+	 * @return a new tree.
+	 * @throws IOException if the stream can't be read, the signature is not a ZDoom one, or the data is incomplete or bad.
+	 */
+	public static ExtendedBSPTree readZDoomNodes(InputStream in) throws IOException
+	{
+		byte[] signature = new byte[4];
+		int n = 0, b;
+		while (n < 4 && (b = in.read(signature, n, 4 - n)) > 0)
+			n += b;
+		NodeFormat format = n == 4 ? NodeFormat.getBySignature(new String(signature, StandardCharsets.US_ASCII)) : null;
+		if (format == null || !format.isZDoom())
+			throw new IOException("Data is not ZDoom nodes.");
+
+		if (!format.isCompressed())
+			return readZDoomNodes(new NodeInput(in, 0), format);
+
+		Inflater inflater = new Inflater();
+		try {
+			return readZDoomNodes(new NodeInput(new InflaterInputStream(in, inflater, 8192)), format);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Reads ZDoom nodes (any ZDoom {@link NodeFormat}), detecting the format by its signature.
+	 * @param data the lump data (for example, the NODES, SSECTORS, or ZNODES lump).
+	 * @return a new tree.
+	 * @throws IOException if the signature is not a ZDoom one, or the data is incomplete or bad.
+	 */
+	public static ExtendedBSPTree readZDoomNodes(byte[] data) throws IOException
+	{
+		return readZDoomNodes(new ByteArrayInputStream(data));
+	}
+
+	private static ExtendedBSPTree readZDoomNodes(NodeInput in, NodeFormat format) throws IOException
+	{
+		// each count allows reading up to the next count.
+		in.allow(8);
+		int mapVertexCount = in.readCount();
+		int vertexCount = in.readCount();
+		in.allow(vertexCount * 8L + 4);
+		int[] vx = new int[vertexCount];
+		int[] vy = new int[vertexCount];
+		for (int i = 0; i < vertexCount; i++)
+		{
+			vx[i] = in.readInt();
+			vy[i] = in.readInt();
+		}
+
+		int subsectors = in.readCount();
+		in.allow(subsectors * 4L + 4);
+		int[] ssCounts = new int[subsectors];
+		long total = 0;
+		for (int i = 0; i < subsectors; i++)
+			total += ssCounts[i] = in.readCount();
+
+		int segs = in.readCount();
+		if (total != segs)
+			throw new IOException("Subsector segment counts do not add up to the segment count.");
+		boolean wideLines = format == NodeFormat.XGL2 || format == NodeFormat.ZGL2 || format == NodeFormat.XGL3 || format == NodeFormat.ZGL3;
+		in.allow(segs * (wideLines ? 13L : 11L) + 4);
+		ExtendedBSPTree out = new ExtendedBSPTree(mapVertexCount, 0, 0, 0, 0);
+		out.vertexX = vx;
+		out.vertexY = vy;
+		out.subsectorStart = new int[subsectors];
+		out.subsectorCount = ssCounts;
+		for (int i = 0, start = 0; i < subsectors; start += ssCounts[i++])
+			out.subsectorStart[i] = start;
+
+		out.segmentStart = new int[segs];
+		out.segmentEnd = new int[segs];
+		out.segmentLinedef = new int[segs];
+		out.segmentSide = new int[segs];
+		out.segmentPartner = new int[segs];
+		for (int i = 0; i < segs; i++)
+		{
+			out.segmentStart[i] = in.readInt();
+			if (format.isGL())
+				out.segmentPartner[i] = in.readInt();
+			else
+			{
+				out.segmentEnd[i] = in.readInt();
+				out.segmentPartner[i] = NO_INDEX;
+			}
+			out.segmentLinedef[i] = wideLines ? in.readInt() : toIndex(in.readUnsignedShort());
+			out.segmentSide[i] = in.readUnsignedByte();
+		}
+		// GL segments only store their start: each one ends where the next one in its subsector starts.
+		if (format.isGL())
+			for (int s = 0; s < subsectors; s++)
+				for (int i = 0; i < ssCounts[s]; i++)
+				{
+					int seg = out.subsectorStart[s] + i;
+					out.segmentEnd[seg] = out.segmentStart[i + 1 < ssCounts[s] ? seg + 1 : out.subsectorStart[s]];
+				}
+
+		int nodes = in.readCount();
+		boolean fixedNodes = format == NodeFormat.XGL3 || format == NodeFormat.ZGL3;
+		in.allow(nodes * (fixedNodes ? 40L : 32L));
+		out.nodeX = new int[nodes];
+		out.nodeY = new int[nodes];
+		out.nodeDeltaX = new int[nodes];
+		out.nodeDeltaY = new int[nodes];
+		out.nodeRects = new int[nodes * 8];
+		out.nodeChildren = new int[nodes * 2];
+		for (int i = 0; i < nodes; i++)
+		{
+			out.nodeX[i] = fixedNodes ? in.readInt() : in.readShort() << FRACBITS;
+			out.nodeY[i] = fixedNodes ? in.readInt() : in.readShort() << FRACBITS;
+			out.nodeDeltaX[i] = fixedNodes ? in.readInt() : in.readShort() << FRACBITS;
+			out.nodeDeltaY[i] = fixedNodes ? in.readInt() : in.readShort() << FRACBITS;
+			for (int r = 0; r < 8; r++)
+				out.nodeRects[i * 8 + r] = in.readShort();
+			out.nodeChildren[i * 2] = in.readInt();
+			out.nodeChildren[i * 2 + 1] = in.readInt();
+		}
+		return out;
+	}
+
+	/**
+	 * Writes this tree in a ZDoom format. Compressed data is deflated as it is written.
+	 * GL formats only store where each segment starts, so every subsector's segments must form a closed loop.
+	 * @param out the output stream. It is not closed.
+	 * @param format the format to write.
+	 * @throws IllegalArgumentException if the format is not a ZDoom format.
+	 * @throws IOException if the stream can't be written, or this tree does not fit the format
+	 * 		(for example, minisegs in a non-GL format, or open subsectors in a GL format).
+	 */
+	public void writeZDoomNodes(OutputStream out, NodeFormat format) throws IOException
+	{
+		if (!format.isZDoom())
+			throw new IllegalArgumentException("Format is not a ZDoom format.");
+		checkFormat(format);
+		out.write(format.getSignature().getBytes(StandardCharsets.US_ASCII));
+		if (!format.isCompressed())
+		{
+			writeZDoomNodes(new NodeOutput(out), format);
+			return;
+		}
+
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			DeflaterOutputStream dos = new DeflaterOutputStream(out, deflater, 8192);
+			writeZDoomNodes(new NodeOutput(dos), format);
+			dos.finish();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private void writeZDoomNodes(NodeOutput out, NodeFormat format) throws IOException
+	{
+		out.writeInt(mapVertexCount);
+		out.writeInt(vertexX.length);
+		for (int i = 0; i < vertexX.length; i++)
+		{
+			out.writeInt(vertexX[i]);
+			out.writeInt(vertexY[i]);
+		}
+
+		out.writeInt(subsectorStart.length);
+		for (int i = 0; i < subsectorStart.length; i++)
+			out.writeInt(subsectorCount[i]);
+
+		boolean wideLines = format == NodeFormat.XGL2 || format == NodeFormat.ZGL2 || format == NodeFormat.XGL3 || format == NodeFormat.ZGL3;
+		out.writeInt(segmentStart.length);
+		for (int i = 0; i < segmentStart.length; i++)
+		{
+			out.writeInt(segmentStart[i]);
+			out.writeInt(format.isGL() ? segmentPartner[i] : segmentEnd[i]);
+			if (wideLines)
+				out.writeInt(segmentLinedef[i]);
+			else
+				out.writeShort(fromIndex(segmentLinedef[i], "Linedef index"));
+			out.writeByte(segmentSide[i]);
+		}
+
+		boolean fixedNodes = format == NodeFormat.XGL3 || format == NodeFormat.ZGL3;
+		out.writeInt(nodeX.length);
+		for (int i = 0; i < nodeX.length; i++)
+		{
+			if (fixedNodes)
+			{
+				out.writeInt(nodeX[i]);
+				out.writeInt(nodeY[i]);
+				out.writeInt(nodeDeltaX[i]);
+				out.writeInt(nodeDeltaY[i]);
+			}
+			else
+			{
+				out.writeShort(nodeX[i] >> FRACBITS);
+				out.writeShort(nodeY[i] >> FRACBITS);
+				out.writeShort(nodeDeltaX[i] >> FRACBITS);
+				out.writeShort(nodeDeltaY[i] >> FRACBITS);
+			}
+			for (int r = 0; r < 8; r++)
+				out.writeShort(checkShort(nodeRects[i * 8 + r], "Bounding box coordinate"));
+			out.writeInt(nodeChildren[i * 2]);
+			out.writeInt(nodeChildren[i * 2 + 1]);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads glBSP GL nodes ({@link NodeFormat#GL_V2} or {@link NodeFormat#GL_V5}), detecting the version by the GL_VERT signature.
+	 * @param mapVertexCount the amount of vertices in the map, for unifying vertex indices.
+	 * @param vertices the GL_VERT lump data.
+	 * @param segments the GL_SEGS lump data.
+	 * @param subsectors the GL_SSECT lump data.
+	 * @param nodes the GL_NODES lump data.
+	 * @return a new tree.
+	 * @throws IOException if the version is not supported, or the data is incomplete or bad.
+	 */
+	public static ExtendedBSPTree readGLNodes(int mapVertexCount, byte[] vertices, byte[] segments, byte[] subsectors, byte[] nodes) throws IOException
+	{
+		NodeFormat format = vertices.length >= 4 ? NodeFormat.getBySignature(new String(vertices, 0, 4, StandardCharsets.US_ASCII)) : null;
+		if (format != NodeFormat.GL_V2 && format != NodeFormat.GL_V5)
+			throw new IOException("GL nodes are not version 2 or 5.");
+		boolean v5 = format == NodeFormat.GL_V5;
+		int segLength = v5 ? 16 : 10;
+		int ssLength = v5 ? 8 : 4;
+		int nodeLength = v5 ? 32 : 28;
+		if ((vertices.length - 4) % 8 != 0 || segments.length % segLength != 0 || subsectors.length % ssLength != 0 || nodes.length % nodeLength != 0)
+			throw new IOException("GL node lump lengths do not match their version.");
+
+		ExtendedBSPTree out = new ExtendedBSPTree(mapVertexCount, (vertices.length - 4) / 8, segments.length / segLength, subsectors.length / ssLength, nodes.length / nodeLength);
+
+		NodeInput in = new NodeInput(new ByteArrayInputStream(vertices, 4, vertices.length - 4));
+		for (int i = 0; i < out.vertexX.length; i++)
+			out.setVertex(i, in.readInt(), in.readInt());
+
+		in = new NodeInput(new ByteArrayInputStream(segments));
+		for (int i = 0; i < out.segmentStart.length; i++)
+		{
+			if (v5)
+				out.setSegment(i, out.toGLVertex(in.readInt(), 0x80000000), out.toGLVertex(in.readInt(), 0x80000000), toIndex(in.readUnsignedShort()), in.readUnsignedShort(), in.readInt());
+			else
+				out.setSegment(i, out.toGLVertex(in.readUnsignedShort(), 0x8000), out.toGLVertex(in.readUnsignedShort(), 0x8000), toIndex(in.readUnsignedShort()), in.readUnsignedShort(), toIndex(in.readUnsignedShort()));
+		}
+
+		in = new NodeInput(new ByteArrayInputStream(subsectors));
+		for (int i = 0; i < out.subsectorStart.length; i++)
+		{
+			int count = v5 ? in.readInt() : in.readUnsignedShort();
+			out.setSubsector(i, v5 ? in.readInt() : in.readUnsignedShort(), count);
+		}
+
+		in = new NodeInput(new ByteArrayInputStream(nodes));
+		for (int i = 0; i < out.nodeX.length; i++)
+		{
+			out.nodeX[i] = in.readShort() << FRACBITS;
+			out.nodeY[i] = in.readShort() << FRACBITS;
+			out.nodeDeltaX[i] = in.readShort() << FRACBITS;
+			out.nodeDeltaY[i] = in.readShort() << FRACBITS;
+			for (int r = 0; r < 8; r++)
+				out.nodeRects[i * 8 + r] = in.readShort();
+			for (int c = 0; c < 2; c++)
+			{
+				if (v5)
+					out.nodeChildren[i * 2 + c] = in.readInt();
+				else
+					out.nodeChildren[i * 2 + c] = toExtendedChild(in.readUnsignedShort());
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Writes this tree as glBSP GL nodes ({@link NodeFormat#GL_V2} or {@link NodeFormat#GL_V5}).
+	 * @param format the format to write.
+	 * @param vertices the output stream for the GL_VERT lump. It is not closed.
+	 * @param segments the output stream for the GL_SEGS lump. It is not closed.
+	 * @param subsectors the output stream for the GL_SSECT lump. It is not closed.
+	 * @param nodes the output stream for the GL_NODES lump. It is not closed.
+	 * @throws IllegalArgumentException if the format is not a glBSP format.
+	 * @throws IOException if a stream can't be written, or this tree does not fit the format (for example, indices too large for version 2).
+	 */
+	public void writeGLNodes(NodeFormat format, OutputStream vertices, OutputStream segments, OutputStream subsectors, OutputStream nodes) throws IOException
+	{
+		if (format != NodeFormat.GL_V2 && format != NodeFormat.GL_V5)
+			throw new IllegalArgumentException("Format is not a glBSP format.");
+		boolean v5 = format == NodeFormat.GL_V5;
+
+		vertices.write(format.getSignature().getBytes(StandardCharsets.US_ASCII));
+		NodeOutput out = new NodeOutput(vertices);
+		for (int i = 0; i < vertexX.length; i++)
+		{
+			out.writeInt(vertexX[i]);
+			out.writeInt(vertexY[i]);
+		}
+		out.flush();
+
+		out = new NodeOutput(segments);
+		for (int i = 0; i < segmentStart.length; i++)
+		{
+			if (v5)
+			{
+				out.writeInt(fromGLVertex(segmentStart[i], 0x80000000, Integer.MAX_VALUE));
+				out.writeInt(fromGLVertex(segmentEnd[i], 0x80000000, Integer.MAX_VALUE));
+				out.writeShort(fromIndex(segmentLinedef[i], "Linedef index"));
+				out.writeShort(segmentSide[i]);
+				out.writeInt(segmentPartner[i]);
+			}
+			else
+			{
+				out.writeShort(fromGLVertex(segmentStart[i], 0x8000, 0x7FFF));
+				out.writeShort(fromGLVertex(segmentEnd[i], 0x8000, 0x7FFF));
+				out.writeShort(fromIndex(segmentLinedef[i], "Linedef index"));
+				out.writeShort(segmentSide[i]);
+				out.writeShort(fromIndex(segmentPartner[i], "Partner segment index"));
+			}
+		}
+		out.flush();
+
+		out = new NodeOutput(subsectors);
+		for (int i = 0; i < subsectorStart.length; i++)
+		{
+			if (v5)
+			{
+				out.writeInt(subsectorCount[i]);
+				out.writeInt(subsectorStart[i]);
+			}
+			else
+			{
+				out.writeShort(checkUnsignedShort(subsectorCount[i], "Subsector segment count"));
+				out.writeShort(checkUnsignedShort(subsectorStart[i], "Subsector segment start"));
+			}
+		}
+		out.flush();
+
+		out = new NodeOutput(nodes);
+		for (int i = 0; i < nodeX.length; i++)
+		{
+			out.writeShort(nodeX[i] >> FRACBITS);
+			out.writeShort(nodeY[i] >> FRACBITS);
+			out.writeShort(nodeDeltaX[i] >> FRACBITS);
+			out.writeShort(nodeDeltaY[i] >> FRACBITS);
+			for (int r = 0; r < 8; r++)
+				out.writeShort(checkShort(nodeRects[i * 8 + r], "Bounding box coordinate"));
+			for (int c = 0; c < 2; c++)
+			{
+				int child = nodeChildren[i * 2 + c];
+				if (v5)
+					out.writeInt(child);
+				else if ((child & LEAF_NODE_FLAG) != 0)
+					out.writeShort(checkRange(child & ~LEAF_NODE_FLAG, 0x7FFF, "Subsector index") | BSPNode.LEAF_NODE_FLAG);
+				else
+					out.writeShort(checkRange(child, 0x7FFF, "Node index"));
+			}
+		}
+		out.flush();
+	}
+
+	// Checks if this tree fits a format.
+	private void checkFormat(NodeFormat format) throws IOException
+	{
+		if (format.isGL())
+		{
+			for (int s = 0; s < subsectorStart.length; s++)
+				for (int i = 0; i < subsectorCount[s]; i++)
+				{
+					int seg = subsectorStart[s] + i;
+					int next = i + 1 < subsectorCount[s] ? seg + 1 : subsectorStart[s];
+					if (segmentEnd[seg] != segmentStart[next])
+						throw new IOException("Subsector " + s + " is not closed, which GL formats need.");
+				}
+		}
+		else
+		{
+			for (int i = 0; i < segmentLinedef.length; i++)
+				if (segmentLinedef[i] == NO_INDEX)
+					throw new IOException("Segment " + i + " is a miniseg, which non-GL formats can't store.");
+		}
+	}
+
+	// Converts a GL vertex reference to a unified index.
+	private int toGLVertex(int value, int flag)
+	{
+		return (value & flag) != 0 ? mapVertexCount + (value & ~flag) : value;
+	}
+
+	// Converts a unified vertex index to a GL vertex reference.
+	private int fromGLVertex(int index, int flag, int max) throws IOException
+	{
+		if (index >= mapVertexCount)
+			return checkRange(index - mapVertexCount, max, "Vertex index") | flag;
+		return checkRange(index, max, "Vertex index");
+	}
+
+	// Converts an unsigned short to an index, where 0xFFFF is none.
+	private static int toIndex(int value)
+	{
+		return value == 0x0FFFF ? NO_INDEX : value;
+	}
+
+	// Converts an index to an unsigned short, where none is 0xFFFF.
+	private static int fromIndex(int index, String name) throws IOException
+	{
+		return index == NO_INDEX ? 0x0FFFF : checkRange(index, 0x0FFFE, name);
+	}
+
+	private static int checkRange(int value, int max, String name) throws IOException
+	{
+		if (value < 0 || value > max)
+			throw new IOException(name + " " + value + " is out of range for this format (0 to " + max + ").");
+		return value;
+	}
+
+	private static int checkUnsignedShort(int value, String name) throws IOException
+	{
+		return checkRange(value, 0x0FFFF, name);
+	}
+
+	private static int checkShort(int value, String name) throws IOException
+	{
+		if (value < Short.MIN_VALUE || value > Short.MAX_VALUE)
+			throw new IOException(name + " " + value + " is out of range for this format (-32768 to 32767).");
+		return value;
+	}
+
+	/**
+	 * Little-endian input from a stream, through a buffer.
+	 * The input can be limited to a set amount of bytes, so that the buffer does not read past the end of the data.
+	 */
+	private static class NodeInput
+	{
+		private final InputStream in;
+		private final ByteBuffer buffer;
+		/** Bytes that can still be read from the stream, or -1 for no limit. */
+		private long allowed;
+
+		private NodeInput(InputStream in)
+		{
+			this(in, -1L);
+		}
+
+		private NodeInput(InputStream in, long allowed)
+		{
+			this.in = in;
+			this.buffer = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+			this.buffer.limit(0);
+			this.allowed = allowed;
+		}
+
+		// Allows more bytes to be read from the stream, if limited.
+		private void allow(long bytes)
+		{
+			if (allowed >= 0)
+				allowed += bytes;
+		}
+
+		private void require(int bytes) throws IOException
+		{
+			if (buffer.remaining() >= bytes)
+				return;
+			buffer.compact();
+			while (buffer.position() < bytes)
+			{
+				int length = buffer.capacity() - buffer.position();
+				if (allowed >= 0)
+					length = (int)Math.min(length, allowed);
+				if (length == 0)
+					throw new IllegalStateException("Read past the allowed amount of node data.");
+				int n = in.read(buffer.array(), buffer.position(), length);
+				if (n < 0)
+					throw new IOException("Node data ended unexpectedly.");
+				if (allowed >= 0)
+					allowed -= n;
+				buffer.position(buffer.position() + n);
+			}
+			buffer.flip();
+		}
+
+		private int readInt() throws IOException
+		{
+			require(4);
+			return buffer.getInt();
+		}
+
+		private int readCount() throws IOException
+		{
+			int out = readInt();
+			if (out < 0 || out > MAX_COUNT)
+				throw new IOException("Bad count in node data: " + (out & 0x0FFFFFFFFL));
+			return out;
+		}
+
+		private int readShort() throws IOException
+		{
+			require(2);
+			return buffer.getShort();
+		}
+
+		private int readUnsignedShort() throws IOException
+		{
+			require(2);
+			return buffer.getShort() & 0x0FFFF;
+		}
+
+		private int readUnsignedByte() throws IOException
+		{
+			require(1);
+			return buffer.get() & 0x0FF;
+		}
+	}
+
+	/**
+	 * Little-endian output to a stream, through a buffer.
+	 */
+	private static class NodeOutput
+	{
+		private final OutputStream out;
+		private final ByteBuffer buffer;
+
+		private NodeOutput(OutputStream out)
+		{
+			this.out = out;
+			this.buffer = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		private void require(int bytes) throws IOException
+		{
+			if (buffer.remaining() < bytes)
+				flush();
+		}
+
+		private void writeInt(int value) throws IOException
+		{
+			require(4);
+			buffer.putInt(value);
+		}
+
+		private void writeShort(int value) throws IOException
+		{
+			require(2);
+			buffer.putShort((short)value);
+		}
+
+		private void writeByte(int value) throws IOException
+		{
+			require(1);
+			buffer.put((byte)value);
+		}
+
+		private void flush() throws IOException
+		{
+			out.write(buffer.array(), 0, buffer.position());
+			buffer.clear();
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.bsp;
+
+/**
+ * BSP node formats.
+ * <p>ZDoom formats are stored in one lump: NODES for regular nodes, SSECTORS for GL nodes in binary maps,
+ * or ZNODES in UDMF maps. glBSP formats are stored in the GL_VERT, GL_SEGS, GL_SSECT, and GL_NODES lumps.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ * @see ExtendedBSPTree
+ */
+public enum NodeFormat
+{
+	/** Vanilla nodes, in NODES, SEGS, and SSECTORS (16-bit indices). */
+	DOOM(null, false, false, false),
+	/** ZDoom extended nodes (32-bit indices). */
+	XNOD("XNOD", true, false, false),
+	/** ZDoom extended nodes, zlib-compressed. */
+	ZNOD("ZNOD", true, true, false),
+	/** ZDoom GL nodes (32-bit indices, 16-bit linedef indices). */
+	XGLN("XGLN", true, false, true),
+	/** ZDoom GL nodes, zlib-compressed. */
+	ZGLN("ZGLN", true, true, true),
+	/** ZDoom GL nodes, version 2 (32-bit linedef indices). */
+	XGL2("XGL2", true, false, true),
+	/** ZDoom GL nodes, version 2, zlib-compressed. */
+	ZGL2("ZGL2", true, true, true),
+	/** ZDoom GL nodes, version 3 (fixed-point partition lines). */
+	XGL3("XGL3", true, false, true),
+	/** ZDoom GL nodes, version 3, zlib-compressed. */
+	ZGL3("ZGL3", true, true, true),
+	/** glBSP GL nodes, version 2 (16-bit indices). */
+	GL_V2("gNd2", false, false, true),
+	/** glBSP GL nodes, version 5 (32-bit indices). */
+	GL_V5("gNd5", false, false, true);
+
+	private final String signature;
+	private final boolean zdoom;
+	private final boolean compressed;
+	private final boolean gl;
+
+	private NodeFormat(String signature, boolean zdoom, boolean compressed, boolean gl)
+	{
+		this.signature = signature;
+		this.zdoom = zdoom;
+		this.compressed = compressed;
+		this.gl = gl;
+	}
+
+	/**
+	 * @return the 4-character signature that starts the format's data (the NODES lump, or the GL_VERT lump for glBSP formats), or null for {@link #DOOM}.
+	 */
+	public String getSignature()
+	{
+		return signature;
+	}
+
+	/**
+	 * @return true if this is a single-lump ZDoom format, false if not.
+	 */
+	public boolean isZDoom()
+	{
+		return zdoom;
+	}
+
+	/**
+	 * @return true if the data after the signature is zlib-compressed, false if not.
+	 */
+	public boolean isCompressed()
+	{
+		return compressed;
+	}
+
+	/**
+	 * @return true if this is a GL node format (subsectors are closed, and may contain minisegs), false if not.
+	 */
+	public boolean isGL()
+	{
+		return gl;
+	}
+
+	/**
+	 * Gets a format by its signature.
+	 * @param signature the signature (4 characters).
+	 * @return the matching format, or null if no match.
+	 */
+	public static NodeFormat getBySignature(String signature)
+	{
+		for (NodeFormat format : values())
+			if (format.signature != null && format.signature.equals(signature))
+				return format;
+		return null;
+	}
+
+}
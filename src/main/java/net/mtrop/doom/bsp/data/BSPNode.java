@@ -10,10 +10,12 @@ package net.mtrop.doom.bsp.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
@@ -27,6 +29,11 @@ public class BSPNode implements BinaryObject
 
 	/** Leaf node value. */
 	public static final int LEAF_NODE_INDEX = 0xffff8000;
+	/** 
+	 * Leaf node flag. Child indices with this bit set are subsector indices (the rest of the bits), not node indices.
+	 * @since 2.23.0
+	 */
+	public static final int LEAF_NODE_FLAG = 0x8000;
 	
 	/** This node's partition line's X-coordinate. */
 	protected int partitionLineX;
@@ -74,7 +81,7 @@ public class BSPNode implements BinaryObject
 	 */
 	public void setPartitionLineX(int val)
 	{
-		RangeUtils.checkShort("Partition Line X", partitionLineX);
+		RangeUtils.checkShort("Partition Line X", val);
 		partitionLineX = val;
 	}
 
@@ -91,7 +98,7 @@ public class BSPNode implements BinaryObject
 	 */
 	public void setPartitionLineY(int val)
 	{
-		RangeUtils.checkShort("Partition Line Y", partitionLineY);
+		RangeUtils.checkShort("Partition Line Y", val);
 		partitionLineY = val;
 	}
 
@@ -108,7 +115,7 @@ public class BSPNode implements BinaryObject
 	 */
 	public void setPartitionDeltaX(int val)
 	{
-		RangeUtils.checkShort("Partition Delta X", partitionDeltaX);
+		RangeUtils.checkShort("Partition Delta X", val);
 		partitionDeltaX = val;
 	}
 
@@ -125,7 +132,7 @@ public class BSPNode implements BinaryObject
 	 */
 	public void setPartitionDeltaY(int val)
 	{
-		RangeUtils.checkShort("Partition Delta Y", partitionDeltaY);
+		RangeUtils.checkShort("Partition Delta Y", val);
 		partitionDeltaY = val;
 	}
 
@@ -147,10 +154,10 @@ public class BSPNode implements BinaryObject
 	 */
 	public void setRightRect(int top, int bottom, int left, int right)
 	{
-		RangeUtils.checkShort("Right Box Top", rightRect[0]);
-		RangeUtils.checkShort("Right Box Bottom", rightRect[1]);
-		RangeUtils.checkShort("Right Box Left", rightRect[2]);
-		RangeUtils.checkShort("Right Box Right", rightRect[3]);
+		RangeUtils.checkShort("Right Box Top", top);
+		RangeUtils.checkShort("Right Box Bottom", bottom);
+		RangeUtils.checkShort("Right Box Left", left);
+		RangeUtils.checkShort("Right Box Right", right);
 		rightRect[0] = top;
 		rightRect[1] = bottom;
 		rightRect[2] = left;
@@ -175,10 +182,10 @@ public class BSPNode implements BinaryObject
 	 */
 	public void setLeftRect(int top, int bottom, int left, int right)
 	{
-		RangeUtils.checkShort("Left Box Top", leftRect[0]);
-		RangeUtils.checkShort("Left Box Bottom", leftRect[1]);
-		RangeUtils.checkShort("Left Box Left", leftRect[2]);
-		RangeUtils.checkShort("Left Box Right", leftRect[3]);
+		RangeUtils.checkShort("Left Box Top", top);
+		RangeUtils.checkShort("Left Box Bottom", bottom);
+		RangeUtils.checkShort("Left Box Left", left);
+		RangeUtils.checkShort("Left Box Right", right);
 		leftRect[0] = top;
 		leftRect[1] = bottom;
 		leftRect[2] = left;
@@ -186,11 +193,12 @@ public class BSPNode implements BinaryObject
 	}
 
 	/** 
-	 * @return true, if this node's right node is a leaf, false if not. 
+	 * @return true, if this node's right node is a leaf (a subsector), false if not. 
+	 * @see #LEAF_NODE_FLAG
 	 */
 	public boolean getRightChildIsLeaf()
 	{
-		return rightSubsectorIndex == LEAF_NODE_INDEX;
+		return (rightSubsectorIndex & LEAF_NODE_FLAG) != 0;
 	}
 
 	/** 
@@ -203,8 +211,8 @@ public class BSPNode implements BinaryObject
 
 	/** 
 	 * Sets this node's right subsector index. 
-	 * @param val the new right subsector index.
-	 * @throws IllegalArgumentException if the value is outside the range 0 to 32767, or isn't {@link BSPNode#LEAF_NODE_INDEX}. 
+	 * @param val the new right child index: a node index, or a subsector index combined with {@link BSPNode#LEAF_NODE_FLAG}.
+	 * @throws IllegalArgumentException if the value is outside the range 0 to 65535, or isn't {@link BSPNode#LEAF_NODE_INDEX}. 
 	 */
 	public void setRightSubsectorIndex(int val)
 	{
@@ -212,7 +220,7 @@ public class BSPNode implements BinaryObject
 			rightSubsectorIndex = val;
 		else
 		{
-			RangeUtils.checkRange("Right Subsector Index", 0, 32767, rightSubsectorIndex);
+			RangeUtils.checkShortUnsigned("Right Subsector Index", val);
 			rightSubsectorIndex = val;
 		}
 	}
@@ -226,17 +234,18 @@ public class BSPNode implements BinaryObject
 	}
 
 	/** 
-	 * @return true, if this node's left node is a leaf, false if not.  
+	 * @return true, if this node's left node is a leaf (a subsector), false if not.  
+	 * @see #LEAF_NODE_FLAG
 	 */
 	public boolean getLeftChildIsLeaf()
 	{
-		return leftSubsectorIndex == LEAF_NODE_INDEX;
+		return (leftSubsectorIndex & LEAF_NODE_FLAG) != 0;
 	}
 
 	/** 
 	 * Sets this node's left subsector index. 
-	 * @param val the new left subsector index.
-	 * @throws IllegalArgumentException if the value is outside the range 0 to 32767, or isn't {@link BSPNode#LEAF_NODE_INDEX}. 
+	 * @param val the new left child index: a node index, or a subsector index combined with {@link BSPNode#LEAF_NODE_FLAG}.
+	 * @throws IllegalArgumentException if the value is outside the range 0 to 65535, or isn't {@link BSPNode#LEAF_NODE_INDEX}. 
 	 */
 	public void setLeftSubsectorIndex(int val)
 	{
@@ -244,7 +253,7 @@ public class BSPNode implements BinaryObject
 			leftSubsectorIndex = val;
 		else
 		{
-			RangeUtils.checkRange("Left Subsector Index", 0, 32767, leftSubsectorIndex);
+			RangeUtils.checkShortUnsigned("Left Subsector Index", val);
 			leftSubsectorIndex = val;
 		}
 	}
@@ -261,8 +270,8 @@ public class BSPNode implements BinaryObject
 			rightRect[i] = sr.readShort(in);
 		for (int i = 0; i < 4; i++)
 			leftRect[i] = sr.readShort(in);
-		rightSubsectorIndex = sr.readShort(in);
-		leftSubsectorIndex = sr.readShort(in);
+		rightSubsectorIndex = sr.readUnsignedShort(in);
+		leftSubsectorIndex = sr.readUnsignedShort(in);
 	}
 
 	@Override
@@ -281,4 +290,40 @@ public class BSPNode implements BinaryObject
 		sw.writeShort(out, (short)leftSubsectorIndex);
 	}
 
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		partitionLineX = bb.getShort(p);
+		partitionLineY = bb.getShort(p + 2);
+		partitionDeltaX = bb.getShort(p + 4);
+		partitionDeltaY = bb.getShort(p + 6);
+		for (int i = 0; i < 4; i++)
+			rightRect[i] = bb.getShort(p + 8 + i * 2);
+		for (int i = 0; i < 4; i++)
+			leftRect[i] = bb.getShort(p + 16 + i * 2);
+		rightSubsectorIndex = bb.getShort(p + 24) & 0x0FFFF;
+		leftSubsectorIndex = bb.getShort(p + 26) & 0x0FFFF;
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)partitionLineX);
+		bb.putShort(p + 2, (short)partitionLineY);
+		bb.putShort(p + 4, (short)partitionDeltaX);
+		bb.putShort(p + 6, (short)partitionDeltaY);
+		for (int i = 0; i < 4; i++)
+			bb.putShort(p + 8 + i * 2, (short)rightRect[i]);
+		for (int i = 0; i < 4; i++)
+			bb.putShort(p + 16 + i * 2, (short)leftRect[i]);
+		bb.putShort(p + 24, (short)rightSubsectorIndex);
+		bb.putShort(p + 26, (short)leftSubsectorIndex);
+		buffer.position(p + LENGTH);
+	}
+
 }
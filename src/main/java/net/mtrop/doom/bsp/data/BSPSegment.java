@@ -10,10 +10,12 @@ package net.mtrop.doom.bsp.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
@@ -80,7 +82,7 @@ public class BSPSegment implements BinaryObject
 	 */
 	public void setVertexStartIndex(int val)
 	{
-		RangeUtils.checkShort("Vertex Start Index", vertexStartIndex);
+		RangeUtils.checkShortUnsigned("Vertex Start Index", val);
 		vertexStartIndex = val;
 	}
 
@@ -99,12 +101,12 @@ public class BSPSegment implements BinaryObject
 	 */
 	public void setVertexEndIndex(int val)
 	{
-		RangeUtils.checkShort("Vertex End Index", vertexEndIndex);
+		RangeUtils.checkShortUnsigned("Vertex End Index", val);
 		vertexEndIndex = val;
 	}
 
 	/** 
-	 * @return this Seg's angle in degrees. 
+	 * @return this Seg's binary angle (0 to 65535). 
 	 */
 	public int getAngle()
 	{
@@ -113,13 +115,14 @@ public class BSPSegment implements BinaryObject
 
 	/** 
 	 * Sets this Seg's binary angle. 
+	 * Negative angles are stored as their unsigned equivalents (for example, {@link #ANGLE_SOUTH} is stored as 49152).
 	 * @param val the new binary angle. 
-	 * @throws IllegalArgumentException if the provided value is outside the range -32768 to 32767.
+	 * @throws IllegalArgumentException if the provided value is outside the range -32768 to 65535.
 	 */
 	public void setAngle(int val)
 	{
-		RangeUtils.checkShort("Angle", angle);
-		angle = val;
+		RangeUtils.checkRange("Angle", -32768, 65535, val);
+		angle = val & 0x0FFFF;
 	}
 
 	/** 
@@ -133,11 +136,11 @@ public class BSPSegment implements BinaryObject
 	/** 
 	 * Sets this Seg's linedef index. 
 	 * @param val the new linedef index. 
-	 * @throws IllegalArgumentException if the provided value is outside the range -32768 to 32767.
+	 * @throws IllegalArgumentException if the provided value is outside the range 0 to 65535.
 	 */
 	public void setLinedefIndex(int val)
 	{
-		RangeUtils.checkShort("Linedef Index", linedefIndex);
+		RangeUtils.checkShortUnsigned("Linedef Index", val);
 		linedefIndex = val;
 	}
 
@@ -156,7 +159,7 @@ public class BSPSegment implements BinaryObject
 	 */
 	public void setDirection(int val)
 	{
-		RangeUtils.checkRange("Direction", DIRECTION_SAME_AS_LINEDEF, DIRECTION_OPPOSITE_LINEDEF, direction);
+		RangeUtils.checkRange("Direction", DIRECTION_SAME_AS_LINEDEF, DIRECTION_OPPOSITE_LINEDEF, val);
 		direction = val;
 	}
 
@@ -175,7 +178,7 @@ public class BSPSegment implements BinaryObject
 	 */
 	public void setOffset(int val)
 	{
-		RangeUtils.checkShort("Offset", offset);
+		RangeUtils.checkShortUnsigned("Offset", val);
 		offset = val;
 	}
 
@@ -203,4 +206,32 @@ public class BSPSegment implements BinaryObject
 		sw.writeUnsignedShort(out, offset);
 	}
 
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		vertexStartIndex = bb.getShort(p) & 0x0FFFF;
+		vertexEndIndex = bb.getShort(p + 2) & 0x0FFFF;
+		angle = bb.getShort(p + 4) & 0x0FFFF;
+		linedefIndex = bb.getShort(p + 6) & 0x0FFFF;
+		direction = bb.getShort(p + 8) & 0x0FFFF;
+		offset = bb.getShort(p + 10) & 0x0FFFF;
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)vertexStartIndex);
+		bb.putShort(p + 2, (short)vertexEndIndex);
+		bb.putShort(p + 4, (short)angle);
+		bb.putShort(p + 6, (short)linedefIndex);
+		bb.putShort(p + 8, (short)direction);
+		bb.putShort(p + 10, (short)offset);
+		buffer.position(p + LENGTH);
+	}
+
 }
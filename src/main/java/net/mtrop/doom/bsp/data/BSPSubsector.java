@@ -10,10 +10,12 @@ package net.mtrop.doom.bsp.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
@@ -94,4 +96,24 @@ public class BSPSubsector implements BinaryObject
 		sw.writeUnsignedShort(out, segStartIndex);
 	}
 
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		segCount = bb.getShort(p) & 0x0FFFF;
+		segStartIndex = bb.getShort(p + 2) & 0x0FFFF;
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)segCount);
+		bb.putShort(p + 2, (short)segStartIndex);
+		buffer.position(p + LENGTH);
+	}
+
 }
@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import net.mtrop.doom.map.data.Blockmap;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.util.RangeUtils;
+
+/**
+ * Builds a {@link Blockmap} from map geometry.
+ * <p>The grid starts at the lowest vertex coordinates, and is just large enough to cover every vertex.
+ * A linedef is added to every block that it touches, counting each block's edges as part of the block,
+ * so linedefs that lie on (or pass through a corner of) a block edge are added to the blocks on both sides.
+ * Rasterization uses exact integer math, so no block is ever missed or added due to rounding.
+ * <p>Rows are built independently, and on several threads if parallel building is enabled.
+ * The builder itself holds only settings, and can be reused.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class BlockmapBuilder
+{
+	/** Block size in map units. */
+	private static final int BLOCK_SIZE = 128;
+	
+	/** Write compressed. */
+	private boolean compressed;
+	/** Build rows in parallel. */
+	private boolean parallel;
+
+	/**
+	 * Creates a new builder that builds uncompressed Blockmaps on the calling thread.
+	 */
+	public BlockmapBuilder()
+	{
+		this.compressed = false;
+		this.parallel = false;
+	}
+
+	/**
+	 * Sets if built Blockmaps are set to be written compressed (identical block lists are shared).
+	 * Uncompressed Blockmaps are written with one list per block, like vanilla-era node builders.
+	 * @param compressed true for compressed, false for not.
+	 * @return this builder.
+	 * @see Blockmap#setCompressed(boolean)
+	 */
+	public BlockmapBuilder setCompressed(boolean compressed)
+	{
+		this.compressed = compressed;
+		return this;
+	}
+
+	/**
+	 * Sets if block rows are rasterized in parallel (on the common fork-join pool).
+	 * @param parallel true for parallel, false for not.
+	 * @return this builder.
+	 */
+	public BlockmapBuilder setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+		return this;
+	}
+
+	/**
+	 * Builds a Blockmap from a Doom-format map (or any view of Doom-format objects, like a {@link CompactDoomMap}).
+	 * @param map the source map.
+	 * @return a new Blockmap.
+	 * @throws IllegalArgumentException if the map is too large for a Blockmap, or a linedef index is over 65535.
+	 */
+	public Blockmap build(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ?, ? extends DoomThing> map)
+	{
+		return build(map, MapGeometryReader.DOOM);
+	}
+
+	/**
+	 * Builds a Blockmap from a Hexen-format map.
+	 * @param map the source map.
+	 * @return a new Blockmap.
+	 * @throws IllegalArgumentException if the map is too large for a Blockmap, or a linedef index is over 65535.
+	 */
+	public Blockmap build(HexenMap map)
+	{
+		return build(map, MapGeometryReader.HEXEN);
+	}
+
+	/**
+	 * Builds a Blockmap from any map view, reading its geometry with a {@link MapGeometryReader}.
+	 * Coordinates are rounded to whole map units. Linedefs with vertex references that are out of range are skipped.
+	 * @param <V> the vertex type.
+	 * @param <L> the linedef type.
+	 * @param map the source map.
+	 * @param reader the reader for reading the geometry from the map's objects.
+	 * @return a new Blockmap.
+	 * @throws IllegalArgumentException if the map is too large for a Blockmap, or a linedef index is over 65535.
+	 */
+	public <V, L> Blockmap build(MapView<V, L, ?, ?, ?> map, MapGeometryReader<? super V, ? super L, ?, ?> reader)
+	{
+		int vertexCount = map.getVertexCount();
+		long[] vertexX = new long[vertexCount];
+		long[] vertexY = new long[vertexCount];
+		long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+		for (int i = 0; i < vertexCount; i++)
+		{
+			V vertex = map.getVertex(i);
+			vertexX[i] = Math.round(reader.getVertexX(vertex));
+			vertexY[i] = Math.round(reader.getVertexY(vertex));
+			minX = Math.min(minX, vertexX[i]);
+			minY = Math.min(minY, vertexY[i]);
+			maxX = Math.max(maxX, vertexX[i]);
+			maxY = Math.max(maxY, vertexY[i]);
+		}
+		if (vertexCount == 0)
+			minX = minY = maxX = maxY = 0;
+
+		int columns = (int)Math.min(Integer.MAX_VALUE, ((maxX - minX) / BLOCK_SIZE) + 1);
+		int rows = (int)Math.min(Integer.MAX_VALUE, ((maxY - minY) / BLOCK_SIZE) + 1);
+		RangeUtils.checkShort("Grid start X", (int)Math.max(Integer.MIN_VALUE, minX));
+		RangeUtils.checkShort("Grid start Y", (int)Math.max(Integer.MIN_VALUE, minY));
+		RangeUtils.checkRange("Columns", 1, 513, columns);
+		RangeUtils.checkRange("Rows", 1, 513, rows);
+		Grid grid = new Grid(minX, minY, columns, rows);
+
+		int linedefCount = map.getLinedefCount();
+		if (linedefCount > 0)
+			RangeUtils.checkShortUnsigned("Linedef Index", linedefCount - 1);
+		long[] lines = new long[linedefCount * 4];
+		boolean[] valid = new boolean[linedefCount];
+		for (int i = 0; i < linedefCount; i++)
+		{
+			L linedef = map.getLinedef(i);
+			int start = reader.getLinedefVertexStart(linedef);
+			int end = reader.getLinedefVertexEnd(linedef);
+			if (start < 0 || start >= vertexCount || end < 0 || end >= vertexCount)
+				continue;
+			// store lowest Y first.
+			if (vertexY[start] > vertexY[end])
+			{
+				int t = start;
+				start = end;
+				end = t;
+			}
+			lines[i * 4] = vertexX[start];
+			lines[i * 4 + 1] = vertexY[start];
+			lines[i * 4 + 2] = vertexX[end];
+			lines[i * 4 + 3] = vertexY[end];
+			valid[i] = true;
+		}
+
+		// bin linedefs into the rows they touch (in linedef order).
+		int[] rowStart = new int[grid.rows + 1];
+		for (int n = 0; n < 2; n++)
+		{
+			int[] rowNext = n == 0 ? null : Arrays.copyOf(rowStart, grid.rows);
+			int[] rowLines = n == 0 ? null : new int[rowStart[grid.rows]];
+			for (int i = 0; i < linedefCount; i++)
+			{
+				if (!valid[i])
+					continue;
+				int r0 = grid.getFirstRow(lines[i * 4 + 1]);
+				int r1 = grid.getLastRow(lines[i * 4 + 3]);
+				for (int r = r0; r <= r1; r++)
+				{
+					if (n == 0)
+						rowStart[r + 1]++;
+					else
+						rowLines[rowNext[r]++] = i;
+				}
+			}
+			if (n == 0)
+			{
+				for (int r = 0; r < grid.rows; r++)
+					rowStart[r + 1] += rowStart[r];
+			}
+			else
+			{
+				grid.rowStart = rowStart;
+				grid.rowLines = rowLines;
+			}
+		}
+
+		// rasterize each row twice: once to count each block's list, then to fill the packed lists.
+		int[] blockOffsets = new int[grid.columns * grid.rows + 1];
+		IntStream countStream = IntStream.range(0, grid.rows);
+		(parallel ? countStream.parallel() : countStream).forEach((r) -> grid.rasterizeRow(r, lines, blockOffsets, null));
+		for (int n = 0; n < grid.columns * grid.rows; n++)
+			blockOffsets[n + 1] += blockOffsets[n];
+
+		char[] blockLines = new char[blockOffsets[grid.columns * grid.rows]];
+		IntStream fillStream = IntStream.range(0, grid.rows);
+		(parallel ? fillStream.parallel() : fillStream).forEach((r) -> grid.rasterizeRow(r, lines, blockOffsets, blockLines));
+
+		Blockmap out = new Blockmap((int)grid.originX, (int)grid.originY, grid.columns, grid.rows, blockOffsets, blockLines);
+		out.setCompressed(compressed);
+		return out;
+	}
+
+	/**
+	 * Block grid and per-row linedef lists.
+	 */
+	private static class Grid
+	{
+		private long originX;
+		private long originY;
+		private int columns;
+		private int rows;
+		private int[] rowStart;
+		private int[] rowLines;
+
+		private Grid(long originX, long originY, int columns, int rows)
+		{
+			this.originX = originX;
+			this.originY = originY;
+			this.columns = columns;
+			this.rows = rows;
+		}
+
+		// First row whose closed box reaches down to y.
+		private int getFirstRow(long y)
+		{
+			return (int)Math.max(0, ceilDiv(y - originY - BLOCK_SIZE, BLOCK_SIZE));
+		}
+
+		// Last row whose closed box reaches up to y.
+		private int getLastRow(long y)
+		{
+			return (int)Math.min(rows - 1, Math.floorDiv(y - originY, BLOCK_SIZE));
+		}
+
+		// Rasterizes a row. If lines is null, adds each block's list length to blockOffsets[block + 1],
+		// else fills each block's list in blockLines, starting at the finished blockOffsets[block].
+		private void rasterizeRow(int row, long[] lines, int[] blockOffsets, char[] blockLines)
+		{
+			int first = row * columns;
+			int[] next = blockLines != null ? Arrays.copyOfRange(blockOffsets, first, first + columns) : null;
+			long bandMin = originY + (long)row * BLOCK_SIZE;
+			long bandMax = bandMin + BLOCK_SIZE;
+
+			for (int n = rowStart[row]; n < rowStart[row + 1]; n++)
+			{
+				int linedef = rowLines[n];
+				long x0 = lines[linedef * 4];
+				long y0 = lines[linedef * 4 + 1];
+				long x1 = lines[linedef * 4 + 2];
+				long y1 = lines[linedef * 4 + 3];
+
+				long c0, c1;
+				if (y0 == y1)
+				{
+					c0 = ceilDiv(Math.min(x0, x1) - originX - BLOCK_SIZE, BLOCK_SIZE);
+					c1 = Math.floorDiv(Math.max(x0, x1) - originX, BLOCK_SIZE);
+				}
+				else
+				{
+					// X-coordinates of the part of the line in this row, as fractions over dy.
+					long dx = x1 - x0;
+					long dy = y1 - y0;
+					long na = x0 * dy + dx * (Math.max(y0, bandMin) - y0);
+					long nb = x0 * dy + dx * (Math.min(y1, bandMax) - y0);
+					c0 = ceilDiv(Math.min(na, nb) - (originX + BLOCK_SIZE) * dy, BLOCK_SIZE * dy);
+					c1 = Math.floorDiv(Math.max(na, nb) - originX * dy, BLOCK_SIZE * dy);
+				}
+
+				for (int c = (int)Math.max(0, c0); c <= Math.min(columns - 1, c1); c++)
+				{
+					if (blockLines == null)
+						blockOffsets[first + c + 1]++;
+					else
+						blockLines[next[c]++] = (char)linedef;
+				}
+			}
+		}
+
+		private static long ceilDiv(long a, long b)
+		{
+			return -Math.floorDiv(-a, b);
+		}
+	}
+
+}
@@ -0,0 +1,807 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.object.BinaryObject;
+import net.mtrop.doom.util.NamePool;
+import net.mtrop.doom.util.NameUtils;
+
+/**
+ * A compact, read-only Doom-format map that stores its objects as columns of primitive arrays
+ * (one array per field) instead of lists of objects. Texture and flat names are stored as indices
+ * into a {@link TextureNameTable}, which can be shared by many maps.
+ * <p>A map takes roughly the same amount of memory as its binary lumps, plus the array headers.
+ * Fields can be read through the primitive getters (for example, {@link #getLinedefSidedefFrontIndex(int)})
+ * without creating objects. The {@link MapView} getters create a <em>new</em> object on each call, 
+ * for use with code that expects the object model.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ * @see net.mtrop.doom.util.MapUtils#createCompactDoomMap(net.mtrop.doom.Wad, int, TextureNameTable)
+ */
+public class CompactDoomMap implements MapView<DoomVertex, DoomLinedef, DoomSidedef, DoomSector, DoomThing>
+{
+	/** The name table. */
+	private TextureNameTable names;
+
+	/** Vertex X-coordinates. */
+	private short[] vertexX;
+	/** Vertex Y-coordinates. */
+	private short[] vertexY;
+
+	/** Linedef start vertices. */
+	private char[] linedefVertexStart;
+	/** Linedef end vertices. */
+	private char[] linedefVertexEnd;
+	/** Linedef flags. */
+	private char[] linedefFlags;
+	/** Linedef specials. */
+	private char[] linedefSpecial;
+	/** Linedef tags. */
+	private char[] linedefTag;
+	/** Linedef front sidedefs. */
+	private short[] linedefSidedefFront;
+	/** Linedef back sidedefs. */
+	private short[] linedefSidedefBack;
+
+	/** Sidedef X-offsets. */
+	private short[] sidedefOffsetX;
+	/** Sidedef Y-offsets. */
+	private short[] sidedefOffsetY;
+	/** Sidedef top texture name indices. */
+	private int[] sidedefTextureTop;
+	/** Sidedef bottom texture name indices. */
+	private int[] sidedefTextureBottom;
+	/** Sidedef middle texture name indices. */
+	private int[] sidedefTextureMiddle;
+	/** Sidedef sectors. */
+	private short[] sidedefSector;
+
+	/** Sector floor heights. */
+	private short[] sectorHeightFloor;
+	/** Sector ceiling heights. */
+	private short[] sectorHeightCeiling;
+	/** Sector floor texture name indices. */
+	private int[] sectorTextureFloor;
+	/** Sector ceiling texture name indices. */
+	private int[] sectorTextureCeiling;
+	/** Sector light levels. */
+	private short[] sectorLightLevel;
+	/** Sector specials. */
+	private short[] sectorSpecial;
+	/** Sector tags. */
+	private short[] sectorTag;
+
+	/** Thing X-coordinates. */
+	private short[] thingX;
+	/** Thing Y-coordinates. */
+	private short[] thingY;
+	/** Thing angles. */
+	private char[] thingAngle;
+	/** Thing types. */
+	private char[] thingType;
+	/** Thing flags. */
+	private char[] thingFlags;
+
+	private CompactDoomMap(TextureNameTable names, int vertexCount, int linedefCount, int sidedefCount, int sectorCount, int thingCount)
+	{
+		this.names = names;
+
+		this.vertexX = new short[vertexCount];
+		this.vertexY = new short[vertexCount];
+
+		this.linedefVertexStart = new char[linedefCount];
+		this.linedefVertexEnd = new char[linedefCount];
+		this.linedefFlags = new char[linedefCount];
+		this.linedefSpecial = new char[linedefCount];
+		this.linedefTag = new char[linedefCount];
+		this.linedefSidedefFront = new short[linedefCount];
+		this.linedefSidedefBack = new short[linedefCount];
+
+		this.sidedefOffsetX = new short[sidedefCount];
+		this.sidedefOffsetY = new short[sidedefCount];
+		this.sidedefTextureTop = new int[sidedefCount];
+		this.sidedefTextureBottom = new int[sidedefCount];
+		this.sidedefTextureMiddle = new int[sidedefCount];
+		this.sidedefSector = new short[sidedefCount];
+
+		this.sectorHeightFloor = new short[sectorCount];
+		this.sectorHeightCeiling = new short[sectorCount];
+		this.sectorTextureFloor = new int[sectorCount];
+		this.sectorTextureCeiling = new int[sectorCount];
+		this.sectorLightLevel = new short[sectorCount];
+		this.sectorSpecial = new short[sectorCount];
+		this.sectorTag = new short[sectorCount];
+
+		this.thingX = new short[thingCount];
+		this.thingY = new short[thingCount];
+		this.thingAngle = new char[thingCount];
+		this.thingType = new char[thingCount];
+		this.thingFlags = new char[thingCount];
+	}
+
+	/**
+	 * Creates a compact map from Doom-format map lump data.
+	 * Each record is read directly from the bytes, and each distinct texture name is decoded only once.
+	 * Trailing bytes that do not make up a whole record are ignored.
+	 * @param names the name table to add texture and flat names to.
+	 * @param vertexData the VERTEXES lump data (can be null).
+	 * @param linedefData the LINEDEFS lump data (can be null).
+	 * @param sidedefData the SIDEDEFS lump data (can be null).
+	 * @param sectorData the SECTORS lump data (can be null).
+	 * @param thingData the THINGS lump data (can be null).
+	 * @return a new compact map.
+	 * @throws NullPointerException if <code>names</code> is null.
+	 */
+	public static CompactDoomMap read(TextureNameTable names, byte[] vertexData, byte[] linedefData, byte[] sidedefData, byte[] sectorData, byte[] thingData)
+	{
+		ByteBuffer vertexBuffer = wrap(vertexData);
+		ByteBuffer linedefBuffer = wrap(linedefData);
+		ByteBuffer sidedefBuffer = wrap(sidedefData);
+		ByteBuffer sectorBuffer = wrap(sectorData);
+		ByteBuffer thingBuffer = wrap(thingData);
+
+		CompactDoomMap out = new CompactDoomMap(names, 
+			vertexBuffer.capacity() / DoomVertex.LENGTH,
+			linedefBuffer.capacity() / DoomLinedef.LENGTH,
+			sidedefBuffer.capacity() / DoomSidedef.LENGTH,
+			sectorBuffer.capacity() / DoomSector.LENGTH,
+			thingBuffer.capacity() / DoomThing.LENGTH
+		);
+		
+		for (int i = 0, p = 0; i < out.vertexX.length; i++, p += DoomVertex.LENGTH)
+		{
+			out.vertexX[i] = vertexBuffer.getShort(p);
+			out.vertexY[i] = vertexBuffer.getShort(p + 2);
+		}
+		
+		for (int i = 0, p = 0; i < out.linedefVertexStart.length; i++, p += DoomLinedef.LENGTH)
+		{
+			out.linedefVertexStart[i] = linedefBuffer.getChar(p);
+			out.linedefVertexEnd[i] = linedefBuffer.getChar(p + 2);
+			out.linedefFlags[i] = linedefBuffer.getChar(p + 4);
+			out.linedefSpecial[i] = linedefBuffer.getChar(p + 6);
+			out.linedefTag[i] = linedefBuffer.getChar(p + 8);
+			out.linedefSidedefFront[i] = linedefBuffer.getShort(p + 10);
+			out.linedefSidedefBack[i] = linedefBuffer.getShort(p + 12);
+		}
+		
+		NameDecoder textureNames = new NameDecoder(names, NamePool.UPPERCASE_NAMES);
+		for (int i = 0, p = 0; i < out.sidedefOffsetX.length; i++, p += DoomSidedef.LENGTH)
+		{
+			out.sidedefOffsetX[i] = sidedefBuffer.getShort(p);
+			out.sidedefOffsetY[i] = sidedefBuffer.getShort(p + 2);
+			out.sidedefTextureTop[i] = textureNames.decode(sidedefBuffer, p + 4);
+			out.sidedefTextureBottom[i] = textureNames.decode(sidedefBuffer, p + 12);
+			out.sidedefTextureMiddle[i] = textureNames.decode(sidedefBuffer, p + 20);
+			out.sidedefSector[i] = sidedefBuffer.getShort(p + 28);
+		}
+
+		NameDecoder flatNames = new NameDecoder(names, NamePool.NAMES);
+		for (int i = 0, p = 0; i < out.sectorHeightFloor.length; i++, p += DoomSector.LENGTH)
+		{
+			out.sectorHeightFloor[i] = sectorBuffer.getShort(p);
+			out.sectorHeightCeiling[i] = sectorBuffer.getShort(p + 2);
+			out.sectorTextureFloor[i] = flatNames.decode(sectorBuffer, p + 4);
+			out.sectorTextureCeiling[i] = flatNames.decode(sectorBuffer, p + 12);
+			out.sectorLightLevel[i] = sectorBuffer.getShort(p + 20);
+			out.sectorSpecial[i] = sectorBuffer.getShort(p + 22);
+			out.sectorTag[i] = sectorBuffer.getShort(p + 24);
+		}
+		
+		for (int i = 0, p = 0; i < out.thingX.length; i++, p += DoomThing.LENGTH)
+		{
+			out.thingX[i] = thingBuffer.getShort(p);
+			out.thingY[i] = thingBuffer.getShort(p + 2);
+			out.thingAngle[i] = thingBuffer.getChar(p + 4);
+			out.thingType[i] = thingBuffer.getChar(p + 6);
+			out.thingFlags[i] = thingBuffer.getChar(p + 8);
+		}
+		
+		return out;
+	}
+
+	/**
+	 * Creates a compact map from a map of Doom-format objects (for example, a {@link DoomMap}).
+	 * @param names the name table to add texture and flat names to.
+	 * @param map the source map.
+	 * @return a new compact map.
+	 * @throws NullPointerException if <code>names</code> or <code>map</code> is null.
+	 */
+	public static CompactDoomMap create(TextureNameTable names, MapView<DoomVertex, DoomLinedef, DoomSidedef, DoomSector, DoomThing> map)
+	{
+		CompactDoomMap out = new CompactDoomMap(names, 
+			map.getVertexCount(),
+			map.getLinedefCount(),
+			map.getSidedefCount(),
+			map.getSectorCount(),
+			map.getThingCount()
+		);
+		
+		for (int i = 0; i < out.vertexX.length; i++)
+		{
+			DoomVertex vertex = map.getVertex(i);
+			out.vertexX[i] = (short)vertex.getX();
+			out.vertexY[i] = (short)vertex.getY();
+		}
+
+		for (int i = 0; i < out.linedefVertexStart.length; i++)
+		{
+			DoomLinedef linedef = map.getLinedef(i);
+			out.linedefVertexStart[i] = (char)linedef.getVertexStartIndex();
+			out.linedefVertexEnd[i] = (char)linedef.getVertexEndIndex();
+			out.linedefFlags[i] = (char)linedef.getFlags();
+			out.linedefSpecial[i] = (char)linedef.getSpecial();
+			out.linedefTag[i] = (char)linedef.getTag();
+			out.linedefSidedefFront[i] = (short)linedef.getSidedefFrontIndex();
+			out.linedefSidedefBack[i] = (short)linedef.getSidedefBackIndex();
+		}
+
+		for (int i = 0; i < out.sidedefOffsetX.length; i++)
+		{
+			DoomSidedef sidedef = map.getSidedef(i);
+			out.sidedefOffsetX[i] = (short)sidedef.getOffsetX();
+			out.sidedefOffsetY[i] = (short)sidedef.getOffsetY();
+			out.sidedefTextureTop[i] = names.add(sidedef.getTextureTop());
+			out.sidedefTextureBottom[i] = names.add(sidedef.getTextureBottom());
+			out.sidedefTextureMiddle[i] = names.add(sidedef.getTextureMiddle());
+			out.sidedefSector[i] = (short)sidedef.getSectorIndex();
+		}
+
+		for (int i = 0; i < out.sectorHeightFloor.length; i++)
+		{
+			DoomSector sector = map.getSector(i);
+			out.sectorHeightFloor[i] = (short)sector.getHeightFloor();
+			out.sectorHeightCeiling[i] = (short)sector.getHeightCeiling();
+			out.sectorTextureFloor[i] = names.add(sector.getTextureFloor());
+			out.sectorTextureCeiling[i] = names.add(sector.getTextureCeiling());
+			out.sectorLightLevel[i] = (short)sector.getLightLevel();
+			out.sectorSpecial[i] = (short)sector.getSpecial();
+			out.sectorTag[i] = (short)sector.getTag();
+		}
+
+		for (int i = 0; i < out.thingX.length; i++)
+		{
+			DoomThing thing = map.getThing(i);
+			out.thingX[i] = (short)thing.getX();
+			out.thingY[i] = (short)thing.getY();
+			out.thingAngle[i] = (char)thing.getAngle();
+			out.thingType[i] = (char)thing.getType();
+			out.thingFlags[i] = (char)thing.getFlags();
+		}
+		
+		return out;
+	}
+
+	/**
+	 * Creates a new {@link DoomMap} with new objects for all of the objects in this map.
+	 * @return a new DoomMap.
+	 */
+	public DoomMap toDoomMap()
+	{
+		DoomMap out = new DoomMap();
+		for (int i = 0; i < getVertexCount(); i++)
+			out.addVertex(getVertex(i));
+		for (int i = 0; i < getLinedefCount(); i++)
+			out.addLinedef(getLinedef(i));
+		for (int i = 0; i < getSidedefCount(); i++)
+			out.addSidedef(getSidedef(i));
+		for (int i = 0; i < getSectorCount(); i++)
+			out.addSector(getSector(i));
+		for (int i = 0; i < getThingCount(); i++)
+			out.addThing(getThing(i));
+		return out;
+	}
+
+	/**
+	 * @return the name table that this map's texture and flat name indices refer to.
+	 */
+	public TextureNameTable getNameTable()
+	{
+		return names;
+	}
+
+	/**
+	 * Creates a new vertex object from this map's data.
+	 * @param i the vertex index.
+	 * @return a new vertex, or null if the index is out of range.
+	 */
+	@Override
+	public DoomVertex getVertex(int i)
+	{
+		if (i < 0 || i >= getVertexCount())
+			return null;
+		ByteBuffer bb = allocate(DoomVertex.LENGTH);
+		bb.putShort(0, vertexX[i]).putShort(2, vertexY[i]);
+		return toObject(new DoomVertex(), bb);
+	}
+
+	@Override
+	public int getVertexCount()
+	{
+		return vertexX.length;
+	}
+
+	/**
+	 * Creates a new linedef object from this map's data.
+	 * @param i the linedef index.
+	 * @return a new linedef, or null if the index is out of range.
+	 */
+	@Override
+	public DoomLinedef getLinedef(int i)
+	{
+		if (i < 0 || i >= getLinedefCount())
+			return null;
+		ByteBuffer bb = allocate(DoomLinedef.LENGTH);
+		bb.putChar(0, linedefVertexStart[i]).putChar(2, linedefVertexEnd[i]);
+		bb.putChar(4, linedefFlags[i]).putChar(6, linedefSpecial[i]).putChar(8, linedefTag[i]);
+		bb.putShort(10, linedefSidedefFront[i]).putShort(12, linedefSidedefBack[i]);
+		return toObject(new DoomLinedef(), bb);
+	}
+
+	@Override
+	public int getLinedefCount()
+	{
+		return linedefVertexStart.length;
+	}
+
+	/**
+	 * Creates a new sidedef object from this map's data.
+	 * @param i the sidedef index.
+	 * @return a new sidedef, or null if the index is out of range.
+	 */
+	@Override
+	public DoomSidedef getSidedef(int i)
+	{
+		if (i < 0 || i >= getSidedefCount())
+			return null;
+		ByteBuffer bb = allocate(DoomSidedef.LENGTH);
+		bb.putShort(0, sidedefOffsetX[i]).putShort(2, sidedefOffsetY[i]);
+		NameUtils.putASCIIName(bb, 4, names.getName(sidedefTextureTop[i]), 8);
+		NameUtils.putASCIIName(bb, 12, names.getName(sidedefTextureBottom[i]), 8);
+		NameUtils.putASCIIName(bb, 20, names.getName(sidedefTextureMiddle[i]), 8);
+		bb.putShort(28, sidedefSector[i]);
+		return toObject(new DoomSidedef(), bb);
+	}
+
+	@Override
+	public int getSidedefCount()
+	{
+		return sidedefOffsetX.length;
+	}
+
+	/**
+	 * Creates a new sector object from this map's data.
+	 * @param i the sector index.
+	 * @return a new sector, or null if the index is out of range.
+	 */
+	@Override
+	public DoomSector getSector(int i)
+	{
+		if (i < 0 || i >= getSectorCount())
+			return null;
+		ByteBuffer bb = allocate(DoomSector.LENGTH);
+		bb.putShort(0, sectorHeightFloor[i]).putShort(2, sectorHeightCeiling[i]);
+		NameUtils.putASCIIName(bb, 4, names.getName(sectorTextureFloor[i]), 8);
+		NameUtils.putASCIIName(bb, 12, names.getName(sectorTextureCeiling[i]), 8);
+		bb.putShort(20, sectorLightLevel[i]).putShort(22, sectorSpecial[i]).putShort(24, sectorTag[i]);
+		return toObject(new DoomSector(), bb);
+	}
+
+	@Override
+	public int getSectorCount()
+	{
+		return sectorHeightFloor.length;
+	}
+
+	/**
+	 * Creates a new thing object from this map's data.
+	 * @param i the thing index.
+	 * @return a new thing, or null if the index is out of range.
+	 */
+	@Override
+	public DoomThing getThing(int i)
+	{
+		if (i < 0 || i >= getThingCount())
+			return null;
+		ByteBuffer bb = allocate(DoomThing.LENGTH);
+		bb.putShort(0, thingX[i]).putShort(2, thingY[i]);
+		bb.putChar(4, thingAngle[i]).putChar(6, thingType[i]).putChar(8, thingFlags[i]);
+		return toObject(new DoomThing(), bb);
+	}
+
+	@Override
+	public int getThingCount()
+	{
+		return thingX.length;
+	}
+
+	/**
+	 * @param i the vertex index.
+	 * @return the X-coordinate of the vertex.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getVertexX(int i)
+	{
+		return vertexX[i];
+	}
+
+	/**
+	 * @param i the vertex index.
+	 * @return the Y-coordinate of the vertex.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getVertexY(int i)
+	{
+		return vertexY[i];
+	}
+
+	/**
+	 * @param i the linedef index.
+	 * @return the starting vertex index of the linedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getLinedefVertexStartIndex(int i)
+	{
+		return linedefVertexStart[i];
+	}
+
+	/**
+	 * @param i the linedef index.
+	 * @return the ending vertex index of the linedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getLinedefVertexEndIndex(int i)
+	{
+		return linedefVertexEnd[i];
+	}
+
+	/**
+	 * @param i the linedef index.
+	 * @return the full bitflags of the linedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getLinedefFlags(int i)
+	{
+		return linedefFlags[i];
+	}
+
+	/**
+	 * @param i the linedef index.
+	 * @return the special of the linedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getLinedefSpecial(int i)
+	{
+		return linedefSpecial[i];
+	}
+
+	/**
+	 * @param i the linedef index.
+	 * @return the sector tag of the linedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getLinedefTag(int i)
+	{
+		return linedefTag[i];
+	}
+
+	/**
+	 * @param i the linedef index.
+	 * @return the front sidedef index of the linedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getLinedefSidedefFrontIndex(int i)
+	{
+		return linedefSidedefFront[i];
+	}
+
+	/**
+	 * @param i the linedef index.
+	 * @return the back sidedef index of the linedef (or -1 if one-sided).
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getLinedefSidedefBackIndex(int i)
+	{
+		return linedefSidedefBack[i];
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the X-offset of the sidedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSidedefOffsetX(int i)
+	{
+		return sidedefOffsetX[i];
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the Y-offset of the sidedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSidedefOffsetY(int i)
+	{
+		return sidedefOffsetY[i];
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the name table index of the sidedef's top texture.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSidedefTextureTopIndex(int i)
+	{
+		return sidedefTextureTop[i];
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the name table index of the sidedef's bottom texture.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSidedefTextureBottomIndex(int i)
+	{
+		return sidedefTextureBottom[i];
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the name table index of the sidedef's middle texture.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSidedefTextureMiddleIndex(int i)
+	{
+		return sidedefTextureMiddle[i];
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the sidedef's top texture name.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public String getSidedefTextureTop(int i)
+	{
+		return names.getName(sidedefTextureTop[i]);
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the sidedef's bottom texture name.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public String getSidedefTextureBottom(int i)
+	{
+		return names.getName(sidedefTextureBottom[i]);
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the sidedef's middle texture name.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public String getSidedefTextureMiddle(int i)
+	{
+		return names.getName(sidedefTextureMiddle[i]);
+	}
+
+	/**
+	 * @param i the sidedef index.
+	 * @return the sector index of the sidedef.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSidedefSectorIndex(int i)
+	{
+		return sidedefSector[i];
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the floor height of the sector.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSectorHeightFloor(int i)
+	{
+		return sectorHeightFloor[i];
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the ceiling height of the sector.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSectorHeightCeiling(int i)
+	{
+		return sectorHeightCeiling[i];
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the name table index of the sector's floor texture.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSectorTextureFloorIndex(int i)
+	{
+		return sectorTextureFloor[i];
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the name table index of the sector's ceiling texture.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSectorTextureCeilingIndex(int i)
+	{
+		return sectorTextureCeiling[i];
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the sector's floor texture name.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public String getSectorTextureFloor(int i)
+	{
+		return names.getName(sectorTextureFloor[i]);
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the sector's ceiling texture name.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public String getSectorTextureCeiling(int i)
+	{
+		return names.getName(sectorTextureCeiling[i]);
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the light level of the sector.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSectorLightLevel(int i)
+	{
+		return sectorLightLevel[i];
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the special of the sector.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSectorSpecial(int i)
+	{
+		return sectorSpecial[i];
+	}
+
+	/**
+	 * @param i the sector index.
+	 * @return the tag of the sector.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getSectorTag(int i)
+	{
+		return sectorTag[i];
+	}
+
+	/**
+	 * @param i the thing index.
+	 * @return the X-coordinate of the thing.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getThingX(int i)
+	{
+		return thingX[i];
+	}
+
+	/**
+	 * @param i the thing index.
+	 * @return the Y-coordinate of the thing.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getThingY(int i)
+	{
+		return thingY[i];
+	}
+
+	/**
+	 * @param i the thing index.
+	 * @return the angle of the thing (in degrees).
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getThingAngle(int i)
+	{
+		return thingAngle[i];
+	}
+
+	/**
+	 * @param i the thing index.
+	 * @return the editor type (thing number) of the thing.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getThingType(int i)
+	{
+		return thingType[i];
+	}
+
+	/**
+	 * @param i the thing index.
+	 * @return the full bitflags of the thing.
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range.
+	 */
+	public int getThingFlags(int i)
+	{
+		return thingFlags[i];
+	}
+
+	private static ByteBuffer wrap(byte[] data)
+	{
+		return ByteBuffer.wrap(data != null ? data : new byte[0]).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static ByteBuffer allocate(int length)
+	{
+		return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Reads an object from its serialized form, so that values that the setters do not accept 
+	 * (like unsigned angles or lowercase flat names) come through the same way they do from a lump.
+	 */
+	private static <T extends BinaryObject> T toObject(T object, ByteBuffer buffer)
+	{
+		try {
+			object.readBytes(buffer);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not read " + object.getClass().getSimpleName(), e);
+		}
+		return object;
+	}
+
+	/**
+	 * Decodes 8-byte names to name table indices, decoding each distinct name only once.
+	 */
+	private static class NameDecoder
+	{
+		private TextureNameTable names;
+		private NamePool pool;
+		private Map<Long, Integer> decoded;
+		
+		private NameDecoder(TextureNameTable names, NamePool pool)
+		{
+			this.names = names;
+			this.pool = pool;
+			this.decoded = new HashMap<>(256);
+		}
+		
+		private int decode(ByteBuffer buffer, int offset)
+		{
+			Long key = buffer.getLong(offset);
+			Integer index = decoded.get(key);
+			if (index == null)
+			{
+				index = names.add(pool.get(buffer, offset));
+				decoded.put(key, index);
+			}
+			return index;
+		}
+	}
+
+}
@@ -0,0 +1,709 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.texture.TextureSet;
+
+/**
+ * A validity checker for maps, for finding mistakes that editors and ports choke on:
+ * bad references, unclosed sectors, zero-length and overlapping linedefs, missing and unknown textures,
+ * things outside of the map, and sector tag mismatches.
+ * <p>The map is read once, on the calling thread, into primitive arrays (so flyweight views are safe to check),
+ * and each check is then a single pass over one kind of object, run in parallel if parallel checking is enabled.
+ * Checks that need to find nearby objects (overlapping linedefs, things outside of the map) use a {@link MapSpatialIndex},
+ * and the rest use sorted arrays, so no check compares every object against every other object.
+ * <p>The checker itself holds only settings, and can be reused.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class MapChecker
+{
+	/** Name of the sky flat. Missing upper textures between two sky ceilings are not problems. */
+	public static final String SKY_FLAT = "F_SKY1";
+
+	/**
+	 * Problem types.
+	 */
+	public enum ProblemType
+	{
+		/** A linedef references a vertex that does not exist. The other index is the vertex reference. */
+		BAD_VERTEX_REFERENCE,
+		/** A linedef has no front sidedef, or references a sidedef that does not exist. The other index is the sidedef reference. */
+		BAD_SIDEDEF_REFERENCE,
+		/** A sidedef references a sector that does not exist. The other index is the sector reference. */
+		BAD_SECTOR_REFERENCE,
+		/** A sector's linedefs do not form closed shapes. The other index is a vertex where the sector is open. */
+		UNCLOSED_SECTOR,
+		/** A linedef starts and ends at the same position. */
+		ZERO_LENGTH_LINEDEF,
+		/** A linedef overlaps another linedef by more than one point. The other index is the other linedef. */
+		OVERLAPPING_LINEDEF,
+		/** A sidedef has no texture where one is visible. The other index is the sidedef's linedef. */
+		MISSING_TEXTURE,
+		/** A sidedef uses a texture that is not in the texture set. */
+		UNKNOWN_TEXTURE,
+		/** A sector uses a flat that is not in the flat names. */
+		UNKNOWN_FLAT,
+		/** A thing is not inside any sector. Some things are meant to be (like Hexen polyobject anchors), so filter by thing type as needed. */
+		THING_OUTSIDE_MAP,
+		/** A linedef's special acts on a sector tag that no sector has. The other index is the tag. */
+		UNMATCHED_LINEDEF_TAG,
+		/** A sector has a tag that no linedef special acts on. The other index is the tag. Scripts and boss deaths also act on tags, so this is not always a mistake. */
+		UNUSED_SECTOR_TAG;
+	}
+
+	/**
+	 * A single problem found in a map.
+	 */
+	public static class Problem
+	{
+		private ProblemType type;
+		private int index;
+		private int otherIndex;
+		private String message;
+
+		private Problem(ProblemType type, int index, int otherIndex, String message)
+		{
+			this.type = type;
+			this.index = index;
+			this.otherIndex = otherIndex;
+			this.message = message;
+		}
+
+		/**
+		 * @return the type of problem.
+		 */
+		public ProblemType getType()
+		{
+			return type;
+		}
+
+		/**
+		 * @return the index of the offending object (a linedef, sidedef, sector, or thing, depending on the type).
+		 */
+		public int getIndex()
+		{
+			return index;
+		}
+
+		/**
+		 * @return the other index or value involved in the problem (see {@link ProblemType}), or -1 if not applicable.
+		 */
+		public int getOtherIndex()
+		{
+			return otherIndex;
+		}
+
+		/**
+		 * @return a human-readable description of the problem.
+		 */
+		public String getMessage()
+		{
+			return message;
+		}
+
+		@Override
+		public String toString()
+		{
+			return type.name() + ": " + message;
+		}
+	}
+
+	/**
+	 * The results of a check.
+	 */
+	public static class Report
+	{
+		private List<Problem> problems;
+
+		private Report(List<Problem> problems)
+		{
+			this.problems = problems;
+		}
+
+		/**
+		 * @return all of the problems found, ordered by type (in {@link ProblemType} order), then by index.
+		 */
+		public List<Problem> getProblems()
+		{
+			return Collections.unmodifiableList(problems);
+		}
+
+		/**
+		 * Gets all of the problems of a specific type.
+		 * @param type the problem type.
+		 * @return the list of problems of that type, ordered by index.
+		 */
+		public List<Problem> getProblems(ProblemType type)
+		{
+			List<Problem> out = new ArrayList<>();
+			for (Problem p : problems)
+				if (p.type == type)
+					out.add(p);
+			return out;
+		}
+
+		/**
+		 * @return true if no problems were found, false otherwise.
+		 */
+		public boolean isClean()
+		{
+			return problems.isEmpty();
+		}
+	}
+
+	/** Texture names, uppercase. */
+	private Set<String> textures;
+	/** Flat names, uppercase. */
+	private Set<String> flats;
+	/** Check in parallel. */
+	private boolean parallel;
+
+	/**
+	 * Creates a new checker that checks on the calling thread, without checking texture or flat names.
+	 */
+	public MapChecker()
+	{
+		this.textures = null;
+		this.flats = null;
+		this.parallel = false;
+	}
+
+	/**
+	 * Sets the textures that sidedefs can use. 
+	 * If set, textures that are not in the set are {@link ProblemType#UNKNOWN_TEXTURE} problems.
+	 * Names are compared without case.
+	 * @param textures the texture set, or null to not check texture names.
+	 * @return this checker.
+	 */
+	public MapChecker setTextures(TextureSet textures)
+	{
+		if (textures == null)
+			this.textures = null;
+		else
+		{
+			this.textures = new HashSet<>();
+			for (TextureSet.Texture texture : textures)
+				this.textures.add(texture.getName().toUpperCase());
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the flats that sectors can use (for example, the names of the entries between <code>F_START</code> and <code>F_END</code>).
+	 * If set, flats that are not in the set are {@link ProblemType#UNKNOWN_FLAT} problems.
+	 * Names are compared without case.
+	 * @param flats the flat names, or null to not check flat names.
+	 * @return this checker.
+	 * @see net.mtrop.doom.util.WadUtils#getEntriesInNamespace(net.mtrop.doom.Wad, String)
+	 */
+	public MapChecker setFlats(Iterable<String> flats)
+	{
+		if (flats == null)
+			this.flats = null;
+		else
+		{
+			this.flats = new HashSet<>();
+			for (String flat : flats)
+				this.flats.add(flat.toUpperCase());
+		}
+		return this;
+	}
+
+	/**
+	 * Sets if checks are run in parallel (on the common fork-join pool).
+	 * The map is always read on the calling thread.
+	 * @param parallel true for parallel, false for not.
+	 * @return this checker.
+	 */
+	public MapChecker setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+		return this;
+	}
+
+	/**
+	 * Checks a Doom-format map (or any view of Doom-format objects, like a {@link CompactDoomMap}).
+	 * @param map the map to check.
+	 * @return the report of problems found.
+	 */
+	public Report check(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ? extends DoomSector, ? extends DoomThing> map)
+	{
+		return check(map, MapGeometryReader.DOOM, MapContentReader.DOOM);
+	}
+
+	/**
+	 * Checks a Hexen-format map.
+	 * @param map the map to check.
+	 * @return the report of problems found.
+	 */
+	public Report check(HexenMap map)
+	{
+		return check(map, MapGeometryReader.HEXEN, MapContentReader.HEXEN);
+	}
+
+	/**
+	 * Checks a UDMF map, reading tags as its namespace does (see {@link MapContentReader#getUDMFReader(String)}).
+	 * @param map the map to check.
+	 * @return the report of problems found.
+	 */
+	public Report check(UDMFMap map)
+	{
+		return check(map, MapGeometryReader.UDMF, MapContentReader.getUDMFReader(map.getNamespace()));
+	}
+
+	/**
+	 * Checks any map view, reading its objects with a {@link MapGeometryReader} and a {@link MapContentReader}.
+	 * Objects with bad references are reported, and then left out of the checks that need those references.
+	 * @param <V> the vertex type.
+	 * @param <L> the linedef type.
+	 * @param <S> the sidedef type.
+	 * @param <E> the sector type.
+	 * @param <T> the thing type.
+	 * @param map the map to check.
+	 * @param geometry the reader for reading the geometry from the map's objects.
+	 * @param content the reader for reading the textures, heights, and tags from the map's objects.
+	 * @return the report of problems found.
+	 */
+	public <V, L, S, E, T> Report check(MapView<V, L, S, E, T> map, MapGeometryReader<? super V, ? super L, ? super S, ? super T> geometry, MapContentReader<? super L, ? super S, ? super E> content)
+	{
+		Checker checker = new Checker(map, geometry, content);
+		MapSpatialIndex index = MapSpatialIndex.create(map, geometry, MapSpatialIndex.DEFAULT_CELL_SIZE);
+		checker.checkReferences();
+		checker.checkSectorClosure();
+		checker.checkLinedefGeometry(index);
+		checker.checkTextures();
+		checker.checkThings(index);
+		checker.checkTags();
+
+		List<Problem> problems = new ArrayList<>(checker.problems);
+		problems.sort((a, b) -> a.type != b.type 
+			? a.type.compareTo(b.type) 
+			: (a.index != b.index ? Integer.compare(a.index, b.index) : Integer.compare(a.otherIndex, b.otherIndex))
+		);
+		return new Report(problems);
+	}
+
+	/**
+	 * A single check run: the map's objects, copied into arrays, and the problems found.
+	 */
+	private class Checker
+	{
+		private Set<String> textures;
+		private Set<String> flats;
+		private Queue<Problem> problems;
+
+		private double[] vertexX;
+		private double[] vertexY;
+
+		private int[] linedefStart;
+		private int[] linedefEnd;
+		private int[] linedefFront;
+		private int[] linedefBack;
+		private int[] linedefTag;
+
+		private int[] sidedefSector;
+		private String[] sidedefTop;
+		private String[] sidedefBottom;
+		private String[] sidedefMiddle;
+
+		private double[] sectorFloor;
+		private double[] sectorCeiling;
+		private String[] sectorFloorTexture;
+		private String[] sectorCeilingTexture;
+		private int[] sectorTag;
+
+		private double[] thingX;
+		private double[] thingY;
+
+		private <V, L, S, E, T> Checker(MapView<V, L, S, E, T> map, MapGeometryReader<? super V, ? super L, ? super S, ? super T> geometry, MapContentReader<? super L, ? super S, ? super E> content)
+		{
+			this.textures = MapChecker.this.textures;
+			this.flats = MapChecker.this.flats;
+			this.problems = new ConcurrentLinkedQueue<>();
+
+			int vertexCount = map.getVertexCount();
+			vertexX = new double[vertexCount];
+			vertexY = new double[vertexCount];
+			for (int i = 0; i < vertexCount; i++)
+			{
+				V vertex = map.getVertex(i);
+				vertexX[i] = geometry.getVertexX(vertex);
+				vertexY[i] = geometry.getVertexY(vertex);
+			}
+
+			int linedefCount = map.getLinedefCount();
+			linedefStart = new int[linedefCount];
+			linedefEnd = new int[linedefCount];
+			linedefFront = new int[linedefCount];
+			linedefBack = new int[linedefCount];
+			linedefTag = new int[linedefCount];
+			for (int i = 0; i < linedefCount; i++)
+			{
+				L linedef = map.getLinedef(i);
+				linedefStart[i] = geometry.getLinedefVertexStart(linedef);
+				linedefEnd[i] = geometry.getLinedefVertexEnd(linedef);
+				linedefFront[i] = geometry.getLinedefSidedefFront(linedef);
+				linedefBack[i] = geometry.getLinedefSidedefBack(linedef);
+				linedefTag[i] = content.getLinedefSectorTag(linedef);
+			}
+
+			int sidedefCount = map.getSidedefCount();
+			sidedefSector = new int[sidedefCount];
+			sidedefTop = new String[sidedefCount];
+			sidedefBottom = new String[sidedefCount];
+			sidedefMiddle = new String[sidedefCount];
+			for (int i = 0; i < sidedefCount; i++)
+			{
+				S sidedef = map.getSidedef(i);
+				sidedefSector[i] = geometry.getSidedefSector(sidedef);
+				sidedefTop[i] = content.getSidedefTextureTop(sidedef);
+				sidedefBottom[i] = content.getSidedefTextureBottom(sidedef);
+				sidedefMiddle[i] = content.getSidedefTextureMiddle(sidedef);
+			}
+
+			int sectorCount = map.getSectorCount();
+			sectorFloor = new double[sectorCount];
+			sectorCeiling = new double[sectorCount];
+			sectorFloorTexture = new String[sectorCount];
+			sectorCeilingTexture = new String[sectorCount];
+			sectorTag = new int[sectorCount];
+			for (int i = 0; i < sectorCount; i++)
+			{
+				E sector = map.getSector(i);
+				sectorFloor[i] = content.getSectorHeightFloor(sector);
+				sectorCeiling[i] = content.getSectorHeightCeiling(sector);
+				sectorFloorTexture[i] = content.getSectorTextureFloor(sector);
+				sectorCeilingTexture[i] = content.getSectorTextureCeiling(sector);
+				sectorTag[i] = content.getSectorTag(sector);
+			}
+
+			int thingCount = map.getThingCount();
+			thingX = new double[thingCount];
+			thingY = new double[thingCount];
+			for (int i = 0; i < thingCount; i++)
+			{
+				T thing = map.getThing(i);
+				thingX[i] = geometry.getThingX(thing);
+				thingY[i] = geometry.getThingY(thing);
+			}
+		}
+
+		private void forEach(int count, IntConsumer consumer)
+		{
+			IntStream stream = IntStream.range(0, count);
+			(parallel ? stream.parallel() : stream).forEach(consumer);
+		}
+
+		private void add(ProblemType type, int index, int otherIndex, String message)
+		{
+			problems.add(new Problem(type, index, otherIndex, message));
+		}
+
+		private boolean isVertex(int index)
+		{
+			return index >= 0 && index < vertexX.length;
+		}
+
+		private boolean isSidedef(int index)
+		{
+			return index >= 0 && index < sidedefSector.length;
+		}
+
+		private boolean isSector(int index)
+		{
+			return index >= 0 && index < sectorFloor.length;
+		}
+
+		// Sector index of a linedef side, or -1 if the side or its sector is missing or bad.
+		private int getSector(int sidedef)
+		{
+			return isSidedef(sidedef) && isSector(sidedefSector[sidedef]) ? sidedefSector[sidedef] : -1;
+		}
+
+		// Linedef with good vertex references.
+		private boolean hasVertices(int linedef)
+		{
+			return isVertex(linedefStart[linedef]) && isVertex(linedefEnd[linedef]);
+		}
+
+		private void checkReferences()
+		{
+			forEach(linedefStart.length, (i) -> {
+				if (!isVertex(linedefStart[i]))
+					add(ProblemType.BAD_VERTEX_REFERENCE, i, linedefStart[i], "Linedef " + i + " starts at vertex " + linedefStart[i] + ", which does not exist");
+				if (!isVertex(linedefEnd[i]))
+					add(ProblemType.BAD_VERTEX_REFERENCE, i, linedefEnd[i], "Linedef " + i + " ends at vertex " + linedefEnd[i] + ", which does not exist");
+				if (linedefFront[i] == MapObjectConstants.NULL_REFERENCE)
+					add(ProblemType.BAD_SIDEDEF_REFERENCE, i, linedefFront[i], "Linedef " + i + " has no front sidedef");
+				else if (!isSidedef(linedefFront[i]))
+					add(ProblemType.BAD_SIDEDEF_REFERENCE, i, linedefFront[i], "Linedef " + i + " front sidedef " + linedefFront[i] + " does not exist");
+				if (linedefBack[i] != MapObjectConstants.NULL_REFERENCE && !isSidedef(linedefBack[i]))
+					add(ProblemType.BAD_SIDEDEF_REFERENCE, i, linedefBack[i], "Linedef " + i + " back sidedef " + linedefBack[i] + " does not exist");
+			});
+			forEach(sidedefSector.length, (i) -> {
+				if (!isSector(sidedefSector[i]))
+					add(ProblemType.BAD_SECTOR_REFERENCE, i, sidedefSector[i], "Sidedef " + i + " sector " + sidedefSector[i] + " does not exist");
+			});
+		}
+
+		private void checkSectorClosure()
+		{
+			// Walking a closed sector's boundary with the sector on the right, every vertex is entered as often as it is left, 
+			// so the sorted (sector, start vertex) keys must equal the sorted (sector, end vertex) keys.
+			int linedefCount = linedefStart.length;
+			long[] starts = new long[linedefCount * 2];
+			long[] ends = new long[linedefCount * 2];
+			forEach(linedefCount, (i) -> {
+				starts[i * 2] = starts[i * 2 + 1] = ends[i * 2] = ends[i * 2 + 1] = Long.MAX_VALUE;
+				if (!hasVertices(i))
+					return;
+				int front = getSector(linedefFront[i]);
+				int back = getSector(linedefBack[i]);
+				if (front == back)
+					return;
+				if (front >= 0)
+				{
+					starts[i * 2] = key(front, linedefStart[i]);
+					ends[i * 2] = key(front, linedefEnd[i]);
+				}
+				if (back >= 0)
+				{
+					starts[i * 2 + 1] = key(back, linedefEnd[i]);
+					ends[i * 2 + 1] = key(back, linedefStart[i]);
+				}
+			});
+			if (parallel)
+			{
+				Arrays.parallelSort(starts);
+				Arrays.parallelSort(ends);
+			}
+			else
+			{
+				Arrays.sort(starts);
+				Arrays.sort(ends);
+			}
+
+			int a = 0, b = 0, lastSector = -1;
+			while (a < starts.length && b < ends.length && (starts[a] != Long.MAX_VALUE || ends[b] != Long.MAX_VALUE))
+			{
+				if (starts[a] == ends[b])
+				{
+					a++;
+					b++;
+					continue;
+				}
+				long open = Math.min(starts[a], ends[b]);
+				int sector = (int)(open >>> 32);
+				if (sector != lastSector)
+				{
+					int vertex = (int)open;
+					add(ProblemType.UNCLOSED_SECTOR, sector, vertex, "Sector " + sector + " is not closed at vertex " + vertex);
+					lastSector = sector;
+				}
+				if (starts[a] < ends[b])
+					a++;
+				else
+					b++;
+			}
+		}
+
+		private long key(int sector, int vertex)
+		{
+			return ((long)sector << 32) | vertex;
+		}
+
+		private void checkLinedefGeometry(MapSpatialIndex index)
+		{
+			forEach(linedefStart.length, (i) -> {
+				if (!hasVertices(i))
+					return;
+				double x0 = vertexX[linedefStart[i]], y0 = vertexY[linedefStart[i]];
+				double x1 = vertexX[linedefEnd[i]], y1 = vertexY[linedefEnd[i]];
+				double dx = x1 - x0, dy = y1 - y0;
+				if (dx == 0.0 && dy == 0.0)
+				{
+					add(ProblemType.ZERO_LENGTH_LINEDEF, i, -1, "Linedef " + i + " has zero length");
+					return;
+				}
+
+				double length2 = dx * dx + dy * dy;
+				for (int j : index.getLinedefsInBox(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1)))
+				{
+					if (j <= i)
+						continue;
+					double ax = vertexX[linedefStart[j]] - x0, ay = vertexY[linedefStart[j]] - y0;
+					double bx = vertexX[linedefEnd[j]] - x0, by = vertexY[linedefEnd[j]] - y0;
+					if (dx * ay - dy * ax != 0.0 || dx * by - dy * bx != 0.0)
+						continue;
+					// collinear: project onto this line and test for more than one point in common.
+					double ta = dx * ax + dy * ay;
+					double tb = dx * bx + dy * by;
+					if (Math.max(Math.min(ta, tb), 0.0) < Math.min(Math.max(ta, tb), length2))
+						add(ProblemType.OVERLAPPING_LINEDEF, i, j, "Linedef " + i + " overlaps linedef " + j);
+				}
+			});
+		}
+
+		private void checkTextures()
+		{
+			forEach(linedefStart.length, (i) -> {
+				int frontSide = linedefFront[i];
+				int backSide = linedefBack[i];
+				int front = getSector(frontSide);
+				if (front < 0)
+					return;
+				if (backSide == MapObjectConstants.NULL_REFERENCE)
+				{
+					if (isBlank(sidedefMiddle[frontSide]))
+						add(ProblemType.MISSING_TEXTURE, frontSide, i, "Sidedef " + frontSide + " (linedef " + i + ", front) is missing its middle texture");
+					return;
+				}
+				int back = getSector(backSide);
+				if (back < 0)
+					return;
+				boolean skies = isSky(sectorCeilingTexture[front]) && isSky(sectorCeilingTexture[back]);
+				if (!skies && sectorCeiling[front] > sectorCeiling[back] && isBlank(sidedefTop[frontSide]))
+					add(ProblemType.MISSING_TEXTURE, frontSide, i, "Sidedef " + frontSide + " (linedef " + i + ", front) is missing its top texture");
+				if (!skies && sectorCeiling[back] > sectorCeiling[front] && isBlank(sidedefTop[backSide]))
+					add(ProblemType.MISSING_TEXTURE, backSide, i, "Sidedef " + backSide + " (linedef " + i + ", back) is missing its top texture");
+				if (sectorFloor[front] < sectorFloor[back] && isBlank(sidedefBottom[frontSide]))
+					add(ProblemType.MISSING_TEXTURE, frontSide, i, "Sidedef " + frontSide + " (linedef " + i + ", front) is missing its bottom texture");
+				if (sectorFloor[back] < sectorFloor[front] && isBlank(sidedefBottom[backSide]))
+					add(ProblemType.MISSING_TEXTURE, backSide, i, "Sidedef " + backSide + " (linedef " + i + ", back) is missing its bottom texture");
+			});
+
+			if (textures != null) forEach(sidedefSector.length, (i) -> {
+				checkTexture(i, "top", sidedefTop[i]);
+				checkTexture(i, "bottom", sidedefBottom[i]);
+				checkTexture(i, "middle", sidedefMiddle[i]);
+			});
+
+			if (flats != null) forEach(sectorFloor.length, (i) -> {
+				if (!isBlank(sectorFloorTexture[i]) && !flats.contains(sectorFloorTexture[i].toUpperCase()))
+					add(ProblemType.UNKNOWN_FLAT, i, -1, "Sector " + i + " floor flat \"" + sectorFloorTexture[i] + "\" does not exist");
+				if (!isBlank(sectorCeilingTexture[i]) && !flats.contains(sectorCeilingTexture[i].toUpperCase()))
+					add(ProblemType.UNKNOWN_FLAT, i, -1, "Sector " + i + " ceiling flat \"" + sectorCeilingTexture[i] + "\" does not exist");
+			});
+		}
+
+		private void checkTexture(int sidedef, String part, String texture)
+		{
+			if (!isBlank(texture) && !textures.contains(texture.toUpperCase()))
+				add(ProblemType.UNKNOWN_TEXTURE, sidedef, -1, "Sidedef " + sidedef + " " + part + " texture \"" + texture + "\" does not exist");
+		}
+
+		private boolean isBlank(String texture)
+		{
+			return texture == null || texture.isEmpty() || MapObjectConstants.TEXTURE_BLANK.equals(texture);
+		}
+
+		private boolean isSky(String flat)
+		{
+			return SKY_FLAT.equalsIgnoreCase(flat);
+		}
+
+		private void checkThings(MapSpatialIndex index)
+		{
+			// boundary linedefs of each sector, packed: the linedefs of sector s are sectorLinedefs[sectorOffset[s]] to sectorLinedefs[sectorOffset[s + 1] - 1].
+			int sectorCount = sectorFloor.length;
+			int[] sectorOffset = new int[sectorCount + 1];
+			for (int i = 0; i < linedefStart.length; i++)
+				forEachBoundarySector(i, (s) -> sectorOffset[s + 1]++);
+			for (int s = 0; s < sectorCount; s++)
+				sectorOffset[s + 1] += sectorOffset[s];
+			int[] sectorLinedefs = new int[sectorOffset[sectorCount]];
+			int[] fill = Arrays.copyOf(sectorOffset, sectorCount);
+			for (int i = 0; i < linedefStart.length; i++)
+			{
+				int linedef = i;
+				forEachBoundarySector(i, (s) -> sectorLinedefs[fill[s]++] = linedef);
+			}
+
+			forEach(thingX.length, (i) -> {
+				double x = thingX[i], y = thingY[i];
+				for (int s : index.getSectorCandidates(x, y))
+					if (isInside(sectorLinedefs, sectorOffset[s], sectorOffset[s + 1], x, y))
+						return;
+				add(ProblemType.THING_OUTSIDE_MAP, i, -1, "Thing " + i + " at (" + x + ", " + y + ") is not inside any sector");
+			});
+		}
+
+		// Calls the consumer with each sector that a linedef is a boundary of.
+		private void forEachBoundarySector(int linedef, IntConsumer consumer)
+		{
+			if (!hasVertices(linedef))
+				return;
+			int front = getSector(linedefFront[linedef]);
+			int back = getSector(linedefBack[linedef]);
+			if (front == back)
+				return;
+			if (front >= 0)
+				consumer.accept(front);
+			if (back >= 0)
+				consumer.accept(back);
+		}
+
+		// Even-odd test against a sector's boundary linedefs. Points on a boundary are inside.
+		private boolean isInside(int[] linedefs, int start, int end, double x, double y)
+		{
+			boolean inside = false;
+			for (int n = start; n < end; n++)
+			{
+				int i = linedefs[n];
+				double x0 = vertexX[linedefStart[i]], y0 = vertexY[linedefStart[i]];
+				double x1 = vertexX[linedefEnd[i]], y1 = vertexY[linedefEnd[i]];
+				double cross = (x1 - x0) * (y - y0) - (y1 - y0) * (x - x0);
+				if (cross == 0.0 && x >= Math.min(x0, x1) && x <= Math.max(x0, x1) && y >= Math.min(y0, y1) && y <= Math.max(y0, y1))
+					return true;
+				if ((y0 > y) != (y1 > y) && x < x0 + (y - y0) * (x1 - x0) / (y1 - y0))
+					inside = !inside;
+			}
+			return inside;
+		}
+
+		private void checkTags()
+		{
+			int[] sectorTags = sortedTags(sectorTag);
+			int[] linedefTags = sortedTags(linedefTag);
+			forEach(linedefTag.length, (i) -> {
+				int tag = linedefTag[i];
+				if (tag != 0 && Arrays.binarySearch(sectorTags, tag) < 0)
+					add(ProblemType.UNMATCHED_LINEDEF_TAG, i, tag, "Linedef " + i + " acts on sector tag " + tag + ", but no sector has that tag");
+			});
+			forEach(sectorTag.length, (i) -> {
+				int tag = sectorTag[i];
+				if (tag != 0 && Arrays.binarySearch(linedefTags, tag) < 0)
+					add(ProblemType.UNUSED_SECTOR_TAG, i, tag, "Sector " + i + " has tag " + tag + ", but no linedef special acts on it");
+			});
+		}
+
+		private int[] sortedTags(int[] tags)
+		{
+			IntStream stream = Arrays.stream(tags).filter((t) -> t != 0);
+			return (parallel ? stream.parallel() : stream).distinct().sorted().toArray();
+		}
+	}
+
+}
@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import net.mtrop.doom.map.cursor.LinedefCursor;
+import net.mtrop.doom.map.cursor.SectorCursor;
+import net.mtrop.doom.map.cursor.SidedefCursor;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.HexenLinedef;
+import net.mtrop.doom.map.udmf.UDMFObject;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomLinedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomSectorAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomSidedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFHexenLinedefAttributes;
+
+/**
+ * Reads the content of a map (textures, heights, and tags) from its objects, for map tools
+ * that work on any map format, like {@link MapChecker}. Geometry is read with a {@link MapGeometryReader}.
+ * Textures that are not set should be returned as {@link MapObjectConstants#TEXTURE_BLANK} (or null).
+ * @author Matthew Tropiano
+ * @param <L> the linedef type.
+ * @param <S> the sidedef type.
+ * @param <E> the sector type.
+ * @since 2.23.0
+ */
+public interface MapContentReader<L, S, E>
+{
+	/** Reader for Doom-format object models. */
+	public static final MapContentReader<DoomLinedef, DoomSidedef, DoomSector> DOOM =
+		new MapContentReader<DoomLinedef, DoomSidedef, DoomSector>()
+	{
+		@Override
+		public int getLinedefSectorTag(DoomLinedef linedef)
+		{
+			return linedef.getSpecial() != MapObjectConstants.SPECIAL_NONE ? linedef.getTag() : 0;
+		}
+
+		@Override
+		public String getSidedefTextureTop(DoomSidedef sidedef)
+		{
+			return sidedef.getTextureTop();
+		}
+
+		@Override
+		public String getSidedefTextureBottom(DoomSidedef sidedef)
+		{
+			return sidedef.getTextureBottom();
+		}
+
+		@Override
+		public String getSidedefTextureMiddle(DoomSidedef sidedef)
+		{
+			return sidedef.getTextureMiddle();
+		}
+
+		@Override
+		public double getSectorHeightFloor(DoomSector sector)
+		{
+			return sector.getHeightFloor();
+		}
+
+		@Override
+		public double getSectorHeightCeiling(DoomSector sector)
+		{
+			return sector.getHeightCeiling();
+		}
+
+		@Override
+		public String getSectorTextureFloor(DoomSector sector)
+		{
+			return sector.getTextureFloor();
+		}
+
+		@Override
+		public String getSectorTextureCeiling(DoomSector sector)
+		{
+			return sector.getTextureCeiling();
+		}
+
+		@Override
+		public int getSectorTag(DoomSector sector)
+		{
+			return sector.getTag();
+		}
+	};
+
+	/** Reader for Doom-format cursors, like the ones returned by {@link net.mtrop.doom.map.cursor.DoomMapCursorView}. */
+	public static final MapContentReader<LinedefCursor, SidedefCursor, SectorCursor> DOOM_CURSOR =
+		new MapContentReader<LinedefCursor, SidedefCursor, SectorCursor>()
+	{
+		@Override
+		public int getLinedefSectorTag(LinedefCursor linedef)
+		{
+			return linedef.getSpecial() != MapObjectConstants.SPECIAL_NONE ? linedef.getTag() : 0;
+		}
+
+		@Override
+		public String getSidedefTextureTop(SidedefCursor sidedef)
+		{
+			return sidedef.getTextureTop();
+		}
+
+		@Override
+		public String getSidedefTextureBottom(SidedefCursor sidedef)
+		{
+			return sidedef.getTextureBottom();
+		}
+
+		@Override
+		public String getSidedefTextureMiddle(SidedefCursor sidedef)
+		{
+			return sidedef.getTextureMiddle();
+		}
+
+		@Override
+		public double getSectorHeightFloor(SectorCursor sector)
+		{
+			return sector.getHeightFloor();
+		}
+
+		@Override
+		public double getSectorHeightCeiling(SectorCursor sector)
+		{
+			return sector.getHeightCeiling();
+		}
+
+		@Override
+		public String getSectorTextureFloor(SectorCursor sector)
+		{
+			return sector.getTextureFloor();
+		}
+
+		@Override
+		public String getSectorTextureCeiling(SectorCursor sector)
+		{
+			return sector.getTextureCeiling();
+		}
+
+		@Override
+		public int getSectorTag(SectorCursor sector)
+		{
+			return sector.getTag();
+		}
+	};
+
+	/** 
+	 * Reader for Hexen-format object models. 
+	 * The sector tag of a linedef is its first argument, for the Hexen specials that act on tagged sectors 
+	 * (doors, floors, ceilings, stairs, pillars, platforms, lights, and sector sounds).
+	 */
+	public static final MapContentReader<HexenLinedef, DoomSidedef, DoomSector> HEXEN =
+		new MapContentReader<HexenLinedef, DoomSidedef, DoomSector>()
+	{
+		@Override
+		public int getLinedefSectorTag(HexenLinedef linedef)
+		{
+			return isHexenSectorSpecial(linedef.getSpecial()) ? linedef.getArguments()[0] : 0;
+		}
+
+		@Override
+		public String getSidedefTextureTop(DoomSidedef sidedef)
+		{
+			return sidedef.getTextureTop();
+		}
+
+		@Override
+		public String getSidedefTextureBottom(DoomSidedef sidedef)
+		{
+			return sidedef.getTextureBottom();
+		}
+
+		@Override
+		public String getSidedefTextureMiddle(DoomSidedef sidedef)
+		{
+			return sidedef.getTextureMiddle();
+		}
+
+		@Override
+		public double getSectorHeightFloor(DoomSector sector)
+		{
+			return sector.getHeightFloor();
+		}
+
+		@Override
+		public double getSectorHeightCeiling(DoomSector sector)
+		{
+			return sector.getHeightCeiling();
+		}
+
+		@Override
+		public String getSectorTextureFloor(DoomSector sector)
+		{
+			return sector.getTextureFloor();
+		}
+
+		@Override
+		public String getSectorTextureCeiling(DoomSector sector)
+		{
+			return sector.getTextureCeiling();
+		}
+
+		@Override
+		public int getSectorTag(DoomSector sector)
+		{
+			return sector.getTag();
+		}
+	};
+
+	/** 
+	 * Reader for UDMF objects in Doom-style namespaces ("doom", "heretic", "strife"), 
+	 * where the sector tag of a linedef with a special is its "id".
+	 */
+	public static final MapContentReader<UDMFObject, UDMFObject, UDMFObject> UDMF_DOOM = new UDMFContentReader(false);
+
+	/** 
+	 * Reader for UDMF objects in Hexen-style namespaces ("hexen", "zdoom", and others), 
+	 * where the sector tag of a linedef is "arg0", like {@link #HEXEN}.
+	 */
+	public static final MapContentReader<UDMFObject, UDMFObject, UDMFObject> UDMF_HEXEN = new UDMFContentReader(true);
+
+	/**
+	 * Gets the reader for UDMF objects in a namespace.
+	 * @param namespace the UDMF namespace (can be null).
+	 * @return {@link #UDMF_DOOM} for "doom", "heretic", and "strife", or {@link #UDMF_HEXEN} for everything else.
+	 */
+	public static MapContentReader<UDMFObject, UDMFObject, UDMFObject> getUDMFReader(String namespace)
+	{
+		if ("doom".equalsIgnoreCase(namespace) || "heretic".equalsIgnoreCase(namespace) || "strife".equalsIgnoreCase(namespace))
+			return UDMF_DOOM;
+		return UDMF_HEXEN;
+	}
+
+	/**
+	 * Checks if a Hexen special acts on tagged sectors, with the tag in its first argument.
+	 * @param special the special.
+	 * @return true if so, false if not.
+	 */
+	static boolean isHexenSectorSpecial(int special)
+	{
+		return (special >= 10 && special <= 13)    // Door_*
+			|| (special >= 20 && special <= 32)    // Floor_*, Stairs_*, Pillar_*
+			|| (special >= 35 && special <= 36)    // Floor_*ByValueTimes8
+			|| (special >= 40 && special <= 46)    // Ceiling_*, Floor_CrushStop
+			|| (special >= 60 && special <= 69)    // Plat_*, Floor_/Ceiling_ instant moves
+			|| (special >= 94 && special <= 95)    // FloorAndCeiling_*
+			|| (special >= 110 && special <= 117)  // Light_*
+			|| special == 140;                     // Sector_ChangeSound
+	}
+
+	/**
+	 * @param linedef the linedef.
+	 * @return the tag of the sectors that the linedef's special acts on, or 0 if none.
+	 */
+	int getLinedefSectorTag(L linedef);
+
+	/**
+	 * @param sidedef the sidedef.
+	 * @return the sidedef's top texture.
+	 */
+	String getSidedefTextureTop(S sidedef);
+
+	/**
+	 * @param sidedef the sidedef.
+	 * @return the sidedef's bottom texture.
+	 */
+	String getSidedefTextureBottom(S sidedef);
+
+	/**
+	 * @param sidedef the sidedef.
+	 * @return the sidedef's middle texture.
+	 */
+	String getSidedefTextureMiddle(S sidedef);
+
+	/**
+	 * @param sector the sector.
+	 * @return the sector's floor height.
+	 */
+	double getSectorHeightFloor(E sector);
+
+	/**
+	 * @param sector the sector.
+	 * @return the sector's ceiling height.
+	 */
+	double getSectorHeightCeiling(E sector);
+
+	/**
+	 * @param sector the sector.
+	 * @return the sector's floor texture.
+	 */
+	String getSectorTextureFloor(E sector);
+
+	/**
+	 * @param sector the sector.
+	 * @return the sector's ceiling texture.
+	 */
+	String getSectorTextureCeiling(E sector);
+
+	/**
+	 * @param sector the sector.
+	 * @return the sector's tag.
+	 */
+	int getSectorTag(E sector);
+
+	/**
+	 * Reader for UDMF objects.
+	 */
+	static class UDMFContentReader implements MapContentReader<UDMFObject, UDMFObject, UDMFObject>
+	{
+		private final boolean hexen;
+
+		private UDMFContentReader(boolean hexen)
+		{
+			this.hexen = hexen;
+		}
+
+		@Override
+		public int getLinedefSectorTag(UDMFObject linedef)
+		{
+			int special = linedef.getInteger(UDMFDoomLinedefAttributes.ATTRIB_SPECIAL, MapObjectConstants.SPECIAL_NONE);
+			if (hexen)
+				return isHexenSectorSpecial(special) ? linedef.getInteger(UDMFHexenLinedefAttributes.ATTRIB_ARG0, 0) : 0;
+			else
+				return special != MapObjectConstants.SPECIAL_NONE ? linedef.getInteger(UDMFDoomLinedefAttributes.ATTRIB_ID, 0) : 0;
+		}
+
+		@Override
+		public String getSidedefTextureTop(UDMFObject sidedef)
+		{
+			return sidedef.getString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_TOP, MapObjectConstants.TEXTURE_BLANK);
+		}
+
+		@Override
+		public String getSidedefTextureBottom(UDMFObject sidedef)
+		{
+			return sidedef.getString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_BOTTOM, MapObjectConstants.TEXTURE_BLANK);
+		}
+
+		@Override
+		public String getSidedefTextureMiddle(UDMFObject sidedef)
+		{
+			return sidedef.getString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_MIDDLE, MapObjectConstants.TEXTURE_BLANK);
+		}
+
+		@Override
+		public double getSectorHeightFloor(UDMFObject sector)
+		{
+			return sector.getInteger(UDMFDoomSectorAttributes.ATTRIB_HEIGHT_FLOOR, 0);
+		}
+
+		@Override
+		public double getSectorHeightCeiling(UDMFObject sector)
+		{
+			return sector.getInteger(UDMFDoomSectorAttributes.ATTRIB_HEIGHT_CEILING, 0);
+		}
+
+		@Override
+		public String getSectorTextureFloor(UDMFObject sector)
+		{
+			return sector.getString(UDMFDoomSectorAttributes.ATTRIB_TEXTURE_FLOOR, MapObjectConstants.TEXTURE_BLANK);
+		}
+
+		@Override
+		public String getSectorTextureCeiling(UDMFObject sector)
+		{
+			return sector.getString(UDMFDoomSectorAttributes.ATTRIB_TEXTURE_CEILING, MapObjectConstants.TEXTURE_BLANK);
+		}
+
+		@Override
+		public int getSectorTag(UDMFObject sector)
+		{
+			return sector.getInteger(UDMFDoomSectorAttributes.ATTRIB_ID, 0);
+		}
+	}
+
+}
@@ -0,0 +1,331 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import static net.mtrop.doom.map.MapObjectConstants.NULL_REFERENCE;
+
+import net.mtrop.doom.map.cursor.LinedefCursor;
+import net.mtrop.doom.map.cursor.SidedefCursor;
+import net.mtrop.doom.map.cursor.ThingCursor;
+import net.mtrop.doom.map.cursor.VertexCursor;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.map.data.HexenLinedef;
+import net.mtrop.doom.map.data.HexenThing;
+import net.mtrop.doom.map.udmf.UDMFObject;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomLinedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomSidedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomThingAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomVertexAttributes;
+
+/**
+ * Reads the geometry of a map (positions and references) from its objects, for map tools
+ * that work on any map format, like {@link MapSpatialIndex}.
+ * References that are not set should be returned as {@link MapObjectConstants#NULL_REFERENCE}.
+ * @author Matthew Tropiano
+ * @param <V> the vertex type.
+ * @param <L> the linedef type.
+ * @param <S> the sidedef type.
+ * @param <T> the thing type.
+ * @since 2.23.0
+ */
+public interface MapGeometryReader<V, L, S, T>
+{
+	/** Reader for Doom-format object models. */
+	public static final MapGeometryReader<DoomVertex, DoomLinedef, DoomSidedef, DoomThing> DOOM =
+		new MapGeometryReader<DoomVertex, DoomLinedef, DoomSidedef, DoomThing>()
+	{
+		@Override
+		public double getVertexX(DoomVertex vertex)
+		{
+			return vertex.getX();
+		}
+
+		@Override
+		public double getVertexY(DoomVertex vertex)
+		{
+			return vertex.getY();
+		}
+
+		@Override
+		public int getLinedefVertexStart(DoomLinedef linedef)
+		{
+			return linedef.getVertexStartIndex();
+		}
+
+		@Override
+		public int getLinedefVertexEnd(DoomLinedef linedef)
+		{
+			return linedef.getVertexEndIndex();
+		}
+
+		@Override
+		public int getLinedefSidedefFront(DoomLinedef linedef)
+		{
+			return linedef.getSidedefFrontIndex();
+		}
+
+		@Override
+		public int getLinedefSidedefBack(DoomLinedef linedef)
+		{
+			return linedef.getSidedefBackIndex();
+		}
+
+		@Override
+		public int getSidedefSector(DoomSidedef sidedef)
+		{
+			return sidedef.getSectorIndex();
+		}
+
+		@Override
+		public double getThingX(DoomThing thing)
+		{
+			return thing.getX();
+		}
+
+		@Override
+		public double getThingY(DoomThing thing)
+		{
+			return thing.getY();
+		}
+	};
+
+	/** Reader for Doom-format cursors, like the ones returned by {@link net.mtrop.doom.map.cursor.DoomMapCursorView}. */
+	public static final MapGeometryReader<VertexCursor, LinedefCursor, SidedefCursor, ThingCursor> DOOM_CURSOR =
+		new MapGeometryReader<VertexCursor, LinedefCursor, SidedefCursor, ThingCursor>()
+	{
+		@Override
+		public double getVertexX(VertexCursor vertex)
+		{
+			return vertex.getX();
+		}
+
+		@Override
+		public double getVertexY(VertexCursor vertex)
+		{
+			return vertex.getY();
+		}
+
+		@Override
+		public int getLinedefVertexStart(LinedefCursor linedef)
+		{
+			return linedef.getVertexStartIndex();
+		}
+
+		@Override
+		public int getLinedefVertexEnd(LinedefCursor linedef)
+		{
+			return linedef.getVertexEndIndex();
+		}
+
+		@Override
+		public int getLinedefSidedefFront(LinedefCursor linedef)
+		{
+			return linedef.getSidedefFrontIndex();
+		}
+
+		@Override
+		public int getLinedefSidedefBack(LinedefCursor linedef)
+		{
+			return linedef.getSidedefBackIndex();
+		}
+
+		@Override
+		public int getSidedefSector(SidedefCursor sidedef)
+		{
+			return sidedef.getSectorIndex();
+		}
+
+		@Override
+		public double getThingX(ThingCursor thing)
+		{
+			return thing.getX();
+		}
+
+		@Override
+		public double getThingY(ThingCursor thing)
+		{
+			return thing.getY();
+		}
+	};
+
+	/** Reader for Hexen-format object models. */
+	public static final MapGeometryReader<DoomVertex, HexenLinedef, DoomSidedef, HexenThing> HEXEN =
+		new MapGeometryReader<DoomVertex, HexenLinedef, DoomSidedef, HexenThing>()
+	{
+		@Override
+		public double getVertexX(DoomVertex vertex)
+		{
+			return vertex.getX();
+		}
+
+		@Override
+		public double getVertexY(DoomVertex vertex)
+		{
+			return vertex.getY();
+		}
+
+		@Override
+		public int getLinedefVertexStart(HexenLinedef linedef)
+		{
+			return linedef.getVertexStartIndex();
+		}
+
+		@Override
+		public int getLinedefVertexEnd(HexenLinedef linedef)
+		{
+			return linedef.getVertexEndIndex();
+		}
+
+		@Override
+		public int getLinedefSidedefFront(HexenLinedef linedef)
+		{
+			return linedef.getSidedefFrontIndex();
+		}
+
+		@Override
+		public int getLinedefSidedefBack(HexenLinedef linedef)
+		{
+			return linedef.getSidedefBackIndex();
+		}
+
+		@Override
+		public int getSidedefSector(DoomSidedef sidedef)
+		{
+			return sidedef.getSectorIndex();
+		}
+
+		@Override
+		public double getThingX(HexenThing thing)
+		{
+			return thing.getX();
+		}
+
+		@Override
+		public double getThingY(HexenThing thing)
+		{
+			return thing.getY();
+		}
+	};
+
+	/** Reader for UDMF objects. */
+	public static final MapGeometryReader<UDMFObject, UDMFObject, UDMFObject, UDMFObject> UDMF =
+		new MapGeometryReader<UDMFObject, UDMFObject, UDMFObject, UDMFObject>()
+	{
+		@Override
+		public double getVertexX(UDMFObject vertex)
+		{
+			return vertex.getFloat(UDMFDoomVertexAttributes.ATTRIB_POSITION_X, 0f);
+		}
+
+		@Override
+		public double getVertexY(UDMFObject vertex)
+		{
+			return vertex.getFloat(UDMFDoomVertexAttributes.ATTRIB_POSITION_Y, 0f);
+		}
+
+		@Override
+		public int getLinedefVertexStart(UDMFObject linedef)
+		{
+			return linedef.getInteger(UDMFDoomLinedefAttributes.ATTRIB_VERTEX_START, NULL_REFERENCE);
+		}
+
+		@Override
+		public int getLinedefVertexEnd(UDMFObject linedef)
+		{
+			return linedef.getInteger(UDMFDoomLinedefAttributes.ATTRIB_VERTEX_END, NULL_REFERENCE);
+		}
+
+		@Override
+		public int getLinedefSidedefFront(UDMFObject linedef)
+		{
+			return linedef.getInteger(UDMFDoomLinedefAttributes.ATTRIB_SIDEDEF_FRONT, NULL_REFERENCE);
+		}
+
+		@Override
+		public int getLinedefSidedefBack(UDMFObject linedef)
+		{
+			return linedef.getInteger(UDMFDoomLinedefAttributes.ATTRIB_SIDEDEF_BACK, NULL_REFERENCE);
+		}
+
+		@Override
+		public int getSidedefSector(UDMFObject sidedef)
+		{
+			return sidedef.getInteger(UDMFDoomSidedefAttributes.ATTRIB_SECTOR_INDEX, NULL_REFERENCE);
+		}
+
+		@Override
+		public double getThingX(UDMFObject thing)
+		{
+			return thing.getFloat(UDMFDoomThingAttributes.ATTRIB_POSITION_X, 0f);
+		}
+
+		@Override
+		public double getThingY(UDMFObject thing)
+		{
+			return thing.getFloat(UDMFDoomThingAttributes.ATTRIB_POSITION_Y, 0f);
+		}
+	};
+
+	/**
+	 * @param vertex the vertex.
+	 * @return the vertex's X-coordinate.
+	 */
+	double getVertexX(V vertex);
+
+	/**
+	 * @param vertex the vertex.
+	 * @return the vertex's Y-coordinate.
+	 */
+	double getVertexY(V vertex);
+
+	/**
+	 * @param linedef the linedef.
+	 * @return the index of the linedef's starting vertex.
+	 */
+	int getLinedefVertexStart(L linedef);
+
+	/**
+	 * @param linedef the linedef.
+	 * @return the index of the linedef's ending vertex.
+	 */
+	int getLinedefVertexEnd(L linedef);
+
+	/**
+	 * @param linedef the linedef.
+	 * @return the index of the linedef's front sidedef.
+	 */
+	int getLinedefSidedefFront(L linedef);
+
+	/**
+	 * @param linedef the linedef.
+	 * @return the index of the linedef's back sidedef.
+	 */
+	int getLinedefSidedefBack(L linedef);
+
+	/**
+	 * @param sidedef the sidedef.
+	 * @return the index of the sidedef's sector.
+	 */
+	int getSidedefSector(S sidedef);
+
+	/**
+	 * @param thing the thing.
+	 * @return the thing's X-coordinate.
+	 */
+	double getThingX(T thing);
+
+	/**
+	 * @param thing the thing.
+	 * @return the thing's Y-coordinate.
+	 */
+	double getThingY(T thing);
+
+}
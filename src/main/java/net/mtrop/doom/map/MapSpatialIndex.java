@@ -0,0 +1,704 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import java.util.Arrays;
+
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+
+/**
+ * A spatial index over the geometry of a map, for answering range and nearest-neighbor queries
+ * without scanning every object.
+ * <p>The index is a uniform grid of square cells over the bounds of the map's vertices and things.
+ * Each cell holds the vertices, linedefs, and things that touch it, packed into flat arrays.
+ * Coordinates and references are copied out of the map when the index is created, so later changes
+ * to the map are not reflected in the index. Once created, an index is immutable and safe to query from many threads.
+ * <p>Linedefs with vertex references that are out of range are not indexed.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class MapSpatialIndex
+{
+	/** Default cell size in map units (same as a Blockmap block). */
+	public static final int DEFAULT_CELL_SIZE = 128;
+
+	/** Maximum amount of cells in a grid. Cell size is increased until the grid fits. */
+	private static final int MAX_CELLS = 1 << 22;
+	/** Slop for rasterizing linedefs, so that rounding never drops a cell. */
+	private static final double EPSILON = 1e-6;
+	/** Empty result. */
+	private static final int[] NO_INDICES = new int[0];
+
+	/** Grid cell size. */
+	private double cellSize;
+	/** Grid origin X-coordinate (left edge of column 0). */
+	private double originX;
+	/** Grid origin Y-coordinate (bottom edge of row 0). */
+	private double originY;
+	/** Amount of grid columns. */
+	private int columns;
+	/** Amount of grid rows. */
+	private int rows;
+
+	/** Vertex X-coordinates. */
+	private double[] vertexX;
+	/** Vertex Y-coordinates. */
+	private double[] vertexY;
+	/** Linedef start vertices (-1 if not indexed). */
+	private int[] linedefStart;
+	/** Linedef end vertices (-1 if not indexed). */
+	private int[] linedefEnd;
+	/** Linedef front sectors (-1 if none). */
+	private int[] linedefSectorFront;
+	/** Linedef back sectors (-1 if none). */
+	private int[] linedefSectorBack;
+	/** Thing X-coordinates. */
+	private double[] thingX;
+	/** Thing Y-coordinates. */
+	private double[] thingY;
+
+	/** Vertex cells. */
+	private Cells vertexCells;
+	/** Linedef cells. */
+	private Cells linedefCells;
+	/** Thing cells. */
+	private Cells thingCells;
+
+	// Private constructor.
+	private MapSpatialIndex() {}
+
+	/**
+	 * Creates a spatial index for a Doom-format map (or any view of Doom-format objects, like a {@link CompactDoomMap}),
+	 * using the default cell size.
+	 * @param map the source map.
+	 * @return a new spatial index.
+	 * @see #DEFAULT_CELL_SIZE
+	 */
+	public static MapSpatialIndex create(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ?, ? extends DoomThing> map)
+	{
+		return create(map, MapGeometryReader.DOOM, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Creates a spatial index for a Doom-format map (or any view of Doom-format objects, like a {@link CompactDoomMap}).
+	 * @param map the source map.
+	 * @param cellSize the size of each grid cell in map units.
+	 * 		This may be increased for maps with very large bounds.
+	 * @return a new spatial index.
+	 * @throws IllegalArgumentException if cellSize is 0 or less.
+	 */
+	public static MapSpatialIndex create(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ?, ? extends DoomThing> map, int cellSize)
+	{
+		return create(map, MapGeometryReader.DOOM, cellSize);
+	}
+
+	/**
+	 * Creates a spatial index for a Hexen-format map, using the default cell size.
+	 * @param map the source map.
+	 * @return a new spatial index.
+	 * @see #DEFAULT_CELL_SIZE
+	 */
+	public static MapSpatialIndex create(HexenMap map)
+	{
+		return create(map, MapGeometryReader.HEXEN, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Creates a spatial index for a Hexen-format map.
+	 * @param map the source map.
+	 * @param cellSize the size of each grid cell in map units.
+	 * 		This may be increased for maps with very large bounds.
+	 * @return a new spatial index.
+	 * @throws IllegalArgumentException if cellSize is 0 or less.
+	 */
+	public static MapSpatialIndex create(HexenMap map, int cellSize)
+	{
+		return create(map, MapGeometryReader.HEXEN, cellSize);
+	}
+
+	/**
+	 * Creates a spatial index for a UDMF map, using the default cell size.
+	 * @param map the source map.
+	 * @return a new spatial index.
+	 * @see #DEFAULT_CELL_SIZE
+	 */
+	public static MapSpatialIndex create(UDMFMap map)
+	{
+		return create(map, MapGeometryReader.UDMF, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Creates a spatial index for a UDMF map.
+	 * @param map the source map.
+	 * @param cellSize the size of each grid cell in map units.
+	 * 		This may be increased for maps with very large bounds.
+	 * @return a new spatial index.
+	 * @throws IllegalArgumentException if cellSize is 0 or less.
+	 */
+	public static MapSpatialIndex create(UDMFMap map, int cellSize)
+	{
+		return create(map, MapGeometryReader.UDMF, cellSize);
+	}
+
+	/**
+	 * Creates a spatial index for any map view, reading its geometry with a {@link MapGeometryReader}.
+	 * The objects returned by the view are read immediately and not kept, so flyweight views are safe to use,
+	 * like a {@link net.mtrop.doom.map.cursor.DoomMapCursorView} read with {@link MapGeometryReader#DOOM_CURSOR}.
+	 * @param <V> the vertex type.
+	 * @param <L> the linedef type.
+	 * @param <S> the sidedef type.
+	 * @param <T> the thing type.
+	 * @param map the source map.
+	 * @param reader the reader for reading the geometry from the map's objects.
+	 * @param cellSize the size of each grid cell in map units.
+	 * 		This may be increased for maps with very large bounds.
+	 * @return a new spatial index.
+	 * @throws IllegalArgumentException if cellSize is 0 or less.
+	 */
+	public static <V, L, S, T> MapSpatialIndex create(MapView<V, L, S, ?, T> map, MapGeometryReader<? super V, ? super L, ? super S, ? super T> reader, int cellSize)
+	{
+		if (cellSize <= 0)
+			throw new IllegalArgumentException("Cell size must be greater than 0.");
+
+		MapSpatialIndex out = new MapSpatialIndex();
+
+		int vertexCount = map.getVertexCount();
+		out.vertexX = new double[vertexCount];
+		out.vertexY = new double[vertexCount];
+		for (int i = 0; i < vertexCount; i++)
+		{
+			V vertex = map.getVertex(i);
+			out.vertexX[i] = reader.getVertexX(vertex);
+			out.vertexY[i] = reader.getVertexY(vertex);
+		}
+
+		int sidedefCount = map.getSidedefCount();
+		int[] sidedefSector = new int[sidedefCount];
+		for (int i = 0; i < sidedefCount; i++)
+			sidedefSector[i] = reader.getSidedefSector(map.getSidedef(i));
+
+		int linedefCount = map.getLinedefCount();
+		out.linedefStart = new int[linedefCount];
+		out.linedefEnd = new int[linedefCount];
+		out.linedefSectorFront = new int[linedefCount];
+		out.linedefSectorBack = new int[linedefCount];
+		for (int i = 0; i < linedefCount; i++)
+		{
+			L linedef = map.getLinedef(i);
+			int start = reader.getLinedefVertexStart(linedef);
+			int end = reader.getLinedefVertexEnd(linedef);
+			if (start < 0 || start >= vertexCount || end < 0 || end >= vertexCount)
+				start = end = -1;
+			out.linedefStart[i] = start;
+			out.linedefEnd[i] = end;
+			int front = reader.getLinedefSidedefFront(linedef);
+			int back = reader.getLinedefSidedefBack(linedef);
+			out.linedefSectorFront[i] = front >= 0 && front < sidedefCount ? sidedefSector[front] : -1;
+			out.linedefSectorBack[i] = back >= 0 && back < sidedefCount ? sidedefSector[back] : -1;
+		}
+
+		int thingCount = map.getThingCount();
+		out.thingX = new double[thingCount];
+		out.thingY = new double[thingCount];
+		for (int i = 0; i < thingCount; i++)
+		{
+			T thing = map.getThing(i);
+			out.thingX[i] = reader.getThingX(thing);
+			out.thingY[i] = reader.getThingY(thing);
+		}
+
+		out.buildGrid(cellSize);
+		return out;
+	}
+
+	// Sizes the grid and fills the cells.
+	private void buildGrid(double size)
+	{
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < vertexX.length; i++)
+		{
+			minX = Math.min(minX, vertexX[i]);
+			minY = Math.min(minY, vertexY[i]);
+			maxX = Math.max(maxX, vertexX[i]);
+			maxY = Math.max(maxY, vertexY[i]);
+		}
+		for (int i = 0; i < thingX.length; i++)
+		{
+			minX = Math.min(minX, thingX[i]);
+			minY = Math.min(minY, thingY[i]);
+			maxX = Math.max(maxX, thingX[i]);
+			maxY = Math.max(maxY, thingY[i]);
+		}
+		if (minX > maxX)
+			minX = minY = maxX = maxY = 0.0;
+
+		long c, r;
+		while ((c = (long)((maxX - minX) / size) + 1) * (r = (long)((maxY - minY) / size) + 1) > MAX_CELLS)
+			size *= 2.0;
+
+		this.cellSize = size;
+		this.originX = minX;
+		this.originY = minY;
+		this.columns = (int)c;
+		this.rows = (int)r;
+
+		int cellCount = columns * rows;
+
+		CellBuilder vertexBuilder = new CellBuilder(cellCount);
+		for (int n = 0; n < 2; n++)
+		{
+			for (int i = 0; i < vertexX.length; i++)
+				vertexBuilder.add(getRow(vertexY[i]) * columns + getColumn(vertexX[i]), i);
+			vertexBuilder.next();
+		}
+		vertexCells = vertexBuilder.cells;
+
+		CellBuilder thingBuilder = new CellBuilder(cellCount);
+		for (int n = 0; n < 2; n++)
+		{
+			for (int i = 0; i < thingX.length; i++)
+				thingBuilder.add(getRow(thingY[i]) * columns + getColumn(thingX[i]), i);
+			thingBuilder.next();
+		}
+		thingCells = thingBuilder.cells;
+
+		CellBuilder linedefBuilder = new CellBuilder(cellCount);
+		for (int n = 0; n < 2; n++)
+		{
+			for (int i = 0; i < linedefStart.length; i++)
+				if (linedefStart[i] >= 0)
+					rasterizeLinedef(linedefBuilder, i);
+			linedefBuilder.next();
+		}
+		linedefCells = linedefBuilder.cells;
+	}
+
+	// Adds a linedef to every cell that it touches.
+	private void rasterizeLinedef(CellBuilder builder, int linedef)
+	{
+		double x0 = vertexX[linedefStart[linedef]];
+		double y0 = vertexY[linedefStart[linedef]];
+		double x1 = vertexX[linedefEnd[linedef]];
+		double y1 = vertexY[linedefEnd[linedef]];
+
+		double lineMinY = Math.min(y0, y1);
+		double lineMaxY = Math.max(y0, y1);
+		int r0 = getRow(lineMinY - EPSILON);
+		int r1 = getRow(lineMaxY + EPSILON);
+
+		for (int r = r0; r <= r1; r++)
+		{
+			int c0, c1;
+			if (y0 == y1)
+			{
+				c0 = getColumn(Math.min(x0, x1) - EPSILON);
+				c1 = getColumn(Math.max(x0, x1) + EPSILON);
+			}
+			else
+			{
+				double bandMin = Math.max(lineMinY, originY + r * cellSize);
+				double bandMax = Math.min(lineMaxY, originY + (r + 1) * cellSize);
+				double xa = x0 + (x1 - x0) * (bandMin - y0) / (y1 - y0);
+				double xb = x0 + (x1 - x0) * (bandMax - y0) / (y1 - y0);
+				c0 = getColumn(Math.min(xa, xb) - EPSILON);
+				c1 = getColumn(Math.max(xa, xb) + EPSILON);
+			}
+			for (int c = c0; c <= c1; c++)
+				builder.add(r * columns + c, linedef);
+		}
+	}
+
+	/**
+	 * @return the size of each grid cell in map units.
+	 */
+	public double getCellSize()
+	{
+		return cellSize;
+	}
+
+	/**
+	 * @return the amount of grid columns.
+	 */
+	public int getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * @return the amount of grid rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Gets the indices of all vertices inside a bounding box (edges included).
+	 * @param minX the minimum X-coordinate of the box.
+	 * @param minY the minimum Y-coordinate of the box.
+	 * @param maxX the maximum X-coordinate of the box.
+	 * @param maxY the maximum Y-coordinate of the box.
+	 * @return the vertex indices, in ascending order.
+	 */
+	public int[] getVerticesInBox(double minX, double minY, double maxX, double maxY)
+	{
+		return getPointsInBox(vertexCells, vertexX, vertexY, minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Gets the indices of all things inside a bounding box (edges included).
+	 * Only thing positions are considered, not their radii, so to find things that may overlap an area,
+	 * expand the box by the largest radius of interest.
+	 * @param minX the minimum X-coordinate of the box.
+	 * @param minY the minimum Y-coordinate of the box.
+	 * @param maxX the maximum X-coordinate of the box.
+	 * @param maxY the maximum Y-coordinate of the box.
+	 * @return the thing indices, in ascending order.
+	 */
+	public int[] getThingsInBox(double minX, double minY, double maxX, double maxY)
+	{
+		return getPointsInBox(thingCells, thingX, thingY, minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Gets the indices of all linedefs that touch or cross a bounding box (edges included).
+	 * @param minX the minimum X-coordinate of the box.
+	 * @param minY the minimum Y-coordinate of the box.
+	 * @param maxX the maximum X-coordinate of the box.
+	 * @param maxY the maximum Y-coordinate of the box.
+	 * @return the linedef indices, in ascending order.
+	 */
+	public int[] getLinedefsInBox(double minX, double minY, double maxX, double maxY)
+	{
+		if (minX > maxX || minY > maxY)
+			return NO_INDICES;
+
+		IndexList candidates = new IndexList();
+		int c0 = getColumn(minX), c1 = getColumn(maxX);
+		int r0 = getRow(minY), r1 = getRow(maxY);
+		for (int r = r0; r <= r1; r++)
+			for (int c = c0; c <= c1; c++)
+				linedefCells.addTo(r * columns + c, candidates);
+
+		int[] out = candidates.toSortedDistinctArray();
+		int n = 0;
+		for (int i = 0; i < out.length; i++)
+		{
+			int linedef = out[i];
+			if (intersectsBox(
+				vertexX[linedefStart[linedef]], vertexY[linedefStart[linedef]],
+				vertexX[linedefEnd[linedef]], vertexY[linedefEnd[linedef]],
+				minX, minY, maxX, maxY
+			))
+				out[n++] = linedef;
+		}
+		return n == out.length ? out : Arrays.copyOf(out, n);
+	}
+
+	/**
+	 * Gets the index of the vertex closest to a point.
+	 * If two vertices are equally close, the one with the lower index is returned.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the index of the closest vertex, or -1 if there are no vertices.
+	 */
+	public int getNearestVertex(double x, double y)
+	{
+		return getNearest(vertexCells, x, y, (index, px, py) -> {
+			double dx = vertexX[index] - px;
+			double dy = vertexY[index] - py;
+			return dx * dx + dy * dy;
+		});
+	}
+
+	/**
+	 * Gets the index of the thing closest to a point.
+	 * If two things are equally close, the one with the lower index is returned.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the index of the closest thing, or -1 if there are no things.
+	 */
+	public int getNearestThing(double x, double y)
+	{
+		return getNearest(thingCells, x, y, (index, px, py) -> {
+			double dx = thingX[index] - px;
+			double dy = thingY[index] - py;
+			return dx * dx + dy * dy;
+		});
+	}
+
+	/**
+	 * Gets the index of the linedef closest to a point (closest point on the line segment, not its endpoints).
+	 * If two linedefs are equally close, the one with the lower index is returned.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the index of the closest linedef, or -1 if there are no indexed linedefs.
+	 */
+	public int getNearestLinedef(double x, double y)
+	{
+		return getNearest(linedefCells, x, y, this::getLinedefDistanceSquared);
+	}
+
+	/**
+	 * Gets a set of sector indices that the sector containing a point is among.
+	 * <p>These are the sectors on either side of each linedef in the point's grid cell.
+	 * In a well-formed map, a boundary of the sector containing the point must cross the cell
+	 * if any other linedef does, so the containing sector is always in this set. If no linedefs cross the cell,
+	 * the set is the sector on the point's side of the closest linedef.
+	 * Candidates can then be narrowed down with an exact point-in-polygon test.
+	 * @param x the point's X-coordinate.
+	 * @param y the point's Y-coordinate.
+	 * @return the candidate sector indices, in ascending order. Can be empty if the point is outside of the map.
+	 */
+	public int[] getSectorCandidates(double x, double y)
+	{
+		IndexList candidates = new IndexList();
+		if (x >= originX && y >= originY && x <= originX + columns * cellSize && y <= originY + rows * cellSize)
+		{
+			IndexList linedefs = new IndexList();
+			linedefCells.addTo(getRow(y) * columns + getColumn(x), linedefs);
+			for (int i = 0; i < linedefs.size; i++)
+			{
+				int linedef = linedefs.data[i];
+				if (linedefSectorFront[linedef] >= 0)
+					candidates.add(linedefSectorFront[linedef]);
+				if (linedefSectorBack[linedef] >= 0)
+					candidates.add(linedefSectorBack[linedef]);
+			}
+		}
+
+		if (candidates.size == 0)
+		{
+			int linedef = getNearestLinedef(x, y);
+			if (linedef >= 0)
+			{
+				double x0 = vertexX[linedefStart[linedef]];
+				double y0 = vertexY[linedefStart[linedef]];
+				double x1 = vertexX[linedefEnd[linedef]];
+				double y1 = vertexY[linedefEnd[linedef]];
+				// front side is to the right of the line.
+				boolean front = (x1 - x0) * (y - y0) - (y1 - y0) * (x - x0) <= 0.0;
+				int sector = front ? linedefSectorFront[linedef] : linedefSectorBack[linedef];
+				if (sector >= 0)
+					candidates.add(sector);
+			}
+		}
+
+		return candidates.toSortedDistinctArray();
+	}
+
+	// Gets the distance squared from a point to a linedef.
+	private double getLinedefDistanceSquared(int linedef, double x, double y)
+	{
+		double x0 = vertexX[linedefStart[linedef]];
+		double y0 = vertexY[linedefStart[linedef]];
+		double dx = vertexX[linedefEnd[linedef]] - x0;
+		double dy = vertexY[linedefEnd[linedef]] - y0;
+		double lengthSquared = dx * dx + dy * dy;
+		double t = lengthSquared == 0.0 ? 0.0 : ((x - x0) * dx + (y - y0) * dy) / lengthSquared;
+		t = Math.max(0.0, Math.min(1.0, t));
+		double ex = x0 + t * dx - x;
+		double ey = y0 + t * dy - y;
+		return ex * ex + ey * ey;
+	}
+
+	// Point box query.
+	private int[] getPointsInBox(Cells cells, double[] pointX, double[] pointY, double minX, double minY, double maxX, double maxY)
+	{
+		if (minX > maxX || minY > maxY)
+			return NO_INDICES;
+
+		IndexList out = new IndexList();
+		int c0 = getColumn(minX), c1 = getColumn(maxX);
+		int r0 = getRow(minY), r1 = getRow(maxY);
+		for (int r = r0; r <= r1; r++)
+			for (int c = c0; c <= c1; c++)
+			{
+				int cell = r * columns + c;
+				for (int i = cells.start[cell]; i < cells.start[cell + 1]; i++)
+				{
+					int index = cells.items[i];
+					double px = pointX[index], py = pointY[index];
+					if (px >= minX && px <= maxX && py >= minY && py <= maxY)
+						out.add(index);
+				}
+			}
+		return out.toSortedDistinctArray();
+	}
+
+	// Searches rings of cells outward from a point until no closer object can exist.
+	private int getNearest(Cells cells, double x, double y, DistanceFunction distance)
+	{
+		long cx = (long)Math.floor((x - originX) / cellSize);
+		long cy = (long)Math.floor((y - originY) / cellSize);
+
+		// Chebyshev distance (in cells) to the grid, and to its farthest cell.
+		long firstRing = Math.max(Math.max(-cx, cx - (columns - 1)), Math.max(-cy, cy - (rows - 1)));
+		firstRing = Math.max(firstRing, 0);
+		long lastRing = Math.max(Math.max(Math.abs(cx), Math.abs(cx - (columns - 1))), Math.max(Math.abs(cy), Math.abs(cy - (rows - 1))));
+
+		int best = -1;
+		double bestDistance = Double.POSITIVE_INFINITY;
+		for (long k = firstRing; k <= lastRing; k++)
+		{
+			// Anything in ring k is at least (k - 1) cells away.
+			double ringDistance = Math.max(0, k - 1) * cellSize;
+			if (best >= 0 && ringDistance * ringDistance > bestDistance)
+				break;
+
+			long r0 = cy - k, r1 = cy + k;
+			long c0 = cx - k, c1 = cx + k;
+			for (long r = Math.max(r0, 0); r <= Math.min(r1, rows - 1); r++)
+			{
+				boolean edgeRow = r == r0 || r == r1;
+				// on inner rows, only the first and last column are in the ring.
+				long step = edgeRow || k == 0 ? 1 : 2 * k;
+				for (long c = edgeRow ? Math.max(c0, 0) : c0; c <= Math.min(c1, columns - 1); c += step)
+				{
+					if (c < 0)
+						continue;
+					int cell = (int)(r * columns + c);
+					for (int i = cells.start[cell]; i < cells.start[cell + 1]; i++)
+					{
+						int index = cells.items[i];
+						double d = distance.getDistanceSquared(index, x, y);
+						if (d < bestDistance || (d == bestDistance && index < best))
+						{
+							best = index;
+							bestDistance = d;
+						}
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	// Gets a clamped grid column for an X-coordinate.
+	private int getColumn(double x)
+	{
+		double c = Math.floor((x - originX) / cellSize);
+		return c < 0 ? 0 : c >= columns ? columns - 1 : (int)c;
+	}
+
+	// Gets a clamped grid row for a Y-coordinate.
+	private int getRow(double y)
+	{
+		double r = Math.floor((y - originY) / cellSize);
+		return r < 0 ? 0 : r >= rows ? rows - 1 : (int)r;
+	}
+
+	// Tests if a line segment touches or crosses a box.
+	private static boolean intersectsBox(double x0, double y0, double x1, double y1, double minX, double minY, double maxX, double maxY)
+	{
+		if (Math.max(x0, x1) < minX || Math.min(x0, x1) > maxX || Math.max(y0, y1) < minY || Math.min(y0, y1) > maxY)
+			return false;
+
+		// Box corners all on one side of the line?
+		double dx = x1 - x0;
+		double dy = y1 - y0;
+		double s0 = dx * (minY - y0) - dy * (minX - x0);
+		double s1 = dx * (minY - y0) - dy * (maxX - x0);
+		double s2 = dx * (maxY - y0) - dy * (minX - x0);
+		double s3 = dx * (maxY - y0) - dy * (maxX - x0);
+		return !((s0 > 0 && s1 > 0 && s2 > 0 && s3 > 0) || (s0 < 0 && s1 < 0 && s2 < 0 && s3 < 0));
+	}
+
+	// Distance function for nearest searches.
+	@FunctionalInterface
+	private interface DistanceFunction
+	{
+		double getDistanceSquared(int index, double x, double y);
+	}
+
+	/**
+	 * Packed cell contents: the items in cell <code>n</code> are
+	 * <code>items[start[n]]</code> to <code>items[start[n + 1] - 1]</code>.
+	 */
+	private static class Cells
+	{
+		private int[] start;
+		private int[] items;
+
+		private void addTo(int cell, IndexList list)
+		{
+			for (int i = start[cell]; i < start[cell + 1]; i++)
+				list.add(items[i]);
+		}
+	}
+
+	/**
+	 * Two-pass builder for packed cells: the first pass counts, the second pass fills.
+	 */
+	private static class CellBuilder
+	{
+		private Cells cells;
+		private int[] next;
+		private boolean filling;
+
+		private CellBuilder(int cellCount)
+		{
+			this.cells = new Cells();
+			this.cells.start = new int[cellCount + 1];
+			this.filling = false;
+		}
+
+		private void add(int cell, int item)
+		{
+			if (filling)
+				cells.items[next[cell]++] = item;
+			else
+				cells.start[cell + 1]++;
+		}
+
+		private void next()
+		{
+			if (filling)
+				return;
+			int[] start = cells.start;
+			for (int i = 1; i < start.length; i++)
+				start[i] += start[i - 1];
+			cells.items = new int[start[start.length - 1]];
+			next = Arrays.copyOf(start, start.length - 1);
+			filling = true;
+		}
+	}
+
+	/**
+	 * Growable list of indices.
+	 */
+	private static class IndexList
+	{
+		private int[] data = new int[16];
+		private int size = 0;
+
+		private void add(int value)
+		{
+			if (size == data.length)
+				data = Arrays.copyOf(data, size * 2);
+			data[size++] = value;
+		}
+
+		private int[] toSortedDistinctArray()
+		{
+			if (size == 0)
+				return NO_INDICES;
+			Arrays.sort(data, 0, size);
+			int n = 1;
+			for (int i = 1; i < size; i++)
+				if (data[i] != data[n - 1])
+					data[n++] = data[i];
+			return Arrays.copyOf(data, n);
+		}
+	}
+
+}
@@ -0,0 +1,517 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.map.data.Reject;
+
+/**
+ * Builds a {@link Reject} table from map geometry.
+ * <p>There are three modes:
+ * <ul>
+ * <li>{@link Mode#ZERO} builds an empty table (every sector can see every sector), which is always safe.</li>
+ * <li>{@link Mode#COMPONENTS} groups sectors into connected components (sectors joined by two-sided linedefs),
+ * and rejects sight between sectors in different components. This is fast, and exact for what it checks.</li>
+ * <li>{@link Mode#LINE_OF_SIGHT} also rejects sight between sectors in the same component that can never see each other.
+ * For each sector, sight is flooded out through the two-sided linedefs ("portals") of neighboring sectors,
+ * and each portal is clipped to the region that can be seen through the portals before it. A sector is visible if any
+ * part of one of its portals is left after clipping.</li>
+ * </ul>
+ * <p>The line-of-sight mode is conservative: it can mark sectors as visible that cannot actually see each other,
+ * but never rejects sectors that can. Heights are not considered, since doors and lifts change them during play.
+ * If the search through one portal takes too long (on very open maps), everything reachable through portals that are
+ * at least partly in front of it is marked as visible instead. The result is symmetric.
+ * <p>Sectors are processed independently, and on several threads (on the common fork-join pool) if parallel building is enabled.
+ * The builder itself holds only settings, and can be reused.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class RejectBuilder
+{
+	/** Maximum amount of portal visits through one of a sector's portals before giving up. */
+	private static final int MAX_VISITS = 1 << 14;
+	/** Tolerance for clipping. Points this close to a clipping line are kept. */
+	private static final double EPSILON = 1e-6;
+
+	/**
+	 * Reject building modes.
+	 */
+	public enum Mode
+	{
+		/** Build an empty table. */
+		ZERO,
+		/** Reject sight between sectors that are not connected. */
+		COMPONENTS,
+		/** Reject sight between sectors that are not connected or not in line of sight. */
+		LINE_OF_SIGHT;
+	}
+
+	/** Build mode. */
+	private Mode mode;
+	/** Build in parallel. */
+	private boolean parallel;
+
+	/**
+	 * Creates a new builder that builds line-of-sight tables on the calling thread.
+	 */
+	public RejectBuilder()
+	{
+		this.mode = Mode.LINE_OF_SIGHT;
+		this.parallel = false;
+	}
+
+	/**
+	 * Sets the build mode.
+	 * @param mode the mode.
+	 * @return this builder.
+	 * @throws NullPointerException if mode is null.
+	 */
+	public RejectBuilder setMode(Mode mode)
+	{
+		if (mode == null)
+			throw new NullPointerException("mode");
+		this.mode = mode;
+		return this;
+	}
+
+	/**
+	 * Sets if sectors are processed in parallel (on the common fork-join pool).
+	 * @param parallel true for parallel, false for not.
+	 * @return this builder.
+	 */
+	public RejectBuilder setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+		return this;
+	}
+
+	/**
+	 * Builds a Reject table from a Doom-format map (or any view of Doom-format objects, like a {@link CompactDoomMap}).
+	 * @param map the source map.
+	 * @return a new Reject table.
+	 */
+	public Reject build(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ?, ? extends DoomThing> map)
+	{
+		return build(map, MapGeometryReader.DOOM);
+	}
+
+	/**
+	 * Builds a Reject table from a Hexen-format map.
+	 * @param map the source map.
+	 * @return a new Reject table.
+	 */
+	public Reject build(HexenMap map)
+	{
+		return build(map, MapGeometryReader.HEXEN);
+	}
+
+	/**
+	 * Builds a Reject table from any map view, reading its geometry with a {@link MapGeometryReader}.
+	 * Linedefs with vertex or sidedef references that are out of range are treated as one-sided (or ignored).
+	 * @param <V> the vertex type.
+	 * @param <L> the linedef type.
+	 * @param <S> the sidedef type.
+	 * @param map the source map.
+	 * @param reader the reader for reading the geometry from the map's objects.
+	 * @return a new Reject table.
+	 */
+	public <V, L, S> Reject build(MapView<V, L, S, ?, ?> map, MapGeometryReader<? super V, ? super L, ? super S, ?> reader)
+	{
+		int sectorCount = map.getSectorCount();
+		Reject out = new Reject(sectorCount);
+		if (mode == Mode.ZERO || sectorCount == 0)
+			return out;
+
+		Portals portals = new Portals(map, reader, sectorCount);
+
+		BitSet[] visible = new BitSet[sectorCount];
+		if (mode == Mode.COMPONENTS)
+		{
+			int[] components = portals.getComponents();
+			BitSet[] members = new BitSet[sectorCount];
+			for (int i = 0; i < sectorCount; i++)
+			{
+				if (members[components[i]] == null)
+					members[components[i]] = new BitSet(sectorCount);
+				members[components[i]].set(i);
+			}
+			for (int i = 0; i < sectorCount; i++)
+				visible[i] = members[components[i]];
+		}
+		else
+		{
+			portals.findMightSee(parallel);
+			IntStream sectors = IntStream.range(0, sectorCount);
+			(parallel ? sectors.parallel() : sectors).forEach((s) -> visible[s] = portals.flood(s));
+			// make symmetric.
+			for (int i = 0; i < sectorCount; i++)
+				for (int j = visible[i].nextSetBit(0); j >= 0; j = visible[i].nextSetBit(j + 1))
+					visible[j].set(i);
+		}
+
+		out.fill(true);
+		for (int i = 0; i < sectorCount; i++)
+			for (int j = visible[i].nextSetBit(0); j >= 0; j = visible[i].nextSetBit(j + 1))
+				out.setRejected(i, j, false);
+		return out;
+	}
+
+	/**
+	 * The portals of a map: two-sided linedefs, once for each direction.
+	 * Each portal is oriented so that the sector it leads into is on its left.
+	 */
+	private static class Portals
+	{
+		private int sectorCount;
+
+		private double[] x1;
+		private double[] y1;
+		private double[] x2;
+		private double[] y2;
+		private int[] linedef;
+		private int[] to;
+
+		/** Portals leaving each sector: sectorPortals[sectorStart[s]] to sectorPortals[sectorStart[s + 1] - 1]. */
+		private int[] sectorStart;
+		private int[] sectorPortals;
+		/** For each portal, the sectors that might be seen through it (see {@link #findMightSee(boolean)}). */
+		private BitSet[] mightSee;
+
+		private <V, L, S> Portals(MapView<V, L, S, ?, ?> map, MapGeometryReader<? super V, ? super L, ? super S, ?> reader, int sectorCount)
+		{
+			this.sectorCount = sectorCount;
+
+			int vertexCount = map.getVertexCount();
+			double[] vx = new double[vertexCount];
+			double[] vy = new double[vertexCount];
+			for (int i = 0; i < vertexCount; i++)
+			{
+				V vertex = map.getVertex(i);
+				vx[i] = reader.getVertexX(vertex);
+				vy[i] = reader.getVertexY(vertex);
+			}
+
+			int sidedefCount = map.getSidedefCount();
+			int[] sidedefSector = new int[sidedefCount];
+			for (int i = 0; i < sidedefCount; i++)
+			{
+				int sector = reader.getSidedefSector(map.getSidedef(i));
+				sidedefSector[i] = sector >= 0 && sector < sectorCount ? sector : -1;
+			}
+
+			// find two-sided linedefs.
+			int linedefCount = map.getLinedefCount();
+			int[] lineStart = new int[linedefCount];
+			int[] lineEnd = new int[linedefCount];
+			int[] lineFront = new int[linedefCount];
+			int[] lineBack = new int[linedefCount];
+			int count = 0;
+			for (int i = 0; i < linedefCount; i++)
+			{
+				L line = map.getLinedef(i);
+				int start = reader.getLinedefVertexStart(line);
+				int end = reader.getLinedefVertexEnd(line);
+				int front = reader.getLinedefSidedefFront(line);
+				int back = reader.getLinedefSidedefBack(line);
+				lineFront[i] = front >= 0 && front < sidedefCount ? sidedefSector[front] : -1;
+				lineBack[i] = back >= 0 && back < sidedefCount ? sidedefSector[back] : -1;
+				if (start < 0 || start >= vertexCount || end < 0 || end >= vertexCount || lineFront[i] < 0 || lineBack[i] < 0)
+				{
+					lineStart[i] = -1;
+					continue;
+				}
+				lineStart[i] = start;
+				lineEnd[i] = end;
+				count += 2;
+			}
+
+			this.x1 = new double[count];
+			this.y1 = new double[count];
+			this.x2 = new double[count];
+			this.y2 = new double[count];
+			this.linedef = new int[count];
+			this.to = new int[count];
+			int[] from = new int[count];
+			int p = 0;
+			for (int i = 0; i < linedefCount; i++)
+			{
+				if (lineStart[i] < 0)
+					continue;
+				// front is on the right of start->end, so front-to-back runs start->end.
+				setPortal(p++, i, vx[lineStart[i]], vy[lineStart[i]], vx[lineEnd[i]], vy[lineEnd[i]], lineBack[i]);
+				from[p - 1] = lineFront[i];
+				setPortal(p++, i, vx[lineEnd[i]], vy[lineEnd[i]], vx[lineStart[i]], vy[lineStart[i]], lineFront[i]);
+				from[p - 1] = lineBack[i];
+			}
+
+			this.sectorStart = new int[sectorCount + 1];
+			for (int i = 0; i < count; i++)
+				sectorStart[from[i] + 1]++;
+			for (int i = 0; i < sectorCount; i++)
+				sectorStart[i + 1] += sectorStart[i];
+			this.sectorPortals = new int[count];
+			int[] next = new int[sectorCount];
+			System.arraycopy(sectorStart, 0, next, 0, sectorCount);
+			for (int i = 0; i < count; i++)
+				sectorPortals[next[from[i]]++] = i;
+			this.mightSee = new BitSet[count];
+		}
+
+		/**
+		 * Finds the sectors that might be seen through each portal: the sectors reachable through portals
+		 * that are at least partly in front of it. Everything visible through a portal is in its set.
+		 */
+		private void findMightSee(boolean parallel)
+		{
+			IntStream portals = IntStream.range(0, to.length);
+			(parallel ? portals.parallel() : portals).forEach((p) -> mightSee[p] = findMightSee(p));
+		}
+
+		private BitSet findMightSee(int portal)
+		{
+			BitSet out = new BitSet(sectorCount);
+			double[] source = {x1[portal], y1[portal], x2[portal], y2[portal]};
+			int[] queue = new int[sectorCount];
+			int head = 0, tail = 0;
+			out.set(to[portal]);
+			queue[tail++] = to[portal];
+			while (head < tail)
+			{
+				int sector = queue[head++];
+				for (int i = sectorStart[sector]; i < sectorStart[sector + 1]; i++)
+				{
+					int t = sectorPortals[i];
+					if (out.get(to[t]) || linedef[t] == linedef[portal])
+						continue;
+					double[] target = {x1[t], y1[t], x2[t], y2[t]};
+					if (!clip(target, source[0], source[1], source[2], source[3], 1.0))
+						continue;
+					out.set(to[t]);
+					queue[tail++] = to[t];
+				}
+			}
+			return out;
+		}
+
+		private void setPortal(int p, int line, double ax, double ay, double bx, double by, int sector)
+		{
+			x1[p] = ax;
+			y1[p] = ay;
+			x2[p] = bx;
+			y2[p] = by;
+			linedef[p] = line;
+			to[p] = sector;
+		}
+
+		// Gets the connected component index (lowest sector index) for each sector.
+		private int[] getComponents()
+		{
+			int[] parent = new int[sectorCount];
+			for (int i = 0; i < sectorCount; i++)
+				parent[i] = i;
+			for (int s = 0; s < sectorCount; s++)
+				for (int i = sectorStart[s]; i < sectorStart[s + 1]; i++)
+				{
+					int a = find(parent, s);
+					int b = find(parent, to[sectorPortals[i]]);
+					if (a != b)
+						parent[Math.max(a, b)] = Math.min(a, b);
+				}
+			for (int i = 0; i < sectorCount; i++)
+				parent[i] = find(parent, i);
+			return parent;
+		}
+
+		private static int find(int[] parent, int i)
+		{
+			while (parent[i] != i)
+				i = parent[i] = parent[parent[i]];
+			return i;
+		}
+
+		// Finds the sectors visible from a sector.
+		private BitSet flood(int sector)
+		{
+			Flood flood = new Flood(sector, to.length);
+			for (int i = sectorStart[sector]; i < sectorStart[sector + 1]; i++)
+			{
+				int s = sectorPortals[i];
+				double[] source = {x1[s], y1[s], x2[s], y2[s]};
+				flood.visible.set(to[s]);
+				flood.visits = 0;
+				flood.onStack[s] = true;
+				try {
+					flood(flood, source, source, linedef[s], to[s], mightSee[s]);
+					flood.onStack[s] = false;
+				} catch (FloodLimitException e) {
+					// give up: see everything that might be seen through this portal.
+					flood.visible.or(mightSee[s]);
+					Arrays.fill(flood.onStack, false);
+				}
+			}
+			return flood.visible;
+		}
+
+		// Floods through the portals of a sector, seen from a source portal through a pass portal.
+		private void flood(Flood flood, double[] source, double[] pass, int passLinedef, int sector, BitSet might)
+		{
+			boolean first = source == pass;
+			// separating lines are only valid if the source is wholly behind the pass.
+			boolean behind = first || (side(pass, source[0], source[1]) <= EPSILON && side(pass, source[2], source[3]) <= EPSILON);
+
+			for (int i = sectorStart[sector]; i < sectorStart[sector + 1]; i++)
+			{
+				int t = sectorPortals[i];
+				if (flood.onStack[t] || linedef[t] == passLinedef)
+					continue;
+				if (++flood.visits > MAX_VISITS)
+					throw new FloodLimitException();
+
+				double[] target = {x1[t], y1[t], x2[t], y2[t]};
+				if (!clip(target, source[0], source[1], source[2], source[3], 1.0))
+					continue;
+				double[] nextSource = source;
+				if (!first && behind)
+				{
+					if (!clip(target, pass[0], pass[1], pass[2], pass[3], 1.0))
+						continue;
+					if (!clipSeparators(target, source, pass))
+						continue;
+					// narrow the source to the part that can see the target through the pass.
+					nextSource = source.clone();
+					if (!clipSeparators(nextSource, target, pass))
+						continue;
+				}
+
+				flood.visible.set(to[t]);
+
+				// only go on if something new might be seen.
+				BitSet nextMight = (BitSet)might.clone();
+				nextMight.and(mightSee[t]);
+				nextMight.andNot(flood.visible);
+				if (nextMight.isEmpty())
+					continue;
+				nextMight.or(might);
+				nextMight.and(mightSee[t]);
+
+				flood.onStack[t] = true;
+				flood(flood, nextSource, target, linedef[t], to[t], nextMight);
+				flood.onStack[t] = false;
+			}
+		}
+
+		// Clips a segment by the separating lines between a source and a pass. Returns false if nothing is left.
+		private static boolean clipSeparators(double[] target, double[] source, double[] pass)
+		{
+			for (int si = 0; si < 2; si++)
+				for (int pi = 0; pi < 2; pi++)
+				{
+					double sx = source[si * 2], sy = source[si * 2 + 1];
+					double px = pass[pi * 2], py = pass[pi * 2 + 1];
+					if (Math.abs(sx - px) < EPSILON && Math.abs(sy - py) < EPSILON)
+						continue;
+					double so = cross(sx, sy, px, py, source[2 - si * 2], source[3 - si * 2]);
+					double po = cross(sx, sy, px, py, pass[2 - pi * 2], pass[3 - pi * 2]);
+					// only a separating line if the source and pass are on opposite sides.
+					if (so > EPSILON && po < -EPSILON)
+					{
+						if (!clip(target, sx, sy, px, py, -1.0))
+							return false;
+					}
+					else if (so < -EPSILON && po > EPSILON)
+					{
+						if (!clip(target, sx, sy, px, py, 1.0))
+							return false;
+					}
+				}
+			return true;
+		}
+
+		// Clips a segment in place to one side of the line through (ax, ay)->(bx, by): left if sign is 1, right if -1. 
+		// Returns false if nothing is left.
+		private static boolean clip(double[] segment, double ax, double ay, double bx, double by, double sign)
+		{
+			double length = Math.sqrt((bx - ax) * (bx - ax) + (by - ay) * (by - ay));
+			if (length < EPSILON)
+				return true;
+			double d0 = sign * cross(ax, ay, bx, by, segment[0], segment[1]) / length;
+			double d1 = sign * cross(ax, ay, bx, by, segment[2], segment[3]) / length;
+			if (d0 < -EPSILON && d1 < -EPSILON)
+				return false;
+			if (d0 >= -EPSILON && d1 >= -EPSILON)
+				return true;
+			double t = d0 / (d0 - d1);
+			double x = segment[0] + (segment[2] - segment[0]) * t;
+			double y = segment[1] + (segment[3] - segment[1]) * t;
+			if (d0 < -EPSILON)
+			{
+				segment[0] = x;
+				segment[1] = y;
+			}
+			else
+			{
+				segment[2] = x;
+				segment[3] = y;
+			}
+			return true;
+		}
+
+		// Which side of a segment's line a point is on (positive is left), scaled by the segment's length.
+		private static double side(double[] segment, double x, double y)
+		{
+			double length = Math.sqrt((segment[2] - segment[0]) * (segment[2] - segment[0]) + (segment[3] - segment[1]) * (segment[3] - segment[1]));
+			if (length < EPSILON)
+				return 0.0;
+			return cross(segment[0], segment[1], segment[2], segment[3], x, y) / length;
+		}
+
+		private static double cross(double ax, double ay, double bx, double by, double x, double y)
+		{
+			return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+		}
+	}
+
+	/**
+	 * State for flooding from one sector.
+	 */
+	private static class Flood
+	{
+		private BitSet visible;
+		private boolean[] onStack;
+		private int visits;
+
+		private Flood(int sector, int portalCount)
+		{
+			this.visible = new BitSet();
+			this.visible.set(sector);
+			this.onStack = new boolean[portalCount];
+			this.visits = 0;
+		}
+	}
+
+	/**
+	 * Thrown when a flood takes too long.
+	 */
+	private static class FloodLimitException extends RuntimeException
+	{
+		private static final long serialVersionUID = 1L;
+
+		private FloodLimitException()
+		{
+			super(null, null, false, false);
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A table of texture and flat names, each stored once and referred to by index.
+ * A single table can be shared by many {@link CompactDoomMap}s, so that a name used by several maps 
+ * is kept in memory only once.
+ * <p>Names are only ever added, never removed, so indices stay valid for the life of the table.
+ * This class is thread-safe: names can be added from several threads, and reads do not lock.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class TextureNameTable
+{
+	/** Name to index. */
+	private Map<String, Integer> indexMap;
+	/** Index to name. */
+	private volatile String[] names;
+	/** Amount of names (written after the name itself). */
+	private volatile int count;
+
+	/**
+	 * Creates a new, empty table.
+	 */
+	public TextureNameTable()
+	{
+		this.indexMap = new HashMap<>(256);
+		this.names = new String[256];
+		this.count = 0;
+	}
+
+	/**
+	 * Adds a name to this table, if it is not already in it.
+	 * @param name the name to add.
+	 * @return the name's index.
+	 * @throws NullPointerException if <code>name</code> is null.
+	 */
+	public synchronized int add(String name)
+	{
+		Integer index = indexMap.get(name);
+		if (index != null)
+			return index;
+		
+		int out = count;
+		String[] array = names;
+		if (out == array.length)
+			array = names = Arrays.copyOf(array, array.length * 2);
+		array[out] = name;
+		indexMap.put(name, out);
+		count = out + 1;
+		return out;
+	}
+
+	/**
+	 * Gets the index of a name in this table.
+	 * @param name the name.
+	 * @return the name's index, or -1 if it is not in this table.
+	 */
+	public synchronized int indexOf(String name)
+	{
+		Integer index = indexMap.get(name);
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * Gets a name by its index.
+	 * @param index the index.
+	 * @return the corresponding name.
+	 * @throws IndexOutOfBoundsException if the index is not a valid name index.
+	 */
+	public String getName(int index)
+	{
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Index " + index + " is out of range. Size is " + count + ".");
+		return names[index];
+	}
+
+	/**
+	 * @return the amount of names in this table.
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+}
@@ -11,9 +11,9 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
+import net.mtrop.doom.map.udmf.UDMFBufferedWriter;
 import net.mtrop.doom.map.udmf.UDMFObject;
 import net.mtrop.doom.map.udmf.UDMFReader;
-import net.mtrop.doom.map.udmf.UDMFWriter;
 import net.mtrop.doom.map.udmf.attributes.UDMFGlobalAttributes;
 import net.mtrop.doom.map.udmf.listener.UDMFTypeListener;
 import net.mtrop.doom.object.TextObject;
@@ -123,18 +123,23 @@ public class UDMFMap extends CommonMap<UDMFObject, UDMFObject, UDMFObject, UDMFO
 	@Override
 	public void writeText(Writer writer) throws IOException
 	{
-		writer.append("// Generated by Doom Struct").append('\n').append('\n');
-		UDMFWriter.writeField(UDMFGlobalAttributes.ATTRIB_NAMESPACE, namespace, writer, "");
+		if (namespace == null)
+			throw new IllegalStateException("UDMF map has no namespace.");
+		UDMFBufferedWriter udmf = new UDMFBufferedWriter(writer);
+		udmf.writeComment("Generated by Doom Struct");
+		udmf.writeBlankLine();
+		udmf.writeField(UDMFGlobalAttributes.ATTRIB_NAMESPACE, namespace);
 		for (int i = 0; i < getThingCount(); i++)
-			UDMFWriter.writeObject(getThing(i), writer, THING, i);
+			udmf.writeObject(getThing(i), THING, i);
 		for (int i = 0; i < getVertexCount(); i++)
-			UDMFWriter.writeObject(getVertex(i), writer, VERTEX, i);
+			udmf.writeObject(getVertex(i), VERTEX, i);
 		for (int i = 0; i < getLinedefCount(); i++)
-			UDMFWriter.writeObject(getLinedef(i), writer, LINEDEF, i);
+			udmf.writeObject(getLinedef(i), LINEDEF, i);
 		for (int i = 0; i < getSidedefCount(); i++)
-			UDMFWriter.writeObject(getSidedef(i), writer, SIDEDEF, i);
+			udmf.writeObject(getSidedef(i), SIDEDEF, i);
 		for (int i = 0; i < getSectorCount(); i++)
-			UDMFWriter.writeObject(getSector(i), writer, SECTOR, i);
+			udmf.writeObject(getSector(i), SECTOR, i);
+		udmf.flush();
 	}
 	
 }
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import net.mtrop.doom.map.MapView;
+
+/**
+ * A read-only {@link MapView} of a Doom-format map that reads its objects directly from the map's lump bytes.
+ * <p>Every getter for an object type returns the <em>same</em> cursor, moved to the requested index, 
+ * so iterating through a whole map creates no objects. Do NOT keep a returned cursor across calls for the
+ * same object type - use {@link RecordCursor#duplicate()} if you need more than one at a time.
+ * <p>Map tools that take a {@link net.mtrop.doom.map.MapGeometryReader} or {@link net.mtrop.doom.map.MapContentReader},
+ * like {@link net.mtrop.doom.map.MapSpatialIndex} and {@link net.mtrop.doom.map.MapChecker}, read this view
+ * with {@link net.mtrop.doom.map.MapGeometryReader#DOOM_CURSOR} and {@link net.mtrop.doom.map.MapContentReader#DOOM_CURSOR}.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ * @see net.mtrop.doom.util.MapUtils#createDoomMapView(net.mtrop.doom.Wad, int)
+ */
+public class DoomMapCursorView implements MapView<VertexCursor, LinedefCursor, SidedefCursor, SectorCursor, ThingCursor>
+{
+	private static final byte[] NO_DATA = new byte[0];
+	
+	/** Vertex cursor. */
+	private VertexCursor vertices;
+	/** Linedef cursor. */
+	private LinedefCursor linedefs;
+	/** Sidedef cursor. */
+	private SidedefCursor sidedefs;
+	/** Sector cursor. */
+	private SectorCursor sectors;
+	/** Thing cursor. */
+	private ThingCursor things;
+
+	/**
+	 * Creates a new map view over map lump data.
+	 * The data is not copied. Any lump may be null, which is treated as empty.
+	 * @param vertexData the VERTEXES lump data.
+	 * @param linedefData the LINEDEFS lump data.
+	 * @param sidedefData the SIDEDEFS lump data.
+	 * @param sectorData the SECTORS lump data.
+	 * @param thingData the THINGS lump data.
+	 */
+	public DoomMapCursorView(byte[] vertexData, byte[] linedefData, byte[] sidedefData, byte[] sectorData, byte[] thingData)
+	{
+		this.vertices = new VertexCursor(vertexData != null ? vertexData : NO_DATA);
+		this.linedefs = new LinedefCursor(linedefData != null ? linedefData : NO_DATA);
+		this.sidedefs = new SidedefCursor(sidedefData != null ? sidedefData : NO_DATA);
+		this.sectors = new SectorCursor(sectorData != null ? sectorData : NO_DATA);
+		this.things = new ThingCursor(thingData != null ? thingData : NO_DATA);
+	}
+
+	/**
+	 * Moves a cursor to an index, or returns null if the index is out of range.
+	 */
+	private static <C extends RecordCursor<C>> C seek(C cursor, int i)
+	{
+		return i >= 0 && i < cursor.getCount() ? cursor.seek(i) : null;
+	}
+
+	@Override
+	public VertexCursor getVertex(int i)
+	{
+		return seek(vertices, i);
+	}
+
+	@Override
+	public int getVertexCount()
+	{
+		return vertices.getCount();
+	}
+
+	@Override
+	public LinedefCursor getLinedef(int i)
+	{
+		return seek(linedefs, i);
+	}
+
+	@Override
+	public int getLinedefCount()
+	{
+		return linedefs.getCount();
+	}
+
+	@Override
+	public SidedefCursor getSidedef(int i)
+	{
+		return seek(sidedefs, i);
+	}
+
+	@Override
+	public int getSidedefCount()
+	{
+		return sidedefs.getCount();
+	}
+
+	@Override
+	public SectorCursor getSector(int i)
+	{
+		return seek(sectors, i);
+	}
+
+	@Override
+	public int getSectorCount()
+	{
+		return sectors.getCount();
+	}
+
+	@Override
+	public ThingCursor getThing(int i)
+	{
+		return seek(things, i);
+	}
+
+	@Override
+	public int getThingCount()
+	{
+		return things.getCount();
+	}
+
+}
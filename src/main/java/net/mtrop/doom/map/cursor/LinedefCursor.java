@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import java.nio.ByteBuffer;
+
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.flags.BoomLinedefFlags;
+import net.mtrop.doom.map.data.flags.DoomLinedefFlags;
+
+/**
+ * A flyweight cursor over Doom-format linedefs (LINEDEFS), read directly from the lump's bytes.
+ * The getters match the ones on {@link DoomLinedef}.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class LinedefCursor extends RecordCursor<LinedefCursor>
+{
+	/**
+	 * Creates a new cursor over a lump's bytes.
+	 * @param data the lump data.
+	 */
+	public LinedefCursor(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new cursor over a buffer, starting at its current position.
+	 * @param buffer the buffer. Its position is not changed.
+	 */
+	public LinedefCursor(ByteBuffer buffer)
+	{
+		super(buffer, DoomLinedef.LENGTH);
+	}
+
+	@Override
+	protected LinedefCursor create(ByteBuffer buffer)
+	{
+		return new LinedefCursor(buffer);
+	}
+
+	/**
+	 * @return the starting vertex index of the current linedef.
+	 */
+	public int getVertexStartIndex()
+	{
+		return getUnsignedShort(0);
+	}
+
+	/**
+	 * @return the ending vertex index of the current linedef.
+	 */
+	public int getVertexEndIndex()
+	{
+		return getUnsignedShort(2);
+	}
+
+	/**
+	 * @return the current linedef's full bitflags.
+	 */
+	public int getFlags()
+	{
+		return getUnsignedShort(4);
+	}
+
+	/**
+	 * @return the current linedef's special.
+	 */
+	public int getSpecial()
+	{
+		return getUnsignedShort(6);
+	}
+
+	/**
+	 * @return the current linedef's sector tag.
+	 */
+	public int getTag()
+	{
+		return getUnsignedShort(8);
+	}
+
+	/**
+	 * @return the index of the current linedef's front sidedef.
+	 */
+	public int getSidedefFrontIndex()
+	{
+		return getShort(10);
+	}
+
+	/**
+	 * @return the index of the current linedef's back sidedef (or -1 if one-sided).
+	 */
+	public int getSidedefBackIndex()
+	{
+		return getShort(12);
+	}
+
+	/**
+	 * Check's if a flag bit is set on the current linedef.
+	 * @param flagType the flag type (constant).
+	 * @return true if set, false if not.
+	 * @see DoomLinedefFlags
+	 * @see BoomLinedefFlags
+	 */
+	public boolean isFlagSet(int flagType)
+	{
+		return (getFlags() & (1 << flagType)) != 0;
+	}
+
+}
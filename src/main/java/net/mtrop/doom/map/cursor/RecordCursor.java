@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import net.mtrop.doom.util.NamePool;
+
+/**
+ * A flyweight view over a series of fixed-length records in a lump's bytes.
+ * A cursor points at one record at a time, and its getters read the current record's fields directly 
+ * from the bytes (at <code>index * length</code>), so iterating through a whole lump creates no objects.
+ * <p>A cursor is positioned with {@link #seek(int)}, or stepped through all records with {@link #next()}:
+ * <pre>
+ * VertexCursor vertex = new VertexCursor(wad.getData("VERTEXES"));
+ * while (vertex.next())
+ *     minX = Math.min(minX, vertex.getX());
+ * </pre>
+ * Cursors are not thread-safe, but {@link #duplicate()} creates an independent cursor over the same bytes.
+ * The bytes are not copied, so changes to them are visible through the cursor.
+ * @param <C> the cursor type itself.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public abstract class RecordCursor<C extends RecordCursor<C>>
+{
+	/** The records (little-endian, starts at record 0). */
+	private ByteBuffer buffer;
+	/** The length of each record. */
+	private int length;
+	/** The amount of records. */
+	private int count;
+	/** The current record index. */
+	private int index;
+	/** The current record's byte offset. */
+	private int position;
+
+	/**
+	 * Creates a new cursor over a buffer of records, starting at the buffer's current position.
+	 * The cursor starts before the first record. Trailing bytes that do not make up a whole record are ignored.
+	 * @param buffer the buffer of records. The buffer's position is not changed.
+	 * @param length the length of each record in bytes.
+	 */
+	protected RecordCursor(ByteBuffer buffer, int length)
+	{
+		this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		this.length = length;
+		this.count = this.buffer.remaining() / length;
+		reset();
+	}
+
+	/**
+	 * Creates a new cursor of this type over a buffer.
+	 * @param buffer the buffer of records.
+	 * @return a new cursor.
+	 */
+	protected abstract C create(ByteBuffer buffer);
+
+	/**
+	 * @return the amount of records under this cursor.
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * @return the index of the current record, or -1 if this cursor is before the first record.
+	 */
+	public int getIndex()
+	{
+		return index;
+	}
+
+	/**
+	 * Moves this cursor to a specific record.
+	 * @param index the record index.
+	 * @return this cursor.
+	 * @throws IndexOutOfBoundsException if index &lt; 0 or &gt;= {@link #getCount()}.
+	 */
+	@SuppressWarnings("unchecked")
+	public C seek(int index)
+	{
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Index " + index + " is out of range. Count is " + count + ".");
+		this.index = index;
+		this.position = index * length;
+		return (C)this;
+	}
+
+	/**
+	 * Moves this cursor to the next record, if there is one.
+	 * @return true if the cursor moved to the next record, false if there are no more records.
+	 */
+	public boolean next()
+	{
+		if (index + 1 >= count)
+			return false;
+		index++;
+		position += length;
+		return true;
+	}
+
+	/**
+	 * Moves this cursor before the first record, so that the next call to {@link #next()} moves to the first record.
+	 */
+	public void reset()
+	{
+		this.index = -1;
+		this.position = -length;
+	}
+
+	/**
+	 * Creates a new cursor over the same bytes, at the same record as this one.
+	 * @return a new, independent cursor.
+	 */
+	public C duplicate()
+	{
+		C out = create(buffer);
+		RecordCursor<C> cursor = out;
+		cursor.index = index;
+		cursor.position = position;
+		return out;
+	}
+
+	/**
+	 * Reads a signed short field from the current record.
+	 * @param offset the field's byte offset in the record.
+	 * @return the value.
+	 * @throws IndexOutOfBoundsException if the cursor is not on a record.
+	 */
+	protected int getShort(int offset)
+	{
+		return buffer.getShort(position + offset);
+	}
+
+	/**
+	 * Reads an unsigned short field from the current record.
+	 * @param offset the field's byte offset in the record.
+	 * @return the value.
+	 * @throws IndexOutOfBoundsException if the cursor is not on a record.
+	 */
+	protected int getUnsignedShort(int offset)
+	{
+		return buffer.getShort(position + offset) & 0x0FFFF;
+	}
+
+	/**
+	 * Reads an unsigned byte field from the current record.
+	 * @param offset the field's byte offset in the record.
+	 * @return the value.
+	 * @throws IndexOutOfBoundsException if the cursor is not on a record.
+	 */
+	protected int getUnsignedByte(int offset)
+	{
+		return buffer.get(position + offset) & 0x0FF;
+	}
+
+	/**
+	 * Reads an 8-byte name field from the current record, through a {@link NamePool}.
+	 * Names that are already pooled are returned without decoding or allocation.
+	 * @param offset the field's byte offset in the record.
+	 * @param pool the pool to get the name from.
+	 * @return the name.
+	 * @throws IndexOutOfBoundsException if the cursor is not on a record.
+	 */
+	protected String getName(int offset, NamePool pool)
+	{
+		return pool.get(buffer, position + offset);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " " + index + " of " + count;
+	}
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import java.nio.ByteBuffer;
+
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.util.NamePool;
+
+/**
+ * A flyweight cursor over sectors (SECTORS), read directly from the lump's bytes.
+ * The getters match the ones on {@link DoomSector}.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class SectorCursor extends RecordCursor<SectorCursor>
+{
+	/**
+	 * Creates a new cursor over a lump's bytes.
+	 * @param data the lump data.
+	 */
+	public SectorCursor(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new cursor over a buffer, starting at its current position.
+	 * @param buffer the buffer. Its position is not changed.
+	 */
+	public SectorCursor(ByteBuffer buffer)
+	{
+		super(buffer, DoomSector.LENGTH);
+	}
+
+	@Override
+	protected SectorCursor create(ByteBuffer buffer)
+	{
+		return new SectorCursor(buffer);
+	}
+
+	/**
+	 * @return the floor height of the current sector.
+	 */
+	public int getHeightFloor()
+	{
+		return getShort(0);
+	}
+
+	/**
+	 * @return the ceiling height of the current sector.
+	 */
+	public int getHeightCeiling()
+	{
+		return getShort(2);
+	}
+
+	/**
+	 * @return the floor texture name of the current sector (pooled, see {@link NamePool#NAMES}).
+	 */
+	public String getTextureFloor()
+	{
+		return getName(4, NamePool.NAMES);
+	}
+
+	/**
+	 * @return the ceiling texture name of the current sector (pooled, see {@link NamePool#NAMES}).
+	 */
+	public String getTextureCeiling()
+	{
+		return getName(12, NamePool.NAMES);
+	}
+
+	/**
+	 * @return the light level of the current sector.
+	 */
+	public int getLightLevel()
+	{
+		return getShort(20);
+	}
+
+	/**
+	 * @return the special of the current sector.
+	 */
+	public int getSpecial()
+	{
+		return getShort(22);
+	}
+
+	/**
+	 * @return the tag of the current sector.
+	 */
+	public int getTag()
+	{
+		return getShort(24);
+	}
+
+}
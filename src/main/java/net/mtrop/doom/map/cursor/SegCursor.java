@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import java.nio.ByteBuffer;
+
+import net.mtrop.doom.bsp.data.BSPSegment;
+
+/**
+ * A flyweight cursor over BSP segments (SEGS), read directly from the lump's bytes.
+ * The getters match the ones on {@link BSPSegment}.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class SegCursor extends RecordCursor<SegCursor>
+{
+	/**
+	 * Creates a new cursor over a lump's bytes.
+	 * @param data the lump data.
+	 */
+	public SegCursor(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new cursor over a buffer, starting at its current position.
+	 * @param buffer the buffer. Its position is not changed.
+	 */
+	public SegCursor(ByteBuffer buffer)
+	{
+		super(buffer, BSPSegment.LENGTH);
+	}
+
+	@Override
+	protected SegCursor create(ByteBuffer buffer)
+	{
+		return new SegCursor(buffer);
+	}
+
+	/**
+	 * @return the starting vertex index of the current segment.
+	 */
+	public int getVertexStartIndex()
+	{
+		return getUnsignedShort(0);
+	}
+
+	/**
+	 * @return the ending vertex index of the current segment.
+	 */
+	public int getVertexEndIndex()
+	{
+		return getUnsignedShort(2);
+	}
+
+	/**
+	 * @return the angle of the current segment.
+	 */
+	public int getAngle()
+	{
+		return getUnsignedShort(4);
+	}
+
+	/**
+	 * @return the index of the linedef that the current segment is along.
+	 */
+	public int getLinedefIndex()
+	{
+		return getUnsignedShort(6);
+	}
+
+	/**
+	 * @return the direction of the current segment along its linedef (0 = same, 1 = opposite).
+	 */
+	public int getDirection()
+	{
+		return getUnsignedShort(8);
+	}
+
+	/**
+	 * @return the offset of the current segment along its linedef.
+	 */
+	public int getOffset()
+	{
+		return getUnsignedShort(10);
+	}
+
+}
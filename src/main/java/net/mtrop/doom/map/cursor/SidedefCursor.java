@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import java.nio.ByteBuffer;
+
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.util.NamePool;
+
+/**
+ * A flyweight cursor over sidedefs (SIDEDEFS), read directly from the lump's bytes.
+ * The getters match the ones on {@link DoomSidedef}.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class SidedefCursor extends RecordCursor<SidedefCursor>
+{
+	/**
+	 * Creates a new cursor over a lump's bytes.
+	 * @param data the lump data.
+	 */
+	public SidedefCursor(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new cursor over a buffer, starting at its current position.
+	 * @param buffer the buffer. Its position is not changed.
+	 */
+	public SidedefCursor(ByteBuffer buffer)
+	{
+		super(buffer, DoomSidedef.LENGTH);
+	}
+
+	@Override
+	protected SidedefCursor create(ByteBuffer buffer)
+	{
+		return new SidedefCursor(buffer);
+	}
+
+	/**
+	 * @return the X-offset of the current sidedef.
+	 */
+	public int getOffsetX()
+	{
+		return getShort(0);
+	}
+
+	/**
+	 * @return the Y-offset of the current sidedef.
+	 */
+	public int getOffsetY()
+	{
+		return getShort(2);
+	}
+
+	/**
+	 * @return the top texture name of the current sidedef (pooled, see {@link NamePool#UPPERCASE_NAMES}).
+	 */
+	public String getTextureTop()
+	{
+		return getName(4, NamePool.UPPERCASE_NAMES);
+	}
+
+	/**
+	 * @return the bottom texture name of the current sidedef (pooled, see {@link NamePool#UPPERCASE_NAMES}).
+	 */
+	public String getTextureBottom()
+	{
+		return getName(12, NamePool.UPPERCASE_NAMES);
+	}
+
+	/**
+	 * @return the middle texture name of the current sidedef (pooled, see {@link NamePool#UPPERCASE_NAMES}).
+	 */
+	public String getTextureMiddle()
+	{
+		return getName(20, NamePool.UPPERCASE_NAMES);
+	}
+
+	/**
+	 * @return the index of the sector that the current sidedef references.
+	 */
+	public int getSectorIndex()
+	{
+		return getShort(28);
+	}
+
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import java.nio.ByteBuffer;
+
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.flags.BoomThingFlags;
+import net.mtrop.doom.map.data.flags.DoomThingFlags;
+import net.mtrop.doom.map.data.flags.MBFThingFlags;
+
+/**
+ * A flyweight cursor over Doom-format things (THINGS), read directly from the lump's bytes.
+ * The getters match the ones on {@link DoomThing}.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class ThingCursor extends RecordCursor<ThingCursor>
+{
+	/**
+	 * Creates a new cursor over a lump's bytes.
+	 * @param data the lump data.
+	 */
+	public ThingCursor(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new cursor over a buffer, starting at its current position.
+	 * @param buffer the buffer. Its position is not changed.
+	 */
+	public ThingCursor(ByteBuffer buffer)
+	{
+		super(buffer, DoomThing.LENGTH);
+	}
+
+	@Override
+	protected ThingCursor create(ByteBuffer buffer)
+	{
+		return new ThingCursor(buffer);
+	}
+
+	/**
+	 * @return the X-coordinate of the current thing.
+	 */
+	public int getX()
+	{
+		return getShort(0);
+	}
+
+	/**
+	 * @return the Y-coordinate of the current thing.
+	 */
+	public int getY()
+	{
+		return getShort(2);
+	}
+
+	/**
+	 * @return the angle of the current thing (in degrees).
+	 */
+	public int getAngle()
+	{
+		return getUnsignedShort(4);
+	}
+
+	/**
+	 * @return the editor type (thing number) of the current thing.
+	 */
+	public int getType()
+	{
+		return getUnsignedShort(6);
+	}
+
+	/**
+	 * @return the current thing's full bitflags.
+	 */
+	public int getFlags()
+	{
+		return getUnsignedShort(8);
+	}
+
+	/**
+	 * Check's if a flag bit is set on the current thing.
+	 * @param flagType the flag type (constant).
+	 * @return true if set, false if not.
+	 * @see DoomThingFlags
+	 * @see BoomThingFlags
+	 * @see MBFThingFlags
+	 */
+	public boolean isFlagSet(int flagType)
+	{
+		return (getFlags() & (1 << flagType)) != 0;
+	}
+
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import java.nio.ByteBuffer;
+
+import net.mtrop.doom.map.data.DoomVertex;
+
+/**
+ * A flyweight cursor over vertices (VERTEXES), read directly from the lump's bytes.
+ * The getters match the ones on {@link DoomVertex}.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class VertexCursor extends RecordCursor<VertexCursor>
+{
+	/**
+	 * Creates a new cursor over a lump's bytes.
+	 * @param data the lump data.
+	 */
+	public VertexCursor(byte[] data)
+	{
+		this(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new cursor over a buffer, starting at its current position.
+	 * @param buffer the buffer. Its position is not changed.
+	 */
+	public VertexCursor(ByteBuffer buffer)
+	{
+		super(buffer, DoomVertex.LENGTH);
+	}
+
+	@Override
+	protected VertexCursor create(ByteBuffer buffer)
+	{
+		return new VertexCursor(buffer);
+	}
+
+	/**
+	 * @return the X-coordinate value of the current vertex.
+	 */
+	public int getX()
+	{
+		return getShort(0);
+	}
+
+	/**
+	 * @return the Y-coordinate value of the current vertex.
+	 */
+	public int getY()
+	{
+		return getShort(2);
+	}
+
+}
@@ -0,0 +1,12 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+/**
+ * Contains flyweight cursors that read map records directly from lump bytes, with no per-record allocation.
+ * @since 2.23.0
+ */
+package net.mtrop.doom.map.cursor;
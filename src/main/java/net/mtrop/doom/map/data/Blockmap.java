@@ -7,37 +7,68 @@
  ******************************************************************************/
 package net.mtrop.doom.map.data;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Queue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
-import net.mtrop.doom.struct.map.HashDequeMap;
-import net.mtrop.doom.struct.map.SparseQueueGridIndex;
-import net.mtrop.doom.struct.map.SparseGridIndex.Pair;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
  * Representation of the Blockmap lump for a map.
  * This aids in collision detection for linedefs.
+ * <p>A Blockmap can be written either with one list per block (like most node builders), or compressed,
+ * where blocks with identical lists share one list. See {@link #setCompressed(boolean)}.
+ * To build a Blockmap from map geometry, see {@link net.mtrop.doom.map.BlockmapBuilder}.
+ * <p>The block lists are stored packed into two primitive arrays (an offset per block into one array of linedef indices),
+ * and are decoded directly into them from lump data. Adding or removing indices unpacks the lists into per-block arrays
+ * until {@link #pack()} is called, so a batch of edits costs one unpack and one pack. Queries and writes read the lists 
+ * in whichever form they are in, and never change them: a Blockmap that is no longer being edited can be queried 
+ * and written from several threads at once.
  * @author Matthew Tropiano
  */
 public class Blockmap implements BinaryObject
 {
-	private static final Queue<Integer> EMPTY_QUEUE = new LinkedList<>();
+	/** Blockmap block size in map units. */
+	public static final int BLOCK_SIZE = 128;
+	
+	private static final int[] NO_OFFSETS = {0};
+	private static final char[] NO_LINES = new char[0];
 	
 	/** Grid origin X-coordinate. */
 	private int startX;
 	/** Grid origin Y-coordinate. */
 	private int startY;
+	/** Amount of block columns. */
+	private int columns;
+	/** Amount of block rows. */
+	private int rows;
+
+	/** Packed lists: the list for block (x, y) is blockLines[blockOffsets[n]] to blockLines[blockOffsets[n + 1] - 1], n = y * columns + x. */
+	private int[] blockOffsets;
+	/** Packed linedef indices. */
+	private char[] blockLines;
+	
+	/** Unpacked lists, by block (null if packed). */
+	private int[][] editLines;
+	/** Unpacked list sizes, by block (null if packed). */
+	private int[] editSizes;
 
-	/** Grid mapping to linedef indices. */
-	private SparseQueueGridIndex<Integer> innerMap;
+	/** If true, identical lists are shared on write. */
+	private boolean compressed;
 	
 	/**
 	 * Creates a new Blockmap, startX and startY set to 0.
@@ -59,12 +90,67 @@ public class Blockmap implements BinaryObject
 		RangeUtils.checkShort("Grid start Y", startY);
 		this.startX = startX;
 		this.startY = startY;
-		
-		this.innerMap = new SparseQueueGridIndex<Integer>();
+		this.columns = 0;
+		this.rows = 0;
+		this.blockOffsets = NO_OFFSETS;
+		this.blockLines = NO_LINES;
+		this.editLines = null;
+		this.editSizes = null;
+		this.compressed = false;
+	}
+	
+	/**
+	 * Creates a new Blockmap with a set amount of blocks.
+	 * All blocks start empty, and are written even if nothing is added to them.
+	 * @param startX the grid lower-left start position (x-axis).
+	 * @param startY the grid lower-left start position (y-axis).
+	 * @param columns the amount of block columns.
+	 * @param rows the amount of block rows.
+	 * @throws IllegalArgumentException if <code>startX</code> or <code>startY</code> is outside the range of -32768 to 32767,
+	 * 		or <code>columns</code> or <code>rows</code> is outside the range 1 to 513.
+	 * @since 2.23.0
+	 */
+	public Blockmap(int startX, int startY, int columns, int rows)
+	{
+		this(startX, startY);
+		RangeUtils.checkRange("Columns", 1, 513, columns);
+		RangeUtils.checkRange("Rows", 1, 513, rows);
+		this.columns = columns;
+		this.rows = rows;
+		this.blockOffsets = new int[columns * rows + 1];
+	}
+	
+	/**
+	 * Creates a new Blockmap from already-built, packed block lists.
+	 * The list for block (x, y) is <code>blockLines[blockOffsets[n]]</code> to <code>blockLines[blockOffsets[n + 1] - 1]</code>, 
+	 * where <code>n = y * columns + x</code>. The arrays are used as-is, not copied, and must not be changed afterward.
+	 * @param startX the grid lower-left start position (x-axis).
+	 * @param startY the grid lower-left start position (y-axis).
+	 * @param columns the amount of block columns.
+	 * @param rows the amount of block rows.
+	 * @param blockOffsets the list start offsets, one per block plus one for the end of the last list.
+	 * @param blockLines the linedef indices of all of the lists, in block order.
+	 * @throws IllegalArgumentException if <code>startX</code> or <code>startY</code> is outside the range of -32768 to 32767,
+	 * 		<code>columns</code> or <code>rows</code> is outside the range 1 to 513, or the offsets do not describe the lists.
+	 * @since 2.23.0
+	 */
+	public Blockmap(int startX, int startY, int columns, int rows, int[] blockOffsets, char[] blockLines)
+	{
+		this(startX, startY, columns, rows);
+		if (blockOffsets.length != columns * rows + 1)
+			throw new IllegalArgumentException("Block offsets must have one entry per block, plus one.");
+		if (blockOffsets[0] != 0 || blockOffsets[columns * rows] != blockLines.length)
+			throw new IllegalArgumentException("Block offsets must start at 0 and end at the amount of linedef indices.");
+		for (int n = 0; n < columns * rows; n++)
+			if (blockOffsets[n] > blockOffsets[n + 1])
+				throw new IllegalArgumentException("Block offsets must not decrease.");
+		this.blockOffsets = blockOffsets;
+		this.blockLines = blockLines;
 	}
 	
 	/**
 	 * Adds a linedef index to this blockmap.
+	 * The grid grows to fit the block, if needed.
 	 * @param x	the grid row.
 	 * @param y	the grid column.
 	 * @param linedefIndex	the linedef index to add.
@@ -76,7 +162,13 @@ public class Blockmap implements BinaryObject
 		RangeUtils.checkRange("Block X", 0, 512, x);
 		RangeUtils.checkRange("Block Y", 0, 512, y);
 		RangeUtils.checkShortUnsigned("Linedef Index", linedefIndex);
-		innerMap.enqueue(x, y, linedefIndex);
+		unpack(Math.max(columns, x + 1), Math.max(rows, y + 1));
+		int n = (y * columns) + x;
+		if (editLines[n] == null)
+			editLines[n] = new int[4];
+		else if (editSizes[n] == editLines[n].length)
+			editLines[n] = Arrays.copyOf(editLines[n], editSizes[n] * 2);
+		editLines[n][editSizes[n]++] = linedefIndex;
 	}
 	
 	/**
@@ -93,8 +185,61 @@ public class Blockmap implements BinaryObject
 		RangeUtils.checkRange("Block X", 0, 512, x);
 		RangeUtils.checkRange("Block Y", 0, 512, y);
 		RangeUtils.checkShortUnsigned("Linedef Index", linedefIndex);
-		Queue<Integer> queue = innerMap.get(x, y);
-		return queue != null ? queue.remove(linedefIndex) : false;
+		if (x >= columns || y >= rows)
+			return false;
+		unpack(columns, rows);
+		int n = (y * columns) + x;
+		int[] list = editLines[n];
+		for (int i = 0; i < editSizes[n]; i++)
+		{
+			if (list[i] == linedefIndex)
+			{
+				System.arraycopy(list, i + 1, list, i, editSizes[n] - i - 1);
+				editSizes[n]--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Packs the block lists back into primitive arrays after they were edited by {@link #addIndex(int, int, int)}
+	 * or {@link #removeIndex(int, int, int)}. This does nothing if the lists were not edited.
+	 * Queries and writes work the same either way, but packed lists take less memory and are faster to query.
+	 * Like the edits, this changes the Blockmap, so it must not be called while other threads are reading it.
+	 * @since 2.23.0
+	 */
+	public void pack()
+	{
+		if (editLines == null)
+			return;
+		int[] offsets = packOffsets();
+		blockLines = packLines(offsets);
+		blockOffsets = offsets;
+		editLines = null;
+		editSizes = null;
+	}
+
+	/**
+	 * Sets if this Blockmap is written compressed: blocks with identical linedef lists
+	 * share one list in the lump, which makes it far smaller and keeps large maps under the 16-bit offset limit.
+	 * All ports (and vanilla) read compressed Blockmaps.
+	 * @param compressed true to share identical lists, false to write one list per block.
+	 * @since 2.23.0
+	 */
+	public void setCompressed(boolean compressed)
+	{
+		this.compressed = compressed;
+	}
+
+	/**
+	 * @return true if this Blockmap is written compressed, false if not.
+	 * @see #setCompressed(boolean)
+	 * @since 2.23.0
+	 */
+	public boolean isCompressed()
+	{
+		return compressed;
 	}
 
 	/**
@@ -113,6 +258,24 @@ public class Blockmap implements BinaryObject
 		return startY;
 	}
 
+	/**
+	 * @return the amount of block columns.
+	 * @since 2.23.0
+	 */
+	public int getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * @return the amount of block rows.
+	 * @since 2.23.0
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
 	/**
 	 * Returns the column index used by a particular map position,
 	 * according to this grid's startX value.
@@ -124,7 +287,7 @@ public class Blockmap implements BinaryObject
 	{
 		if (posX < startX)
 			return -1;
-		return (posX - startX) / 128;
+		return (posX - startX) / BLOCK_SIZE;
 	}
 	
 	/**
@@ -137,7 +300,7 @@ public class Blockmap implements BinaryObject
 	{
 		if (posY < startY)
 			return -1;
-		return (posY - startY) / 128;
+		return (posY - startY) / BLOCK_SIZE;
 	}
 
 	/**
@@ -148,8 +311,17 @@ public class Blockmap implements BinaryObject
 	 */
 	public Iterable<Integer> getIndexList(int x, int y)
 	{
-		Queue<Integer> queue = innerMap.get(x, y);
-		return queue != null ? queue : EMPTY_QUEUE;
+		int n = getBlock(x, y);
+		if (n < 0)
+			return ListIterable.EMPTY;
+		if (editLines != null)
+		{
+			char[] lines = new char[editSizes[n]];
+			for (int i = 0; i < lines.length; i++)
+				lines[i] = (char)editLines[n][i];
+			return new ListIterable(lines, 0, lines.length);
+		}
+		return new ListIterable(blockLines, blockOffsets[n], blockOffsets[n + 1]);
 	}
 
 	/**
@@ -165,13 +337,133 @@ public class Blockmap implements BinaryObject
 		return getIndexList(x, y);
 	}
 
+	/**
+	 * Gets the amount of linedef indices in a block.
+	 * @param x	the grid column.
+	 * @param y	the grid row.
+	 * @return the amount of indices, or 0 if the block is outside of the grid.
+	 * @since 2.23.0
+	 */
+	public int getIndexCount(int x, int y)
+	{
+		int n = getBlock(x, y);
+		if (n < 0)
+			return 0;
+		if (editLines != null)
+			return editSizes[n];
+		return blockOffsets[n + 1] - blockOffsets[n];
+	}
+
+	/**
+	 * Calls a consumer for each linedef index in a block, in list order, without creating any objects.
+	 * @param x	the grid column.
+	 * @param y	the grid row.
+	 * @param consumer the consumer to call for each index.
+	 * @return the amount of indices visited (0 if the block is outside of the grid).
+	 * @since 2.23.0
+	 */
+	public int forEachIndex(int x, int y, IntConsumer consumer)
+	{
+		int n = getBlock(x, y);
+		if (n < 0)
+			return 0;
+		if (editLines != null)
+		{
+			int[] list = editLines[n];
+			for (int i = 0; i < editSizes[n]; i++)
+				consumer.accept(list[i]);
+			return editSizes[n];
+		}
+		char[] lines = blockLines;
+		int end = blockOffsets[n + 1];
+		for (int i = blockOffsets[n]; i < end; i++)
+			consumer.accept(lines[i]);
+		return end - blockOffsets[n];
+	}
+
+	/**
+	 * Calls a consumer for each linedef index in the block for a map position, in list order, without creating any objects.
+	 * @param posX the map position, X-coordinate.
+	 * @param posY the map position, Y-coordinate.
+	 * @param consumer the consumer to call for each index.
+	 * @return the amount of indices visited (0 if the position is outside of the grid).
+	 * @since 2.23.0
+	 */
+	public int forEachIndexForPosition(int posX, int posY, IntConsumer consumer)
+	{
+		return forEachIndex(getColumnByMapPosition(posX), getRowByMapPosition(posY), consumer);
+	}
+
+	// Gets the packed block index, or -1 if out of range.
+	private int getBlock(int x, int y)
+	{
+		if (x < 0 || y < 0 || x >= columns || y >= rows)
+			return -1;
+		return (y * columns) + x;
+	}
+
+	// Unpacks the lists for editing, growing the grid if needed.
+	private void unpack(int newColumns, int newRows)
+	{
+		if (editLines == null)
+		{
+			editLines = new int[columns * rows][];
+			editSizes = new int[columns * rows];
+			for (int n = 0; n < editLines.length; n++)
+			{
+				int length = blockOffsets[n + 1] - blockOffsets[n];
+				if (length == 0)
+					continue;
+				editLines[n] = new int[length];
+				for (int i = 0; i < length; i++)
+					editLines[n][i] = blockLines[blockOffsets[n] + i];
+				editSizes[n] = length;
+			}
+			blockOffsets = null;
+			blockLines = null;
+		}
+		
+		if (newColumns == columns && newRows == rows)
+			return;
+		
+		int[][] lines = new int[newColumns * newRows][];
+		int[] sizes = new int[newColumns * newRows];
+		for (int y = 0; y < rows; y++)
+		{
+			System.arraycopy(editLines, y * columns, lines, y * newColumns, columns);
+			System.arraycopy(editSizes, y * columns, sizes, y * newColumns, columns);
+		}
+		editLines = lines;
+		editSizes = sizes;
+		columns = newColumns;
+		rows = newRows;
+	}
+
+	// Packs the edited list sizes into list offsets.
+	private int[] packOffsets()
+	{
+		int[] offsets = new int[editLines.length + 1];
+		for (int n = 0; n < editLines.length; n++)
+			offsets[n + 1] = offsets[n] + editSizes[n];
+		return offsets;
+	}
+
+	// Packs the edited lists, using offsets from packOffsets().
+	private char[] packLines(int[] offsets)
+	{
+		char[] lines = new char[offsets[editLines.length]];
+		for (int n = 0; n < editLines.length; n++)
+			for (int i = 0; i < editSizes[n]; i++)
+				lines[offsets[n] + i] = (char)editLines[n][i];
+		return lines;
+	}
+
 	@Override
 	public void readBytes(InputStream in) throws IOException
 	{
 		SerialReader sr = new SerialReader(SerialReader.LITTLE_ENDIAN);
-		innerMap.clear();
-		startX = sr.readShort(in);
-		startY = sr.readShort(in);
+		short startX = sr.readShort(in);
+		short startY = sr.readShort(in);
 		int maxX = sr.readUnsignedShort(in);
 		int maxY = sr.readUnsignedShort(in);
 
@@ -185,107 +477,194 @@ public class Blockmap implements BinaryObject
 			int o = s & 0x0ffff;
 			offMax = o > offMax ? o : offMax;
 		}
+
+		// read lump up to the end of the last list.
+		int headerLength = 4 + indices.length;
+		short[] data = new short[Math.max(headerLength, offMax + 2) + 16];
+		data[0] = startX;
+		data[1] = startY;
+		data[2] = (short)maxX;
+		data[3] = (short)maxY;
+		System.arraycopy(indices, 0, data, 4, indices.length);
+		int length = headerLength;
+		while (offMax >= 0 && (length <= offMax || data[length - 1] != -1))
+		{
+			if (length == data.length)
+				data = Arrays.copyOf(data, length * 2);
+			data[length++] = sr.readShort(in);
+		}
 		
-		// precache linedef lists at each particular offset: blockmap may be compressed.
-		HashDequeMap<Integer, Integer> indexList = new HashDequeMap<Integer, Integer>();
-		int index = 4 + (maxX*maxY);
-		while (index <= offMax)
+		decode(ShortBuffer.wrap(data, 0, length));
+	}
+
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = buffer.duplicate();
+		bb = bb.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int length = decode(bb.asShortBuffer());
+		buffer.position(buffer.position() + (length * 2));
+	}
+
+	/**
+	 * Decodes the lump, as shorts, directly into the packed lists.
+	 * Offsets are followed wherever they point, so lists shared or overlapped by any compression scheme are read correctly.
+	 * If any lists are shared, this Blockmap is set to be written compressed.
+	 * @param data the lump data, indexed from the start of the lump.
+	 * @return the amount of shorts used.
+	 */
+	private int decode(ShortBuffer data) throws IOException
+	{
+		int limit = data.limit();
+		if (limit < 4)
+			throw new EOFException("Blockmap header is incomplete.");
+		int startX = data.get(0);
+		int startY = data.get(1);
+		int maxX = data.get(2) & 0x0ffff;
+		int maxY = data.get(3) & 0x0ffff;
+		int blocks = maxX * maxY;
+		if (limit < 4 + blocks)
+			throw new EOFException("Blockmap offset table is incomplete.");
+
+		int[] offsets = new int[blocks + 1];
+		int end = 4 + blocks;
+		BitSet seen = new BitSet();
+		boolean shared = false;
+		for (int n = 0; n < blocks; n++)
 		{
-			int nindex = index;
-			short n = sr.readShort(in);
-			nindex++;
-			
-			if (n != 0)
+			int index = data.get(4 + n) & 0x0ffff;
+			shared = shared || seen.get(index);
+			seen.set(index);
+			if (index >= limit || data.get(index) != 0)
 				throw new IOException("Blockmap list at short index "+index+" should start with 0.");
-
-			n = sr.readShort(in);
-			nindex++;
-			while (n != -1)
-			{
-				indexList.addLast(index, (n & 0x0ffff));
-				n = sr.readShort(in);
-				nindex++;
-			}
-			
-			index = nindex;
+			int i = index + 1;
+			while (i < limit && data.get(i) != -1)
+				i++;
+			if (i >= limit)
+				throw new EOFException("Blockmap list at short index "+index+" is not terminated.");
+			offsets[n + 1] = offsets[n] + (i - index - 1);
+			end = Math.max(end, i + 1);
 		}
 
-		// read into internal blockmap table.
-		for (int i = 0; i < maxX; i++)
-			for (int j = 0; j < maxY; j++)
-			{
-				// "touch" entry. this is so the maximum column/row
-				// still gets written on call to getDoomBytes()
-				innerMap.set(i, j, new LinkedList<Integer>());			
-				
-				// add index list to map.
-				int ind = indices[(i*maxY)+j];
-				Queue<Integer> list = indexList.get(ind);
-				if (list != null) for (Integer line : list)
-					addIndex(i, j, line);
-			}
+		char[] lines = new char[offsets[blocks]];
+		for (int n = 0; n < blocks; n++)
+		{
+			int index = (data.get(4 + n) & 0x0ffff) + 1;
+			for (int i = offsets[n]; i < offsets[n + 1]; i++)
+				lines[i] = (char)data.get(index++);
+		}
+		
+		this.startX = startX;
+		this.startY = startY;
+		this.columns = maxX;
+		this.rows = maxY;
+		this.blockOffsets = offsets;
+		this.blockLines = lines;
+		this.editLines = null;
+		this.editSizes = null;
+		this.compressed = shared;
+		return end;
 	}
 
 	@Override
 	public void writeBytes(OutputStream out) throws IOException
 	{
-		SerialWriter sw = new SerialWriter(SerialWriter.LITTLE_ENDIAN);
-		sw.writeShort(out, (short)startX);
-		sw.writeShort(out, (short)startY);
-		int maxX = 0;
-		int maxY = 0;
-
-		for (Map.Entry<Pair, Queue<Integer>> hp : innerMap)
+		int[] listOffsets = blockOffsets;
+		char[] lines = blockLines;
+		if (editLines != null)
 		{
-			Pair p = hp.getKey();
-			maxX = Math.max(maxX, p.getX());
-			maxY = Math.max(maxY, p.getY());
+			listOffsets = packOffsets();
+			lines = packLines(listOffsets);
 		}
-		maxX++;
-		maxY++;
 
-		sw.writeUnsignedShort(out, maxX);
-		sw.writeUnsignedShort(out, maxY);
+		SerialWriter sw = new SerialWriter(SerialWriter.LITTLE_ENDIAN);
+		sw.writeShort(out, (short)startX);
+		sw.writeShort(out, (short)startY);
+		sw.writeUnsignedShort(out, columns);
+		sw.writeUnsignedShort(out, rows);
 		
-		// convert linedef indices for offset calculation
-		short[][][] shorts = new short[maxX][maxY][];
+		int blocks = columns * rows;
 		
-		for (int x = 0; x < maxX; x++)
-			for (int y = 0; y < maxY; y++)
+		// calculate offsets, sharing identical lists if compressed.
+		int[] offsets = new int[blocks];
+		boolean[] written = new boolean[blocks];
+		HashMap<CharBuffer, Integer> sharedOffsets = new HashMap<>();
+		int offset = 4 + blocks;
+		for (int n = 0; n < blocks; n++)
+		{
+			int length = listOffsets[n + 1] - listOffsets[n];
+			CharBuffer list = compressed ? CharBuffer.wrap(lines, listOffsets[n], length) : null;
+			Integer shared = compressed ? sharedOffsets.get(list) : null;
+			if (shared != null)
 			{
-				Queue<Integer> list = innerMap.get(x,y);
-				if (list != null)
-				{
-					shorts[x][y] = new short[list.size()];
-					int n = 0;
-					for (Integer s : list)
-						shorts[x][y][n++] = s.shortValue();
-				}
-				else
-					shorts[x][y] = new short[0];
+				offsets[n] = shared;
+				continue;
 			}
-		
-		// set starting offset
-		short offset = (short)(4 + (maxX*maxY));
+			if (offset > 0x0ffff)
+				throw new IOException("Blockmap is too large: list offsets exceed 65535. Try writing it compressed.");
+			offsets[n] = offset;
+			written[n] = true;
+			if (compressed)
+				sharedOffsets.put(list, offset);
+			offset += 2 + length;
+		}
 
 		// write offset table
-		for (int x = 0; x < maxX; x++)
-			for (int y = 0; y < maxY; y++)
-			{
-				sw.writeShort(out, offset);
-				offset += 2 + shorts[x][y].length;
-			}
+		for (int n = 0; n < blocks; n++)
+			sw.writeUnsignedShort(out, offsets[n]);
 		
 		// write index lists
-		for (int x = 0; x < maxX; x++)
-			for (int y = 0; y < maxY; y++)
+		for (int n = 0; n < blocks; n++)
+		{
+			if (!written[n])
+				continue;
+			sw.writeShort(out, (short)0);
+			for (int i = listOffsets[n]; i < listOffsets[n + 1]; i++)
+				sw.writeUnsignedShort(out, lines[i]);
+			sw.writeShort(out, (short)-1);
+		}
+	}
+	
+	/**
+	 * Iterable view of a packed list.
+	 */
+	private static class ListIterable implements Iterable<Integer>
+	{
+		private static final ListIterable EMPTY = new ListIterable(NO_LINES, 0, 0);
+		
+		private char[] lines;
+		private int start;
+		private int end;
+		
+		private ListIterable(char[] lines, int start, int end)
+		{
+			this.lines = lines;
+			this.start = start;
+			this.end = end;
+		}
+		
+		@Override
+		public Iterator<Integer> iterator()
+		{
+			return new Iterator<Integer>()
 			{
-				sw.writeShort(out, (short)0);
-				for (int n = 0; n < shorts[x][y].length; n++)
-					sw.writeShort(out, shorts[x][y][n]);
-				sw.writeShort(out, (short)-1);
-			}
+				private int i = start;
+				
+				@Override
+				public boolean hasNext()
+				{
+					return i < end;
+				}
 
+				@Override
+				public Integer next()
+				{
+					if (i >= end)
+						throw new NoSuchElementException();
+					return (int)lines[i++];
+				}
+			};
+		}
 	}
 	
 }
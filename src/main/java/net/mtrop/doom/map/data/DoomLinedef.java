@@ -10,10 +10,12 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
@@ -80,6 +82,36 @@ public class DoomLinedef extends CommonLinedef implements BinaryObject
 		sw.writeShort(out, (short)sidedefFrontIndex);
 		sw.writeShort(out, (short)sidedefBackIndex);
 	}
+
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		vertexStartIndex = bb.getShort(p) & 0x0FFFF;
+		vertexEndIndex = bb.getShort(p + 2) & 0x0FFFF;
+		flags = bb.getShort(p + 4) & 0x0FFFF;
+		special = bb.getShort(p + 6) & 0x0FFFF;
+		tag = bb.getShort(p + 8) & 0x0FFFF;
+		sidedefFrontIndex = bb.getShort(p + 10);
+		sidedefBackIndex = bb.getShort(p + 12);
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)vertexStartIndex);
+		bb.putShort(p + 2, (short)vertexEndIndex);
+		bb.putShort(p + 4, (short)flags);
+		bb.putShort(p + 6, (short)special);
+		bb.putShort(p + 8, (short)tag);
+		bb.putShort(p + 10, (short)sidedefFrontIndex);
+		bb.putShort(p + 12, (short)sidedefBackIndex);
+		buffer.position(p + LENGTH);
+	}
 	
 	@Override
 	public String toString()
@@ -10,11 +10,14 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.map.MapObjectConstants;
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
+import net.mtrop.doom.util.NamePool;
 import net.mtrop.doom.util.NameUtils;
 import net.mtrop.doom.util.RangeUtils;
 
@@ -199,8 +202,8 @@ public class DoomSector implements BinaryObject
 		SerialReader sr = new SerialReader(SerialReader.LITTLE_ENDIAN);
 		heightFloor = sr.readShort(in);
 		heightCeiling = sr.readShort(in);
-		textureFloor = NameUtils.nullTrim(sr.readString(in, 8, "ASCII"));
-		textureCeiling = NameUtils.nullTrim(sr.readString(in, 8, "ASCII"));
+		textureFloor = NamePool.NAMES.get(sr.readLong(in));
+		textureCeiling = NamePool.NAMES.get(sr.readLong(in));
 		lightLevel = sr.readShort(in);
 		special = sr.readShort(in);
 		tag = sr.readShort(in);
@@ -219,6 +222,36 @@ public class DoomSector implements BinaryObject
 		sw.writeShort(out, (short)tag);
 	}
 
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		heightFloor = bb.getShort(p);
+		heightCeiling = bb.getShort(p + 2);
+		textureFloor = NamePool.NAMES.get(bb, p + 4);
+		textureCeiling = NamePool.NAMES.get(bb, p + 12);
+		lightLevel = bb.getShort(p + 20);
+		special = bb.getShort(p + 22);
+		tag = bb.getShort(p + 24);
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)heightFloor);
+		bb.putShort(p + 2, (short)heightCeiling);
+		NameUtils.putASCIIName(bb, p + 4, textureFloor, 8);
+		NameUtils.putASCIIName(bb, p + 12, textureCeiling, 8);
+		bb.putShort(p + 20, (short)lightLevel);
+		bb.putShort(p + 22, (short)special);
+		bb.putShort(p + 24, (short)tag);
+		buffer.position(p + LENGTH);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -10,11 +10,14 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.map.MapObjectConstants;
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
+import net.mtrop.doom.util.NamePool;
 import net.mtrop.doom.util.NameUtils;
 import net.mtrop.doom.util.RangeUtils;
 
@@ -173,9 +176,9 @@ public class DoomSidedef implements BinaryObject
 		SerialReader sr = new SerialReader(SerialReader.LITTLE_ENDIAN);
 		offsetX = sr.readShort(in);
 		offsetY = sr.readShort(in);
-		textureTop = NameUtils.nullTrim(sr.readString(in, 8, "ASCII")).toUpperCase();
-		textureBottom = NameUtils.nullTrim(sr.readString(in, 8, "ASCII")).toUpperCase();
-		textureMiddle = NameUtils.nullTrim(sr.readString(in, 8, "ASCII")).toUpperCase();
+		textureTop = NamePool.UPPERCASE_NAMES.get(sr.readLong(in));
+		textureBottom = NamePool.UPPERCASE_NAMES.get(sr.readLong(in));
+		textureMiddle = NamePool.UPPERCASE_NAMES.get(sr.readLong(in));
 		sectorIndex = sr.readShort(in);
 	}
 
@@ -191,6 +194,34 @@ public class DoomSidedef implements BinaryObject
 		sw.writeShort(out, (short)sectorIndex);
 	}
 
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		offsetX = bb.getShort(p);
+		offsetY = bb.getShort(p + 2);
+		textureTop = NamePool.UPPERCASE_NAMES.get(bb, p + 4);
+		textureBottom = NamePool.UPPERCASE_NAMES.get(bb, p + 12);
+		textureMiddle = NamePool.UPPERCASE_NAMES.get(bb, p + 20);
+		sectorIndex = bb.getShort(p + 28);
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)offsetX);
+		bb.putShort(p + 2, (short)offsetY);
+		NameUtils.putASCIIName(bb, p + 4, textureTop, 8);
+		NameUtils.putASCIIName(bb, p + 12, textureBottom, 8);
+		NameUtils.putASCIIName(bb, p + 20, textureMiddle, 8);
+		bb.putShort(p + 28, (short)sectorIndex);
+		buffer.position(p + LENGTH);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -10,10 +10,12 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 
 /**
  * Doom/Boom/MBF 10-byte format implementation of Thing.
@@ -53,6 +55,32 @@ public class DoomThing extends CommonThing implements BinaryObject
 		sw.writeShort(out, (short)type);
 		sw.writeUnsignedShort(out, flags & 0x0FFFF);		
 	}
+
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		x = bb.getShort(p);
+		y = bb.getShort(p + 2);
+		angle = bb.getShort(p + 4) & 0x0FFFF;
+		type = bb.getShort(p + 6) & 0x0FFFF;
+		flags = bb.getShort(p + 8) & 0x0FFFF;
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)x);
+		bb.putShort(p + 2, (short)y);
+		bb.putShort(p + 4, (short)angle);
+		bb.putShort(p + 6, (short)type);
+		bb.putShort(p + 8, (short)flags);
+		buffer.position(p + LENGTH);
+	}
 	
 	@Override
 	public String toString()
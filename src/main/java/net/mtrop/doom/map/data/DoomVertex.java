@@ -10,10 +10,12 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
@@ -107,6 +109,29 @@ public class DoomVertex implements BinaryObject
 		sw.writeShort(out, (short)y);
 	}
 
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		x = bb.getShort(p);
+		y = bb.getShort(p + 2);
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		RangeUtils.checkShort("X-coordinate", x);
+		RangeUtils.checkShort("Y-coordinate", y);
+
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)x);
+		bb.putShort(p + 2, (short)y);
+		buffer.position(p + LENGTH);
+	}
+
 	@Override
 	public String toString()
 	{
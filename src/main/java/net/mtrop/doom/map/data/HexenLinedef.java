@@ -10,10 +10,12 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
@@ -204,6 +206,38 @@ public class HexenLinedef extends CommonLinedef
 		sw.writeShort(out, (short)sidedefFrontIndex);
 		sw.writeShort(out, (short)sidedefBackIndex);
 	}
+
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		vertexStartIndex = bb.getShort(p) & 0x0FFFF;
+		vertexEndIndex = bb.getShort(p + 2) & 0x0FFFF;
+		flags = bb.getShort(p + 4) & 0x0FFFF;
+		special = bb.get(p + 6) & 0x0FF;
+		for (int i = 0; i < 5; i++)
+			arguments[i] = bb.get(p + 7 + i) & 0x0FF;
+		sidedefFrontIndex = bb.getShort(p + 12);
+		sidedefBackIndex = bb.getShort(p + 14);
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)vertexStartIndex);
+		bb.putShort(p + 2, (short)vertexEndIndex);
+		bb.putShort(p + 4, (short)flags);
+		bb.put(p + 6, (byte)special);
+		for (int i = 0; i < 5; i++)
+			bb.put(p + 7 + i, (byte)arguments[i]);
+		bb.putShort(p + 12, (short)sidedefFrontIndex);
+		bb.putShort(p + 14, (short)sidedefBackIndex);
+		buffer.position(p + LENGTH);
+	}
 	
 	@Override
 	public String toString()
@@ -10,11 +10,13 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.struct.io.SerializerUtils;
 import net.mtrop.doom.util.RangeUtils;
 
 /**
@@ -189,6 +191,42 @@ public class HexenThing extends CommonThing implements BinaryObject
 		sw.writeByte(out, (byte)arguments[3]);
 		sw.writeByte(out, (byte)arguments[4]);
 	}
+
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.readableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		id = bb.getShort(p) & 0x0FFFF;
+		x = bb.getShort(p + 2);
+		y = bb.getShort(p + 4);
+		height = bb.getShort(p + 6);
+		angle = bb.getShort(p + 8);
+		type = bb.getShort(p + 10);
+		flags = bb.getShort(p + 12) & 0x0FFFF;
+		special = bb.get(p + 14) & 0x0FF;
+		for (int i = 0; i < 5; i++)
+			arguments[i] = bb.get(p + 15 + i) & 0x0FF;
+		buffer.position(p + LENGTH);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		ByteBuffer bb = SerializerUtils.writableLittleEndian(buffer, LENGTH);
+		int p = buffer.position();
+		bb.putShort(p, (short)id);
+		bb.putShort(p + 2, (short)x);
+		bb.putShort(p + 4, (short)y);
+		bb.putShort(p + 6, (short)height);
+		bb.putShort(p + 8, (short)angle);
+		bb.putShort(p + 10, (short)type);
+		bb.putShort(p + 12, (short)flags);
+		bb.put(p + 14, (byte)special);
+		for (int i = 0; i < 5; i++)
+			bb.put(p + 15 + i, (byte)arguments[i]);
+		buffer.position(p + LENGTH);
+	}
 	
 	@Override
 	public String toString()
@@ -10,24 +10,32 @@ package net.mtrop.doom.map.data;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import net.mtrop.doom.object.BinaryObject;
-import net.mtrop.doom.struct.io.SerialReader;
-import net.mtrop.doom.struct.io.SerialWriter;
 
 /**
  * Represents the Reject lump.
  * <p>
  * The reject lump is a lookup grid that hold information on what sectors can
  * "see" other sectors on the map used for thing sight algorithms. 
+ * A set bit for a pair of sectors means that things in the first sector can never see things in the second
+ * (the sight check is "rejected"), and a clear bit means that a full sight check is done.
+ * <p>
+ * The grid is stored as a bitset of <code>long</code>s, in the same bit order as the lump, so it takes
+ * the same amount of memory as the lump, and is copied to and from lump bytes a word at a time.
+ * Row operations also work a word at a time.
  * @author Matthew Tropiano
  */
 public class Reject implements BinaryObject
 {
-	private static final byte[] BITMASK = {0x01, 0x02, 0x04, 0x08, 0x10, 0x20, 0x40, (byte)0x80};
-	
-	/** The reject grid itself. */
-	private boolean[][] grid;
+	/** Amount of sectors. */
+	private int sectors;
+	/** The reject bits, row-major (bit <code>(from * sectors) + target</code>). */
+	private long[] bits;
 	
 	/**
 	 * Creates a new blank reject grid.
@@ -35,7 +43,17 @@ public class Reject implements BinaryObject
 	 */
 	public Reject(int sectors)
 	{
-		grid = new boolean[sectors][sectors];
+		this.sectors = sectors;
+		this.bits = new long[(int)((((long)sectors * sectors) + 63) >>> 6)];
+	}
+	
+	/**
+	 * @return the number of sectors in this grid.
+	 * @since 2.23.0
+	 */
+	public int getSectorCount()
+	{
+		return sectors;
 	}
 	
 	/**
@@ -46,7 +64,7 @@ public class Reject implements BinaryObject
 	 */
 	public boolean getSectorIsVisibleTo(int sectorIndex, int targetSectorIndex)
 	{
-		return grid[targetSectorIndex][sectorIndex];
+		return !isRejected(sectorIndex, targetSectorIndex);
 	}
 	
 	/**
@@ -57,51 +75,362 @@ public class Reject implements BinaryObject
 	 */
 	public void setSectorIsVisibleTo(int sectorIndex, int targetSectorIndex, boolean flag)
 	{
-		grid[targetSectorIndex][sectorIndex] = flag;
+		setRejected(sectorIndex, targetSectorIndex, !flag);
+	}
+	
+	/**
+	 * Checks whether sight from one sector into another is rejected (the sector is <em>not</em> visible).
+	 * @param sectorIndex the sector index viewing from.
+	 * @param targetSectorIndex the sector index viewing into.
+	 * @return true if rejected, false if not.
+	 * @throws IndexOutOfBoundsException if either index is out of range.
+	 * @since 2.23.0
+	 */
+	public boolean isRejected(int sectorIndex, int targetSectorIndex)
+	{
+		long bit = getBit(sectorIndex, targetSectorIndex);
+		return (bits[(int)(bit >>> 6)] & (1L << bit)) != 0;
+	}
+	
+	/**
+	 * Sets whether sight from one sector into another is rejected (the sector is <em>not</em> visible).
+	 * @param sectorIndex the sector index viewing from.
+	 * @param targetSectorIndex the sector index viewing into.
+	 * @param rejected true if rejected, false if not.
+	 * @throws IndexOutOfBoundsException if either index is out of range.
+	 * @since 2.23.0
+	 */
+	public void setRejected(int sectorIndex, int targetSectorIndex, boolean rejected)
+	{
+		long bit = getBit(sectorIndex, targetSectorIndex);
+		if (rejected)
+			bits[(int)(bit >>> 6)] |= 1L << bit;
+		else
+			bits[(int)(bit >>> 6)] &= ~(1L << bit);
+	}
+	
+	/**
+	 * Clears the whole grid (every sector can see every sector).
+	 * @since 2.23.0
+	 */
+	public void clear()
+	{
+		Arrays.fill(bits, 0L);
+	}
+	
+	/**
+	 * Sets every pair of sectors as rejected or not.
+	 * @param rejected true if rejected, false if not.
+	 * @since 2.23.0
+	 */
+	public void fill(boolean rejected)
+	{
+		if (!rejected)
+		{
+			clear();
+			return;
+		}
+		Arrays.fill(bits, -1L);
+		trim();
+	}
+	
+	/**
+	 * Sets the whole row for a sector (sight from it into every sector) as rejected or not.
+	 * @param sectorIndex the sector index viewing from.
+	 * @param rejected true if rejected, false if not.
+	 * @throws IndexOutOfBoundsException if the index is out of range.
+	 * @since 2.23.0
+	 */
+	public void setRow(int sectorIndex, boolean rejected)
+	{
+		long start = getBit(sectorIndex, 0);
+		for (int i = 0; i < sectors; i += 64)
+		{
+			int length = Math.min(64, sectors - i);
+			setBits(start + i, length, rejected ? -1L : 0L);
+		}
 	}
 	
+	/**
+	 * Sets the whole column for a sector (sight from every sector into it) as rejected or not.
+	 * @param targetSectorIndex the sector index viewing into.
+	 * @param rejected true if rejected, false if not.
+	 * @throws IndexOutOfBoundsException if the index is out of range.
+	 * @since 2.23.0
+	 */
+	public void setColumn(int targetSectorIndex, boolean rejected)
+	{
+		checkIndex(targetSectorIndex);
+		for (int i = 0; i < sectors; i++)
+			setRejected(i, targetSectorIndex, rejected);
+	}
+	
+	/**
+	 * Combines the row of a sector with the row of another using a bitwise OR, 
+	 * so that the sector rejects every sector that either sector rejects.
+	 * @param sectorIndex the sector index of the row to change.
+	 * @param sourceSectorIndex the sector index of the row to combine with.
+	 * @throws IndexOutOfBoundsException if either index is out of range.
+	 * @since 2.23.0
+	 */
+	public void orRow(int sectorIndex, int sourceSectorIndex)
+	{
+		combineRow(sectorIndex, sourceSectorIndex, false);
+	}
+	
+	/**
+	 * Combines the row of a sector with the row of another using a bitwise AND, 
+	 * so that the sector rejects only the sectors that both sectors reject.
+	 * @param sectorIndex the sector index of the row to change.
+	 * @param sourceSectorIndex the sector index of the row to combine with.
+	 * @throws IndexOutOfBoundsException if either index is out of range.
+	 * @since 2.23.0
+	 */
+	public void andRow(int sectorIndex, int sourceSectorIndex)
+	{
+		combineRow(sectorIndex, sourceSectorIndex, true);
+	}
+	
+	/**
+	 * Combines the column of a sector with the column of another using a bitwise OR, 
+	 * so that every sector that is rejected by either sector is rejected by the sector.
+	 * @param targetSectorIndex the sector index of the column to change.
+	 * @param sourceSectorIndex the sector index of the column to combine with.
+	 * @throws IndexOutOfBoundsException if either index is out of range.
+	 * @since 2.23.0
+	 */
+	public void orColumn(int targetSectorIndex, int sourceSectorIndex)
+	{
+		checkIndex(targetSectorIndex);
+		checkIndex(sourceSectorIndex);
+		for (int i = 0; i < sectors; i++)
+			if (isRejected(i, sourceSectorIndex))
+				setRejected(i, targetSectorIndex, true);
+	}
+	
+	/**
+	 * Combines the column of a sector with the column of another using a bitwise AND, 
+	 * so that only the sectors that are rejected by both sectors are rejected by the sector.
+	 * @param targetSectorIndex the sector index of the column to change.
+	 * @param sourceSectorIndex the sector index of the column to combine with.
+	 * @throws IndexOutOfBoundsException if either index is out of range.
+	 * @since 2.23.0
+	 */
+	public void andColumn(int targetSectorIndex, int sourceSectorIndex)
+	{
+		checkIndex(targetSectorIndex);
+		checkIndex(sourceSectorIndex);
+		for (int i = 0; i < sectors; i++)
+			if (!isRejected(i, sourceSectorIndex))
+				setRejected(i, targetSectorIndex, false);
+	}
+	
+	/**
+	 * Combines this whole grid with another using a bitwise OR.
+	 * @param reject the other grid.
+	 * @throws IllegalArgumentException if the other grid has a different amount of sectors.
+	 * @since 2.23.0
+	 */
+	public void or(Reject reject)
+	{
+		checkSize(reject);
+		for (int i = 0; i < bits.length; i++)
+			bits[i] |= reject.bits[i];
+	}
+	
+	/**
+	 * Combines this whole grid with another using a bitwise AND.
+	 * @param reject the other grid.
+	 * @throws IllegalArgumentException if the other grid has a different amount of sectors.
+	 * @since 2.23.0
+	 */
+	public void and(Reject reject)
+	{
+		checkSize(reject);
+		for (int i = 0; i < bits.length; i++)
+			bits[i] &= reject.bits[i];
+	}
+	
+	/**
+	 * Makes this grid symmetric: if sight between a pair of sectors is rejected in only one direction,
+	 * it is cleared in both directions, so the pair is visible both ways. Pairs that are rejected both ways stay rejected.
+	 * This never rejects a sight check that was allowed before, and matches {@link net.mtrop.doom.map.RejectBuilder},
+	 * which treats a pair as visible if either sector can see the other.
+	 * @since 2.23.0
+	 */
+	public void makeSymmetric()
+	{
+		for (int i = 0; i < sectors; i++)
+			for (int j = i + 1; j < sectors; j++)
+				if (isRejected(i, j) != isRejected(j, i))
+				{
+					setRejected(i, j, false);
+					setRejected(j, i, false);
+				}
+	}
+	
+	/**
+	 * Gets the amount of sectors that a sector cannot see (the set bits in its row).
+	 * @param sectorIndex the sector index viewing from.
+	 * @return the amount of rejected sectors.
+	 * @throws IndexOutOfBoundsException if the index is out of range.
+	 * @since 2.23.0
+	 */
+	public int getRejectedCount(int sectorIndex)
+	{
+		long start = getBit(sectorIndex, 0);
+		int out = 0;
+		for (int i = 0; i < sectors; i += 64)
+			out += Long.bitCount(getBits(start + i, Math.min(64, sectors - i)));
+		return out;
+	}
+	
+	/**
+	 * Gets the amount of sector pairs whose sight is rejected (all set bits).
+	 * @return the amount of rejected pairs.
+	 * @since 2.23.0
+	 */
+	public long getRejectedCount()
+	{
+		long out = 0;
+		for (int i = 0; i < bits.length; i++)
+			out += Long.bitCount(bits[i]);
+		return out;
+	}
+
+	/**
+	 * @return the length of this grid's lump data in bytes.
+	 * @since 2.23.0
+	 */
+	public int getByteLength()
+	{
+		return (int)((((long)sectors * sectors) + 7) >>> 3);
+	}
+	
+	// Checks a sector index.
+	private void checkIndex(int sectorIndex)
+	{
+		if (sectorIndex < 0 || sectorIndex >= sectors)
+			throw new IndexOutOfBoundsException("Sector index " + sectorIndex + " is out of range. Sector count is " + sectors + ".");
+	}
+
+	// Checks that another grid is the same size.
+	private void checkSize(Reject reject)
+	{
+		if (reject.sectors != sectors)
+			throw new IllegalArgumentException("Reject grids are different sizes: " + sectors + " and " + reject.sectors + " sectors.");
+	}
+
+	// Gets a bit index for a pair of sectors.
+	private long getBit(int sectorIndex, int targetSectorIndex)
+	{
+		checkIndex(sectorIndex);
+		checkIndex(targetSectorIndex);
+		return ((long)sectorIndex * sectors) + targetSectorIndex;
+	}
+
+	// Gets up to 64 bits starting at a bit index (can span two words).
+	private long getBits(long start, int length)
+	{
+		int word = (int)(start >>> 6);
+		int shift = (int)(start & 63);
+		long out = bits[word] >>> shift;
+		if (shift != 0 && shift + length > 64)
+			out |= bits[word + 1] << (64 - shift);
+		return length == 64 ? out : out & ((1L << length) - 1);
+	}
+
+	// Sets up to 64 bits starting at a bit index (can span two words).
+	private void setBits(long start, int length, long value)
+	{
+		long mask = length == 64 ? -1L : (1L << length) - 1;
+		value &= mask;
+		int word = (int)(start >>> 6);
+		int shift = (int)(start & 63);
+		bits[word] = (bits[word] & ~(mask << shift)) | (value << shift);
+		if (shift != 0 && shift + length > 64)
+		{
+			int high = 64 - shift;
+			bits[word + 1] = (bits[word + 1] & ~(mask >>> high)) | (value >>> high);
+		}
+	}
+
+	// Combines one row with another.
+	private void combineRow(int sectorIndex, int sourceSectorIndex, boolean and)
+	{
+		long start = getBit(sectorIndex, 0);
+		long sourceStart = getBit(sourceSectorIndex, 0);
+		for (int i = 0; i < sectors; i += 64)
+		{
+			int length = Math.min(64, sectors - i);
+			long source = getBits(sourceStart + i, length);
+			long value = getBits(start + i, length);
+			setBits(start + i, length, and ? value & source : value | source);
+		}
+	}
+
+	// Clears the bits past the end of the grid in the last word.
+	private void trim()
+	{
+		int extra = (int)(((long)sectors * sectors) & 63);
+		if (extra != 0)
+			bits[bits.length - 1] &= (1L << extra) - 1;
+	}
+
 	@Override
 	public void readBytes(InputStream in) throws IOException
 	{
-		SerialReader sr = new SerialReader(SerialReader.LITTLE_ENDIAN);
+		// Short or missing lumps are allowed: missing bits are clear.
+		byte[] data = new byte[getByteLength()];
+		int length = 0;
+		int n;
+		while (length < data.length && (n = in.read(data, length, data.length - length)) > 0)
+			length += n;
+		decode(ByteBuffer.wrap(data, 0, length));
+	}
 
-		byte curByte = 0;
-		int bit = 0;
-		
-		for (int i = 0; i < grid.length; i++)
-			for (int j = 0; j < grid[i].length && in.available() > 0; j++)
-			{
-				if (bit == 8)
-				{
-					curByte = sr.readByte(in);
-					bit = 0;
-				}
-				grid[i][j] = (curByte & BITMASK[bit]) != 0;
-				bit++;
-			}
+	@Override
+	public void readBytes(ByteBuffer buffer) throws IOException
+	{
+		int length = Math.min(getByteLength(), buffer.remaining());
+		ByteBuffer bb = buffer.duplicate();
+		bb.limit(bb.position() + length);
+		decode(bb);
+		buffer.position(buffer.position() + length);
+	}
+
+	// Copies lump bytes into the bitset a word at a time.
+	private void decode(ByteBuffer buffer)
+	{
+		ByteBuffer bb = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int length = bb.remaining();
+		clear();
+		bb.asLongBuffer().get(bits, 0, length >>> 3);
+		for (int i = length & ~7; i < length; i++)
+			bits[i >>> 3] |= (bb.get(i) & 0x0ffL) << ((i & 7) << 3);
+		trim();
 	}
 
 	@Override
 	public void writeBytes(OutputStream out) throws IOException
 	{
-		SerialWriter sw = new SerialWriter(SerialWriter.LITTLE_ENDIAN);
-		byte curByte = 0;
-		int bit = 0;
-		
-		for (int i = 0; i < grid.length; i++)
-			for (int j = 0; j < grid[i].length; j++)
-			{
-				if (grid[i][j])
-					curByte &= (byte)(0x01 << bit);
-				bit++;
-				if (bit == 8)
-				{
-					sw.writeByte(out, curByte);
-					bit = 0;
-				}
-			}
-		if (bit != 0)
-			sw.writeByte(out, curByte);
+		byte[] data = new byte[getByteLength()];
+		writeBytes(ByteBuffer.wrap(data));
+		out.write(data);
+	}
+
+	@Override
+	public void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		int length = getByteLength();
+		if (buffer.remaining() < length)
+			throw new BufferOverflowException();
+		ByteBuffer bb = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		bb.limit(length);
+		bb.asLongBuffer().put(bits, 0, length >>> 3);
+		for (int i = length & ~7; i < length; i++)
+			bb.put(i, (byte)(bits[i >>> 3] >>> ((i & 7) << 3)));
+		buffer.position(buffer.position() + length);
 	}
 
 }
@@ -0,0 +1,597 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.udmf;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A buffered writer for UDMF data, for writing large amounts of UDMF quickly.
+ * <p>
+ * Unlike {@link UDMFWriter}, this writes typed values straight into a large character buffer:
+ * integers and floats are formatted without creating intermediate Strings, and field names are validated
+ * and rendered once, as {@link Key}s (either created up front with {@link #createKey(String)}, or cached per writer
+ * by name). The underlying Writer is only written to when the buffer fills or on {@link #flush()}.
+ * <p>
+ * The output is canonical TEXTMAP: field names are lowercase, floats always have a decimal point and round-trip exactly,
+ * strings are escaped, and objects are written as:
+ * <pre>
+ * type // index
+ * {
+ * 	field = value;
+ * }
+ * </pre>
+ * This class is not thread-safe.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public class UDMFBufferedWriter implements Flushable, Closeable
+{
+	/** Default buffer size in characters. */
+	public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+	/** Largest float magnitude written without an exponent by {@link Float#toString(float)}. */
+	private static final float PLAIN_FLOAT_MAX = 1.0e7f;
+	/** Smallest float magnitude written without an exponent by {@link Float#toString(float)}. */
+	private static final float PLAIN_FLOAT_MIN = 1.0e-3f;
+	/** Powers of ten for float formatting. */
+	private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+	/** Characters for "true". */
+	private static final char[] TRUE = "true".toCharArray();
+	/** Characters for "false". */
+	private static final char[] FALSE = "false".toCharArray();
+
+	/**
+	 * A prerendered field name.
+	 */
+	public static final class Key
+	{
+		private final String name;
+		private final char[] text;
+
+		private Key(String name)
+		{
+			this.name = name;
+			this.text = (name + " = ").toCharArray();
+		}
+
+		/**
+		 * @return the field name.
+		 */
+		public String getName()
+		{
+			return name;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+
+	/** The Writer to write to. */
+	private Writer writer;
+	/** The buffer. */
+	private char[] buffer;
+	/** Current buffer position. */
+	private int position;
+	/** If true, currently writing an object's fields. */
+	private boolean inObject;
+	/** Cached keys by name. */
+	private Map<String, Key> keyCache;
+
+	/**
+	 * Creates a new writer that writes UTF-8 encoded data to an OutputStream, with the default buffer size.
+	 * @param out the OutputStream to write to.
+	 */
+	public UDMFBufferedWriter(OutputStream out)
+	{
+		this(new OutputStreamWriter(out, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a new writer with the default buffer size.
+	 * @param writer the Writer to write to.
+	 */
+	public UDMFBufferedWriter(Writer writer)
+	{
+		this(writer, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a new writer.
+	 * @param writer the Writer to write to.
+	 * @param bufferSize the buffer size in characters.
+	 * @throws IllegalArgumentException if bufferSize is less than 64.
+	 */
+	public UDMFBufferedWriter(Writer writer, int bufferSize)
+	{
+		if (bufferSize < 64)
+			throw new IllegalArgumentException("Buffer size must be at least 64.");
+		this.writer = writer;
+		this.buffer = new char[bufferSize];
+		this.position = 0;
+		this.inObject = false;
+		this.keyCache = new HashMap<>(64);
+	}
+
+	/**
+	 * Creates a prerendered field name.
+	 * Names are lowercased, since UDMF identifiers are case-insensitive.
+	 * @param name the field name.
+	 * @return a new key.
+	 * @throws IllegalArgumentException if the name is not a valid UDMF identifier.
+	 */
+	public static Key createKey(String name)
+	{
+		return new Key(checkIdentifier(name));
+	}
+
+	/**
+	 * Gets a prerendered field name from this writer's cache, creating it if it does not exist.
+	 * @param name the field name.
+	 * @return the key for the name.
+	 * @throws IllegalArgumentException if the name is not a valid UDMF identifier.
+	 */
+	public Key getKey(String name)
+	{
+		Key out = keyCache.get(name);
+		if (out == null)
+			keyCache.put(name, out = createKey(name));
+		return out;
+	}
+
+	/**
+	 * Writes a single-line comment.
+	 * @param comment the comment text.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the comment contains a line break.
+	 */
+	public void writeComment(String comment) throws IOException
+	{
+		if (comment.indexOf('\n') >= 0 || comment.indexOf('\r') >= 0)
+			throw new IllegalArgumentException("Comment cannot contain line breaks.");
+		writeIndent();
+		write('/');
+		write('/');
+		write(' ');
+		write(comment);
+		write('\n');
+	}
+
+	/**
+	 * Writes an empty line.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 */
+	public void writeBlankLine() throws IOException
+	{
+		write('\n');
+	}
+
+	/**
+	 * Starts an object. Fields written after this are written to the object until {@link #writeObjectEnd()} is called.
+	 * @param type the object type.
+	 * @param index the index of the object, written as a comment, or -1 for no comment.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the type is not a valid UDMF identifier.
+	 * @throws IllegalStateException if an object was already started.
+	 */
+	public void writeObjectStart(String type, int index) throws IOException
+	{
+		if (inObject)
+			throw new IllegalStateException("An object was already started.");
+		write(getKey(type).name);
+		if (index >= 0)
+		{
+			write(' ');
+			write('/');
+			write('/');
+			write(' ');
+			writeInteger(index);
+		}
+		write('\n');
+		write('{');
+		write('\n');
+		inObject = true;
+	}
+
+	/**
+	 * Ends the current object.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalStateException if no object was started.
+	 */
+	public void writeObjectEnd() throws IOException
+	{
+		if (!inObject)
+			throw new IllegalStateException("No object was started.");
+		write('}');
+		write('\n');
+		inObject = false;
+	}
+
+	/**
+	 * Writes a full object.
+	 * @param object the object to write.
+	 * @param type the object type.
+	 * @param index the index of the object, written as a comment, or -1 for no comment.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the type or a field name is not a valid UDMF identifier, or a float field is not finite.
+	 * @throws IllegalStateException if an object was already started.
+	 */
+	public void writeObject(UDMFObject object, String type, int index) throws IOException
+	{
+		writeObjectStart(type, index);
+		writeFields(object);
+		writeObjectEnd();
+	}
+
+	/**
+	 * Writes all of the fields in an object, either as global fields or to the current object.
+	 * @param object the object to write.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if a field name is not a valid UDMF identifier, or a float field is not finite.
+	 */
+	public void writeFields(UDMFObject object) throws IOException
+	{
+		for (Entry<String, Object> entry : object)
+			writeField(getKey(entry.getKey()), entry.getValue());
+	}
+
+	/**
+	 * Writes a field, either as a global field or to the current object.
+	 * Booleans, Integers, and Floats are written as their types, and everything else is written as a string.
+	 * @param name the field name.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the name is not a valid UDMF identifier, or the value is a float that is not finite.
+	 */
+	public void writeField(String name, Object value) throws IOException
+	{
+		writeField(getKey(name), value);
+	}
+
+	/**
+	 * Writes a field, either as a global field or to the current object.
+	 * Booleans, Integers, and Floats are written as their types, and everything else is written as a string.
+	 * @param key the field key.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the value is a float that is not finite.
+	 */
+	public void writeField(Key key, Object value) throws IOException
+	{
+		if (value instanceof Boolean)
+			writeField(key, ((Boolean)value).booleanValue());
+		else if (value instanceof Integer)
+			writeField(key, ((Integer)value).intValue());
+		else if (value instanceof Float)
+			writeField(key, ((Float)value).floatValue());
+		else
+			writeField(key, String.valueOf(value));
+	}
+
+	/**
+	 * Writes a boolean field, either as a global field or to the current object.
+	 * @param name the field name.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the name is not a valid UDMF identifier.
+	 */
+	public void writeField(String name, boolean value) throws IOException
+	{
+		writeField(getKey(name), value);
+	}
+
+	/**
+	 * Writes a boolean field, either as a global field or to the current object.
+	 * @param key the field key.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 */
+	public void writeField(Key key, boolean value) throws IOException
+	{
+		writeFieldStart(key);
+		write(value ? TRUE : FALSE);
+		writeFieldEnd();
+	}
+
+	/**
+	 * Writes an integer field, either as a global field or to the current object.
+	 * @param name the field name.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the name is not a valid UDMF identifier.
+	 */
+	public void writeField(String name, int value) throws IOException
+	{
+		writeField(getKey(name), value);
+	}
+
+	/**
+	 * Writes an integer field, either as a global field or to the current object.
+	 * @param key the field key.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 */
+	public void writeField(Key key, int value) throws IOException
+	{
+		writeFieldStart(key);
+		writeInteger(value);
+		writeFieldEnd();
+	}
+
+	/**
+	 * Writes a float field, either as a global field or to the current object.
+	 * @param name the field name.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the name is not a valid UDMF identifier, or the value is not finite.
+	 */
+	public void writeField(String name, float value) throws IOException
+	{
+		writeField(getKey(name), value);
+	}
+
+	/**
+	 * Writes a float field, either as a global field or to the current object.
+	 * The value is written with the fewest decimal digits that read back as the same float.
+	 * @param key the field key.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the value is not finite.
+	 */
+	public void writeField(Key key, float value) throws IOException
+	{
+		if (Float.isNaN(value) || Float.isInfinite(value))
+			throw new IllegalArgumentException("UDMF floats must be finite: " + key.name + " = " + value);
+		writeFieldStart(key);
+		writeFloat(value);
+		writeFieldEnd();
+	}
+
+	/**
+	 * Writes a string field, either as a global field or to the current object.
+	 * @param name the field name.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 * @throws IllegalArgumentException if the name is not a valid UDMF identifier.
+	 */
+	public void writeField(String name, String value) throws IOException
+	{
+		writeField(getKey(name), value);
+	}
+
+	/**
+	 * Writes a string field, either as a global field or to the current object.
+	 * Quotes and backslashes are escaped, as are line breaks and tabs.
+	 * @param key the field key.
+	 * @param value the field value.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 */
+	public void writeField(Key key, String value) throws IOException
+	{
+		writeFieldStart(key);
+		write('"');
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			switch (c)
+			{
+				case '"':
+				case '\\':
+					write('\\');
+					write(c);
+					break;
+				case '\n':
+					write('\\');
+					write('n');
+					break;
+				case '\r':
+					write('\\');
+					write('r');
+					break;
+				case '\t':
+					write('\\');
+					write('t');
+					break;
+				default:
+					write(c);
+					break;
+			}
+		}
+		write('"');
+		writeFieldEnd();
+	}
+
+	/**
+	 * Writes the contents of the buffer to the underlying Writer and flushes it.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		drain();
+		writer.flush();
+	}
+
+	/**
+	 * Writes the contents of the buffer to the underlying Writer and closes it.
+	 * @throws IOException if the underlying Writer cannot be written to.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try {
+			drain();
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Checks and lowercases an identifier.
+	 */
+	private static String checkIdentifier(String name)
+	{
+		if (name.isEmpty())
+			throw new IllegalArgumentException("UDMF identifier cannot be empty.");
+		for (int i = 0; i < name.length(); i++)
+		{
+			char c = name.charAt(i);
+			boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '_' || (i > 0 && c >= '0' && c <= '9');
+			if (!valid)
+				throw new IllegalArgumentException("\"" + name + "\" is not a valid UDMF identifier.");
+		}
+		return name.toLowerCase();
+	}
+
+	private void writeIndent() throws IOException
+	{
+		if (inObject)
+			write('\t');
+	}
+
+	private void writeFieldStart(Key key) throws IOException
+	{
+		writeIndent();
+		write(key.text);
+	}
+
+	private void writeFieldEnd() throws IOException
+	{
+		write(';');
+		write('\n');
+	}
+
+	private void writeInteger(long value) throws IOException
+	{
+		ensure(20);
+		if (value < 0)
+		{
+			buffer[position++] = '-';
+			value = -value;
+		}
+		writeDigits(value, 0);
+	}
+
+	/**
+	 * Writes the digits of a non-negative value, zero-padded to at least a number of digits.
+	 */
+	private void writeDigits(long value, int minDigits)
+	{
+		int start = position;
+		do {
+			buffer[position++] = (char)('0' + (value % 10));
+			value /= 10;
+		} while (value != 0 || position - start < minDigits);
+		// reverse in place
+		for (int i = start, j = position - 1; i < j; i++, j--)
+		{
+			char c = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = c;
+		}
+	}
+
+	/**
+	 * Writes a finite float with the fewest fraction digits that read back as the same value.
+	 * Values that {@link Float#toString(float)} would write in scientific notation are written in plain notation instead.
+	 */
+	private void writeFloat(float value) throws IOException
+	{
+		float magnitude = Math.abs(value);
+		if (magnitude < PLAIN_FLOAT_MAX && (magnitude >= PLAIN_FLOAT_MIN || magnitude == 0f))
+		{
+			for (int digits = 1; digits < POWERS_OF_TEN.length; digits++)
+			{
+				long scale = POWERS_OF_TEN[digits];
+				long scaled = Math.round((double)magnitude * scale);
+				if ((float)((double)scaled / scale) == magnitude)
+				{
+					ensure(32);
+					if (value < 0f || (value == 0f && Float.floatToRawIntBits(value) != 0))
+						buffer[position++] = '-';
+					writeDigits(scaled / scale, 1);
+					buffer[position++] = '.';
+					writeDigits(scaled % scale, digits);
+					return;
+				}
+			}
+		}
+
+		String text = new BigDecimal(Float.toString(value)).toPlainString();
+		write(text);
+		if (text.indexOf('.') < 0)
+		{
+			write('.');
+			write('0');
+		}
+	}
+
+	private void write(char c) throws IOException
+	{
+		if (position == buffer.length)
+			drain();
+		buffer[position++] = c;
+	}
+
+	private void write(char[] chars) throws IOException
+	{
+		ensure(chars.length);
+		if (chars.length > buffer.length)
+		{
+			writer.write(chars);
+			return;
+		}
+		System.arraycopy(chars, 0, buffer, position, chars.length);
+		position += chars.length;
+	}
+
+	private void write(String s) throws IOException
+	{
+		int offset = 0;
+		while (offset < s.length())
+		{
+			if (position == buffer.length)
+				drain();
+			int amount = Math.min(s.length() - offset, buffer.length - position);
+			s.getChars(offset, offset + amount, buffer, position);
+			position += amount;
+			offset += amount;
+		}
+	}
+
+	/**
+	 * Makes sure that there is room for an amount of characters in the buffer, writing its contents if not.
+	 */
+	private void ensure(int amount) throws IOException
+	{
+		if (buffer.length - position < amount)
+			drain();
+	}
+
+	private void drain() throws IOException
+	{
+		if (position > 0)
+		{
+			writer.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+}
@@ -219,19 +219,19 @@ class UDMFParser extends Parser
 				String lexeme = currentToken().getLexeme();
 				if (lexeme.startsWith("0X") || lexeme.startsWith("0x"))
 				{
-					currentValue = Integer.parseInt(lexeme.substring(2), 16);
+					currentValue = -Integer.parseInt(lexeme.substring(2), 16);
 					nextToken();
 					return currentValue;
 				}
 				else if (lexeme.contains("."))
 				{
-					currentValue = Float.parseFloat(lexeme);
+					currentValue = -Float.parseFloat(lexeme);
 					nextToken();
 					return currentValue;
 				}
 				else
 				{
-					currentValue = Integer.parseInt(lexeme);
+					currentValue = -Integer.parseInt(lexeme);
 					nextToken();
 					return currentValue;
 				}
@@ -16,6 +16,7 @@ import java.util.Map.Entry;
 
 /**
  * Writes UDMF data.
+ * <p>For writing large amounts of data, or writing typed values directly, use {@link UDMFBufferedWriter}.
  * @author Matthew Tropiano
  */
 public final class UDMFWriter
@@ -27,32 +28,34 @@ public final class UDMFWriter
 	 * Does not close the OutputStream at the end of the write.
 	 * @param table the table to write.
 	 * @param out the OutputStream to write to.
-	 * @param charset the 
+	 * @param charset the charset to encode the text with.
 	 * @throws IOException if the output stream cannot be written to.
 	 */
 	public static void writeTable(UDMFTable table, OutputStream out, Charset charset) throws IOException
 	{
-		writeTable(table, new OutputStreamWriter(out, "UTF8"));
+		writeTable(table, new OutputStreamWriter(out, charset));
 	}
 	
 	/**
-	 * Writes UDMF-formatted data into a {@link Writer}.
+	 * Writes UDMF-formatted data into a {@link Writer}, through a {@link UDMFBufferedWriter}.
 	 * @param table the table to write.
 	 * @param writer the Writer to write to.
 	 * @throws IOException if the output stream cannot be written to.
 	 */
 	public static void writeTable(UDMFTable table, Writer writer) throws IOException
 	{
-		writeFields(table.getGlobalFields(), writer, "");
+		UDMFBufferedWriter udmf = new UDMFBufferedWriter(writer);
+		udmf.writeFields(table.getGlobalFields());
 		for (String typeName : table.getAllObjectNames())
 		{
 			int x = 0;
 			for (UDMFObject struct : table.getObjects(typeName))
 			{
-				writeObject(struct, writer, typeName, x);
+				udmf.writeObject(struct, typeName, x);
 				x++;
 			}
 		}
+		udmf.flush();
 	}
 
 	/**
@@ -8,7 +8,6 @@
 package net.mtrop.doom.object;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -17,10 +16,26 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import net.mtrop.doom.struct.io.IOUtils;
 
@@ -40,6 +55,22 @@ public interface BinaryObject
 	 */
 	void readBytes(InputStream in) throws IOException;
 
+	/**
+	 * Reads from a {@link ByteBuffer} and sets this object's fields.
+	 * Reading starts at the buffer's current position, and the position is advanced past the bytes read.
+	 * Only reads the amount of bytes that it takes to read a single instance of the object.
+	 * <p>Data is always read as little-endian, regardless of the buffer's byte order.
+	 * The default implementation reads through an {@link InputStream} view of the buffer (see {@link #readBytes(InputStream)}) -
+	 * objects with a fixed length override this to read their fields from the buffer directly.
+	 * @param buffer the {@link ByteBuffer} to read from. 
+	 * @throws IOException if a read error occurs - most commonly "not enough bytes".
+	 * @since 2.23.0
+	 */
+	default void readBytes(ByteBuffer buffer) throws IOException
+	{
+		readBytes(new Shared.ByteBufferInputStream(buffer));
+	}
+
 	/**
 	 * Reads from a {@link File} and sets this object's fields.
 	 * Only reads the amount of bytes that it takes to read a single instance of the object.
@@ -65,6 +96,23 @@ public interface BinaryObject
 	 */
 	void writeBytes(OutputStream out) throws IOException;
 
+	/**
+	 * Writes this object to a {@link ByteBuffer}.
+	 * Writing starts at the buffer's current position, and the position is advanced past the bytes written.
+	 * <p>Data is always written as little-endian, regardless of the buffer's byte order.
+	 * The default implementation writes the result of {@link #toBytes()} - 
+	 * objects with a fixed length override this to write their fields to the buffer directly.
+	 * @param buffer the {@link ByteBuffer} to write to.
+	 * @throws IOException if a write error occurs.
+	 * @throws java.nio.BufferOverflowException if the buffer does not have enough space remaining for this object.
+	 * @throws java.nio.ReadOnlyBufferException if the buffer is read-only.
+	 * @since 2.23.0
+	 */
+	default void writeBytes(ByteBuffer buffer) throws IOException
+	{
+		buffer.put(toBytes());
+	}
+
 	/**
 	 * Writes this object to a {@link File}.
 	 * The file's contents are overwritten.
@@ -115,7 +163,7 @@ public interface BinaryObject
 	 */
 	default void fromBytes(byte[] data) throws IOException
 	{
-		readBytes(new ByteArrayInputStream(data));
+		readBytes(Shared.wrap(data));
 	}
 
 	/**
@@ -144,7 +192,25 @@ public interface BinaryObject
 	 */
 	static <BO extends BinaryObject> BO create(Class<BO> boClass, byte[] b) throws IOException
 	{
-		return read(boClass, new ByteArrayInputStream(b));
+		return read(boClass, Shared.wrap(b));
+	}
+
+	/**
+	 * Creates a single object of a specific class from a {@link ByteBuffer}, starting at its current position.
+	 * The buffer's position is advanced past the bytes read.
+	 * @param <BO> the object type, a subtype of {@link BinaryObject}.
+	 * @param boClass the class to create.
+	 * @param buffer the buffer to read from.
+	 * @return a single instance of the created object.
+	 * @throws IOException if an error occurs during the read - most commonly "not enough bytes".
+	 * @see #readBytes(ByteBuffer)
+	 * @since 2.23.0
+	 */
+	static <BO extends BinaryObject> BO read(Class<BO> boClass, ByteBuffer buffer) throws IOException
+	{
+		BO out = Reflect.create(boClass);
+		out.readBytes(buffer);
+		return out;
 	}
 
 	/**
@@ -157,7 +223,7 @@ public interface BinaryObject
 	 */
 	static <BO extends BinaryObject> BO read(Class<BO> boClass, InputStream in) throws IOException
 	{
-		BO out = (BO)Reflect.create(boClass);
+		BO out = Reflect.create(boClass);
 		out.readBytes(in);
 		return out;
 	}
@@ -192,7 +258,32 @@ public interface BinaryObject
 	 */
 	static <BO extends BinaryObject> BO[] create(Class<BO> boClass, byte[] b, int count) throws IOException
 	{
-		return read(boClass, new ByteArrayInputStream(b), count);
+		return read(boClass, Shared.wrap(b), count);
+	}
+
+	/**
+	 * Creates an amount of objects of a specific class from a {@link ByteBuffer}, starting at its current position.
+	 * The buffer's position is advanced past the bytes read.
+	 * @param <BO> the object type, a subtype of {@link BinaryObject}.
+	 * @param boClass the class to create.
+	 * @param buffer the buffer to read from.
+	 * @param count the (maximum) amount of objects to read. 
+	 * @return an array of length <code>count</code> of the created objects.
+	 * @throws IOException if an error occurs during the read - most commonly "not enough bytes".
+	 * @see #readBytes(ByteBuffer)
+	 * @since 2.23.0
+	 */
+	@SuppressWarnings("unchecked")
+	static <BO extends BinaryObject> BO[] read(Class<BO> boClass, ByteBuffer buffer, int count) throws IOException
+	{
+		BO[] out = (BO[])Array.newInstance(boClass, count);
+		Supplier<BO> factory = Reflect.getFactory(boClass);
+		for (int i = 0; i < count; i++)
+		{
+			out[i] = factory.get();
+			out[i].readBytes(buffer);
+		}
+		return out;
 	}
 
 	/**
@@ -208,10 +299,11 @@ public interface BinaryObject
 	static <BO extends BinaryObject> BO[] read(Class<BO> boClass, InputStream in, int count) throws IOException
 	{
 		BO[] out = (BO[])Array.newInstance(boClass, count);
+		Supplier<BO> factory = Reflect.getFactory(boClass);
 		int i = 0;
 		while (count-- > 0)
 		{
-			out[i] = Reflect.create(boClass);
+			out[i] = factory.get();
 			out[i].readBytes(in);
 			i++;
 		}
@@ -238,6 +330,36 @@ public interface BinaryObject
 		}
 	}
 
+	/**
+	 * Registers the factory used for creating new, empty instances of a class when deserializing,
+	 * replacing the one that was registered or created for it before.
+	 * <p>Registering a factory is not required: the first time a class is deserialized, a factory that
+	 * calls its default constructor is created and kept for all later uses. This is useful for classes 
+	 * whose default constructor is not accessible, or that need to be created in a different way.
+	 * @param <BO> the object type, a subtype of {@link BinaryObject}.
+	 * @param boClass the class.
+	 * @param factory the factory that creates new instances (for example, <code>DoomLinedef::new</code>).
+	 * @since 2.23.0
+	 */
+	static <BO extends BinaryObject> void registerFactory(Class<BO> boClass, Supplier<BO> factory)
+	{
+		Reflect.FACTORIES.put(boClass, factory);
+	}
+
+	/**
+	 * Gets the factory used for creating new, empty instances of a class when deserializing.
+	 * See {@link #registerFactory(Class, Supplier)}.
+	 * @param <BO> the object type, a subtype of {@link BinaryObject}.
+	 * @param boClass the class.
+	 * @return the factory for the class.
+	 * @throws RuntimeException if the class has no accessible default constructor and no registered factory.
+	 * @since 2.23.0
+	 */
+	static <BO extends BinaryObject> Supplier<BO> getFactory(Class<BO> boClass)
+	{
+		return Reflect.getFactory(boClass);
+	}
+
 	/**
 	 * Creates a deserializing scanner iterator that returns independent instances of objects.
 	 * <p><b>NOTE:</b> The InputStream is closed after the last object is read.
@@ -271,6 +393,66 @@ public interface BinaryObject
 		return new InlineScanner<>(boClass, in, length);
 	}
 
+	/**
+	 * Creates a splittable, sized spliterator over a buffer of fixed-length serialized objects, 
+	 * starting at the buffer's current position. The buffer's position is not changed.
+	 * <p>Each object is read from its own offset (<code>index * length</code>), so splits can be
+	 * deserialized in parallel without copying the buffer's contents. Trailing bytes that do not
+	 * make up a whole object are ignored.
+	 * @param <BO> the object type, a subtype of {@link BinaryObject}.
+	 * @param boClass the class to create.
+	 * @param buffer the buffer to read from. Its contents should not change while the spliterator is in use.
+	 * @param length the length of each object in bytes. 
+	 * @return a new spliterator that returns independent instances of objects.
+	 * @throws IllegalArgumentException if <code>length</code> is less than 1.
+	 * @see #readBytes(ByteBuffer)
+	 * @since 2.23.0
+	 */
+	static <BO extends BinaryObject> ObjectSpliterator<BO> spliterator(Class<BO> boClass, ByteBuffer buffer, int length)
+	{
+		if (length < 1)
+			throw new IllegalArgumentException("Object length must be 1 or greater.");
+		ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		return new ObjectSpliterator<>(boClass, Reflect.getFactory(boClass), slice, length, 0, slice.remaining() / length);
+	}
+
+	/**
+	 * Creates a stream of fixed-length objects deserialized from a serialized byte array.
+	 * The stream is sized and splittable, so calling <code>parallel()</code> on it deserializes on several threads.
+	 * <p>Any {@link IOException} thrown while deserializing an object is rethrown as an {@link UncheckedIOException}.
+	 * @param <BO> the object type, a subtype of {@link BinaryObject}.
+	 * @param boClass the class to create.
+	 * @param b the array of bytes.
+	 * @param length the length of each object in bytes. 
+	 * @return a new sequential stream of independent instances of objects.
+	 * @throws IllegalArgumentException if <code>length</code> is less than 1.
+	 * @see #spliterator(Class, ByteBuffer, int)
+	 * @since 2.23.0
+	 */
+	static <BO extends BinaryObject> Stream<BO> stream(Class<BO> boClass, byte[] b, int length)
+	{
+		return stream(boClass, ByteBuffer.wrap(b), length);
+	}
+
+	/**
+	 * Creates a stream of fixed-length objects deserialized from a buffer, starting at the buffer's current position.
+	 * The buffer's position is not changed.
+	 * The stream is sized and splittable, so calling <code>parallel()</code> on it deserializes on several threads.
+	 * <p>Any {@link IOException} thrown while deserializing an object is rethrown as an {@link UncheckedIOException}.
+	 * @param <BO> the object type, a subtype of {@link BinaryObject}.
+	 * @param boClass the class to create.
+	 * @param buffer the buffer to read from. Its contents should not change while the stream is in use.
+	 * @param length the length of each object in bytes. 
+	 * @return a new sequential stream of independent instances of objects.
+	 * @throws IllegalArgumentException if <code>length</code> is less than 1.
+	 * @see #spliterator(Class, ByteBuffer, int)
+	 * @since 2.23.0
+	 */
+	static <BO extends BinaryObject> Stream<BO> stream(Class<BO> boClass, ByteBuffer buffer, int length)
+	{
+		return StreamSupport.stream(spliterator(boClass, buffer, length), false);
+	}
+
 	/**
 	 * Transformer interface for transform calls. 
 	 * @param <BO> the BinaryObject type.
@@ -306,6 +488,8 @@ public interface BinaryObject
 		private byte[] buffer;
 		/** The object class. */
 		private Class<BO> objClass;
+		/** The object factory. */
+		private Supplier<BO> factory;
 		
 		private Scanner(Class<BO> clz, InputStream in, int len)
 		{
@@ -314,6 +498,7 @@ public interface BinaryObject
 			this.hasNext = false;
 			this.buffer = new byte[len];
 			this.objClass = clz;
+			this.factory = Reflect.getFactory(clz);
 		}
 		
 		private void loadNext() throws IOException
@@ -342,7 +527,8 @@ public interface BinaryObject
 				loadNext();
 				if (!hasNext)
 					throw new NoSuchElementException("No more objects.");
-				BO out = create(objClass, buffer);
+				BO out = factory.get();
+				out.fromBytes(buffer);
 				readNext = false;
 				return out;
 			} catch (IOException e) {
@@ -430,18 +616,163 @@ public interface BinaryObject
 		
 	}
 
+	/**
+	 * A splittable, sized spliterator over a buffer of fixed-length serialized objects.
+	 * Each split reads from its own view of the same buffer, and each object is read from its own offset.
+	 * @param <BO> the BinaryObject type.
+	 * @since 2.23.0
+	 * @see BinaryObject#spliterator(Class, ByteBuffer, int)
+	 */
+	class ObjectSpliterator<BO extends BinaryObject> implements Spliterator<BO>
+	{
+		/** Splits smaller than this (in objects) are not split further. */
+		private static final int MIN_SPLIT = 64;
+		
+		/** The object class. */
+		private Class<BO> objClass;
+		/** The object factory. */
+		private Supplier<BO> factory;
+		/** The buffer view (little-endian, starts at object 0). */
+		private ByteBuffer buffer;
+		/** The length of each object. */
+		private int length;
+		/** The next object index. */
+		private int index;
+		/** The end object index (exclusive). */
+		private int end;
+		
+		private ObjectSpliterator(Class<BO> clz, Supplier<BO> factory, ByteBuffer buffer, int length, int index, int end)
+		{
+			this.objClass = clz;
+			this.factory = factory;
+			this.buffer = buffer;
+			this.length = length;
+			this.index = index;
+			this.end = end;
+		}
+		
+		private BO read(int i)
+		{
+			BO out = factory.get();
+			buffer.position(i * length);
+			try {
+				out.readBytes(buffer);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not deserialize " + objClass.getSimpleName() + " at index " + i, e);
+			}
+			return out;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super BO> action)
+		{
+			if (index >= end)
+				return false;
+			action.accept(read(index++));
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(Consumer<? super BO> action)
+		{
+			while (index < end)
+				action.accept(read(index++));
+		}
+		
+		@Override
+		public ObjectSpliterator<BO> trySplit()
+		{
+			int count = end - index;
+			if (count < MIN_SPLIT * 2)
+				return null;
+			int mid = index + (count >>> 1);
+			ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			ObjectSpliterator<BO> out = new ObjectSpliterator<>(objClass, factory, view, length, index, mid);
+			index = mid;
+			return out;
+		}
+		
+		@Override
+		public long estimateSize()
+		{
+			return end - index;
+		}
+		
+		@Override
+		public int characteristics()
+		{
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+		
+	}
+
 	static class Shared
 	{
 		private static ThreadLocal<ByteArrayOutputStream> CONVERSIONBUFFER = 
 			ThreadLocal.withInitial(()->new ByteArrayOutputStream(16384));
+		
+		/**
+		 * Wraps a byte array in a little-endian buffer.
+		 */
+		private static ByteBuffer wrap(byte[] b)
+		{
+			return ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		
+		/**
+		 * An {@link InputStream} that reads from a buffer's current position, advancing it.
+		 */
+		private static class ByteBufferInputStream extends InputStream
+		{
+			private ByteBuffer buffer;
+			
+			private ByteBufferInputStream(ByteBuffer buffer)
+			{
+				this.buffer = buffer;
+			}
+			
+			@Override
+			public int read() throws IOException
+			{
+				return buffer.hasRemaining() ? buffer.get() & 0x0ff : -1;
+			}
+			
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException
+			{
+				if (len == 0)
+					return 0;
+				if (!buffer.hasRemaining())
+					return -1;
+				len = Math.min(len, buffer.remaining());
+				buffer.get(b, off, len);
+				return len;
+			}
+			
+			@Override
+			public long skip(long n) throws IOException
+			{
+				int len = (int)Math.max(0, Math.min(n, buffer.remaining()));
+				buffer.position(buffer.position() + len);
+				return len;
+			}
+			
+			@Override
+			public int available() throws IOException
+			{
+				return buffer.remaining();
+			}
+		}
 	}
 	
 	static class Reflect
 	{
+		/** Cached factories by class. */
+		private static final Map<Class<?>, Supplier<?>> FACTORIES = new ConcurrentHashMap<>();
+		
 		/**
 		 * Creates a new instance of a class from a class type.
-		 * This essentially calls {@link Class#newInstance()}, but wraps the call
-		 * in a try/catch block that only throws an exception if something goes wrong.
+		 * This calls the class's cached factory (see {@link #getFactory(Class)}).
 		 * @param <T> the return object type.
 		 * @param clazz the class type to instantiate.
 		 * @return a new instance of an object.
@@ -450,24 +781,64 @@ public interface BinaryObject
 		 */
 		private static <T> T create(Class<T> clazz)
 		{
-			Object out = null;
+			return getFactory(clazz).get();
+		}
+		
+		/**
+		 * Gets the factory for a class, creating and caching it if it does not exist yet.
+		 * @param <T> the return object type.
+		 * @param clazz the class type to instantiate.
+		 * @return the factory.
+		 * @throws RuntimeException if the class does not have an accessible default constructor.
+		 */
+		@SuppressWarnings("unchecked")
+		private static <T> Supplier<T> getFactory(Class<T> clazz)
+		{
+			return (Supplier<T>)FACTORIES.computeIfAbsent(clazz, Reflect::createFactory);
+		}
+		
+		/**
+		 * Creates a factory that calls a class's default constructor.
+		 * If possible, this binds a lambda to the constructor, so that creating an instance is a plain constructor call.
+		 * Otherwise, the constructor is called through a method handle.
+		 */
+		private static Supplier<?> createFactory(Class<?> clazz)
+		{
+			final MethodHandle constructor;
 			try {
-				out = clazz.getDeclaredConstructor().newInstance();
-			} catch (SecurityException ex) {
-				throw new RuntimeException(ex);
-			} catch (IllegalAccessException e) {
-				throw new RuntimeException(e);
-			} catch (InstantiationException e) {
-				throw new RuntimeException(e);
-			} catch (IllegalArgumentException e) {
-				throw new RuntimeException(e);
-			} catch (InvocationTargetException e) {
-				throw new RuntimeException(e);
-			} catch (NoSuchMethodException e) {
+				Constructor<?> c = clazz.getDeclaredConstructor();
+				constructor = MethodHandles.lookup().unreflectConstructor(c);
+			} catch (NoSuchMethodException | IllegalAccessException | SecurityException e) {
 				throw new RuntimeException(e);
 			}
 			
-			return clazz.cast(out);
+			// Lambdas are defined in this class's loader, so they can only see the constructor's class if it is also visible from here.
+			if (clazz.getClassLoader() == Reflect.class.getClassLoader())
+			{
+				try {
+					CallSite site = LambdaMetafactory.metafactory(
+						MethodHandles.lookup(), 
+						"get", 
+						MethodType.methodType(Supplier.class), 
+						MethodType.methodType(Object.class), 
+						constructor, 
+						MethodType.methodType(clazz)
+					);
+					return (Supplier<?>)site.getTarget().invoke();
+				} catch (Throwable t) {
+					// Fall through to method handle.
+				}
+			}
+			
+			return () -> {
+				try {
+					return constructor.invoke();
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable t) {
+					throw new RuntimeException(new InvocationTargetException(t));
+				}
+			};
 		}
 	}
 	
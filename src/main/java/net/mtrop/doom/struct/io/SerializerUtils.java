@@ -7,6 +7,11 @@
  ******************************************************************************/
 package net.mtrop.doom.struct.io;
 
+import java.io.EOFException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * Contains utility methods for serializing values. 
  * @author Matthew Tropiano
@@ -192,5 +197,46 @@ public final class SerializerUtils
 				out |= (1 << i);
 		return out;
 	}
-	
+
+	/**
+	 * Checks that a buffer has enough bytes left to read from its current position, and 
+	 * returns a little-endian view of it for absolute reads.
+	 * The returned buffer is the same buffer if it is already little-endian, or a little-endian
+	 * duplicate of it if not - either way, its position is not changed.
+	 * @param buffer the buffer to read from.
+	 * @param length the amount of bytes that will be read.
+	 * @return a little-endian buffer with the same content and position.
+	 * @throws EOFException if the buffer has fewer than <code>length</code> bytes remaining.
+	 * @since 2.23.0
+	 */
+	public static ByteBuffer readableLittleEndian(ByteBuffer buffer, int length) throws EOFException
+	{
+		if (buffer.remaining() < length)
+			throw new EOFException("Not enough bytes: expected " + length + ", got " + buffer.remaining() + ".");
+		return littleEndian(buffer);
+	}
+
+	/**
+	 * Checks that a buffer has enough space left to write to at its current position, and 
+	 * returns a little-endian view of it for absolute writes.
+	 * The returned buffer is the same buffer if it is already little-endian, or a little-endian
+	 * duplicate of it if not - either way, its position is not changed.
+	 * @param buffer the buffer to write to.
+	 * @param length the amount of bytes that will be written.
+	 * @return a little-endian buffer with the same content and position.
+	 * @throws BufferOverflowException if the buffer has fewer than <code>length</code> bytes remaining.
+	 * @since 2.23.0
+	 */
+	public static ByteBuffer writableLittleEndian(ByteBuffer buffer, int length)
+	{
+		if (buffer.remaining() < length)
+			throw new BufferOverflowException();
+		return littleEndian(buffer);
+	}
+
+	private static ByteBuffer littleEndian(ByteBuffer buffer)
+	{
+		return buffer.order() == ByteOrder.LITTLE_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
 }
@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.struct.trie;
+
+/**
+ * A path-compressed (radix) trie that maps strings to values, case-insensitively.
+ * @author Matthew Tropiano
+ * @param <V> the value type.
+ * @since 2.23.0
+ */
+public class CaseInsensitiveRadixTrieMap<V extends Object> extends StringRadixTrieMap<V>
+{
+	public CaseInsensitiveRadixTrieMap()
+	{
+		super();
+	}
+	
+	@Override
+	protected char foldChar(char c)
+	{
+		return Character.toLowerCase(c);
+	}
+	
+}
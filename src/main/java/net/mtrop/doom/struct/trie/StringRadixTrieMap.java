@@ -0,0 +1,442 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.struct.trie;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A path-compressed (radix) trie that maps strings to values.
+ * <p>
+ * Unlike {@link StringTrieMap}, which stores one node per character, each node in this trie holds
+ * a run of characters shared by all keys below it, and its children are kept in a small sorted array, 
+ * so keys with long shared prefixes (like file paths) take far less memory and build faster. 
+ * Prefix queries return keys and values in sorted order (by folded character, see {@link #foldChar(char)}).
+ * <p>
+ * This structure is not thread-safe - wrap calls with synchronized blocks if necessary.
+ * @author Matthew Tropiano
+ * @param <V> the value type.
+ * @since 2.23.0
+ */
+public class StringRadixTrieMap<V extends Object> implements Iterable<Map.Entry<String, V>>
+{
+	private static final char[] NO_CHARS = new char[0];
+
+	/** Root node (empty label). */
+	private Node<V> root;
+	/** Amount of keys. */
+	private int size;
+
+	/**
+	 * Creates a new, empty trie map.
+	 */
+	public StringRadixTrieMap()
+	{
+		clear();
+	}
+
+	/**
+	 * Folds a character for comparison.
+	 * Keys whose characters all fold to the same characters are considered equal.
+	 * By default, this returns the same character.
+	 * @param c the input character.
+	 * @return the folded character.
+	 */
+	protected char foldChar(char c)
+	{
+		return c;
+	}
+
+	/**
+	 * Associates a key to a value in this map.
+	 * If the key (or a key considered equal to it) is already in the map, its key and value are replaced.
+	 * @param key the map key.
+	 * @param value the corresponding value.
+	 * @return the previous value associated with the key, or null if none.
+	 * @throws NullPointerException if key is null.
+	 */
+	public V put(String key, V value)
+	{
+		Node<V> node = root;
+		int i = 0;
+		int length = key.length();
+		while (i < length)
+		{
+			char c = foldChar(key.charAt(i));
+			int index = node.findChild(c);
+			if (index < 0)
+			{
+				Node<V> leaf = new Node<>(fold(key, i));
+				node.insertChild(-(index + 1), leaf);
+				node = leaf;
+				i = length;
+				break;
+			}
+			
+			Node<V> child = node.children[index];
+			int common = matchLength(child.label, key, i);
+			if (common < child.label.length)
+			{
+				// Split the child at the point where the key diverges.
+				Node<V> middle = new Node<>(Arrays.copyOf(child.label, common));
+				child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+				middle.insertChild(0, child);
+				node.children[index] = middle;
+				child = middle;
+			}
+			node = child;
+			i += common;
+		}
+		
+		V out = node.value;
+		if (!node.terminal)
+		{
+			node.terminal = true;
+			size++;
+		}
+		node.key = key;
+		node.value = value;
+		return out;
+	}
+
+	/**
+	 * Returns a value for the key provided.
+	 * @param key the key.
+	 * @return the corresponding value, or null if there is no value associated with that key.
+	 */
+	public V get(String key)
+	{
+		Node<V> node = findNode(key);
+		return node != null && node.terminal ? node.value : null;
+	}
+
+	/**
+	 * Checks if a key is present in this map.
+	 * @param key the key.
+	 * @return true if it is in the map, false otherwise.
+	 */
+	public boolean containsKey(String key)
+	{
+		Node<V> node = findNode(key);
+		return node != null && node.terminal;
+	}
+
+	/**
+	 * Removes a value from this map, corresponding to a key.
+	 * @param key the key.
+	 * @return the corresponding value if it was removed from the map, null otherwise.
+	 */
+	public V removeEntry(String key)
+	{
+		Deque<Node<V>> path = new ArrayDeque<>();
+		Node<V> node = root;
+		int i = 0;
+		while (node != null && i < key.length())
+		{
+			path.push(node);
+			int index = node.findChild(foldChar(key.charAt(i)));
+			if (index < 0)
+				return null;
+			Node<V> child = node.children[index];
+			if (matchLength(child.label, key, i) < child.label.length)
+				return null;
+			i += child.label.length;
+			node = child;
+		}
+		if (!node.terminal)
+			return null;
+		
+		V out = node.value;
+		node.terminal = false;
+		node.key = null;
+		node.value = null;
+		size--;
+
+		// Prune or merge nodes that no longer need to exist.
+		while (node != root && !node.terminal && node.childCount <= 1)
+		{
+			Node<V> parent = path.pop();
+			int index = parent.findChild(node.label[0]);
+			if (node.childCount == 0)
+			{
+				parent.removeChild(index);
+				node = parent;
+			}
+			else
+			{
+				Node<V> child = node.children[0];
+				char[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+				System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+				child.label = label;
+				parent.children[index] = child;
+				break;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns all keys that start with a prefix, in sorted order. Result may include the prefix itself, if it is a key.
+	 * <p>The results are added to the end of the list.
+	 * @param prefix the prefix to search for.
+	 * @param out the output list.
+	 * @return the amount of items added to the list.
+	 */
+	public int getKeysAfterKey(String prefix, List<String> out)
+	{
+		Node<V> node = findPrefixNode(prefix);
+		if (node == null)
+			return 0;
+		int start = out.size();
+		collect(node, out, true);
+		return out.size() - start;
+	}
+
+	/**
+	 * Returns all values whose keys start with a prefix, in sorted key order. Result may include the value for the prefix itself, if it is a key.
+	 * <p>The results are added to the end of the list.
+	 * @param prefix the prefix to search for.
+	 * @param out the output list.
+	 * @return the amount of items added to the list.
+	 */
+	public int getAfterKey(String prefix, List<V> out)
+	{
+		Node<V> node = findPrefixNode(prefix);
+		if (node == null)
+			return 0;
+		int start = out.size();
+		collect(node, out, false);
+		return out.size() - start;
+	}
+
+	/**
+	 * @return the amount of keys in this map.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return true if this map is empty, false if not.
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Removes all keys from this map.
+	 */
+	public void clear()
+	{
+		root = new Node<>(NO_CHARS);
+		size = 0;
+	}
+
+	/**
+	 * Returns an iterator over all key-value pairs, in sorted key order.
+	 * The iterator does not support removal, and the returned entries do not change the map.
+	 */
+	@Override
+	public Iterator<Map.Entry<String, V>> iterator()
+	{
+		return new EntryIterator<>(root);
+	}
+
+	// Folds a key from an offset.
+	private char[] fold(String key, int offset)
+	{
+		char[] out = new char[key.length() - offset];
+		for (int i = 0; i < out.length; i++)
+			out[i] = foldChar(key.charAt(offset + i));
+		return out;
+	}
+
+	// Returns how many label characters match the key from an offset.
+	private int matchLength(char[] label, String key, int offset)
+	{
+		int max = Math.min(label.length, key.length() - offset);
+		int i = 0;
+		while (i < max && label[i] == foldChar(key.charAt(offset + i)))
+			i++;
+		return i;
+	}
+
+	// Finds the node for an exact key, or null.
+	private Node<V> findNode(String key)
+	{
+		Node<V> node = root;
+		int i = 0;
+		while (i < key.length())
+		{
+			int index = node.findChild(foldChar(key.charAt(i)));
+			if (index < 0)
+				return null;
+			Node<V> child = node.children[index];
+			if (matchLength(child.label, key, i) < child.label.length)
+				return null;
+			i += child.label.length;
+			node = child;
+		}
+		return node;
+	}
+
+	// Finds the topmost node whose keys all start with the prefix, or null.
+	private Node<V> findPrefixNode(String prefix)
+	{
+		Node<V> node = root;
+		int i = 0;
+		while (i < prefix.length())
+		{
+			int index = node.findChild(foldChar(prefix.charAt(i)));
+			if (index < 0)
+				return null;
+			Node<V> child = node.children[index];
+			int common = matchLength(child.label, prefix, i);
+			if (i + common == prefix.length())
+				return child;
+			if (common < child.label.length)
+				return null;
+			i += common;
+			node = child;
+		}
+		return node;
+	}
+
+	// Adds all keys or values under a node, in order.
+	@SuppressWarnings("unchecked")
+	private static <V, T> void collect(Node<V> node, List<T> out, boolean keys)
+	{
+		Deque<Node<V>> stack = new ArrayDeque<>();
+		stack.push(node);
+		while (!stack.isEmpty())
+		{
+			Node<V> n = stack.pop();
+			if (n.terminal)
+				out.add((T)(keys ? n.key : n.value));
+			for (int i = n.childCount - 1; i >= 0; i--)
+				stack.push(n.children[i]);
+		}
+	}
+
+	/**
+	 * A single node: a run of folded characters, an optional key/value, and children sorted by first character.
+	 */
+	private static class Node<V>
+	{
+		private char[] label;
+		private Node<V>[] children;
+		private int childCount;
+		private boolean terminal;
+		private String key;
+		private V value;
+
+		private Node(char[] label)
+		{
+			this.label = label;
+			this.children = null;
+			this.childCount = 0;
+			this.terminal = false;
+		}
+
+		// Binary search on first label character. Returns (-(insertion point) - 1) if not found.
+		private int findChild(char c)
+		{
+			int lo = 0;
+			int hi = childCount - 1;
+			while (lo <= hi)
+			{
+				int mid = (lo + hi) >>> 1;
+				char m = children[mid].label[0];
+				if (m < c)
+					lo = mid + 1;
+				else if (m > c)
+					hi = mid - 1;
+				else
+					return mid;
+			}
+			return -(lo + 1);
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <V> Node<V>[] newArray(int length)
+		{
+			return (Node<V>[])new Node<?>[length];
+		}
+
+		private void insertChild(int index, Node<V> child)
+		{
+			if (children == null)
+				children = newArray(2);
+			else if (childCount == children.length)
+				children = Arrays.copyOf(children, childCount * 2);
+			System.arraycopy(children, index, children, index + 1, childCount - index);
+			children[index] = child;
+			childCount++;
+		}
+
+		private void removeChild(int index)
+		{
+			System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+			children[--childCount] = null;
+		}
+	}
+
+	/**
+	 * Depth-first, in-order iterator over entries.
+	 */
+	private static class EntryIterator<V> implements Iterator<Map.Entry<String, V>>
+	{
+		private Deque<Node<V>> stack;
+		private Node<V> next;
+
+		private EntryIterator(Node<V> root)
+		{
+			this.stack = new ArrayDeque<>();
+			this.stack.push(root);
+			advance();
+		}
+
+		private void advance()
+		{
+			next = null;
+			while (next == null && !stack.isEmpty())
+			{
+				Node<V> n = stack.pop();
+				for (int i = n.childCount - 1; i >= 0; i--)
+					stack.push(n.children[i]);
+				if (n.terminal)
+					next = n;
+			}
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<String, V> next()
+		{
+			if (next == null)
+				throw new NoSuchElementException();
+			Map.Entry<String, V> out = new AbstractMap.SimpleImmutableEntry<>(next.key, next.value);
+			advance();
+			return out;
+		}
+	}
+
+}
@@ -18,6 +18,7 @@ import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.Sizable;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.util.NamePool;
 import net.mtrop.doom.util.NameUtils;
 
 /**
@@ -328,8 +329,10 @@ public class Animated implements BinaryObject, Iterable<Animated.Entry>, Sizable
 				type = null;
 				return;
 			}
-			lastName = NameUtils.toValidTextureName(NameUtils.nullTrim(sr.readString(in, 9, "ASCII")));
-			firstName = NameUtils.toValidTextureName(NameUtils.nullTrim(sr.readString(in, 9, "ASCII")));
+			lastName = NamePool.TEXTURE_NAMES.get(sr.readLong(in));
+			sr.readByte(in); // null terminal
+			firstName = NamePool.TEXTURE_NAMES.get(sr.readLong(in));
+			sr.readByte(in); // null terminal
 			ticks = sr.readInt(in);
 		}
 
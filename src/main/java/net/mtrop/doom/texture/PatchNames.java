@@ -17,6 +17,7 @@ import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
 import net.mtrop.doom.struct.vector.AbstractMappedVector;
 import net.mtrop.doom.struct.vector.AbstractVector.VectorIterator;
+import net.mtrop.doom.util.NamePool;
 import net.mtrop.doom.util.NameUtils;
 
 /**
@@ -134,7 +135,7 @@ public class PatchNames implements BinaryObject, Iterable<String>, Sizable
 		SerialReader sr = new SerialReader(SerialReader.LITTLE_ENDIAN);
 		int n = sr.readInt(in);
 		while (n-- > 0)
-			add(NameUtils.toValidEntryName(NameUtils.nullTrim(new String(sr.readBytes(in, 8), "ASCII"))), true);
+			add(NamePool.ENTRY_NAMES.get(sr.readLong(in)), true);
 	}
 
 	@Override
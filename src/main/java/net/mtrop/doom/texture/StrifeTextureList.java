@@ -14,6 +14,7 @@ import java.io.OutputStream;
 import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.util.NamePool;
 import net.mtrop.doom.util.NameUtils;
 
 /**
@@ -99,7 +100,7 @@ public class StrifeTextureList extends CommonTextureList<StrifeTextureList.Textu
 		public void readBytes(InputStream in) throws IOException
 		{
 			SerialReader sr = new SerialReader(SerialReader.LITTLE_ENDIAN);
-			name = NameUtils.toValidTextureName(NameUtils.nullTrim(new String(sr.readBytes(in, 8), "ASCII")));
+			name = NamePool.TEXTURE_NAMES.get(sr.readLong(in));
 			sr.readShort(in);
 			sr.readShort(in);
 			width = sr.readUnsignedShort(in);
@@ -18,6 +18,7 @@ import net.mtrop.doom.object.BinaryObject;
 import net.mtrop.doom.struct.Sizable;
 import net.mtrop.doom.struct.io.SerialReader;
 import net.mtrop.doom.struct.io.SerialWriter;
+import net.mtrop.doom.util.NamePool;
 import net.mtrop.doom.util.NameUtils;
 
 /**
@@ -200,8 +201,10 @@ public class Switches implements BinaryObject, Iterable<Switches.Entry>, Sizable
 		public void readBytes(InputStream in) throws IOException
 		{
 			SerialReader sr = new SerialReader(SerialReader.LITTLE_ENDIAN);
-			offName = NameUtils.toValidTextureName(NameUtils.nullTrim(sr.readString(in, 9, "ASCII")));
-			onName = NameUtils.toValidTextureName(NameUtils.nullTrim(sr.readString(in, 9, "ASCII")));
+			offName = NamePool.TEXTURE_NAMES.get(sr.readLong(in));
+			sr.readByte(in); // null terminal
+			onName = NamePool.TEXTURE_NAMES.get(sr.readLong(in));
+			sr.readByte(in); // null terminal
 			game = Game.values()[sr.readShort(in)];
 		}
 
@@ -8,6 +8,8 @@
 package net.mtrop.doom.util;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -16,14 +18,19 @@ import java.util.Set;
 import net.mtrop.doom.Wad;
 import net.mtrop.doom.WadEntry;
 import net.mtrop.doom.bsp.BSPTree;
+import net.mtrop.doom.bsp.ExtendedBSPTree;
+import net.mtrop.doom.bsp.NodeFormat;
 import net.mtrop.doom.bsp.data.BSPNode;
 import net.mtrop.doom.bsp.data.BSPSegment;
 import net.mtrop.doom.bsp.data.BSPSubsector;
 import net.mtrop.doom.exception.MapException;
+import net.mtrop.doom.map.CompactDoomMap;
 import net.mtrop.doom.map.DoomMap;
 import net.mtrop.doom.map.HexenMap;
 import net.mtrop.doom.map.MapFormat;
+import net.mtrop.doom.map.TextureNameTable;
 import net.mtrop.doom.map.UDMFMap;
+import net.mtrop.doom.map.cursor.DoomMapCursorView;
 import net.mtrop.doom.map.data.DoomLinedef;
 import net.mtrop.doom.map.data.DoomSector;
 import net.mtrop.doom.map.data.DoomSidedef;
@@ -185,6 +192,121 @@ public final class MapUtils
 		return createDoomMap(wad, index);
 	}
 	
+	/**
+	 * Creates a read-only {@link DoomMapCursorView} from an entry index in a {@link Wad} that denotes a map header.
+	 * The map's lumps are read, but no map objects are created.
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @return a DoomMapCursorView over the map's data.
+	 * @throws MapException if map information is incomplete, or can't be found.
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @since 2.23.0
+	 */
+	public static DoomMapCursorView createDoomMapView(Wad wad, int index) throws MapException, IOException
+	{
+		byte[][] data = getDoomMapData(wad, index);
+		return new DoomMapCursorView(data[0], data[1], data[2], data[3], data[4]);
+	}
+	
+	/**
+	 * Creates a read-only {@link DoomMapCursorView} from a starting entry in a {@link Wad}.
+	 * If there is more than one header in the WAD that matches the provided header, the last one is found.
+	 * @param wad the WAD to read from.
+	 * @param headerName the map header name to search for.
+	 * @return a DoomMapCursorView over the map's data.
+	 * @throws MapException if map information is incomplete, or can't be found.
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @since 2.23.0
+	 */
+	public static DoomMapCursorView createDoomMapView(Wad wad, String headerName) throws MapException, IOException
+	{
+		int index = wad.lastIndexOf(headerName);
+		if (index < 0)
+			throw new MapException("Cannot find map by header name "+headerName);
+		
+		return createDoomMapView(wad, index);
+	}
+	
+	/**
+	 * Creates a {@link CompactDoomMap} from an entry index in a {@link Wad} that denotes a map header.
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @param names the name table to add texture and flat names to (can be shared between maps).
+	 * @return a CompactDoomMap with all objects set.
+	 * @throws MapException if map information is incomplete, or can't be found.
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @since 2.23.0
+	 */
+	public static CompactDoomMap createCompactDoomMap(Wad wad, int index, TextureNameTable names) throws MapException, IOException
+	{
+		byte[][] data = getDoomMapData(wad, index);
+		return CompactDoomMap.read(names, data[0], data[1], data[2], data[3], data[4]);
+	}
+	
+	/**
+	 * Creates a {@link CompactDoomMap} from a starting entry in a {@link Wad}.
+	 * If there is more than one header in the WAD that matches the provided header, the last one is found.
+	 * @param wad the WAD to read from.
+	 * @param headerName the map header name to search for.
+	 * @param names the name table to add texture and flat names to (can be shared between maps).
+	 * @return a CompactDoomMap with all objects set.
+	 * @throws MapException if map information is incomplete, or can't be found.
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @since 2.23.0
+	 */
+	public static CompactDoomMap createCompactDoomMap(Wad wad, String headerName, TextureNameTable names) throws MapException, IOException
+	{
+		int index = wad.lastIndexOf(headerName);
+		if (index < 0)
+			throw new MapException("Cannot find map by header name "+headerName);
+		
+		return createCompactDoomMap(wad, index, names);
+	}
+	
+	/**
+	 * Reads the VERTEXES, LINEDEFS, SIDEDEFS, SECTORS, and THINGS lumps (in that order) of a Doom-format map.
+	 * Missing lumps are null.
+	 */
+	private static byte[][] getDoomMapData(Wad wad, int index) throws MapException, IOException
+	{
+		int count = getMapEntryCount(wad, index);
+		byte[][] out = new byte[5][];
+		
+		for (int i = 0; i < count; i++)
+		{
+			WadEntry entry = wad.getEntry(i + index);
+			switch (entry.getName())
+			{
+				case LUMP_BEHAVIOR:
+					throw new MapException("Map is not a Doom-formatted map.");
+				case LUMP_TEXTMAP:
+				case LUMP_ENDMAP:
+					throw new MapException("Map is not a Doom-formatted map. Format is UDMF.");
+				case LUMP_VERTICES:
+					out[0] = wad.getData(entry);
+					break;
+				case LUMP_LINEDEFS:
+					out[1] = wad.getData(entry);
+					break;
+				case LUMP_SIDEDEFS:
+					out[2] = wad.getData(entry);
+					break;
+				case LUMP_SECTORS:
+					out[3] = wad.getData(entry);
+					break;
+				case LUMP_THINGS:
+					out[4] = wad.getData(entry);
+					break;
+			}
+		}
+		
+		return out;
+	}
+	
 	/**
 	 * Creates a {@link HexenMap} from an entry index in a {@link Wad} that denotes a map header.
 	 * If there is more than one header in the WAD that matches the provided header, the last one is found.
@@ -346,23 +468,27 @@ public final class MapUtils
 		if (index < 0)
 			throw new MapException("Cannot find map by header name "+headerName);
 		
+		return createBSPTree(wad, index);
+	}
+
+	/**
+	 * Creates a {@link BSPTree} from an entry index in a {@link Wad} that denotes a map header.
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @return a BSPTree with all objects set.
+	 * @throws MapException if map information is incomplete, or the NODES or SSECTORS lumps contain ZDoom nodes 
+	 * 		(see {@link #createExtendedBSPTree(Wad, int)}).
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @since 2.23.0
+	 */
+	public static BSPTree createBSPTree(Wad wad, int index) throws MapException, IOException
+	{
 		int count = getMapEntryCount(wad, index);
 		
-		WadEntry ssectors = null;
-		WadEntry segs = null;
-		WadEntry nodes = null;
-		
-		for (int i = 0; i < count; i++)
-		{
-			WadEntry entry = wad.getEntry(i + index);
-			String name = entry.getName();
-			if (name.equals(LUMP_SSECTORS))
-				ssectors = entry;
-			else if (name.equals(LUMP_SEGS))
-				segs = entry;
-			else if (name.equals(LUMP_NODES))
-				nodes = entry;
-		}
+		WadEntry ssectors = getMapEntry(wad, index, count, LUMP_SSECTORS);
+		WadEntry segs = getMapEntry(wad, index, count, LUMP_SEGS);
+		WadEntry nodes = getMapEntry(wad, index, count, LUMP_NODES);
 		
 		if (segs == null)
 			throw new MapException("BSP Tree information is incomplete. Missing SEGS.");
@@ -371,6 +497,12 @@ public final class MapUtils
 		if (nodes == null)
 			throw new MapException("BSP Tree information is incomplete. Missing NODES.");
 		
+		NodeFormat format;
+		if ((format = getNodeSignature(wad, nodes)) != null && format.isZDoom())
+			throw new MapException("NODES contains ZDoom nodes (" + format + "). Use createExtendedBSPTree() to read it.");
+		if ((format = getNodeSignature(wad, ssectors)) != null && format.isZDoom())
+			throw new MapException("SSECTORS contains ZDoom GL nodes (" + format + "). Use createExtendedBSPTree() to read it.");
+		
 		BSPTree out = new BSPTree();
 		out.setSegments(wad.getDataAsList(segs, BSPSegment.class, BSPSegment.LENGTH));
 		out.setSubsectors(wad.getDataAsList(ssectors, BSPSubsector.class, BSPSubsector.LENGTH));
@@ -379,6 +511,78 @@ public final class MapUtils
 		return out;
 	}
 	
+	/**
+	 * Creates an {@link ExtendedBSPTree} from a starting map entry in a {@link Wad}, in whatever node format the map has.
+	 * If there is more than one header in the WAD that matches the provided header, the last one is found.
+	 * @param wad the WAD to read from.
+	 * @param headerName the map header name to search for.
+	 * @return a new tree.
+	 * @throws MapException if the map can't be found, has no nodes, or its nodes are incomplete.
+	 * @throws IOException if the WAD can't be read from, or the node data is bad.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @see #getNodeFormat(Wad, int)
+	 * @since 2.23.0
+	 */
+	public static ExtendedBSPTree createExtendedBSPTree(Wad wad, String headerName) throws MapException, IOException
+	{
+		int index = wad.lastIndexOf(headerName);
+		if (index < 0)
+			throw new MapException("Cannot find map by header name "+headerName);
+		
+		return createExtendedBSPTree(wad, index);
+	}
+
+	/**
+	 * Creates an {@link ExtendedBSPTree} from an entry index in a {@link Wad} that denotes a map header, in whatever node format the map has.
+	 * ZDoom nodes are read (and inflated) as they stream from the WAD, and vanilla nodes are converted.
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @return a new tree.
+	 * @throws MapException if the map has no nodes, or its nodes are incomplete.
+	 * @throws IOException if the WAD can't be read from, or the node data is bad.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @see #getNodeFormat(Wad, int)
+	 * @since 2.23.0
+	 */
+	public static ExtendedBSPTree createExtendedBSPTree(Wad wad, int index) throws MapException, IOException
+	{
+		NodeFormat format = getNodeFormat(wad, index);
+		if (format == null)
+			throw new MapException("Map has no nodes.");
+
+		int count = getMapEntryCount(wad, index);
+		if (format == NodeFormat.DOOM || !format.isZDoom())
+		{
+			WadEntry vertices = getMapEntry(wad, index, count, LUMP_VERTICES);
+			if (vertices == null)
+				throw new MapException("BSP Tree information is incomplete. Missing VERTEXES.");
+			int mapVertexCount = vertices.getSize() / DoomVertex.LENGTH;
+			
+			if (format == NodeFormat.DOOM)
+				return ExtendedBSPTree.create(createBSPTree(wad, index), mapVertexCount);
+
+			WadEntry glSegs = getMapEntry(wad, index, count, LUMP_GL_SEGS);
+			WadEntry glSubsectors = getMapEntry(wad, index, count, LUMP_GL_SSECT);
+			WadEntry glNodes = getMapEntry(wad, index, count, LUMP_GL_NODES);
+			if (glSegs == null || glSubsectors == null || glNodes == null)
+				throw new MapException("GL node information is incomplete. Needs GL_VERT, GL_SEGS, GL_SSECT, and GL_NODES.");
+			return ExtendedBSPTree.readGLNodes(mapVertexCount, 
+				wad.getData(getMapEntry(wad, index, count, LUMP_GL_VERT)), 
+				wad.getData(glSegs), 
+				wad.getData(glSubsectors), 
+				wad.getData(glNodes)
+			);
+		}
+
+		WadEntry entry = getMapEntry(wad, index, count, LUMP_ZNODES);
+		if (entry == null || getNodeSignature(wad, entry) != format)
+			entry = getMapEntry(wad, index, count, format.isGL() ? LUMP_SSECTORS : LUMP_NODES);
+		try (InputStream in = wad.getInputStream(entry))
+		{
+			return ExtendedBSPTree.readZDoomNodes(in);
+		}
+	}
+	
 	/**
 	 * Returns all of the indices of every map in the wad.
 	 * This algorithm scans for map entry names. If it finds one, the previous entry is the probably the header.
@@ -496,6 +700,54 @@ public final class MapUtils
 		return getMapFormat(wad, index);
 	}
 
+	/**
+	 * Figures out the format of a map's nodes by its entries and their signatures.
+	 * In order of preference: ZDoom nodes in ZNODES, NODES, or SSECTORS, then glBSP GL nodes (version 2 or 5), 
+	 * then vanilla nodes (a non-empty NODES lump).
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @return the {@link NodeFormat}, or null if the map has no nodes that can be read (including unsupported GL node versions with no vanilla nodes).
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @since 2.23.0
+	 */
+	public static NodeFormat getNodeFormat(Wad wad, int index) throws IOException
+	{
+		int count = getMapEntryCount(wad, index);
+		WadEntry nodes = getMapEntry(wad, index, count, LUMP_NODES);
+		
+		NodeFormat out;
+		if ((out = getNodeSignature(wad, getMapEntry(wad, index, count, LUMP_ZNODES))) != null && out.isZDoom())
+			return out;
+		if ((out = getNodeSignature(wad, nodes)) != null && out.isZDoom() && !out.isGL())
+			return out;
+		if ((out = getNodeSignature(wad, getMapEntry(wad, index, count, LUMP_SSECTORS))) != null && out.isZDoom() && out.isGL())
+			return out;
+		if ((out = getNodeSignature(wad, getMapEntry(wad, index, count, LUMP_GL_VERT))) != null && !out.isZDoom() && out.isGL())
+			return out;
+		
+		return nodes != null && nodes.getSize() > 0 ? NodeFormat.DOOM : null;
+	}
+
+	/**
+	 * Figures out the format of a map's nodes by its entries and their signatures.
+	 * @param wad the WAD to read from.
+	 * @param headerName the map header name to search for.
+	 * @return the {@link NodeFormat}, or null if the map has no nodes that can be read, or if the header can't be found.
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @see #getNodeFormat(Wad, int)
+	 * @since 2.23.0
+	 */
+	public static NodeFormat getNodeFormat(Wad wad, String headerName) throws IOException
+	{
+		int index = wad.lastIndexOf(headerName);
+		if (index < 0)
+			return null;
+	
+		return getNodeFormat(wad, index);
+	}
+
 	/**
 	 * Returns the amount of entries in a map, including the header.
 	 * @param wad the WAD to inspect.
@@ -552,6 +804,37 @@ public final class MapUtils
 		return index >= 0 ? wad.mapEntries(index, getMapEntryCount(wad, index)) : NO_ENTRIES;
 	}
 	
+	/**
+	 * Gets the last entry with a name in a map's entries, or null if none.
+	 */
+	static WadEntry getMapEntry(Wad wad, int index, int count, String name)
+	{
+		for (int i = count - 1; i >= 0; i--)
+		{
+			WadEntry entry = wad.getEntry(i + index);
+			if (entry.getName().equals(name))
+				return entry;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the node format for the signature at the start of an entry, or null if none (or the entry is null).
+	 */
+	private static NodeFormat getNodeSignature(Wad wad, WadEntry entry) throws IOException
+	{
+		if (entry == null || entry.getSize() < 4)
+			return null;
+		byte[] signature = new byte[4];
+		try (InputStream in = wad.getInputStream(entry))
+		{
+			int n = 0, b;
+			while (n < 4 && (b = in.read(signature, n, 4 - n)) > 0)
+				n += b;
+			return n == 4 ? NodeFormat.getBySignature(new String(signature, StandardCharsets.US_ASCII)) : null;
+		}
+	}
+
 	/**
 	 * Tests if the entry name provided is a valid part of a map.
 	 * @param name the lump name to test.
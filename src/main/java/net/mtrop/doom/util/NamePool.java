@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * A pool of names decoded from 8-byte, null-padded ASCII fields (texture, flat, and entry names), 
+ * keyed by the field's raw bytes packed into a <code>long</code>.
+ * <p>Looking up a name that was already seen returns the pooled String without any decoding, 
+ * so equal names read from many records share one instance. Bytes after the first null byte are ignored.
+ * Each pool applies a conversion to names when they are first decoded (for example, uppercasing), 
+ * and names from all pools are shared through a common table, so equal results also share an instance between pools.
+ * <p>Pools hold at most a fixed amount of names. After that, names that are not pooled yet are decoded each time.
+ * This class is thread-safe, and lookups of pooled names do not lock.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public final class NamePool
+{
+	/** Default maximum amount of names in a pool. */
+	public static final int DEFAULT_MAX_SIZE = 65536;
+
+	/** Shared instances of names from all pools. */
+	private static final Map<String, String> SHARED_NAMES = new ConcurrentHashMap<>(1024);
+
+	/** Pool for names that are used as-is (for example, sector flat names). */
+	public static final NamePool NAMES = new NamePool(UnaryOperator.identity());
+	/** Pool for names that are converted to uppercase (for example, sidedef texture names). */
+	public static final NamePool UPPERCASE_NAMES = new NamePool(String::toUpperCase);
+	/** Pool for names that are converted with {@link NameUtils#toValidTextureName(String)}. */
+	public static final NamePool TEXTURE_NAMES = new NamePool(NameUtils::toValidTextureName);
+	/** Pool for names that are converted with {@link NameUtils#toValidEntryName(String)}. */
+	public static final NamePool ENTRY_NAMES = new NamePool(NameUtils::toValidEntryName);
+
+	/** Name conversion, applied on first decode. */
+	private UnaryOperator<String> conversion;
+	/** Maximum amount of names. */
+	private int maxSize;
+	/** Open-addressed table of entries (length is a power of two). */
+	private volatile Entry[] table;
+	/** Amount of entries (guarded by this). */
+	private int size;
+
+	/**
+	 * Creates a new pool with the default maximum size.
+	 * @param conversion the conversion to apply to each decoded name before it is pooled.
+	 */
+	public NamePool(UnaryOperator<String> conversion)
+	{
+		this(conversion, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a new pool.
+	 * @param conversion the conversion to apply to each decoded name before it is pooled.
+	 * @param maxSize the maximum amount of names to pool.
+	 * @throws IllegalArgumentException if <code>maxSize</code> is less than 1.
+	 */
+	public NamePool(UnaryOperator<String> conversion, int maxSize)
+	{
+		if (maxSize < 1)
+			throw new IllegalArgumentException("Max size must be 1 or greater.");
+		this.conversion = conversion;
+		this.maxSize = maxSize;
+		this.table = new Entry[256];
+		this.size = 0;
+	}
+
+	/**
+	 * Gets the name for 8 bytes of name data packed into a long, little-endian 
+	 * (the first character in the least-significant byte).
+	 * @param key the packed name bytes.
+	 * @return the corresponding name.
+	 */
+	public String get(long key)
+	{
+		key = trimKey(key);
+		Entry[] t = table;
+		int mask = t.length - 1;
+		Entry e;
+		for (int i = hash(key) & mask; (e = t[i]) != null; i = (i + 1) & mask)
+			if (e.key == key)
+				return e.name;
+		return add(key);
+	}
+
+	/**
+	 * Gets the name for 8 bytes of name data in a byte array.
+	 * @param b the byte array.
+	 * @param offset the offset into the array of the first byte.
+	 * @return the corresponding name.
+	 * @throws ArrayIndexOutOfBoundsException if the 8 bytes are not entirely inside the array.
+	 */
+	public String get(byte[] b, int offset)
+	{
+		long key = 0L;
+		for (int i = 7; i >= 0; i--)
+			key = (key << 8) | (b[offset + i] & 0x0FFL);
+		return get(key);
+	}
+
+	/**
+	 * Gets the name for 8 bytes of name data in a buffer, at an absolute offset.
+	 * The buffer's position and byte order do not matter, and are not changed.
+	 * @param buffer the buffer.
+	 * @param offset the absolute offset into the buffer of the first byte.
+	 * @return the corresponding name.
+	 * @throws IndexOutOfBoundsException if the 8 bytes are not entirely inside the buffer's limit.
+	 */
+	public String get(ByteBuffer buffer, int offset)
+	{
+		long key = buffer.getLong(offset);
+		return get(buffer.order() == ByteOrder.LITTLE_ENDIAN ? key : Long.reverseBytes(key));
+	}
+
+	/**
+	 * @return the amount of names in this pool.
+	 */
+	public synchronized int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Removes all names from this pool.
+	 */
+	public synchronized void clear()
+	{
+		table = new Entry[256];
+		size = 0;
+	}
+
+	// Adds a name to the table, or returns the one added by another thread.
+	private synchronized String add(long key)
+	{
+		Entry[] t = table;
+		int mask = t.length - 1;
+		int i;
+		Entry e;
+		for (i = hash(key) & mask; (e = t[i]) != null; i = (i + 1) & mask)
+			if (e.key == key)
+				return e.name;
+
+		String name = conversion.apply(decode(key));
+		if (size >= maxSize)
+			return name;
+		
+		if (SHARED_NAMES.size() < DEFAULT_MAX_SIZE)
+		{
+			String shared = SHARED_NAMES.putIfAbsent(name, name);
+			if (shared != null)
+				name = shared;
+		}
+		
+		t[i] = new Entry(key, name);
+		if (++size * 2 > t.length)
+			table = rehash(t);
+		return name;
+	}
+
+	private static Entry[] rehash(Entry[] t)
+	{
+		Entry[] out = new Entry[t.length * 2];
+		int mask = out.length - 1;
+		for (Entry e : t)
+		{
+			if (e == null)
+				continue;
+			int i = hash(e.key) & mask;
+			while (out[i] != null)
+				i = (i + 1) & mask;
+			out[i] = e;
+		}
+		return out;
+	}
+
+	// Clears all bytes after the first null byte.
+	private static long trimKey(long key)
+	{
+		for (int i = 0; i < 8; i++)
+			if (((key >>> (i * 8)) & 0x0FFL) == 0)
+				return key & ((1L << (i * 8)) - 1);
+		return key;
+	}
+
+	private static int hash(long key)
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	// Decodes like the ASCII charset: bytes above 127 become U+FFFD.
+	private static String decode(long key)
+	{
+		char[] out = new char[8];
+		int len = 0;
+		for (; len < 8; len++)
+		{
+			int b = (int)((key >>> (len * 8)) & 0x0FFL);
+			if (b == 0)
+				break;
+			out[len] = b < 128 ? (char)b : '\uFFFD';
+		}
+		return new String(out, 0, len);
+	}
+
+	private static class Entry
+	{
+		private final long key;
+		private final String name;
+		
+		private Entry(long key, String name)
+		{
+			this.key = key;
+			this.name = name;
+		}
+	}
+
+}
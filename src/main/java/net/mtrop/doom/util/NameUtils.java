@@ -8,6 +8,7 @@
 package net.mtrop.doom.util;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.util.regex.Pattern;
@@ -55,6 +56,30 @@ public final class NameUtils
 		return out;
 	}
 
+	/**
+	 * Writes a String to a buffer at an absolute offset as an ASCII-encoded, byte-length-aligned name. 
+	 * If the string length is less than <code>bytelen</code> it is null-byte padded to the length.
+	 * The buffer's position is not changed.
+	 * For ASCII names, this writes the same bytes as {@link #toASCIIBytes(String, int)}.
+	 * @param buffer the buffer to write to.
+	 * @param offset the absolute offset into the buffer.
+	 * @param s the input string.
+	 * @param bytelen the length of the name in bytes.
+	 * @throws IndexOutOfBoundsException if the name is not entirely inside the buffer's limit.
+	 * @since 2.23.0
+	 */
+	public static void putASCIIName(ByteBuffer buffer, int offset, String s, int bytelen)
+	{
+		int len = Math.min(s.length(), bytelen);
+		for (int i = 0; i < len; i++)
+		{
+			char c = s.charAt(i);
+			buffer.put(offset + i, c < 128 ? (byte)c : (byte)'?');
+		}
+		for (int i = len; i < bytelen; i++)
+			buffer.put(offset + i, (byte)0);
+	}
+
 	/**
 	 * Tests if an input string is a valid entry name.
 	 * <p>
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+
+import net.mtrop.doom.DoomPK3;
+import net.mtrop.doom.DoomPK3Builder;
+import net.mtrop.doom.Wad;
+import net.mtrop.doom.WadBuffer;
+import net.mtrop.doom.WadEntry;
+import net.mtrop.doom.WadFile;
+
+/**
+ * PK3 utility methods and functions, mostly for converting between WADs and PK3s.
+ * <p>
+ * WAD namespaces map to PK3 directories like so:
+ * <pre>
+ * F_START/F_END (or FF_)      flats/
+ * P_START/P_END (or PP_)      patches/
+ * S_START/S_END (or SS_)      sprites/
+ * TX_START/TX_END             textures/
+ * HI_START/HI_END             hires/
+ * C_START/C_END               colormaps/
+ * </pre>
+ * Maps are stored as embedded WADs in <code>maps/</code>, named after the map header,
+ * and every other entry is stored in the PK3's root.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public final class PK3Utils
+{
+	/** Namespace marker prefixes, in order of appearance in converted WADs. */
+	private static final String[] NAMESPACE_PREFIXES = {"F", "P", "S", "TX", "HI", "C"};
+	/** PK3 directories for each namespace in {@link #NAMESPACE_PREFIXES}. */
+	private static final String[] NAMESPACE_DIRECTORIES = {"flats/", "patches/", "sprites/", "textures/", "hires/", "colormaps/"};
+	/** Directory for maps. */
+	private static final String MAPS_DIRECTORY = "maps/";
+
+	private PK3Utils() {}
+
+	/**
+	 * Converts a WAD to a PK3 file.
+	 * See {@link #addWadContents(DoomPK3Builder, Wad)} for how entries are converted.
+	 * <p><b>NOTE: This will overwrite the destination file, if it exists!</b>
+	 * @param source the source WAD.
+	 * @param destination the destination PK3 file.
+	 * @throws IOException if the source cannot be read or the destination cannot be written.
+	 * @throws UnsupportedOperationException if the provided Wad is not an implementation that you can read data from.
+	 */
+	public static void convertWadToPK3(Wad source, File destination) throws IOException
+	{
+		DoomPK3Builder builder = new DoomPK3Builder();
+		addWadContents(builder, source);
+		builder.writeTo(destination);
+	}
+
+	/**
+	 * Adds the contents of a WAD to a PK3 builder, converting namespaces and maps to the PK3 directory layout.
+	 * <ul>
+	 * <li>Entries in recognized namespaces are added to their namespace directory. Sub-namespace markers (like <code>F1_START</code>) are dropped.</li>
+	 * <li>Maps are added as embedded WADs in <code>maps/</code>, named after the map header (for example, <code>maps/map01.wad</code>).</li>
+	 * <li>All other entries are added to the root.</li>
+	 * </ul>
+	 * Entry names are lowercased, <code>'\'</code> is changed to <code>'^'</code>, and an extension is added based on the data's signature
+	 * (<code>.png</code>, <code>.mus</code>, <code>.mid</code>, <code>.ogg</code>, <code>.wav</code>, or <code>.lmp</code>).
+	 * If more than one entry maps to the same path, the last one wins, as it would in a WAD lookup.
+	 * @param builder the builder to add entries to.
+	 * @param source the source WAD.
+	 * @throws IOException if the source cannot be read.
+	 * @throws UnsupportedOperationException if the provided Wad is not an implementation that you can read data from.
+	 */
+	public static void addWadContents(DoomPK3Builder builder, Wad source) throws IOException
+	{
+		boolean[] mapHeaders = new boolean[source.getEntryCount()];
+		for (int i : MapUtils.getAllMapIndices(source))
+			mapHeaders[i] = true;
+
+		int namespace = -1;
+		for (int i = 0; i < source.getEntryCount(); i++)
+		{
+			WadEntry entry = source.getEntry(i);
+			String name = entry.getName();
+
+			if (namespace < 0)
+			{
+				int start = getNamespace(name, "_START");
+				if (start >= 0)
+				{
+					namespace = start;
+					continue;
+				}
+			}
+			else if (getNamespace(name, "_END") == namespace)
+			{
+				namespace = -1;
+				continue;
+			}
+
+			if (namespace >= 0)
+			{
+				if (entry.getSize() == 0 && (name.endsWith("_START") || name.endsWith("_END")))
+					continue;
+				byte[] data = source.getData(entry);
+				builder.addData(NAMESPACE_DIRECTORIES[namespace] + getFileName(name, data), data);
+			}
+			else if (mapHeaders[i])
+			{
+				int count = MapUtils.getMapEntryCount(source, i);
+				WadBuffer map = WadBuffer.extract(source, i, count);
+				ByteArrayOutputStream bos = new ByteArrayOutputStream(map.getContentLength() + 12 + map.getEntryCount() * 16);
+				map.writeToStream(bos);
+				builder.addData(MAPS_DIRECTORY + toPath(name) + ".wad", bos.toByteArray());
+				i += count - 1;
+			}
+			else
+			{
+				byte[] data = source.getData(entry);
+				builder.addData(getFileName(name, data), data);
+			}
+		}
+	}
+
+	/**
+	 * Converts a PK3 to a WAD file (PWAD).
+	 * <ul>
+	 * <li>Files in the root and in unrecognized directories are added first, in path order, named by their file name without extension.</li>
+	 * <li>Embedded WADs in <code>maps/</code> are added next, with their first entry renamed to the file name.</li>
+	 * <li>Files in recognized namespace directories (and their subdirectories) are added last, between namespace markers.</li>
+	 * </ul>
+	 * Files in <code>filter/</code> are skipped, since they have no WAD equivalent.
+	 * Entry names are uppercased and made valid, and <code>'^'</code> is changed to <code>'\'</code>.
+	 * Names that end up longer than 8 characters are truncated.
+	 * <p><b>NOTE: This will overwrite the destination file, if it exists!</b>
+	 * @param source the source PK3.
+	 * @param destination the destination WAD file.
+	 * @throws IOException if the source cannot be read or the destination cannot be written.
+	 */
+	public static void convertPK3ToWad(DoomPK3 source, File destination) throws IOException
+	{
+		List<String> rootPaths = new ArrayList<>();
+		List<String> mapPaths = new ArrayList<>();
+		List<List<String>> namespacePaths = new ArrayList<>(NAMESPACE_DIRECTORIES.length);
+		for (int n = 0; n < NAMESPACE_DIRECTORIES.length; n++)
+			namespacePaths.add(new ArrayList<>());
+
+		for (String path : source.getEntriesStartingWith(""))
+		{
+			String lower = path.toLowerCase();
+			if (lower.startsWith("filter/"))
+				continue;
+
+			if (lower.startsWith(MAPS_DIRECTORY) && lower.endsWith(".wad") && lower.indexOf('/', MAPS_DIRECTORY.length()) < 0)
+			{
+				mapPaths.add(path);
+				continue;
+			}
+
+			int namespace = -1;
+			for (int n = 0; namespace < 0 && n < NAMESPACE_DIRECTORIES.length; n++)
+				if (lower.startsWith(NAMESPACE_DIRECTORIES[n]))
+					namespace = n;
+
+			if (namespace >= 0)
+				namespacePaths.get(namespace).add(path);
+			else
+				rootPaths.add(path);
+		}
+
+		try (WadFile wad = WadFile.createWadFile(destination); WadFile.Adder adder = wad.createAdder())
+		{
+			for (String path : rootPaths)
+				adder.addData(getEntryName(source, path), source.getData(path));
+
+			for (String path : mapPaths)
+			{
+				WadBuffer map = source.getDataAsWadBuffer(path);
+				for (int i = 0; i < map.getEntryCount(); i++)
+				{
+					WadEntry entry = map.getEntry(i);
+					adder.addData(i == 0 ? getEntryName(source, path) : entry.getName(), map.getData(entry));
+				}
+			}
+
+			for (int n = 0; n < NAMESPACE_PREFIXES.length; n++)
+			{
+				List<String> paths = namespacePaths.get(n);
+				if (paths.isEmpty())
+					continue;
+				adder.addMarker(NAMESPACE_PREFIXES[n] + "_START");
+				for (String path : paths)
+					adder.addData(getEntryName(source, path), source.getData(path));
+				adder.addMarker(NAMESPACE_PREFIXES[n] + "_END");
+			}
+		}
+	}
+
+	/**
+	 * Gets the PK3 directory for a WAD namespace start marker.
+	 * Both single and doubled prefixes are accepted (<code>F_START</code>, <code>FF_START</code>).
+	 * @param markerName the entry name of the marker.
+	 * @return the directory (for example, <code>"flats/"</code>), or null if the name is not a recognized namespace start marker.
+	 */
+	public static String getNamespaceDirectory(String markerName)
+	{
+		int namespace = getNamespace(markerName, "_START");
+		return namespace >= 0 ? NAMESPACE_DIRECTORIES[namespace] : null;
+	}
+
+	/**
+	 * Gets the namespace index for a marker name with a suffix, or -1 if not a namespace marker.
+	 * Both single and doubled prefixes are accepted (<code>F_START</code>, <code>FF_START</code>).
+	 */
+	private static int getNamespace(String name, String suffix)
+	{
+		if (!name.endsWith(suffix))
+			return -1;
+		String prefix = name.substring(0, name.length() - suffix.length());
+		for (int n = 0; n < NAMESPACE_PREFIXES.length; n++)
+		{
+			String p = NAMESPACE_PREFIXES[n];
+			if (prefix.equals(p) || (p.length() == 1 && prefix.equals(p + p)))
+				return n;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the PK3 file name for a WAD entry name and its data.
+	 */
+	private static String getFileName(String name, byte[] data)
+	{
+		return toPath(name) + "." + getExtension(data);
+	}
+
+	/**
+	 * Converts an entry name to a path component.
+	 */
+	private static String toPath(String name)
+	{
+		return name.replace('\\', '^').toLowerCase();
+	}
+
+	/**
+	 * Gets a file extension for data, by signature.
+	 */
+	private static String getExtension(byte[] data)
+	{
+		if (startsWith(data, (byte)0x89, 'P', 'N', 'G'))
+			return "png";
+		else if (startsWith(data, 'M', 'U', 'S', 0x1A))
+			return "mus";
+		else if (startsWith(data, 'M', 'T', 'h', 'd'))
+			return "mid";
+		else if (startsWith(data, 'O', 'g', 'g', 'S'))
+			return "ogg";
+		else if (startsWith(data, 'R', 'I', 'F', 'F'))
+			return "wav";
+		else
+			return "lmp";
+	}
+
+	private static boolean startsWith(byte[] data, int ... signature)
+	{
+		if (data.length < signature.length)
+			return false;
+		for (int i = 0; i < signature.length; i++)
+			if (data[i] != (byte)signature[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Gets the WAD entry name for a PK3 entry path.
+	 */
+	private static String getEntryName(DoomPK3 source, String path)
+	{
+		ZipEntry entry = source.getEntry(path);
+		return NameUtils.toValidEntryName(DoomPK3.getEntryName(entry).replace('^', '\\').toUpperCase());
+	}
+
+}
@@ -0,0 +1,1376 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+import net.mtrop.doom.Wad;
+import net.mtrop.doom.WadBuffer;
+import net.mtrop.doom.WadEntry;
+import net.mtrop.doom.exception.MapException;
+import net.mtrop.doom.map.CompactDoomMap;
+import net.mtrop.doom.map.DoomMap;
+import net.mtrop.doom.map.HexenMap;
+import net.mtrop.doom.map.MapFormat;
+import net.mtrop.doom.map.MapView;
+import net.mtrop.doom.map.UDMFMap;
+import net.mtrop.doom.map.cursor.DoomMapCursorView;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.map.data.HexenLinedef;
+import net.mtrop.doom.map.data.HexenThing;
+import net.mtrop.doom.map.data.flags.BoomLinedefFlags;
+import net.mtrop.doom.map.data.flags.BoomThingFlags;
+import net.mtrop.doom.map.data.flags.DoomLinedefFlags;
+import net.mtrop.doom.map.data.flags.DoomThingFlags;
+import net.mtrop.doom.map.data.flags.HexenLinedefFlags;
+import net.mtrop.doom.map.data.flags.HexenThingFlags;
+import net.mtrop.doom.map.data.flags.MBFThingFlags;
+import net.mtrop.doom.map.data.flags.StrifeLinedefFlags;
+import net.mtrop.doom.map.data.flags.StrifeThingFlags;
+import net.mtrop.doom.map.data.flags.ZDoomLinedefFlags;
+import net.mtrop.doom.map.data.flags.ZDoomThingFlags;
+import net.mtrop.doom.map.udmf.UDMFBufferedWriter;
+import net.mtrop.doom.map.udmf.UDMFObject;
+import net.mtrop.doom.map.udmf.UDMFScanner;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomLinedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomSectorAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomSidedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomThingAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFDoomVertexAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFGlobalAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFHexenLinedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFHexenThingAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFMBFThingAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFStrifeLinedefAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFStrifeThingAttributes;
+import net.mtrop.doom.map.udmf.attributes.UDMFZDoomLinedefAttributes;
+import net.mtrop.doom.object.BinaryObject;
+import net.mtrop.doom.object.TextObject.ParseException;
+
+/**
+ * UDMF utility methods, mostly for converting between the binary map formats and UDMF.
+ * <p>
+ * Doom-formatted maps convert to and from the {@link #NAMESPACE_DOOM}, {@link #NAMESPACE_HERETIC},
+ * {@link #NAMESPACE_STRIFE}, and {@link #NAMESPACE_ZDOOM_TRANSLATED} namespaces, and Hexen-formatted maps
+ * convert to and from the {@link #NAMESPACE_HEXEN} and {@link #NAMESPACE_ZDOOM} namespaces. Line and thing specials
+ * are not renumbered between the two families, so any other combination is rejected.
+ * <p>
+ * Flags are mapped to UDMF fields through the constants in {@link net.mtrop.doom.map.data.flags}:
+ * Boom and MBF flags are only mapped for the <code>doom</code> and <code>zdoomtranslated</code> namespaces,
+ * Strife flags only for <code>strife</code>, and ZDoom flags only for <code>zdoom</code>. Flags that have no
+ * equivalent in the target format are dropped. In the <code>zdoom</code> namespace, <code>Line_SetIdentification</code> (121)
+ * is translated to and from the linedef's <code>id</code> and its extended line flags.
+ * <p>
+ * Only fields that differ from their UDMF defaults are written. When converting from UDMF, coordinates and heights
+ * are rounded to the nearest integer, and values that do not fit in the binary format throw {@link IllegalArgumentException}.
+ * <p>
+ * The streaming methods ({@link #writeUDMF(Wad, int, String, Writer)}, {@link #convertToBinary(Reader, String)}, and the like)
+ * only ever keep one map object in memory at a time, so they are the better choice for batch conversion.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public final class UDMFUtils
+{
+	/** Doom namespace. */
+	public static final String NAMESPACE_DOOM = "doom";
+	/** Heretic namespace. */
+	public static final String NAMESPACE_HERETIC = "heretic";
+	/** Hexen namespace. */
+	public static final String NAMESPACE_HEXEN = "hexen";
+	/** Strife namespace. */
+	public static final String NAMESPACE_STRIFE = "strife";
+	/** ZDoom namespace. */
+	public static final String NAMESPACE_ZDOOM = "zdoom";
+	/** ZDoom namespace with Doom-format specials. */
+	public static final String NAMESPACE_ZDOOM_TRANSLATED = "zdoomtranslated";
+
+	/** UDMF default sector light level. */
+	private static final int DEFAULT_LIGHT_LEVEL = 160;
+	/** Blank texture name. */
+	private static final String BLANK_TEXTURE = "-";
+	/** Line_SetIdentification special. */
+	private static final int SPECIAL_LINE_SET_IDENTIFICATION = 121;
+	/** Line_SetIdentification extended line flags (second argument), in bit order. */
+	private static final String[] LINE_IDENTIFICATION_FLAGS = {
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_ZONE_BOUNDARY,
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_JUMPOVER,
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_FLOAT,
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_MIDTEX_CLIP,
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_MIDTEX_WRAP,
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_MIDTEX_3D,
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_CHECK_SWITCH_RANGE,
+		UDMFZDoomLinedefAttributes.ATTRIB_FLAG_FIRST_SIDE_ONLY,
+	};
+	/** Thing flag that, if set, means that the Boom and MBF flags are garbage written by old editors. */
+	private static final int THING_FLAG_BOOM_RESERVED = 8;
+
+	/** Supported namespaces. */
+	private enum Dialect
+	{
+		DOOM(false, true),
+		HERETIC(false, false),
+		STRIFE(false, false),
+		ZDOOM_TRANSLATED(false, true),
+		HEXEN(true, false),
+		ZDOOM(true, true);
+
+		/** If true, the binary format is Hexen's. */
+		private final boolean hexen;
+		/** If true, Boom/MBF flags (Doom format) or ZDoom flags (Hexen format) are mapped. */
+		private final boolean extended;
+
+		private Dialect(boolean hexen, boolean extended)
+		{
+			this.hexen = hexen;
+			this.extended = extended;
+		}
+	}
+
+	/**
+	 * A target for converted fields: a UDMFObject, or a UDMF writer.
+	 * @param <X> the exception type thrown on write.
+	 */
+	private interface FieldOutput<X extends Exception>
+	{
+		void setBoolean(String attributeName, boolean value) throws X;
+		void setInteger(String attributeName, int value) throws X;
+		void setFloat(String attributeName, float value) throws X;
+		void setString(String attributeName, String value) throws X;
+	}
+
+	/**
+	 * Converts a map object's fields to an output.
+	 * @param <T> the map object type.
+	 */
+	@FunctionalInterface
+	private interface ObjectConverter<T>
+	{
+		void convert(T object, FieldOutput<IOException> out) throws IOException;
+	}
+
+	/**
+	 * Converts the fields of the map object at an index to an output.
+	 */
+	@FunctionalInterface
+	private interface IndexConverter
+	{
+		void convert(int index, FieldOutput<IOException> out) throws IOException;
+	}
+
+	private UDMFUtils() {}
+
+	/**
+	 * Writes a Doom-formatted map as UDMF (TEXTMAP) data.
+	 * Each object is converted and written one at a time through a {@link UDMFBufferedWriter}, so no intermediate {@link UDMFMap} or {@link UDMFObject}s are created.
+	 * @param map the map to write.
+	 * @param namespace the UDMF namespace to write: <code>doom</code>, <code>heretic</code>, <code>strife</code>, or <code>zdoomtranslated</code>.
+	 * @param writer the Writer to write to.
+	 * @throws IOException if the Writer cannot be written to.
+	 * @throws IllegalArgumentException if the namespace is not one of the above.
+	 */
+	public static void writeUDMF(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ? extends DoomSector, ? extends DoomThing> map, String namespace, Writer writer) throws IOException
+	{
+		Dialect dialect = getDialect(namespace, false);
+		UDMFBufferedWriter udmf = new UDMFBufferedWriter(writer);
+		FieldOutput<IOException> out = createOutput(udmf);
+		writeNamespace(namespace, udmf);
+		writeObjects(map.getThingCount(), map::getThing, (thing, o) -> convertThing(thing, dialect, o), UDMFMap.THING, udmf, out);
+		writeObjects(map.getVertexCount(), map::getVertex, UDMFUtils::convertVertex, UDMFMap.VERTEX, udmf, out);
+		writeObjects(map.getLinedefCount(), map::getLinedef, (linedef, o) -> convertLinedef(linedef, dialect, o), UDMFMap.LINEDEF, udmf, out);
+		writeObjects(map.getSidedefCount(), map::getSidedef, UDMFUtils::convertSidedef, UDMFMap.SIDEDEF, udmf, out);
+		writeObjects(map.getSectorCount(), map::getSector, UDMFUtils::convertSector, UDMFMap.SECTOR, udmf, out);
+		udmf.flush();
+	}
+
+	/**
+	 * Writes a Hexen-formatted map as UDMF (TEXTMAP) data.
+	 * Each object is converted and written one at a time through a {@link UDMFBufferedWriter}, so no intermediate {@link UDMFMap} or {@link UDMFObject}s are created.
+	 * @param map the map to write.
+	 * @param namespace the UDMF namespace to write: <code>hexen</code> or <code>zdoom</code>.
+	 * @param writer the Writer to write to.
+	 * @throws IOException if the Writer cannot be written to.
+	 * @throws IllegalArgumentException if the namespace is not one of the above.
+	 */
+	public static void writeUDMF(HexenMap map, String namespace, Writer writer) throws IOException
+	{
+		Dialect dialect = getDialect(namespace, true);
+		UDMFBufferedWriter udmf = new UDMFBufferedWriter(writer);
+		FieldOutput<IOException> out = createOutput(udmf);
+		writeNamespace(namespace, udmf);
+		writeObjects(map.getThingCount(), map::getThing, (thing, o) -> convertThing(thing, dialect, o), UDMFMap.THING, udmf, out);
+		writeObjects(map.getVertexCount(), map::getVertex, UDMFUtils::convertVertex, UDMFMap.VERTEX, udmf, out);
+		writeObjects(map.getLinedefCount(), map::getLinedef, (linedef, o) -> convertLinedef(linedef, dialect, o), UDMFMap.LINEDEF, udmf, out);
+		writeObjects(map.getSidedefCount(), map::getSidedef, UDMFUtils::convertSidedef, UDMFMap.SIDEDEF, udmf, out);
+		writeObjects(map.getSectorCount(), map::getSector, UDMFUtils::convertSector, UDMFMap.SECTOR, udmf, out);
+		udmf.flush();
+	}
+
+	/**
+	 * Writes a Doom-formatted map read through record cursors as UDMF (TEXTMAP) data.
+	 * Fields are read straight from the cursors' records, so no map objects are created.
+	 * @param map the map to write.
+	 * @param namespace the UDMF namespace to write: <code>doom</code>, <code>heretic</code>, <code>strife</code>, or <code>zdoomtranslated</code>.
+	 * @param writer the Writer to write to.
+	 * @throws IOException if the Writer cannot be written to.
+	 * @throws IllegalArgumentException if the namespace is not one of the above.
+	 * @see MapUtils#createDoomMapView(Wad, int)
+	 */
+	public static void writeUDMF(DoomMapCursorView map, String namespace, Writer writer) throws IOException
+	{
+		Dialect dialect = getDialect(namespace, false);
+		UDMFBufferedWriter udmf = new UDMFBufferedWriter(writer);
+		FieldOutput<IOException> out = createOutput(udmf);
+		writeNamespace(namespace, udmf);
+		writeObjects(map.getThingCount(), map::getThing, (thing, o) -> convertThing(thing.getX(), thing.getY(), thing.getAngle(), thing.getType(), thing.getFlags(), dialect, o), UDMFMap.THING, udmf, out);
+		writeObjects(map.getVertexCount(), map::getVertex, (vertex, o) -> convertVertex(vertex.getX(), vertex.getY(), o), UDMFMap.VERTEX, udmf, out);
+		writeObjects(map.getLinedefCount(), map::getLinedef, (linedef, o) -> convertLinedef(
+			linedef.getVertexStartIndex(), linedef.getVertexEndIndex(), linedef.getSidedefFrontIndex(), linedef.getSidedefBackIndex(), 
+			linedef.getFlags(), linedef.getSpecial(), linedef.getTag(), dialect, o
+		), UDMFMap.LINEDEF, udmf, out);
+		writeObjects(map.getSidedefCount(), map::getSidedef, (sidedef, o) -> convertSidedef(
+			sidedef.getOffsetX(), sidedef.getOffsetY(), sidedef.getTextureTop(), sidedef.getTextureBottom(), sidedef.getTextureMiddle(), sidedef.getSectorIndex(), o
+		), UDMFMap.SIDEDEF, udmf, out);
+		writeObjects(map.getSectorCount(), map::getSector, (sector, o) -> convertSector(
+			sector.getHeightFloor(), sector.getHeightCeiling(), sector.getTextureFloor(), sector.getTextureCeiling(), 
+			sector.getLightLevel(), sector.getSpecial(), sector.getTag(), o
+		), UDMFMap.SECTOR, udmf, out);
+		udmf.flush();
+	}
+
+	/**
+	 * Writes a {@link CompactDoomMap} as UDMF (TEXTMAP) data.
+	 * Fields are read straight from the map's arrays by index, so no map objects are created.
+	 * @param map the map to write.
+	 * @param namespace the UDMF namespace to write: <code>doom</code>, <code>heretic</code>, <code>strife</code>, or <code>zdoomtranslated</code>.
+	 * @param writer the Writer to write to.
+	 * @throws IOException if the Writer cannot be written to.
+	 * @throws IllegalArgumentException if the namespace is not one of the above.
+	 */
+	public static void writeUDMF(CompactDoomMap map, String namespace, Writer writer) throws IOException
+	{
+		Dialect dialect = getDialect(namespace, false);
+		UDMFBufferedWriter udmf = new UDMFBufferedWriter(writer);
+		FieldOutput<IOException> out = createOutput(udmf);
+		writeNamespace(namespace, udmf);
+		writeObjects(map.getThingCount(), (i, o) -> convertThing(map.getThingX(i), map.getThingY(i), map.getThingAngle(i), map.getThingType(i), map.getThingFlags(i), dialect, o), UDMFMap.THING, udmf, out);
+		writeObjects(map.getVertexCount(), (i, o) -> convertVertex(map.getVertexX(i), map.getVertexY(i), o), UDMFMap.VERTEX, udmf, out);
+		writeObjects(map.getLinedefCount(), (i, o) -> convertLinedef(
+			map.getLinedefVertexStartIndex(i), map.getLinedefVertexEndIndex(i), map.getLinedefSidedefFrontIndex(i), map.getLinedefSidedefBackIndex(i), 
+			map.getLinedefFlags(i), map.getLinedefSpecial(i), map.getLinedefTag(i), dialect, o
+		), UDMFMap.LINEDEF, udmf, out);
+		writeObjects(map.getSidedefCount(), (i, o) -> convertSidedef(
+			map.getSidedefOffsetX(i), map.getSidedefOffsetY(i), map.getSidedefTextureTop(i), map.getSidedefTextureBottom(i), map.getSidedefTextureMiddle(i), map.getSidedefSectorIndex(i), o
+		), UDMFMap.SIDEDEF, udmf, out);
+		writeObjects(map.getSectorCount(), (i, o) -> convertSector(
+			map.getSectorHeightFloor(i), map.getSectorHeightCeiling(i), map.getSectorTextureFloor(i), map.getSectorTextureCeiling(i), 
+			map.getSectorLightLevel(i), map.getSectorSpecial(i), map.getSectorTag(i), o
+		), UDMFMap.SECTOR, udmf, out);
+		udmf.flush();
+	}
+
+	/**
+	 * Writes a Doom- or Hexen-formatted map in a {@link Wad} as UDMF (TEXTMAP) data.
+	 * The map lumps are read with inline scanners, so only one map object is in memory at a time.
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @param namespace the UDMF namespace to write (see {@link #writeUDMF(MapView, String, Writer)} and {@link #writeUDMF(HexenMap, String, Writer)}).
+	 * @param writer the Writer to write to.
+	 * @throws MapException if the map is not a Doom- or Hexen-formatted map.
+	 * @throws IOException if the WAD can't be read from, or the Writer cannot be written to.
+	 * @throws IllegalArgumentException if the namespace does not fit the map's format.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 */
+	public static void writeUDMF(Wad wad, int index, String namespace, Writer writer) throws MapException, IOException
+	{
+		MapFormat format = MapUtils.getMapFormat(wad, index);
+		if (format == null || format == MapFormat.UDMF)
+			throw new MapException("Map is not a Doom- or Hexen-formatted map.");
+
+		boolean hexen = format == MapFormat.HEXEN;
+		Dialect dialect = getDialect(namespace, hexen);
+		int count = MapUtils.getMapEntryCount(wad, index);
+		UDMFBufferedWriter udmf = new UDMFBufferedWriter(writer);
+		FieldOutput<IOException> out = createOutput(udmf);
+
+		writeNamespace(namespace, udmf);
+		if (hexen)
+			writeLump(wad, MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_THINGS), HexenThing.class, HexenThing.LENGTH, (thing, o) -> convertThing(thing, dialect, o), UDMFMap.THING, udmf, out);
+		else
+			writeLump(wad, MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_THINGS), DoomThing.class, DoomThing.LENGTH, (thing, o) -> convertThing(thing, dialect, o), UDMFMap.THING, udmf, out);
+		writeLump(wad, MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_VERTICES), DoomVertex.class, DoomVertex.LENGTH, UDMFUtils::convertVertex, UDMFMap.VERTEX, udmf, out);
+		if (hexen)
+			writeLump(wad, MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_LINEDEFS), HexenLinedef.class, HexenLinedef.LENGTH, (linedef, o) -> convertLinedef(linedef, dialect, o), UDMFMap.LINEDEF, udmf, out);
+		else
+			writeLump(wad, MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_LINEDEFS), DoomLinedef.class, DoomLinedef.LENGTH, (linedef, o) -> convertLinedef(linedef, dialect, o), UDMFMap.LINEDEF, udmf, out);
+		writeLump(wad, MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_SIDEDEFS), DoomSidedef.class, DoomSidedef.LENGTH, UDMFUtils::convertSidedef, UDMFMap.SIDEDEF, udmf, out);
+		writeLump(wad, MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_SECTORS), DoomSector.class, DoomSector.LENGTH, UDMFUtils::convertSector, UDMFMap.SECTOR, udmf, out);
+		udmf.flush();
+	}
+
+	/**
+	 * Converts a Doom- or Hexen-formatted map in a {@link Wad} to a UDMF map.
+	 * The returned WAD contains the map header, TEXTMAP, any BEHAVIOR, SCRIPTS, or DIALOGUE lumps from the source map, and ENDMAP.
+	 * Nodes, blockmaps, and reject tables are not carried over, since they need to be rebuilt for UDMF anyway.
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @param namespace the UDMF namespace to write (see {@link #writeUDMF(Wad, int, String, Writer)}).
+	 * @return a new WadBuffer containing the converted map.
+	 * @throws MapException if the map is not a Doom- or Hexen-formatted map.
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws IllegalArgumentException if the namespace does not fit the map's format.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 */
+	public static WadBuffer convertToUDMF(Wad wad, int index, String namespace) throws MapException, IOException
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(65536);
+		try (Writer writer = new OutputStreamWriter(bos, StandardCharsets.UTF_8))
+		{
+			writeUDMF(wad, index, namespace, writer);
+		}
+
+		WadBuffer out = new WadBuffer();
+		out.addMarker(wad.getEntry(index).getName());
+		out.addData(MapUtils.LUMP_TEXTMAP, bos.toByteArray());
+		copyScriptEntries(wad, index, out);
+		out.addMarker(MapUtils.LUMP_ENDMAP);
+		return out;
+	}
+
+	/**
+	 * Converts a Doom- or Hexen-formatted map in a {@link Wad} to a UDMF map.
+	 * If there is more than one header in the WAD that matches the provided header, the last one is found.
+	 * @param wad the WAD to read from.
+	 * @param headerName the map header name to search for.
+	 * @param namespace the UDMF namespace to write (see {@link #writeUDMF(Wad, int, String, Writer)}).
+	 * @return a new WadBuffer containing the converted map.
+	 * @throws MapException if the map can't be found, or is not a Doom- or Hexen-formatted map.
+	 * @throws IOException if the WAD can't be read from.
+	 * @throws IllegalArgumentException if the namespace does not fit the map's format.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @see #convertToUDMF(Wad, int, String)
+	 */
+	public static WadBuffer convertToUDMF(Wad wad, String headerName, String namespace) throws MapException, IOException
+	{
+		int index = wad.lastIndexOf(headerName);
+		if (index < 0)
+			throw new MapException("Cannot find map by header name "+headerName);
+
+		return convertToUDMF(wad, index, namespace);
+	}
+
+	/**
+	 * Converts UDMF (TEXTMAP) data to a Doom- or Hexen-formatted map, depending on its namespace.
+	 * Objects are read with a {@link UDMFScanner} and serialized as they are read, so only one map object is in memory at a time.
+	 * The returned WAD contains the map header, THINGS, LINEDEFS, SIDEDEFS, VERTEXES, and SECTORS, plus an empty BEHAVIOR lump
+	 * if the map is Hexen-formatted, so that it is still recognized as such. Nodes, blockmaps, and reject tables are not built.
+	 * @param reader the reader to read TEXTMAP data from.
+	 * @param headerName the name of the map header entry to add.
+	 * @return a new WadBuffer containing the converted map.
+	 * @throws IOException if the data can't be read, or it does not declare a namespace first.
+	 * @throws IllegalArgumentException if the namespace can't be converted, or an object's values do not fit the binary format.
+	 * @throws net.mtrop.doom.map.udmf.UDMFParseException if the UDMF data is malformed.
+	 */
+	public static WadBuffer convertToBinary(Reader reader, String headerName) throws IOException
+	{
+		return convertToBinary(reader, headerName, null, -1);
+	}
+
+	/**
+	 * Converts a UDMF map in a {@link Wad} to a Doom- or Hexen-formatted map, depending on its namespace.
+	 * Any BEHAVIOR, SCRIPTS, or DIALOGUE lumps in the source map are copied after the map data.
+	 * See {@link #convertToBinary(Reader, String)} for more details.
+	 * @param wad the WAD to read from.
+	 * @param index the index of the map header entry.
+	 * @return a new WadBuffer containing the converted map.
+	 * @throws MapException if the map is not a UDMF map.
+	 * @throws IOException if the WAD can't be read from, or the TEXTMAP does not declare a namespace first.
+	 * @throws IllegalArgumentException if the namespace can't be converted, or an object's values do not fit the binary format.
+	 * @throws net.mtrop.doom.map.udmf.UDMFParseException if the TEXTMAP is malformed.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 */
+	public static WadBuffer convertToBinary(Wad wad, int index) throws MapException, IOException
+	{
+		int count = MapUtils.getMapEntryCount(wad, index);
+		WadEntry textmap = MapUtils.getMapEntry(wad, index, count, MapUtils.LUMP_TEXTMAP);
+		if (textmap == null)
+			throw new MapException("Map is not a UDMF-formatted map. Missing TEXTMAP.");
+
+		try (Reader reader = new InputStreamReader(wad.getInputStream(textmap), StandardCharsets.UTF_8))
+		{
+			return convertToBinary(reader, wad.getEntry(index).getName(), wad, index);
+		}
+	}
+
+	/**
+	 * Converts UDMF data to a binary map, copying script lumps from a source map, if any.
+	 */
+	private static WadBuffer convertToBinary(Reader reader, String headerName, Wad source, int index) throws IOException
+	{
+		UDMFScanner scanner = UDMFScanner.createScanner(reader);
+
+		Dialect dialect = null;
+		ByteArrayOutputStream things = new ByteArrayOutputStream(8192);
+		ByteArrayOutputStream linedefs = new ByteArrayOutputStream(8192);
+		ByteArrayOutputStream sidedefs = new ByteArrayOutputStream(8192);
+		ByteArrayOutputStream vertices = new ByteArrayOutputStream(8192);
+		ByteArrayOutputStream sectors = new ByteArrayOutputStream(8192);
+		DoomThing doomThing = new DoomThing();
+		HexenThing hexenThing = new HexenThing();
+		DoomLinedef doomLinedef = new DoomLinedef();
+		HexenLinedef hexenLinedef = new HexenLinedef();
+		DoomSidedef sidedef = new DoomSidedef();
+		DoomVertex vertex = new DoomVertex();
+		DoomSector sector = new DoomSector();
+
+		while (scanner.hasNext())
+		{
+			UDMFScanner.Element element = scanner.next();
+			if (element.isType(UDMFScanner.ElementType.GLOBAL_ATTRIBUTE))
+			{
+				if (element.hasName(UDMFGlobalAttributes.ATTRIB_NAMESPACE))
+					dialect = getDialect(String.valueOf(element.getValue()));
+				continue;
+			}
+
+			if (dialect == null)
+				throw new ParseException("UDMF data does not declare a namespace before its first object.");
+
+			UDMFObject object = element.getUDMFObject();
+			switch (element.getName())
+			{
+				case UDMFMap.THING:
+					if (dialect.hexen)
+					{
+						convertThing(object, dialect, hexenThing);
+						hexenThing.writeBytes(things);
+					}
+					else
+					{
+						convertThing(object, dialect, doomThing);
+						doomThing.writeBytes(things);
+					}
+					break;
+				case UDMFMap.LINEDEF:
+					if (dialect.hexen)
+					{
+						convertLinedef(object, dialect, hexenLinedef);
+						hexenLinedef.writeBytes(linedefs);
+					}
+					else
+					{
+						convertLinedef(object, dialect, doomLinedef);
+						doomLinedef.writeBytes(linedefs);
+					}
+					break;
+				case UDMFMap.SIDEDEF:
+					convertSidedef(object, sidedef);
+					sidedef.writeBytes(sidedefs);
+					break;
+				case UDMFMap.VERTEX:
+					convertVertex(object, vertex);
+					vertex.writeBytes(vertices);
+					break;
+				case UDMFMap.SECTOR:
+					convertSector(object, sector);
+					sector.writeBytes(sectors);
+					break;
+			}
+		}
+
+		if (dialect == null)
+			throw new ParseException("UDMF data does not declare a namespace.");
+
+		WadBuffer out = new WadBuffer();
+		out.addMarker(headerName);
+		out.addData(MapUtils.LUMP_THINGS, things.toByteArray());
+		out.addData(MapUtils.LUMP_LINEDEFS, linedefs.toByteArray());
+		out.addData(MapUtils.LUMP_SIDEDEFS, sidedefs.toByteArray());
+		out.addData(MapUtils.LUMP_VERTICES, vertices.toByteArray());
+		out.addData(MapUtils.LUMP_SECTORS, sectors.toByteArray());
+		if (source != null)
+			copyScriptEntries(source, index, out);
+		if (dialect.hexen && out.indexOf(MapUtils.LUMP_BEHAVIOR) < 0)
+			out.addData(MapUtils.LUMP_BEHAVIOR, new byte[0]);
+		return out;
+	}
+
+	/**
+	 * Converts a UDMF map in a {@link Wad} to a Doom- or Hexen-formatted map, depending on its namespace.
+	 * If there is more than one header in the WAD that matches the provided header, the last one is found.
+	 * @param wad the WAD to read from.
+	 * @param headerName the map header name to search for.
+	 * @return a new WadBuffer containing the converted map.
+	 * @throws MapException if the map can't be found, or is not a UDMF map.
+	 * @throws IOException if the WAD can't be read from, or the TEXTMAP does not declare a namespace first.
+	 * @throws IllegalArgumentException if the namespace can't be converted, or an object's values do not fit the binary format.
+	 * @throws net.mtrop.doom.map.udmf.UDMFParseException if the TEXTMAP is malformed.
+	 * @throws UnsupportedOperationException if attempting to read from a {@link Wad} type that does not contain data.
+	 * @see #convertToBinary(Wad, int)
+	 */
+	public static WadBuffer convertToBinary(Wad wad, String headerName) throws MapException, IOException
+	{
+		int index = wad.lastIndexOf(headerName);
+		if (index < 0)
+			throw new MapException("Cannot find map by header name "+headerName);
+
+		return convertToBinary(wad, index);
+	}
+
+	/**
+	 * Converts a Doom-formatted map to a {@link UDMFMap}.
+	 * @param map the map to convert.
+	 * @param namespace the UDMF namespace to convert to: <code>doom</code>, <code>heretic</code>, <code>strife</code>, or <code>zdoomtranslated</code>.
+	 * @return a new UDMFMap.
+	 * @throws IllegalArgumentException if the namespace is not one of the above.
+	 */
+	public static UDMFMap toUDMFMap(MapView<? extends DoomVertex, ? extends DoomLinedef, ? extends DoomSidedef, ? extends DoomSector, ? extends DoomThing> map, String namespace)
+	{
+		Dialect dialect = getDialect(namespace, false);
+		UDMFMap out = createUDMFMap(map, namespace);
+		for (int i = 0; i < map.getThingCount(); i++)
+			convertThing(map.getThing(i), dialect, createOutput(out.getThing(i)));
+		for (int i = 0; i < map.getLinedefCount(); i++)
+			convertLinedef(map.getLinedef(i), dialect, createOutput(out.getLinedef(i)));
+		return out;
+	}
+
+	/**
+	 * Converts a Hexen-formatted map to a {@link UDMFMap}.
+	 * @param map the map to convert.
+	 * @param namespace the UDMF namespace to convert to: <code>hexen</code> or <code>zdoom</code>.
+	 * @return a new UDMFMap.
+	 * @throws IllegalArgumentException if the namespace is not one of the above.
+	 */
+	public static UDMFMap toUDMFMap(HexenMap map, String namespace)
+	{
+		Dialect dialect = getDialect(namespace, true);
+		UDMFMap out = createUDMFMap(map, namespace);
+		for (int i = 0; i < map.getThingCount(); i++)
+			convertThing(map.getThing(i), dialect, createOutput(out.getThing(i)));
+		for (int i = 0; i < map.getLinedefCount(); i++)
+			convertLinedef(map.getLinedef(i), dialect, createOutput(out.getLinedef(i)));
+		return out;
+	}
+
+	/**
+	 * Converts a {@link UDMFMap} to a Doom-formatted map.
+	 * @param map the map to convert. Its namespace must be <code>doom</code>, <code>heretic</code>, <code>strife</code>, or <code>zdoomtranslated</code>.
+	 * @return a new DoomMap.
+	 * @throws IllegalArgumentException if the namespace is not one of the above, or an object's values do not fit the Doom format.
+	 */
+	public static DoomMap toDoomMap(UDMFMap map)
+	{
+		Dialect dialect = getDialect(map.getNamespace(), false);
+		DoomMap out = new DoomMap();
+		for (UDMFObject object : map.getThings())
+		{
+			DoomThing thing = new DoomThing();
+			convertThing(object, dialect, thing);
+			out.addThing(thing);
+		}
+		for (UDMFObject object : map.getLinedefs())
+		{
+			DoomLinedef linedef = new DoomLinedef();
+			convertLinedef(object, dialect, linedef);
+			out.addLinedef(linedef);
+		}
+		addBinaryObjects(map, out);
+		return out;
+	}
+
+	/**
+	 * Converts a {@link UDMFMap} to a Hexen-formatted map.
+	 * @param map the map to convert. Its namespace must be <code>hexen</code> or <code>zdoom</code>.
+	 * @return a new HexenMap.
+	 * @throws IllegalArgumentException if the namespace is not one of the above, or an object's values do not fit the Hexen format.
+	 */
+	public static HexenMap toHexenMap(UDMFMap map)
+	{
+		Dialect dialect = getDialect(map.getNamespace(), true);
+		HexenMap out = new HexenMap();
+		for (UDMFObject object : map.getThings())
+		{
+			HexenThing thing = new HexenThing();
+			convertThing(object, dialect, thing);
+			out.addThing(thing);
+		}
+		for (UDMFObject object : map.getLinedefs())
+		{
+			HexenLinedef linedef = new HexenLinedef();
+			convertLinedef(object, dialect, linedef);
+			out.addLinedef(linedef);
+		}
+		addBinaryObjects(map, out);
+		return out;
+	}
+
+	/**
+	 * Gets the dialect for a namespace, or throws an exception if it's not supported.
+	 */
+	private static Dialect getDialect(String namespace)
+	{
+		switch (namespace == null ? "" : namespace.toLowerCase())
+		{
+			case NAMESPACE_DOOM:
+				return Dialect.DOOM;
+			case NAMESPACE_HERETIC:
+				return Dialect.HERETIC;
+			case NAMESPACE_STRIFE:
+				return Dialect.STRIFE;
+			case NAMESPACE_ZDOOM_TRANSLATED:
+				return Dialect.ZDOOM_TRANSLATED;
+			case NAMESPACE_HEXEN:
+				return Dialect.HEXEN;
+			case NAMESPACE_ZDOOM:
+				return Dialect.ZDOOM;
+			default:
+				throw new IllegalArgumentException("Unsupported UDMF namespace for conversion: " + namespace);
+		}
+	}
+
+	/**
+	 * Gets the dialect for a namespace, or throws an exception if it's not supported or does not fit the binary format.
+	 */
+	private static Dialect getDialect(String namespace, boolean hexen)
+	{
+		Dialect out = getDialect(namespace);
+		if (out.hexen != hexen)
+			throw new IllegalArgumentException("UDMF namespace \"" + namespace + "\" does not fit the " + (hexen ? "Hexen" : "Doom") + " map format.");
+		return out;
+	}
+
+	/**
+	 * Creates a field output that writes to a UDMF writer.
+	 */
+	private static FieldOutput<IOException> createOutput(final UDMFBufferedWriter writer)
+	{
+		return new FieldOutput<IOException>()
+		{
+			@Override
+			public void setBoolean(String attributeName, boolean value) throws IOException
+			{
+				writer.writeField(writer.getKey(attributeName), value);
+			}
+
+			@Override
+			public void setInteger(String attributeName, int value) throws IOException
+			{
+				writer.writeField(writer.getKey(attributeName), value);
+			}
+
+			@Override
+			public void setFloat(String attributeName, float value) throws IOException
+			{
+				writer.writeField(writer.getKey(attributeName), value);
+			}
+
+			@Override
+			public void setString(String attributeName, String value) throws IOException
+			{
+				writer.writeField(writer.getKey(attributeName), value);
+			}
+		};
+	}
+
+	/**
+	 * Creates a field output that sets fields on a UDMF object.
+	 */
+	private static FieldOutput<RuntimeException> createOutput(final UDMFObject object)
+	{
+		return new FieldOutput<RuntimeException>()
+		{
+			@Override
+			public void setBoolean(String attributeName, boolean value)
+			{
+				object.setBoolean(attributeName, value);
+			}
+
+			@Override
+			public void setInteger(String attributeName, int value)
+			{
+				object.setInteger(attributeName, value);
+			}
+
+			@Override
+			public void setFloat(String attributeName, float value)
+			{
+				object.setFloat(attributeName, value);
+			}
+
+			@Override
+			public void setString(String attributeName, String value)
+			{
+				object.setString(attributeName, value);
+			}
+		};
+	}
+
+	/**
+	 * Writes the header comment and namespace, as {@link UDMFMap#writeText(Writer)} does.
+	 */
+	private static void writeNamespace(String namespace, UDMFBufferedWriter writer) throws IOException
+	{
+		writer.writeComment("Generated by Doom Struct");
+		writer.writeBlankLine();
+		writer.writeField(UDMFGlobalAttributes.ATTRIB_NAMESPACE, namespace);
+	}
+
+	/**
+	 * Converts and writes a set of map objects.
+	 */
+	private static <T> void writeObjects(int count, IntFunction<T> objects, ObjectConverter<? super T> converter, String type, UDMFBufferedWriter writer, FieldOutput<IOException> out) throws IOException
+	{
+		writeObjects(count, (i, o) -> converter.convert(objects.apply(i), o), type, writer, out);
+	}
+
+	/**
+	 * Converts and writes a set of map objects by index.
+	 */
+	private static void writeObjects(int count, IndexConverter converter, String type, UDMFBufferedWriter writer, FieldOutput<IOException> out) throws IOException
+	{
+		for (int i = 0; i < count; i++)
+		{
+			writer.writeObjectStart(type, i);
+			converter.convert(i, out);
+			writer.writeObjectEnd();
+		}
+	}
+
+	/**
+	 * Converts and writes the map objects in a lump.
+	 */
+	private static <BO extends BinaryObject> void writeLump(Wad wad, WadEntry entry, Class<BO> type, int length, ObjectConverter<? super BO> converter, String udmfType, UDMFBufferedWriter writer, FieldOutput<IOException> out) throws IOException
+	{
+		if (entry == null)
+			return;
+		try (BinaryObject.InlineScanner<BO> scanner = wad.getInlineScanner(entry, type, length))
+		{
+			int i = 0;
+			while (scanner.hasNext())
+			{
+				writer.writeObjectStart(udmfType, i++);
+				converter.convert(scanner.next(), out);
+				writer.writeObjectEnd();
+			}
+		}
+	}
+
+	/**
+	 * Copies the script-related lumps of a map (BEHAVIOR, SCRIPTS, DIALOGUE) to a target.
+	 */
+	private static void copyScriptEntries(Wad wad, int index, WadBuffer target) throws IOException
+	{
+		int count = MapUtils.getMapEntryCount(wad, index);
+		for (int i = 1; i < count; i++)
+		{
+			String name = wad.getEntry(index + i).getName();
+			if (name.equals(MapUtils.LUMP_BEHAVIOR) || name.equals(MapUtils.LUMP_SCRIPTS) || name.equals(MapUtils.LUMP_DIALOGUE))
+				target.addData(name, wad.getData(index + i));
+		}
+	}
+
+	/**
+	 * Creates a UDMF map with converted vertices, sidedefs, sectors, and empty things and linedefs.
+	 */
+	private static UDMFMap createUDMFMap(MapView<? extends DoomVertex, ?, ? extends DoomSidedef, ? extends DoomSector, ?> map, String namespace)
+	{
+		UDMFMap out = new UDMFMap();
+		out.setNamespace(namespace);
+		for (int i = 0; i < map.getThingCount(); i++)
+			out.addThing(new UDMFObject());
+		for (int i = 0; i < map.getVertexCount(); i++)
+		{
+			UDMFObject object = new UDMFObject();
+			convertVertex(map.getVertex(i), createOutput(object));
+			out.addVertex(object);
+		}
+		for (int i = 0; i < map.getLinedefCount(); i++)
+			out.addLinedef(new UDMFObject());
+		for (int i = 0; i < map.getSidedefCount(); i++)
+		{
+			UDMFObject object = new UDMFObject();
+			convertSidedef(map.getSidedef(i), createOutput(object));
+			out.addSidedef(object);
+		}
+		for (int i = 0; i < map.getSectorCount(); i++)
+		{
+			UDMFObject object = new UDMFObject();
+			convertSector(map.getSector(i), createOutput(object));
+			out.addSector(object);
+		}
+		return out;
+	}
+
+	/**
+	 * Adds converted vertices, sidedefs, and sectors to a binary map.
+	 */
+	private static void addBinaryObjects(UDMFMap map, DoomMap out)
+	{
+		for (UDMFObject object : map.getVertices())
+		{
+			DoomVertex vertex = new DoomVertex();
+			convertVertex(object, vertex);
+			out.addVertex(vertex);
+		}
+		for (UDMFObject object : map.getSidedefs())
+		{
+			DoomSidedef sidedef = new DoomSidedef();
+			convertSidedef(object, sidedef);
+			out.addSidedef(sidedef);
+		}
+		for (UDMFObject object : map.getSectors())
+		{
+			DoomSector sector = new DoomSector();
+			convertSector(object, sector);
+			out.addSector(sector);
+		}
+	}
+
+	/**
+	 * Adds converted vertices, sidedefs, and sectors to a binary map.
+	 */
+	private static void addBinaryObjects(UDMFMap map, HexenMap out)
+	{
+		for (UDMFObject object : map.getVertices())
+		{
+			DoomVertex vertex = new DoomVertex();
+			convertVertex(object, vertex);
+			out.addVertex(vertex);
+		}
+		for (UDMFObject object : map.getSidedefs())
+		{
+			DoomSidedef sidedef = new DoomSidedef();
+			convertSidedef(object, sidedef);
+			out.addSidedef(sidedef);
+		}
+		for (UDMFObject object : map.getSectors())
+		{
+			DoomSector sector = new DoomSector();
+			convertSector(object, sector);
+			out.addSector(sector);
+		}
+	}
+
+	/* ==================================================================== */
+	/* Binary to UDMF                                                       */
+	/* ==================================================================== */
+
+	private static <X extends Exception> void setFlag(FieldOutput<X> out, String attributeName, boolean value) throws X
+	{
+		if (value)
+			out.setBoolean(attributeName, true);
+	}
+
+	private static <X extends Exception> void setNonZero(FieldOutput<X> out, String attributeName, int value) throws X
+	{
+		if (value != 0)
+			out.setInteger(attributeName, value);
+	}
+
+	private static <X extends Exception> void convertVertex(DoomVertex vertex, FieldOutput<X> out) throws X
+	{
+		convertVertex(vertex.getX(), vertex.getY(), out);
+	}
+
+	private static <X extends Exception> void convertVertex(int x, int y, FieldOutput<X> out) throws X
+	{
+		out.setFloat(UDMFDoomVertexAttributes.ATTRIB_POSITION_X, (float)x);
+		out.setFloat(UDMFDoomVertexAttributes.ATTRIB_POSITION_Y, (float)y);
+	}
+
+	private static <X extends Exception> void convertSidedef(DoomSidedef sidedef, FieldOutput<X> out) throws X
+	{
+		convertSidedef(sidedef.getOffsetX(), sidedef.getOffsetY(), sidedef.getTextureTop(), sidedef.getTextureBottom(), sidedef.getTextureMiddle(), sidedef.getSectorIndex(), out);
+	}
+
+	private static <X extends Exception> void convertSidedef(int offsetX, int offsetY, String textureTop, String textureBottom, String textureMiddle, int sectorIndex, FieldOutput<X> out) throws X
+	{
+		setNonZero(out, UDMFDoomSidedefAttributes.ATTRIB_OFFSET_X, offsetX);
+		setNonZero(out, UDMFDoomSidedefAttributes.ATTRIB_OFFSET_Y, offsetY);
+		if (!BLANK_TEXTURE.equals(textureTop))
+			out.setString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_TOP, textureTop);
+		if (!BLANK_TEXTURE.equals(textureBottom))
+			out.setString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_BOTTOM, textureBottom);
+		if (!BLANK_TEXTURE.equals(textureMiddle))
+			out.setString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_MIDDLE, textureMiddle);
+		out.setInteger(UDMFDoomSidedefAttributes.ATTRIB_SECTOR_INDEX, sectorIndex);
+	}
+
+	private static <X extends Exception> void convertSector(DoomSector sector, FieldOutput<X> out) throws X
+	{
+		convertSector(sector.getHeightFloor(), sector.getHeightCeiling(), sector.getTextureFloor(), sector.getTextureCeiling(), sector.getLightLevel(), sector.getSpecial(), sector.getTag(), out);
+	}
+
+	private static <X extends Exception> void convertSector(int heightFloor, int heightCeiling, String textureFloor, String textureCeiling, int lightLevel, int special, int tag, FieldOutput<X> out) throws X
+	{
+		setNonZero(out, UDMFDoomSectorAttributes.ATTRIB_HEIGHT_FLOOR, heightFloor);
+		setNonZero(out, UDMFDoomSectorAttributes.ATTRIB_HEIGHT_CEILING, heightCeiling);
+		out.setString(UDMFDoomSectorAttributes.ATTRIB_TEXTURE_FLOOR, textureFloor);
+		out.setString(UDMFDoomSectorAttributes.ATTRIB_TEXTURE_CEILING, textureCeiling);
+		if (lightLevel != DEFAULT_LIGHT_LEVEL)
+			out.setInteger(UDMFDoomSectorAttributes.ATTRIB_LIGHT_LEVEL, lightLevel);
+		setNonZero(out, UDMFDoomSectorAttributes.ATTRIB_SPECIAL, special);
+		setNonZero(out, UDMFDoomSectorAttributes.ATTRIB_ID, tag);
+	}
+
+	private static <X extends Exception> void convertLinedef(DoomLinedef linedef, Dialect dialect, FieldOutput<X> out) throws X
+	{
+		convertLinedef(
+			linedef.getVertexStartIndex(), linedef.getVertexEndIndex(), linedef.getSidedefFrontIndex(), linedef.getSidedefBackIndex(), 
+			linedef.getFlags(), linedef.getSpecial(), linedef.getTag(), dialect, out
+		);
+	}
+
+	private static <X extends Exception> void convertLinedef(int vertexStart, int vertexEnd, int sidedefFront, int sidedefBack, int flags, int special, int tag, Dialect dialect, FieldOutput<X> out) throws X
+	{
+		convertLinedefReferences(vertexStart, vertexEnd, sidedefFront, sidedefBack, out);
+		convertLinedefFlags(flags, out);
+		setNonZero(out, UDMFDoomLinedefAttributes.ATTRIB_SPECIAL, special);
+		setNonZero(out, UDMFDoomLinedefAttributes.ATTRIB_ID, tag);
+		if (dialect == Dialect.STRIFE)
+		{
+			setFlag(out, UDMFStrifeLinedefAttributes.ATTRIB_FLAG_JUMPOVER, (flags & (1 << StrifeLinedefFlags.RAILING)) != 0);
+			setFlag(out, UDMFStrifeLinedefAttributes.ATTRIB_FLAG_BLOCK_FLOAT, (flags & (1 << StrifeLinedefFlags.BLOCK_FLOATERS)) != 0);
+			setFlag(out, UDMFStrifeLinedefAttributes.ATTRIB_FLAG_TRANSLUCENT, (flags & (1 << StrifeLinedefFlags.TRANSLUCENT)) != 0);
+		}
+		else if (dialect.extended)
+		{
+			setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_PASSTHRU, (flags & (1 << BoomLinedefFlags.PASSTHRU)) != 0);
+		}
+	}
+
+	private static <X extends Exception> void convertLinedef(HexenLinedef linedef, Dialect dialect, FieldOutput<X> out) throws X
+	{
+		convertLinedefReferences(linedef.getVertexStartIndex(), linedef.getVertexEndIndex(), linedef.getSidedefFrontIndex(), linedef.getSidedefBackIndex(), out);
+		convertLinedefFlags(linedef.getFlags(), out);
+		setFlag(out, UDMFHexenLinedefAttributes.ATTRIB_FLAG_REPEATABLE, linedef.isFlagSet(HexenLinedefFlags.REPEATABLE));
+
+		int special = linedef.getSpecial();
+		int activation = linedef.getActivationType();
+		boolean monsters = dialect.extended && linedef.isFlagSet(ZDoomLinedefFlags.ACTIVATED_BY_MONSTERS);
+		if (special != 0 || activation != HexenLinedef.ACTIVATION_PLAYER_CROSSES)
+		{
+			if (activation == HexenLinedef.ACTIVATION_PLAYER_USES_PASSTHRU)
+				out.setBoolean(UDMFHexenLinedefAttributes.ATTRIB_FLAG_PASSTHRU, true);
+			switch (activation)
+			{
+				case HexenLinedef.ACTIVATION_PLAYER_CROSSES:
+					out.setBoolean(UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PLAYER_CROSS, true);
+					setFlag(out, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_CROSS, monsters);
+					break;
+				case HexenLinedef.ACTIVATION_PLAYER_USES:
+				case HexenLinedef.ACTIVATION_PLAYER_USES_PASSTHRU:
+					out.setBoolean(UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PLAYER_USE, true);
+					setFlag(out, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_USE, monsters);
+					break;
+				case HexenLinedef.ACTIVATION_MONSTER_CROSSES:
+					out.setBoolean(UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_CROSS, true);
+					break;
+				case HexenLinedef.ACTIVATION_PROJECTILE_HITS:
+					out.setBoolean(UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_IMPACT, true);
+					break;
+				case HexenLinedef.ACTIVATION_PLAYER_BUMPS:
+					out.setBoolean(UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PLAYER_PUSH, true);
+					setFlag(out, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_PUSH, monsters);
+					break;
+				case HexenLinedef.ACTIVATION_PROJECTILE_CROSSES:
+					out.setBoolean(UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PROJECTILE_CROSS, true);
+					break;
+				case HexenLinedef.ACTIVATION_ANY_CROSSES:
+					setFlag(out, UDMFZDoomLinedefAttributes.ATTRIB_ACTIVATE_ANY_CROSS, dialect.extended);
+					break;
+			}
+		}
+
+		if (dialect.extended)
+		{
+			setFlag(out, UDMFZDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_PLAYERS, linedef.isFlagSet(ZDoomLinedefFlags.BLOCK_PLAYERS));
+			setFlag(out, UDMFZDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_EVERYTHING, linedef.isFlagSet(ZDoomLinedefFlags.BLOCK_EVERYTHING));
+		}
+
+		if (dialect.extended && special == SPECIAL_LINE_SET_IDENTIFICATION)
+		{
+			setNonZero(out, UDMFZDoomLinedefAttributes.ATTRIB_ID, linedef.getArgument(0) | (linedef.getArgument(4) << 8));
+			int moreFlags = linedef.getArgument(1);
+			for (int i = 0; i < LINE_IDENTIFICATION_FLAGS.length; i++)
+				setFlag(out, LINE_IDENTIFICATION_FLAGS[i], (moreFlags & (1 << i)) != 0);
+		}
+		else
+		{
+			setNonZero(out, UDMFHexenLinedefAttributes.ATTRIB_SPECIAL, special);
+			setNonZero(out, UDMFHexenLinedefAttributes.ATTRIB_ARG0, linedef.getArgument(0));
+			setNonZero(out, UDMFHexenLinedefAttributes.ATTRIB_ARG1, linedef.getArgument(1));
+			setNonZero(out, UDMFHexenLinedefAttributes.ATTRIB_ARG2, linedef.getArgument(2));
+			setNonZero(out, UDMFHexenLinedefAttributes.ATTRIB_ARG3, linedef.getArgument(3));
+			setNonZero(out, UDMFHexenLinedefAttributes.ATTRIB_ARG4, linedef.getArgument(4));
+		}
+	}
+
+	private static <X extends Exception> void convertLinedefReferences(int vertexStart, int vertexEnd, int sidedefFront, int sidedefBack, FieldOutput<X> out) throws X
+	{
+		out.setInteger(UDMFDoomLinedefAttributes.ATTRIB_VERTEX_START, vertexStart);
+		out.setInteger(UDMFDoomLinedefAttributes.ATTRIB_VERTEX_END, vertexEnd);
+		out.setInteger(UDMFDoomLinedefAttributes.ATTRIB_SIDEDEF_FRONT, sidedefFront);
+		if (sidedefBack >= 0)
+			out.setInteger(UDMFDoomLinedefAttributes.ATTRIB_SIDEDEF_BACK, sidedefBack);
+	}
+
+	private static <X extends Exception> void convertLinedefFlags(int flags, FieldOutput<X> out) throws X
+	{
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_BLOCKING, (flags & (1 << DoomLinedefFlags.IMPASSABLE)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_MONSTERS, (flags & (1 << DoomLinedefFlags.BLOCK_MONSTERS)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_TWO_SIDED, (flags & (1 << DoomLinedefFlags.TWO_SIDED)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_UNPEG_TOP, (flags & (1 << DoomLinedefFlags.UNPEG_TOP)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_UNPEG_BOTTOM, (flags & (1 << DoomLinedefFlags.UNPEG_BOTTOM)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_SECRET, (flags & (1 << DoomLinedefFlags.SECRET)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_SOUND, (flags & (1 << DoomLinedefFlags.BLOCK_SOUND)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_DONT_DRAW, (flags & (1 << DoomLinedefFlags.NOT_DRAWN)) != 0);
+		setFlag(out, UDMFDoomLinedefAttributes.ATTRIB_FLAG_MAPPED, (flags & (1 << DoomLinedefFlags.MAPPED)) != 0);
+	}
+
+	private static <X extends Exception> void convertThingSkills(int flags, FieldOutput<X> out) throws X
+	{
+		boolean easy = (flags & (1 << DoomThingFlags.EASY)) != 0;
+		boolean medium = (flags & (1 << DoomThingFlags.MEDIUM)) != 0;
+		boolean hard = (flags & (1 << DoomThingFlags.HARD)) != 0;
+		setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL1, easy);
+		setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL2, easy);
+		setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL3, medium);
+		setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL4, hard);
+		setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL5, hard);
+	}
+
+	private static <X extends Exception> void convertThing(DoomThing thing, Dialect dialect, FieldOutput<X> out) throws X
+	{
+		convertThing(thing.getX(), thing.getY(), thing.getAngle(), thing.getType(), thing.getFlags(), dialect, out);
+	}
+
+	private static <X extends Exception> void convertThing(int x, int y, int angle, int type, int flags, Dialect dialect, FieldOutput<X> out) throws X
+	{
+		out.setFloat(UDMFDoomThingAttributes.ATTRIB_POSITION_X, (float)x);
+		out.setFloat(UDMFDoomThingAttributes.ATTRIB_POSITION_Y, (float)y);
+		setNonZero(out, UDMFDoomThingAttributes.ATTRIB_ANGLE, angle);
+		out.setInteger(UDMFDoomThingAttributes.ATTRIB_TYPE, type);
+		convertThingSkills(flags, out);
+		if (dialect == Dialect.STRIFE)
+		{
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_STANDING, (flags & (1 << StrifeThingFlags.STANDING)) != 0);
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_SINGLE_PLAYER, (flags & (1 << StrifeThingFlags.MULTIPLAYER)) == 0);
+			out.setBoolean(UDMFStrifeThingAttributes.ATTRIB_FLAG_COOPERATIVE, true);
+			out.setBoolean(UDMFStrifeThingAttributes.ATTRIB_FLAG_DEATHMATCH, true);
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_AMBUSH, (flags & (1 << StrifeThingFlags.AMBUSH)) != 0);
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_ALLY, (flags & (1 << StrifeThingFlags.ALLY)) != 0);
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_TRANSLUCENT, (flags & (1 << StrifeThingFlags.TRANSLUCENT_25)) != 0);
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_INVISIBLE, (flags & (1 << StrifeThingFlags.INVISIBLE)) != 0);
+		}
+		else
+		{
+			boolean boom = dialect.extended && (flags & (1 << THING_FLAG_BOOM_RESERVED)) == 0;
+			setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_AMBUSH, (flags & (1 << DoomThingFlags.AMBUSH)) != 0);
+			setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_SINGLE_PLAYER, (flags & (1 << DoomThingFlags.NOT_SINGLEPLAYER)) == 0);
+			setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_COOPERATIVE, !(boom && (flags & (1 << BoomThingFlags.NOT_COOPERATIVE)) != 0));
+			setFlag(out, UDMFDoomThingAttributes.ATTRIB_FLAG_DEATHMATCH, !(boom && (flags & (1 << BoomThingFlags.NOT_DEATHMATCH)) != 0));
+			setFlag(out, UDMFMBFThingAttributes.ATTRIB_FLAG_FRIENDLY, boom && (flags & (1 << MBFThingFlags.FRIENDLY)) != 0);
+		}
+	}
+
+	private static <X extends Exception> void convertThing(HexenThing thing, Dialect dialect, FieldOutput<X> out) throws X
+	{
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_ID, thing.getId());
+		out.setFloat(UDMFHexenThingAttributes.ATTRIB_POSITION_X, (float)thing.getX());
+		out.setFloat(UDMFHexenThingAttributes.ATTRIB_POSITION_Y, (float)thing.getY());
+		if (thing.getHeight() != 0)
+			out.setFloat(UDMFHexenThingAttributes.ATTRIB_HEIGHT, (float)thing.getHeight());
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_ANGLE, thing.getAngle());
+		out.setInteger(UDMFHexenThingAttributes.ATTRIB_TYPE, thing.getType());
+		convertThingSkills(thing.getFlags(), out);
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_AMBUSH, thing.isFlagSet(HexenThingFlags.AMBUSH));
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_DORMANT, thing.isFlagSet(HexenThingFlags.DORMANT));
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_CLASS1, thing.isFlagSet(HexenThingFlags.FIGHTER));
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_CLASS2, thing.isFlagSet(HexenThingFlags.CLERIC));
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_CLASS3, thing.isFlagSet(HexenThingFlags.MAGE));
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_SINGLE_PLAYER, thing.isFlagSet(HexenThingFlags.SINGLEPLAYER));
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_COOPERATIVE, thing.isFlagSet(HexenThingFlags.COOPERATIVE));
+		setFlag(out, UDMFHexenThingAttributes.ATTRIB_FLAG_DEATHMATCH, thing.isFlagSet(HexenThingFlags.DEATHMATCH));
+		if (dialect.extended)
+		{
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_STANDING, thing.isFlagSet(ZDoomThingFlags.STANDING));
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_TRANSLUCENT, thing.isFlagSet(ZDoomThingFlags.TRANSLUCENT));
+			setFlag(out, UDMFStrifeThingAttributes.ATTRIB_FLAG_INVISIBLE, thing.isFlagSet(ZDoomThingFlags.INVISIBLE));
+			setFlag(out, UDMFMBFThingAttributes.ATTRIB_FLAG_FRIENDLY, thing.isFlagSet(ZDoomThingFlags.FRIENDLY));
+		}
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_SPECIAL, thing.getSpecial());
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_ARG0, thing.getArgument(0));
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_ARG1, thing.getArgument(1));
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_ARG2, thing.getArgument(2));
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_ARG3, thing.getArgument(3));
+		setNonZero(out, UDMFHexenThingAttributes.ATTRIB_ARG4, thing.getArgument(4));
+	}
+
+	/* ==================================================================== */
+	/* UDMF to Binary                                                       */
+	/* ==================================================================== */
+
+	private static boolean getFlag(UDMFObject object, String attributeName)
+	{
+		return object.getBoolean(attributeName, false);
+	}
+
+	private static int getInteger(UDMFObject object, String attributeName, int def)
+	{
+		return object.getInteger(attributeName, def);
+	}
+
+	private static int getRounded(UDMFObject object, String attributeName)
+	{
+		return Math.round(object.getFloat(attributeName, 0f));
+	}
+
+	private static int getFlagBit(UDMFObject object, String attributeName, int flag)
+	{
+		return getFlag(object, attributeName) ? (1 << flag) : 0;
+	}
+
+	private static void convertVertex(UDMFObject object, DoomVertex out)
+	{
+		out.set(
+			getRounded(object, UDMFDoomVertexAttributes.ATTRIB_POSITION_X),
+			getRounded(object, UDMFDoomVertexAttributes.ATTRIB_POSITION_Y)
+		);
+	}
+
+	private static void convertSidedef(UDMFObject object, DoomSidedef out)
+	{
+		out.setOffsetX(getInteger(object, UDMFDoomSidedefAttributes.ATTRIB_OFFSET_X, 0));
+		out.setOffsetY(getInteger(object, UDMFDoomSidedefAttributes.ATTRIB_OFFSET_Y, 0));
+		out.setTextureTop(object.getString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_TOP, BLANK_TEXTURE));
+		out.setTextureBottom(object.getString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_BOTTOM, BLANK_TEXTURE));
+		out.setTextureMiddle(object.getString(UDMFDoomSidedefAttributes.ATTRIB_TEXTURE_MIDDLE, BLANK_TEXTURE));
+		out.setSectorIndex(getInteger(object, UDMFDoomSidedefAttributes.ATTRIB_SECTOR_INDEX, 0));
+	}
+
+	private static void convertSector(UDMFObject object, DoomSector out)
+	{
+		out.setHeightFloor(getInteger(object, UDMFDoomSectorAttributes.ATTRIB_HEIGHT_FLOOR, 0));
+		out.setHeightCeiling(getInteger(object, UDMFDoomSectorAttributes.ATTRIB_HEIGHT_CEILING, 0));
+		out.setTextureFloor(object.getString(UDMFDoomSectorAttributes.ATTRIB_TEXTURE_FLOOR, BLANK_TEXTURE));
+		out.setTextureCeiling(object.getString(UDMFDoomSectorAttributes.ATTRIB_TEXTURE_CEILING, BLANK_TEXTURE));
+		out.setLightLevel(getInteger(object, UDMFDoomSectorAttributes.ATTRIB_LIGHT_LEVEL, DEFAULT_LIGHT_LEVEL));
+		out.setSpecial(getInteger(object, UDMFDoomSectorAttributes.ATTRIB_SPECIAL, 0));
+		out.setTag(getInteger(object, UDMFDoomSectorAttributes.ATTRIB_ID, 0));
+	}
+
+	private static int convertLinedefFlags(UDMFObject object)
+	{
+		return getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_BLOCKING, DoomLinedefFlags.IMPASSABLE)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_MONSTERS, DoomLinedefFlags.BLOCK_MONSTERS)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_TWO_SIDED, DoomLinedefFlags.TWO_SIDED)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_UNPEG_TOP, DoomLinedefFlags.UNPEG_TOP)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_UNPEG_BOTTOM, DoomLinedefFlags.UNPEG_BOTTOM)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_SECRET, DoomLinedefFlags.SECRET)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_SOUND, DoomLinedefFlags.BLOCK_SOUND)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_DONT_DRAW, DoomLinedefFlags.NOT_DRAWN)
+			| getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_MAPPED, DoomLinedefFlags.MAPPED)
+		;
+	}
+
+	private static void convertLinedef(UDMFObject object, Dialect dialect, DoomLinedef out)
+	{
+		out.setVertexStartIndex(getInteger(object, UDMFDoomLinedefAttributes.ATTRIB_VERTEX_START, 0));
+		out.setVertexEndIndex(getInteger(object, UDMFDoomLinedefAttributes.ATTRIB_VERTEX_END, 0));
+		out.setSidedefFrontIndex(getInteger(object, UDMFDoomLinedefAttributes.ATTRIB_SIDEDEF_FRONT, 0));
+		out.setSidedefBackIndex(getInteger(object, UDMFDoomLinedefAttributes.ATTRIB_SIDEDEF_BACK, -1));
+		out.setSpecial(getInteger(object, UDMFDoomLinedefAttributes.ATTRIB_SPECIAL, 0));
+		out.setTag(Math.max(getInteger(object, UDMFDoomLinedefAttributes.ATTRIB_ID, 0), 0));
+
+		int flags = convertLinedefFlags(object);
+		if (dialect == Dialect.STRIFE)
+		{
+			flags |= getFlagBit(object, UDMFStrifeLinedefAttributes.ATTRIB_FLAG_JUMPOVER, StrifeLinedefFlags.RAILING)
+				| getFlagBit(object, UDMFStrifeLinedefAttributes.ATTRIB_FLAG_BLOCK_FLOAT, StrifeLinedefFlags.BLOCK_FLOATERS)
+				| getFlagBit(object, UDMFStrifeLinedefAttributes.ATTRIB_FLAG_TRANSLUCENT, StrifeLinedefFlags.TRANSLUCENT)
+			;
+		}
+		else if (dialect.extended)
+		{
+			flags |= getFlagBit(object, UDMFDoomLinedefAttributes.ATTRIB_FLAG_PASSTHRU, BoomLinedefFlags.PASSTHRU);
+		}
+		out.setFlags(flags);
+	}
+
+	private static void convertLinedef(UDMFObject object, Dialect dialect, HexenLinedef out)
+	{
+		out.setVertexStartIndex(getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_VERTEX_START, 0));
+		out.setVertexEndIndex(getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_VERTEX_END, 0));
+		out.setSidedefFrontIndex(getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_SIDEDEF_FRONT, 0));
+		out.setSidedefBackIndex(getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_SIDEDEF_BACK, -1));
+
+		int flags = convertLinedefFlags(object)
+			| getFlagBit(object, UDMFHexenLinedefAttributes.ATTRIB_FLAG_REPEATABLE, HexenLinedefFlags.REPEATABLE);
+
+		int activation = HexenLinedef.ACTIVATION_PLAYER_CROSSES;
+		boolean monsters = false;
+		if (dialect.extended && getFlag(object, UDMFZDoomLinedefAttributes.ATTRIB_ACTIVATE_ANY_CROSS))
+			activation = HexenLinedef.ACTIVATION_ANY_CROSSES;
+		else if (getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PLAYER_USE))
+		{
+			activation = getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_FLAG_PASSTHRU) ? HexenLinedef.ACTIVATION_PLAYER_USES_PASSTHRU : HexenLinedef.ACTIVATION_PLAYER_USES;
+			monsters = getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_USE);
+		}
+		else if (getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PLAYER_CROSS))
+			monsters = getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_CROSS);
+		else if (getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PLAYER_PUSH))
+		{
+			activation = HexenLinedef.ACTIVATION_PLAYER_BUMPS;
+			monsters = getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_PUSH);
+		}
+		else if (getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_MONSTER_CROSS))
+			activation = HexenLinedef.ACTIVATION_MONSTER_CROSSES;
+		else if (getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_IMPACT))
+			activation = HexenLinedef.ACTIVATION_PROJECTILE_HITS;
+		else if (getFlag(object, UDMFHexenLinedefAttributes.ATTRIB_ACTIVATE_PROJECTILE_CROSS))
+			activation = HexenLinedef.ACTIVATION_PROJECTILE_CROSSES;
+		flags |= activation << 10;
+
+		if (dialect.extended)
+		{
+			if (monsters)
+				flags |= 1 << ZDoomLinedefFlags.ACTIVATED_BY_MONSTERS;
+			flags |= getFlagBit(object, UDMFZDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_PLAYERS, ZDoomLinedefFlags.BLOCK_PLAYERS)
+				| getFlagBit(object, UDMFZDoomLinedefAttributes.ATTRIB_FLAG_BLOCK_EVERYTHING, ZDoomLinedefFlags.BLOCK_EVERYTHING)
+			;
+		}
+		out.setFlags(flags);
+
+		int special = getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_SPECIAL, 0);
+		int id = Math.max(getInteger(object, UDMFZDoomLinedefAttributes.ATTRIB_ID, 0), 0);
+		int moreFlags = 0;
+		if (dialect.extended)
+			for (int i = 0; i < LINE_IDENTIFICATION_FLAGS.length; i++)
+				if (getFlag(object, LINE_IDENTIFICATION_FLAGS[i]))
+					moreFlags |= 1 << i;
+
+		if (special == 0 && (id != 0 || moreFlags != 0))
+		{
+			out.setSpecial(SPECIAL_LINE_SET_IDENTIFICATION);
+			out.setArguments(id & 0x0FF, moreFlags, 0, 0, (id >> 8) & 0x0FF);
+		}
+		else
+		{
+			out.setSpecial(special);
+			out.setArguments(
+				getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_ARG0, 0),
+				getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_ARG1, 0),
+				getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_ARG2, 0),
+				getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_ARG3, 0),
+				getInteger(object, UDMFHexenLinedefAttributes.ATTRIB_ARG4, 0)
+			);
+		}
+	}
+
+	private static int convertThingSkills(UDMFObject object)
+	{
+		int flags = 0;
+		if (getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL1) || getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL2))
+			flags |= 1 << DoomThingFlags.EASY;
+		if (getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL3))
+			flags |= 1 << DoomThingFlags.MEDIUM;
+		if (getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL4) || getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_SKILL5))
+			flags |= 1 << DoomThingFlags.HARD;
+		return flags;
+	}
+
+	private static void convertThing(UDMFObject object, Dialect dialect, DoomThing out)
+	{
+		out.set(
+			getRounded(object, UDMFDoomThingAttributes.ATTRIB_POSITION_X),
+			getRounded(object, UDMFDoomThingAttributes.ATTRIB_POSITION_Y)
+		);
+		out.setAngle(getInteger(object, UDMFDoomThingAttributes.ATTRIB_ANGLE, 0));
+		out.setType(getInteger(object, UDMFDoomThingAttributes.ATTRIB_TYPE, 0));
+
+		int flags = convertThingSkills(object);
+		if (dialect == Dialect.STRIFE)
+		{
+			flags |= getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_STANDING, StrifeThingFlags.STANDING)
+				| (getFlag(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_SINGLE_PLAYER) ? 0 : 1 << StrifeThingFlags.MULTIPLAYER)
+				| getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_AMBUSH, StrifeThingFlags.AMBUSH)
+				| getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_ALLY, StrifeThingFlags.ALLY)
+				| getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_TRANSLUCENT, StrifeThingFlags.TRANSLUCENT_25)
+				| getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_INVISIBLE, StrifeThingFlags.INVISIBLE)
+			;
+		}
+		else
+		{
+			flags |= getFlagBit(object, UDMFDoomThingAttributes.ATTRIB_FLAG_AMBUSH, DoomThingFlags.AMBUSH)
+				| (getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_SINGLE_PLAYER) ? 0 : 1 << DoomThingFlags.NOT_SINGLEPLAYER)
+			;
+			if (dialect.extended)
+			{
+				flags |= (getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_COOPERATIVE) ? 0 : 1 << BoomThingFlags.NOT_COOPERATIVE)
+					| (getFlag(object, UDMFDoomThingAttributes.ATTRIB_FLAG_DEATHMATCH) ? 0 : 1 << BoomThingFlags.NOT_DEATHMATCH)
+					| getFlagBit(object, UDMFMBFThingAttributes.ATTRIB_FLAG_FRIENDLY, MBFThingFlags.FRIENDLY)
+				;
+			}
+		}
+		out.setFlags(flags);
+	}
+
+	private static void convertThing(UDMFObject object, Dialect dialect, HexenThing out)
+	{
+		out.setId(getInteger(object, UDMFHexenThingAttributes.ATTRIB_ID, 0));
+		out.set(
+			getRounded(object, UDMFHexenThingAttributes.ATTRIB_POSITION_X),
+			getRounded(object, UDMFHexenThingAttributes.ATTRIB_POSITION_Y)
+		);
+		out.setHeight(getRounded(object, UDMFHexenThingAttributes.ATTRIB_HEIGHT));
+		out.setAngle(getInteger(object, UDMFHexenThingAttributes.ATTRIB_ANGLE, 0));
+		out.setType(getInteger(object, UDMFHexenThingAttributes.ATTRIB_TYPE, 0));
+
+		int flags = convertThingSkills(object)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_AMBUSH, HexenThingFlags.AMBUSH)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_DORMANT, HexenThingFlags.DORMANT)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_CLASS1, HexenThingFlags.FIGHTER)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_CLASS2, HexenThingFlags.CLERIC)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_CLASS3, HexenThingFlags.MAGE)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_SINGLE_PLAYER, HexenThingFlags.SINGLEPLAYER)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_COOPERATIVE, HexenThingFlags.COOPERATIVE)
+			| getFlagBit(object, UDMFHexenThingAttributes.ATTRIB_FLAG_DEATHMATCH, HexenThingFlags.DEATHMATCH)
+		;
+		if (dialect.extended)
+		{
+			flags |= getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_STANDING, ZDoomThingFlags.STANDING)
+				| getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_TRANSLUCENT, ZDoomThingFlags.TRANSLUCENT)
+				| getFlagBit(object, UDMFStrifeThingAttributes.ATTRIB_FLAG_INVISIBLE, ZDoomThingFlags.INVISIBLE)
+				| getFlagBit(object, UDMFMBFThingAttributes.ATTRIB_FLAG_FRIENDLY, ZDoomThingFlags.FRIENDLY)
+			;
+		}
+		out.setFlags(flags);
+
+		out.setSpecial(getInteger(object, UDMFHexenThingAttributes.ATTRIB_SPECIAL, 0));
+		out.setArguments(
+			getInteger(object, UDMFHexenThingAttributes.ATTRIB_ARG0, 0),
+			getInteger(object, UDMFHexenThingAttributes.ATTRIB_ARG1, 0),
+			getInteger(object, UDMFHexenThingAttributes.ATTRIB_ARG2, 0),
+			getInteger(object, UDMFHexenThingAttributes.ATTRIB_ARG3, 0),
+			getInteger(object, UDMFHexenThingAttributes.ATTRIB_ARG4, 0)
+		);
+	}
+
+}
@@ -0,0 +1,619 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import net.mtrop.doom.Wad;
+import net.mtrop.doom.WadEntry;
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.bsp.data.BSPNode;
+import net.mtrop.doom.bsp.data.BSPSegment;
+import net.mtrop.doom.bsp.data.BSPSubsector;
+import net.mtrop.doom.graphics.Colormap;
+import net.mtrop.doom.graphics.EndDoom;
+import net.mtrop.doom.graphics.Palette;
+import net.mtrop.doom.graphics.Picture;
+import net.mtrop.doom.map.MapFormat;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.map.data.HexenLinedef;
+import net.mtrop.doom.map.data.HexenThing;
+import net.mtrop.doom.object.BinaryObject;
+import net.mtrop.doom.texture.Animated;
+import net.mtrop.doom.texture.DoomTextureList;
+import net.mtrop.doom.texture.PatchNames;
+import net.mtrop.doom.texture.StrifeTextureList;
+import net.mtrop.doom.texture.Switches;
+
+/**
+ * A structural integrity checker for {@link Wad}s.
+ * <p>
+ * The entry list is checked in one pass over the entries sorted by content offset, so that
+ * overlapping entries and unaddressed gaps are found without comparing every entry against every other entry.
+ * Optionally, the content of known lump types (map lumps, palettes, colormaps, texture lumps, patches, etc.)
+ * can be test-decoded in parallel.
+ * <p>
+ * The {@link Wad} itself is only ever read from the calling thread, since Wad implementations are not thread-safe.
+ * @author Matthew Tropiano
+ * @since 2.23.0
+ */
+public final class WadChecker
+{
+	/** Content starts after the header. */
+	private static final int CONTENT_START = 12;
+	/** Maximum amount of lump bytes buffered for a batch of parallel decode checks. */
+	private static final int DECODE_BATCH_BYTES = 32 * 1024 * 1024;
+
+	/**
+	 * Problem types.
+	 */
+	public enum ProblemType
+	{
+		/** An entry's content is outside of the WAD's content area, or overlaps the WAD's entry list. */
+		OUT_OF_BOUNDS,
+		/** An entry's content partially overlaps another entry's content. */
+		OVERLAP,
+		/** An entry's content is exactly the same range as another entry's content. */
+		ALIAS,
+		/** Content bytes that are not addressed by any entry. */
+		GAP,
+		/** An entry name is not a valid entry name. */
+		INVALID_NAME,
+		/** A namespace start marker without a matching end marker. */
+		UNMATCHED_NAMESPACE_START,
+		/** A namespace end marker without a matching start marker. */
+		UNMATCHED_NAMESPACE_END,
+		/** A map header sequence is not a recognizable map, or is missing required lumps. */
+		BAD_MAP,
+		/** An entry's content could not be decoded as its presumed type. */
+		BAD_DATA;
+	}
+
+	/**
+	 * A single problem found in a WAD.
+	 */
+	public static class Problem
+	{
+		private ProblemType type;
+		private int entryIndex;
+		private int otherIndex;
+		private int offset;
+		private int length;
+		private String message;
+
+		private Problem(ProblemType type, int entryIndex, int otherIndex, int offset, int length, String message)
+		{
+			this.type = type;
+			this.entryIndex = entryIndex;
+			this.otherIndex = otherIndex;
+			this.offset = offset;
+			this.length = length;
+			this.message = message;
+		}
+
+		/**
+		 * @return the type of problem.
+		 */
+		public ProblemType getType()
+		{
+			return type;
+		}
+
+		/**
+		 * @return the index of the offending entry, or -1 if this problem is not about a single entry (like gaps).
+		 */
+		public int getEntryIndex()
+		{
+			return entryIndex;
+		}
+
+		/**
+		 * @return the index of the other entry involved in the problem (overlaps, aliases), or -1 if not applicable.
+		 */
+		public int getOtherIndex()
+		{
+			return otherIndex;
+		}
+
+		/**
+		 * @return the content offset of the problem area in bytes.
+		 */
+		public int getOffset()
+		{
+			return offset;
+		}
+
+		/**
+		 * @return the length of the problem area in bytes.
+		 */
+		public int getLength()
+		{
+			return length;
+		}
+
+		/**
+		 * @return a human-readable description of the problem.
+		 */
+		public String getMessage()
+		{
+			return message;
+		}
+
+		@Override
+		public String toString()
+		{
+			return type.name() + ": " + message;
+		}
+	}
+
+	/**
+	 * The results of a check.
+	 */
+	public static class Report
+	{
+		private List<Problem> problems;
+		private long wastedBytes;
+
+		private Report()
+		{
+			this.problems = new ArrayList<>();
+			this.wastedBytes = 0L;
+		}
+
+		private void add(ProblemType type, int entryIndex, int otherIndex, int offset, int length, String message)
+		{
+			problems.add(new Problem(type, entryIndex, otherIndex, offset, length, message));
+		}
+
+		/**
+		 * @return all of the problems found, in the order that they were found.
+		 */
+		public List<Problem> getProblems()
+		{
+			return Collections.unmodifiableList(problems);
+		}
+
+		/**
+		 * Gets all of the problems of a specific type.
+		 * @param type the problem type.
+		 * @return the list of problems of that type.
+		 */
+		public List<Problem> getProblems(ProblemType type)
+		{
+			List<Problem> out = new ArrayList<>();
+			for (Problem p : problems)
+				if (p.type == type)
+					out.add(p);
+			return out;
+		}
+
+		/**
+		 * @return the total amount of content bytes not addressed by any entry.
+		 */
+		public long getWastedBytes()
+		{
+			return wastedBytes;
+		}
+
+		/**
+		 * @return true if no problems were found, false otherwise.
+		 */
+		public boolean isClean()
+		{
+			return problems.isEmpty();
+		}
+	}
+
+	private WadChecker() {}
+
+	/**
+	 * Checks the structure of a WAD's entry list: content bounds, overlaps, aliases, gaps,
+	 * entry names, namespace markers, and map header sequences.
+	 * No content is read. Entries in a {@link WadFile} are checked against the length of the file
+	 * and the range of its entry list, which may come before the content.
+	 * @param wad the WAD to check.
+	 * @return the report of problems found.
+	 */
+	public static Report check(Wad wad)
+	{
+		Report report = new Report();
+		WadEntry[] entries = wad.mapEntries(0, wad.getEntryCount());
+		checkNames(entries, report);
+		if (wad instanceof WadFile)
+		{
+			// the entry list can be anywhere in a file, even before the content.
+			WadFile wadFile = (WadFile)wad;
+			long listStart = wadFile.getEntryListOffset();
+			long listEnd = listStart + 16L * entries.length;
+			long fileEnd = Math.max(new File(wadFile.getFileAbsolutePath()).length(), listEnd);
+			checkRanges(entries, fileEnd, listStart, listEnd, report);
+		}
+		else
+		{
+			long contentEnd = CONTENT_START + (long)wad.getContentLength();
+			checkRanges(entries, contentEnd, contentEnd, contentEnd, report);
+		}
+		checkNamespaces(entries, report);
+		checkMaps(wad, report);
+		return report;
+	}
+
+	/**
+	 * Checks the structure of a WAD's entry list (see {@link #check(Wad)}) and then
+	 * test-decodes the content of each entry of a recognized type, in parallel.
+	 * Entries that are out of bounds are not decoded. The WAD must be an implementation that can read data.
+	 * @param wad the WAD to check.
+	 * @return the report of problems found.
+	 * @throws IOException if entry content could not be read.
+	 * @throws UnsupportedOperationException if the provided Wad cannot read data.
+	 */
+	public static Report checkWithData(Wad wad) throws IOException
+	{
+		Report report = check(wad);
+
+		boolean[] skip = new boolean[wad.getEntryCount()];
+		for (Problem p : report.getProblems(ProblemType.OUT_OF_BOUNDS))
+			skip[p.entryIndex] = true;
+
+		checkData(wad, skip, report);
+		return report;
+	}
+
+	private static void checkNames(WadEntry[] entries, Report report)
+	{
+		for (int i = 0; i < entries.length; i++)
+		{
+			String name = entries[i].getName();
+			if (!NameUtils.isValidEntryName(name))
+				report.add(ProblemType.INVALID_NAME, i, -1, entries[i].getOffset(), entries[i].getSize(), "Entry " + i + " has an invalid name: \"" + name + "\"");
+		}
+	}
+
+	private static void checkRanges(WadEntry[] entries, long contentEnd, long listStart, long listEnd, Report report)
+	{
+		// sort keys: offset in high bits, index in low bits.
+		long[] sorted = new long[entries.length];
+		int n = 0;
+		for (int i = 0; i < entries.length; i++)
+		{
+			WadEntry entry = entries[i];
+			if (entry.getSize() == 0)
+				continue;
+			long start = entry.getOffset();
+			long end = start + entry.getSize();
+			if (start < CONTENT_START || end > contentEnd)
+			{
+				report.add(ProblemType.OUT_OF_BOUNDS, i, -1, entry.getOffset(), entry.getSize(),
+					"Entry " + i + " (" + entry.getName() + ") content [" + start + ", " + end + ") is outside of the content area [" + CONTENT_START + ", " + contentEnd + ")"
+				);
+				continue;
+			}
+			if (start < listEnd && end > listStart)
+			{
+				report.add(ProblemType.OUT_OF_BOUNDS, i, -1, entry.getOffset(), entry.getSize(),
+					"Entry " + i + " (" + entry.getName() + ") content [" + start + ", " + end + ") overlaps the entry list [" + listStart + ", " + listEnd + ")"
+				);
+				continue;
+			}
+			sorted[n++] = (start << 32) | i;
+		}
+		Arrays.sort(sorted, 0, n);
+
+		// first entry seen for each exact range, keyed by offset in high bits, size in low bits.
+		Map<Long, Integer> firstByRange = new HashMap<>();
+		boolean listAdded = listEnd == listStart;
+		long maxEnd = CONTENT_START;
+		int maxEndIndex = -1;
+		for (int x = 0; x < n; x++)
+		{
+			int i = (int)(sorted[x] & 0xffffffffL);
+			WadEntry entry = entries[i];
+			long start = entry.getOffset();
+			long end = start + entry.getSize();
+
+			if (!listAdded && listStart < start)
+			{
+				if (listStart > maxEnd)
+					addGap(report, maxEnd, listStart);
+				maxEnd = Math.max(maxEnd, listEnd);
+				maxEndIndex = -1;
+				listAdded = true;
+			}
+
+			Integer first = firstByRange.putIfAbsent((start << 32) | entry.getSize(), i);
+			if (first != null)
+			{
+				report.add(ProblemType.ALIAS, i, first, entry.getOffset(), entry.getSize(),
+					"Entry " + i + " (" + entry.getName() + ") has the same content as entry " + first + " (" + entries[first].getName() + ")"
+				);
+				continue;
+			}
+			else if (start < maxEnd)
+			{
+				report.add(ProblemType.OVERLAP, i, maxEndIndex, entry.getOffset(), (int)(Math.min(end, maxEnd) - start),
+					"Entry " + i + " (" + entry.getName() + ") overlaps entry " + maxEndIndex + " (" + entries[maxEndIndex].getName() + ")"
+				);
+			}
+			else if (start > maxEnd)
+			{
+				addGap(report, maxEnd, start);
+			}
+
+			if (end > maxEnd)
+			{
+				maxEnd = end;
+				maxEndIndex = i;
+			}
+		}
+
+		if (!listAdded)
+		{
+			if (listStart > maxEnd)
+				addGap(report, maxEnd, listStart);
+			maxEnd = Math.max(maxEnd, listEnd);
+		}
+
+		if (maxEnd < contentEnd)
+			addGap(report, maxEnd, contentEnd);
+	}
+
+	private static void addGap(Report report, long start, long end)
+	{
+		report.add(ProblemType.GAP, -1, -1, (int)start, (int)(end - start), "Unaddressed content [" + start + ", " + end + "), " + (end - start) + " bytes");
+		report.wastedBytes += end - start;
+	}
+
+	private static void checkNamespaces(WadEntry[] entries, Report report)
+	{
+		Deque<Integer> starts = new LinkedList<>();
+		Deque<String> keys = new LinkedList<>();
+		for (int i = 0; i < entries.length; i++)
+		{
+			String name = entries[i].getName();
+			String key;
+			if ((key = WadUtils.getNamespaceKey(name, "_START")) != null)
+			{
+				starts.push(i);
+				keys.push(key);
+			}
+			else if ((key = WadUtils.getNamespaceKey(name, "_END")) != null)
+			{
+				if (!keys.isEmpty() && keys.peek().equals(key))
+				{
+					starts.pop();
+					keys.pop();
+				}
+				else
+				{
+					report.add(ProblemType.UNMATCHED_NAMESPACE_END, i, -1, entries[i].getOffset(), 0, "Entry " + i + " (" + name + ") has no matching start marker");
+				}
+			}
+		}
+
+		while (!starts.isEmpty())
+		{
+			int i = starts.removeLast();
+			report.add(ProblemType.UNMATCHED_NAMESPACE_START, i, -1, entries[i].getOffset(), 0, "Entry " + i + " (" + entries[i].getName() + ") has no matching end marker");
+		}
+	}
+
+	private static void checkMaps(Wad wad, Report report)
+	{
+		for (int index : MapUtils.getAllMapIndices(wad))
+		{
+			String header = wad.getEntry(index).getName();
+			MapFormat format = MapUtils.getMapFormat(wad, index);
+			if (format == null)
+			{
+				report.add(ProblemType.BAD_MAP, index, -1, 0, 0, "Map " + header + " (entry " + index + ") is not a recognizable map");
+				continue;
+			}
+
+			String[] required;
+			switch (format)
+			{
+				default:
+				case DOOM:
+					required = new String[]{MapUtils.LUMP_THINGS, MapUtils.LUMP_LINEDEFS, MapUtils.LUMP_SIDEDEFS, MapUtils.LUMP_VERTICES, MapUtils.LUMP_SECTORS};
+					break;
+				case HEXEN:
+					required = new String[]{MapUtils.LUMP_THINGS, MapUtils.LUMP_LINEDEFS, MapUtils.LUMP_SIDEDEFS, MapUtils.LUMP_VERTICES, MapUtils.LUMP_SECTORS, MapUtils.LUMP_BEHAVIOR};
+					break;
+				case UDMF:
+					required = new String[]{MapUtils.LUMP_TEXTMAP, MapUtils.LUMP_ENDMAP};
+					break;
+			}
+
+			int count = MapUtils.getMapEntryCount(wad, index);
+			for (String lump : required)
+			{
+				boolean found = false;
+				for (int i = index + 1; !found && i < index + count; i++)
+					found = wad.getEntry(i).getName().equals(lump);
+				if (!found)
+					report.add(ProblemType.BAD_MAP, index, -1, 0, 0, "Map " + header + " (entry " + index + ", " + format.name() + ") is missing " + lump);
+			}
+		}
+	}
+
+	private static void checkData(Wad wad, boolean[] skip, Report report) throws IOException
+	{
+		// figure out map formats per entry.
+		MapFormat[] mapFormats = new MapFormat[wad.getEntryCount()];
+		for (int index : MapUtils.getAllMapIndices(wad))
+		{
+			MapFormat format = MapUtils.getMapFormat(wad, index);
+			int count = MapUtils.getMapEntryCount(wad, index);
+			for (int i = index + 1; i < index + count; i++)
+				mapFormats[i] = format;
+		}
+
+		String namespace = null;
+		List<DecodeCheck> batch = new ArrayList<>();
+		int batchBytes = 0;
+		Queue<Problem> problems = new ConcurrentLinkedQueue<>();
+		for (int i = 0; i < wad.getEntryCount(); i++)
+		{
+			WadEntry entry = wad.getEntry(i);
+			String name = entry.getName();
+			String key;
+			if ((key = WadUtils.getNamespaceKey(name, "_START")) != null)
+				namespace = key;
+			else if (WadUtils.getNamespaceKey(name, "_END") != null)
+				namespace = null;
+
+			if (skip[i] || entry.getSize() == 0)
+				continue;
+
+			Decoder decoder = getDecoder(name, namespace, mapFormats[i]);
+			if (decoder == null)
+				continue;
+
+			batch.add(new DecodeCheck(i, name, wad.getData(entry), decoder));
+			batchBytes += entry.getSize();
+			if (batchBytes >= DECODE_BATCH_BYTES)
+			{
+				runChecks(batch, problems);
+				batch.clear();
+				batchBytes = 0;
+			}
+		}
+		runChecks(batch, problems);
+
+		List<Problem> sorted = new ArrayList<>(problems);
+		sorted.sort((a, b) -> a.entryIndex - b.entryIndex);
+		report.problems.addAll(sorted);
+	}
+
+	private static void runChecks(List<DecodeCheck> batch, Queue<Problem> problems)
+	{
+		batch.parallelStream().forEach((check) ->
+		{
+			try {
+				check.decoder.decode(check.data);
+			} catch (IOException | RuntimeException e) {
+				problems.add(new Problem(ProblemType.BAD_DATA, check.index, -1, 0, check.data.length,
+					"Entry " + check.index + " (" + check.name + ") could not be decoded: " + e.getMessage()
+				));
+			}
+		});
+	}
+
+	private static Decoder getDecoder(String name, String namespace, MapFormat mapFormat)
+	{
+		if (mapFormat == MapFormat.DOOM || mapFormat == MapFormat.HEXEN)
+		{
+			boolean hexen = mapFormat == MapFormat.HEXEN;
+			switch (name)
+			{
+				case MapUtils.LUMP_THINGS:
+					return hexen ? records(HexenThing.class, HexenThing.LENGTH) : records(DoomThing.class, DoomThing.LENGTH);
+				case MapUtils.LUMP_LINEDEFS:
+					return hexen ? records(HexenLinedef.class, HexenLinedef.LENGTH) : records(DoomLinedef.class, DoomLinedef.LENGTH);
+				case MapUtils.LUMP_SIDEDEFS:
+					return records(DoomSidedef.class, DoomSidedef.LENGTH);
+				case MapUtils.LUMP_VERTICES:
+					return records(DoomVertex.class, DoomVertex.LENGTH);
+				case MapUtils.LUMP_SECTORS:
+					return records(DoomSector.class, DoomSector.LENGTH);
+				case MapUtils.LUMP_SEGS:
+					return records(BSPSegment.class, BSPSegment.LENGTH);
+				case MapUtils.LUMP_SSECTORS:
+					return records(BSPSubsector.class, BSPSubsector.LENGTH);
+				case MapUtils.LUMP_NODES:
+					return records(BSPNode.class, BSPNode.LENGTH);
+				default:
+					return null;
+			}
+		}
+
+		switch (name)
+		{
+			case "PLAYPAL":
+				return records(Palette.class, Palette.LENGTH);
+			case "COLORMAP":
+				return records(Colormap.class, Colormap.LENGTH);
+			case "ENDOOM":
+				return (data) -> BinaryObject.create(EndDoom.class, data);
+			case "PNAMES":
+				return (data) -> BinaryObject.create(PatchNames.class, data);
+			case "TEXTURE1":
+			case "TEXTURE2":
+				return (data) -> {
+					if (TextureUtils.isStrifeTextureData(data))
+						BinaryObject.create(StrifeTextureList.class, data);
+					else
+						BinaryObject.create(DoomTextureList.class, data);
+				};
+			case "ANIMATED":
+				return (data) -> BinaryObject.create(Animated.class, data);
+			case "SWITCHES":
+				return (data) -> BinaryObject.create(Switches.class, data);
+		}
+
+		if ("P".equals(namespace) || "S".equals(namespace))
+			return (data) -> {
+				if (!isPNG(data))
+					BinaryObject.create(Picture.class, data);
+			};
+
+		return null;
+	}
+
+	private static boolean isPNG(byte[] data)
+	{
+		return data.length >= 4 && (data[0] & 0xff) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G';
+	}
+
+	private static <BO extends BinaryObject> Decoder records(Class<BO> type, int length)
+	{
+		return (data) -> {
+			if (data.length % length != 0)
+				throw new IOException("Length " + data.length + " is not a multiple of " + type.getSimpleName() + " length " + length);
+			BinaryObject.create(type, data, data.length / length);
+		};
+	}
+
+	@FunctionalInterface
+	private interface Decoder
+	{
+		void decode(byte[] data) throws IOException;
+	}
+
+	private static class DecodeCheck
+	{
+		private int index;
+		private String name;
+		private byte[] data;
+		private Decoder decoder;
+
+		private DecodeCheck(int index, String name, byte[] data, Decoder decoder)
+		{
+			this.index = index;
+			this.name = name;
+			this.data = data;
+			this.decoder = decoder;
+		}
+	}
+
+}
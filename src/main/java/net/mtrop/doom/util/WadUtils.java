@@ -10,7 +10,9 @@ package net.mtrop.doom.util;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import net.mtrop.doom.Wad;
@@ -25,6 +27,16 @@ import net.mtrop.doom.struct.Sizable;
  */
 public final class WadUtils
 {
+	/** Entries that are placed at the front of the content by {@link #getLayoutOrder(WadEntry...)}, in order. */
+	private static final String[] LAYOUT_FRONT_ENTRIES = {
+		"PLAYPAL", "COLORMAP", "PNAMES", "TEXTURE1", "TEXTURE2", "ANIMATED", "SWITCHES"
+	};
+	
+	/** Map entries that are placed first in a map's content by {@link #getLayoutOrder(WadEntry...)}. */
+	private static final String[] LAYOUT_MAP_ENTRIES = {
+		MapUtils.LUMP_THINGS, MapUtils.LUMP_LINEDEFS, MapUtils.LUMP_SIDEDEFS, MapUtils.LUMP_VERTICES, MapUtils.LUMP_SECTORS, MapUtils.LUMP_TEXTMAP
+	};
+	
 	private WadUtils() {}
 
 	/**
@@ -152,6 +164,152 @@ public final class WadUtils
 		WadFile.extract(destination, source, 0, source.getEntryCount()).close();
 	}
 
+	/**
+	 * Creates a new WAD file by copying the contents of an existing WAD to another file,
+	 * which discards all un-addressed data from the first. The source Wad must be an 
+	 * implementation that supports retrieving data from it.
+	 * <p>The entry list order is preserved, but the content can be rearranged for sequential read locality
+	 * and aligned to a byte boundary.
+	 * @param source the source Wad.
+	 * @param destination the destination file.
+	 * @param optimizeLayout if true, the content is written in the order returned by {@link #getLayoutOrder(WadEntry...)}.
+	 * @param alignment the byte alignment of the start of each non-empty entry's content, or 1 or less for no alignment.
+	 * 		Empty entries (like markers) are not aligned, and alignment padding is filled with zeroes.
+	 * @throws UnsupportedOperationException if the provided Wad is not an implementation that you can read data from.
+	 * @throws SecurityException if the target file cannot be written to due to security reasons.
+	 * @throws IOException if a read or write error occurs.
+	 * @since 2.23.0
+	 * @see WadFile#extract(File, Wad, boolean, int, WadEntry...)
+	 */
+	public static void cleanEntries(Wad source, File destination, boolean optimizeLayout, int alignment) throws IOException
+	{
+		WadFile.extract(destination, source, optimizeLayout, alignment, source.mapEntries(0, source.getEntryCount())).close();
+	}
+
+	/**
+	 * Figures out an order for writing the content of a set of entries such that content that is 
+	 * typically read together is stored together. This does not change the entry list order - only the
+	 * order in which entry content would be laid out in a WAD.
+	 * <p>
+	 * The order is as follows:
+	 * <ul>
+	 * <li>Palette, colormap, patch name, texture, and animation/switch lumps, first.</li>
+	 * <li>Each map's entries together, with the object lumps read by {@link MapUtils} (things, linedefs, sidedefs, vertices, sectors, textmap) 
+	 * first, and the rest of the map's entries after, in list order.</li>
+	 * <li>All entries in a namespace (for example, everything between <code>F_START</code>/<code>F_END</code> and
+	 * <code>FF_START</code>/<code>FF_END</code>) together, at the position of the first occurrence of that namespace.</li>
+	 * <li>Everything else, in list order.</li>
+	 * </ul>
+	 * @param entries the entries to lay out.
+	 * @return an array of indices into <code>entries</code>, in the order that their content should be written.
+	 * @since 2.23.0
+	 */
+	public static int[] getLayoutOrder(WadEntry ... entries)
+	{
+		int[] out = new int[entries.length];
+		boolean[] placed = new boolean[entries.length];
+		int n = 0;
+		
+		for (String name : LAYOUT_FRONT_ENTRIES)
+			for (int i = 0; i < entries.length; i++)
+				if (!placed[i] && name.equals(entries[i].getName()))
+				{
+					out[n++] = i;
+					placed[i] = true;
+				}
+		
+		// Figure out groups.
+		Object[] groupKeys = new Object[entries.length];
+		Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+		
+		String namespace = null;
+		int depth = 0;
+		for (int i = 0; i < entries.length; i++)
+		{
+			if (placed[i])
+				continue;
+			
+			String name = entries[i].getName();
+			if (namespace != null)
+			{
+				String ns = getNamespaceKey(name, "_START");
+				if (namespace.equals(ns))
+					depth++;
+				else if (namespace.equals(getNamespaceKey(name, "_END")))
+					depth--;
+				addToGroup(groups, groupKeys, namespace, i);
+				if (depth == 0)
+					namespace = null;
+			}
+			else if ((namespace = getNamespaceKey(name, "_START")) != null)
+			{
+				depth = 1;
+				addToGroup(groups, groupKeys, namespace, i);
+			}
+			else if (i + 1 < entries.length && !MapUtils.isMapDataLump(name) && MapUtils.isMapDataLump(entries[i + 1].getName()))
+			{
+				Integer mapKey = i;
+				int end = i + 1;
+				while (end < entries.length && MapUtils.isMapDataLump(entries[end].getName()))
+					end++;
+				
+				addToGroup(groups, groupKeys, mapKey, i);
+				for (String mapEntry : LAYOUT_MAP_ENTRIES)
+					for (int x = i + 1; x < end; x++)
+						if (groupKeys[x] == null && mapEntry.equals(entries[x].getName()))
+							addToGroup(groups, groupKeys, mapKey, x);
+				for (int x = i + 1; x < end; x++)
+					if (groupKeys[x] == null && !placed[x])
+						addToGroup(groups, groupKeys, mapKey, x);
+				i = end - 1;
+			}
+		}
+		
+		for (int i = 0; i < entries.length; i++)
+		{
+			if (placed[i])
+				continue;
+			
+			if (groupKeys[i] == null)
+			{
+				out[n++] = i;
+				placed[i] = true;
+			}
+			else for (Integer x : groups.get(groupKeys[i]))
+			{
+				out[n++] = x;
+				placed[x] = true;
+			}
+		}
+		
+		return out;
+	}
+
+	// Gets the normalized namespace of a marker name with a suffix, or null if not a namespace marker.
+	// Doubled or numbered prefixes ("FF", "F1", etc.) are normalized to a single letter.
+	static String getNamespaceKey(String name, String suffix)
+	{
+		if (!name.endsWith(suffix))
+			return null;
+		int len = name.length() - suffix.length();
+		if (len < 1 || len > 2)
+			return null;
+		
+		char c0 = name.charAt(0);
+		if (len == 1)
+			return String.valueOf(c0);
+		char c1 = name.charAt(1);
+		if (c0 == c1 || Character.isDigit(c1))
+			return String.valueOf(c0);
+		return name.substring(0, len);
+	}
+	
+	private static void addToGroup(Map<Object, List<Integer>> groups, Object[] groupKeys, Object key, int index)
+	{
+		groups.computeIfAbsent(key, (k) -> new ArrayList<>()).add(index);
+		groupKeys[index] = key;
+	}
+
 	/**
 	 * Finds all entries within a WAD entry namespace.
 	 * A namespace is marked by one or two characters and "_START" or "_END" as a suffix.
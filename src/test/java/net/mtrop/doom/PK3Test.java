@@ -7,6 +7,7 @@
  ******************************************************************************/
 package net.mtrop.doom;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.File;
@@ -14,6 +15,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -22,6 +24,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import net.mtrop.doom.sound.DMXSound;
+import net.mtrop.doom.util.MapUtils;
+import net.mtrop.doom.util.PK3Utils;
 
 public final class PK3Test
 {
@@ -53,8 +57,17 @@ public final class PK3Test
 	@AfterEach
 	public void afterEachTest() throws Exception
 	{
-		for (File f : TEST_DIR.listFiles())
+		deleteContents(TEST_DIR);
+	}
+	
+	private static void deleteContents(File dir)
+	{
+		for (File f : dir.listFiles())
+		{
+			if (f.isDirectory())
+				deleteContents(f);
 			f.delete();
+		}
 	}
 	
 	@Test
@@ -178,4 +191,130 @@ public final class PK3Test
 		assertEquals(sb.toString(), pk3.getTextData("decorate.txt", Charset.forName("ASCII")));
 	}
 
+	@Test
+	public void getAllData() throws Exception
+	{
+		Map<String, byte[]> data = pk3.getAllData("maps/", 4);
+		assertEquals(data.size(), 7);
+		for (Map.Entry<String, byte[]> entry : data.entrySet())
+			assertArrayEquals(entry.getValue(), pk3.getData(entry.getKey()));
+		assertEquals(pk3.getAllData("maps/", 1).keySet(), data.keySet());
+	}
+
+	@Test
+	public void getAllDataAs() throws Exception
+	{
+		Map<String, DMXSound> sounds = pk3.getAllDataAs("sounds/", DMXSound.class, 4);
+		assertEquals(sounds.size(), pk3.getEntriesStartingWith("sounds/").size());
+	}
+
+	@Test
+	public void extractEntries() throws Exception
+	{
+		List<File> files = pk3.extractEntries("", TEST_DIR, 4);
+		assertEquals(files.size(), pk3.getEntryCount());
+		File map02 = new File(TEST_DIR, "maps/map02.wad");
+		assertEquals(map02.exists(), true);
+		assertEquals(map02.length(), 250034L);
+	}
+
+	@Test
+	public void buildPK3() throws Exception
+	{
+		File built = new File(TEST_DIR, "built.pk3");
+		DoomPK3Builder builder = new DoomPK3Builder();
+		for (Map.Entry<String, byte[]> entry : pk3.getAllData("").entrySet())
+			builder.addData(entry.getKey(), entry.getValue());
+		builder.writeTo(built);
+		
+		try (DoomPK3 rebuilt = new DoomPK3(built))
+		{
+			assertEquals(rebuilt.getEntryCount(), pk3.getEntryCount());
+			for (String name : pk3.getEntriesStartingWith(""))
+				assertArrayEquals(rebuilt.getData(name), pk3.getData(name));
+		}
+	}
+
+	@Test
+	public void convertWadToPK3AndBack() throws Exception
+	{
+		File pk3File = new File(TEST_DIR, "converted.pk3");
+		File wadFile = new File(TEST_DIR, "converted.wad");
+		try (WadFile source = new WadFile("src/test/resources/doommap.wad"))
+		{
+			PK3Utils.convertWadToPK3(source, pk3File);
+			try (DoomPK3 converted = new DoomPK3(pk3File))
+			{
+				assertEquals(converted.contains("maps/map07.wad"), true);
+				PK3Utils.convertPK3ToWad(converted, wadFile);
+			}
+			try (WadFile back = new WadFile(wadFile))
+			{
+				assertEquals(back.getEntryCount(), source.getEntryCount());
+				assertEquals(MapUtils.getAllMapHeaders(back)[0], "MAP07");
+				for (WadEntry entry : source)
+					assertArrayEquals(back.getData(entry.getName()), source.getData(entry));
+			}
+		}
+	}
+
+	@Test
+	public void fileSystemMount() throws Exception
+	{
+		try (DoomPK3FileSystem fs = new DoomPK3FileSystem(TEST_PK3, 1024 * 1024))
+		{
+			assertEquals(fs.getFileCount(), pk3.getEntryCount());
+			assertEquals(fs.isStored("maps/map01.wad"), false);
+			assertArrayEquals(fs.getData("sprites/bal1c0.png"), pk3.getData("sprites/bal1c0.png"));
+			
+			Wad mounted = fs.mount("maps/map01.wad");
+			WadBuffer buffer = pk3.getDataAsWadBuffer("maps/map01.wad");
+			assertEquals(mounted.getEntryCount(), buffer.getEntryCount());
+			for (int i = 0; i < buffer.getEntryCount(); i++)
+				assertArrayEquals(mounted.getData(i), buffer.getData(i));
+			
+			List<DoomPK3FileSystem.Resource> things = fs.findResources("maps", "THINGS");
+			assertEquals(things.size(), 7);
+			assertEquals(things.get(0).getContainer(), "maps/map01.wad");
+		}
+	}
+
+	@Test
+	public void fileSystemMountUncached() throws Exception
+	{
+		try (DoomPK3FileSystem fs = new DoomPK3FileSystem(TEST_PK3, 0))
+		{
+			Wad mounted = fs.mount("maps/map01.wad");
+			WadBuffer buffer = pk3.getDataAsWadBuffer("maps/map01.wad");
+			for (int i = 0; i < buffer.getEntryCount(); i++)
+				assertArrayEquals(mounted.getData(i), buffer.getData(i));
+			assertArrayEquals(fs.getData("sprites/bal1c0.png"), pk3.getData("sprites/bal1c0.png"));
+			for (int i = 0; i < buffer.getEntryCount(); i++)
+				assertArrayEquals(mounted.getData(i), buffer.getData(i));
+			
+			List<DoomPK3FileSystem.Resource> things = fs.findResources("MAPS", "things");
+			assertEquals(things.size(), 7);
+			assertEquals(fs.findResources("maps", "THINGS"), things);
+			assertEquals(fs.findResources("sprites", "BAL1C0").size(), 1);
+			assertEquals(fs.findResources("sprites", "NOTHING").isEmpty(), true);
+		}
+	}
+
+	@Test
+	public void fileSystemMountStored() throws Exception
+	{
+		File built = new File(TEST_DIR, "stored.pk3");
+		File wadFile = new File("src/test/resources/doommap.wad");
+		new DoomPK3Builder().setStoreRatio(0.0).addFile("maps/map07.wad", wadFile).writeTo(built);
+		
+		try (DoomPK3FileSystem fs = new DoomPK3FileSystem(built); WadFile source = new WadFile(wadFile))
+		{
+			assertEquals(fs.isStored("maps/map07.wad"), true);
+			Wad mounted = fs.mount("maps/map07.wad");
+			assertEquals(mounted.getEntryCount(), source.getEntryCount());
+			for (int i = 0; i < source.getEntryCount(); i++)
+				assertArrayEquals(mounted.getData(i), source.getData(i));
+		}
+	}
+
 }
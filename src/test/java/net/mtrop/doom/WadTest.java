@@ -7,14 +7,19 @@
  ******************************************************************************/
 package net.mtrop.doom;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import net.mtrop.doom.util.WadChecker;
+
 
 public final class WadTest
 {
@@ -71,5 +76,125 @@ public final class WadTest
 		wad.getData("THINGS");
 		wad.close();
 	}
+
+	@Test
+	public void extractWithLayout() throws Exception
+	{
+		File outFile = new File(TEST_DIR, "layout.wad");
+		try (WadFile source = new WadFile("src/test/resources/doommap.wad"); WadFile out = WadFile.extract(outFile, source, true, 16, source.mapEntries(0, source.getEntryCount())))
+		{
+			assertEquals(source.getEntryCount(), out.getEntryCount());
+			for (int i = 0; i < source.getEntryCount(); i++)
+			{
+				WadEntry entry = out.getEntry(i);
+				assertEquals(source.getEntry(i).getName(), entry.getName());
+				assertArrayEquals(source.getData(i), out.getData(i));
+				if (entry.getSize() > 0)
+					assertEquals(0, entry.getOffset() % 16);
+			}
+		}
+		assertEquals(outFile.delete(), true);
+	}
+
+	@Test
+	public void checkWad() throws Exception
+	{
+		try (WadFile wad = new WadFile("src/test/resources/hexenmap.wad"))
+		{
+			WadChecker.Report report = WadChecker.checkWithData(wad);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OUT_OF_BOUNDS).isEmpty(), true);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OVERLAP).isEmpty(), true);
+			assertEquals(report.getProblems(WadChecker.ProblemType.BAD_MAP).isEmpty(), true);
+			assertEquals(report.getProblems(WadChecker.ProblemType.BAD_DATA).isEmpty(), true);
+		}
+	}
+
+	@Test
+	public void checkWadRanges() throws Exception
+	{
+		// entry list first, then content.
+		File wadFile = new File(TEST_DIR, "ranges.wad");
+		WadEntry[] entries = {
+			WadEntry.create("ALPHA", 108, 40),
+			WadEntry.create("BRAVO", 108, 8),
+			WadEntry.create("CHARLIE", 128, 5),
+			WadEntry.create("DELTA", 108, 40),
+			WadEntry.create("ECHO", 140, 10),
+			WadEntry.create("FOXTROT", 20, 4),
+		};
+		try (FileOutputStream out = new FileOutputStream(wadFile))
+		{
+			out.write(new byte[]{'P', 'W', 'A', 'D', 6, 0, 0, 0, 12, 0, 0, 0});
+			for (WadEntry entry : entries)
+				entry.writeBytes(out);
+			out.write(new byte[40]);
+		}
+		try (WadFile wad = new WadFile(wadFile))
+		{
+			WadChecker.Report report = WadChecker.check(wad);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OUT_OF_BOUNDS).size(), 2);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OUT_OF_BOUNDS).get(0).getEntryIndex(), 4);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OUT_OF_BOUNDS).get(1).getEntryIndex(), 5);
+			assertEquals(report.getProblems(WadChecker.ProblemType.ALIAS).size(), 1);
+			assertEquals(report.getProblems(WadChecker.ProblemType.ALIAS).get(0).getOtherIndex(), 0);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OVERLAP).size(), 2);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OVERLAP).get(0).getOtherIndex(), 0);
+			assertEquals(report.getProblems(WadChecker.ProblemType.OVERLAP).get(1).getOtherIndex(), 0);
+			assertEquals(report.getProblems(WadChecker.ProblemType.GAP).isEmpty(), true);
+		}
+		assertEquals(wadFile.delete(), true);
+	}
+
+	@Test
+	public void compressedWadRoundTrip() throws Exception
+	{
+		File compressedFile = new File(TEST_DIR, "compressed.zwad");
+		File outFile = new File(TEST_DIR, "decompressed.wad");
+		try (WadFile source = new WadFile("src/test/resources/hexenmap.wad"); CompressedWadFile compressed = CompressedWadFile.createFrom(compressedFile, source))
+		{
+			assertEquals(CompressedWadFile.isCompressedWAD(compressedFile), true);
+			assertEquals(source.getEntryCount(), compressed.getEntryCount());
+			for (int i = 0; i < source.getEntryCount(); i++)
+			{
+				assertEquals(source.getEntry(i).getName(), compressed.getEntry(i).getName());
+				assertArrayEquals(source.getData(i), compressed.getData(i));
+			}
+			try (WadFile out = compressed.decompressTo(outFile))
+			{
+				assertEquals(source.isIWAD(), out.isIWAD());
+				for (int i = 0; i < source.getEntryCount(); i++)
+					assertArrayEquals(source.getData(i), out.getData(i));
+			}
+		}
+		assertEquals(compressedFile.delete(), true);
+		assertEquals(outFile.delete(), true);
+	}
+
+	@Test
+	public void reloadEntries() throws Exception
+	{
+		File wadFile = new File(TEST_DIR, "reload.wad");
+		Files.copy(new File("src/test/resources/doommap.wad").toPath(), wadFile.toPath());
+		try (WadFile wad = new WadFile(wadFile, false))
+		{
+			int count = wad.getEntryCount();
+			assertEquals(wad.isChangedOnDisk(), false);
+			try (WadFile other = new WadFile(wadFile, false))
+			{
+				other.addData("NEWLUMP", new byte[]{1, 2, 3, 4});
+			}
+			assertEquals(wad.isChangedOnDisk(), true);
+			WadFile.EntryListChanges changes = wad.reloadEntriesIfChanged();
+			assertEquals(changes.hasChanges(), true);
+			assertEquals(count + 1, wad.getEntryCount());
+			assertEquals(changes.getAddedEntries().size(), 1);
+			assertEquals(changes.getRemovedEntries().size(), 0);
+			assertEquals(changes.getPreviousIndex(0), 0);
+			assertEquals(changes.getPreviousIndex(count), -1);
+			assertArrayEquals(wad.getData("NEWLUMP"), new byte[]{1, 2, 3, 4});
+			assertEquals(wad.isChangedOnDisk(), false);
+		}
+		assertEquals(wadFile.delete(), true);
+	}
 	
 }
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.bsp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.DoomMap;
+import net.mtrop.doom.map.MapSpatialIndex;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.util.MapUtils;
+
+public final class BSPPointLocatorTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void locateThings() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			MapSpatialIndex index = MapSpatialIndex.create(map);
+			BSPPointLocator original = BSPPointLocator.create(MapUtils.createBSPTree(wad, wad.getEntry(0).getName()), map);
+			BSPPointLocator built = BSPPointLocator.create(new BSPTreeBuilder().build(map), map);
+			int[] sectors = original.getThingSectorIndices(map, false);
+			assertArrayEquals(sectors, original.getThingSectorIndices(map, true));
+
+			int[] x = new int[map.getThingCount()];
+			int[] y = new int[map.getThingCount()];
+			int checked = 0;
+			for (int i = 0; i < map.getThingCount(); i++)
+			{
+				DoomThing thing = map.getThing(i);
+				x[i] = thing.getX();
+				y[i] = thing.getY();
+				assertEquals(sectors[i], original.getSectorIndex(x[i], y[i]));
+				int[] candidates = index.getSectorCandidates(x[i], y[i]);
+				if (candidates.length != 1)
+					continue;
+				assertEquals(candidates[0], sectors[i]);
+				assertEquals(candidates[0], built.getSectorIndex(x[i], y[i]));
+				checked++;
+			}
+			assertTrue(checked > 0);
+			assertArrayEquals(sectors, original.getSectorIndices(x, y, true));
+
+			BSPPointLocator empty = BSPPointLocator.create(new BSPTree(), new DoomMap());
+			assertEquals(-1, empty.getSubsectorIndex(0, 0));
+			assertEquals(-1, empty.getSectorIndex(0.5, 0.5));
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.bsp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.bsp.data.BSPNode;
+import net.mtrop.doom.bsp.data.BSPSegment;
+import net.mtrop.doom.bsp.data.BSPSubsector;
+import net.mtrop.doom.map.DoomMap;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.object.BinaryObject;
+import net.mtrop.doom.util.MapUtils;
+
+public final class BSPTreeBuilderTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void build() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			BSPTree tree = new BSPTreeBuilder().build(map);
+			BSPTree parallel = new BSPTreeBuilder().setParallel(true).build(map);
+			assertArrayEquals(BinaryObject.toBytes(tree.getNodes().toArray(new BSPNode[0])), BinaryObject.toBytes(parallel.getNodes().toArray(new BSPNode[0])));
+			assertArrayEquals(BinaryObject.toBytes(tree.getSegments().toArray(new BSPSegment[0])), BinaryObject.toBytes(parallel.getSegments().toArray(new BSPSegment[0])));
+			assertEquals(tree.getSubsectorCount(), tree.getNodeCount() + 1);
+
+			int vertexCount = map.getVertexCount();
+			long[] x = new long[vertexCount + tree.getVertexCount()];
+			long[] y = new long[x.length];
+			for (int i = 0; i < x.length; i++)
+			{
+				DoomVertex vertex = i < vertexCount ? map.getVertex(i) : tree.getVertex(i - vertexCount);
+				x[i] = vertex.getX();
+				y[i] = vertex.getY();
+			}
+
+			// segments cover both sides of every linedef, and lie along them.
+			double[] covered = new double[map.getLinedefCount() * 2];
+			for (BSPSegment seg : tree.getSegments())
+			{
+				int s = seg.getVertexStartIndex(), e = seg.getVertexEndIndex();
+				DoomLinedef linedef = map.getLinedef(seg.getLinedefIndex());
+				DoomVertex origin = map.getVertex(seg.getDirection() == BSPSegment.DIRECTION_SAME_AS_LINEDEF ? linedef.getVertexStartIndex() : linedef.getVertexEndIndex());
+				covered[seg.getLinedefIndex() * 2 + seg.getDirection()] += Math.hypot(x[e] - x[s], y[e] - y[s]);
+				assertEquals(Math.hypot(x[s] - origin.getX(), y[s] - origin.getY()), seg.getOffset(), 1.0);
+			}
+			for (int i = 0; i < map.getLinedefCount(); i++)
+			{
+				DoomLinedef linedef = map.getLinedef(i);
+				DoomVertex start = map.getVertex(linedef.getVertexStartIndex());
+				DoomVertex end = map.getVertex(linedef.getVertexEndIndex());
+				double length = Math.hypot(end.getX() - start.getX(), end.getY() - start.getY());
+				assertEquals(length, covered[i * 2], 2.0);
+				assertEquals(linedef.getSidedefBackIndex() < 0 ? 0.0 : length, covered[i * 2 + 1], 2.0);
+			}
+
+			// every segment under a node is in its child's box, and on its child's side of the partition (give or take rounding).
+			for (int i = 0; i < tree.getNodeCount(); i++)
+			{
+				BSPNode node = tree.getNode(i);
+				for (int side = 0; side < 2; side++)
+				{
+					int child = side == 0 ? node.getRightSubsectorIndex() : node.getLeftSubsectorIndex();
+					int[] box = side == 0 ? node.getRightRect() : node.getLeftRect();
+					if ((child & BSPNode.LEAF_NODE_FLAG) == 0)
+						assertTrue(child < i);
+					List<BSPSegment> segs = new ArrayList<>();
+					addSegments(tree, child, segs);
+					for (BSPSegment seg : segs)
+						for (int v : new int[]{seg.getVertexStartIndex(), seg.getVertexEndIndex()})
+						{
+							assertTrue(x[v] >= box[2] && x[v] <= box[3] && y[v] >= box[1] && y[v] <= box[0]);
+							long cross = (x[v] - node.getPartitionLineX()) * node.getPartitionDeltaY() - (y[v] - node.getPartitionLineY()) * node.getPartitionDeltaX();
+							double distance = cross / Math.hypot(node.getPartitionDeltaX(), node.getPartitionDeltaY());
+							assertTrue(side == 0 ? distance > -1.0 : distance < 1.0);
+						}
+				}
+			}
+			assertEquals(0, new BSPTreeBuilder().build(new DoomMap()).getSubsectorCount());
+		}
+	}
+
+	private static void addSegments(BSPTree tree, int child, List<BSPSegment> out)
+	{
+		if ((child & BSPNode.LEAF_NODE_FLAG) != 0)
+		{
+			BSPSubsector subsector = tree.getSubsector(child & ~BSPNode.LEAF_NODE_FLAG);
+			for (int i = 0; i < subsector.getSegCount(); i++)
+				out.add(tree.getSegment(subsector.getSegStartIndex() + i));
+			return;
+		}
+		addSegments(tree, tree.getNode(child).getRightSubsectorIndex(), out);
+		addSegments(tree, tree.getNode(child).getLeftSubsectorIndex(), out);
+	}
+
+}
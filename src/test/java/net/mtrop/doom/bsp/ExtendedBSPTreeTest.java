@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.bsp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadBuffer;
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.exception.MapException;
+import net.mtrop.doom.util.MapUtils;
+
+public final class ExtendedBSPTreeTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+	private static final File TEST_UDMF = new File("src/test/resources/udmfmap.wad");
+
+	@Test
+	public void readAndWrite() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_UDMF))
+		{
+			assertEquals(NodeFormat.XGL3, MapUtils.getNodeFormat(wad, 0));
+			ExtendedBSPTree tree = MapUtils.createExtendedBSPTree(wad, 0);
+			assertTrue(tree.getNodeCount() > 0);
+			assertArrayEquals(wad.getData(MapUtils.LUMP_ZNODES), writeZDoomNodes(tree, NodeFormat.XGL3));
+
+			byte[] compressed = writeZDoomNodes(tree, NodeFormat.ZGL3);
+			assertArrayEquals(wad.getData(MapUtils.LUMP_ZNODES), writeZDoomNodes(ExtendedBSPTree.readZDoomNodes(compressed), NodeFormat.XGL3));
+			ByteArrayInputStream in = new ByteArrayInputStream(Arrays.copyOf(wad.getData(MapUtils.LUMP_ZNODES), wad.getEntry(MapUtils.LUMP_ZNODES).getSize() + 5));
+			assertEquals(tree.getNodeCount(), ExtendedBSPTree.readZDoomNodes(in).getNodeCount());
+			assertEquals(5, in.available());
+
+			ByteArrayOutputStream[] gl = new ByteArrayOutputStream[4];
+			for (int i = 0; i < gl.length; i++)
+				gl[i] = new ByteArrayOutputStream();
+			tree.writeGLNodes(NodeFormat.GL_V5, gl[0], gl[1], gl[2], gl[3]);
+			ExtendedBSPTree glTree = ExtendedBSPTree.readGLNodes(tree.getMapVertexCount(), gl[0].toByteArray(), gl[1].toByteArray(), gl[2].toByteArray(), gl[3].toByteArray());
+			assertEquals(tree.getSegmentCount(), glTree.getSegmentCount());
+			for (int i = 0; i < tree.getSegmentCount(); i++)
+			{
+				assertEquals(tree.getSegmentStartVertex(i), glTree.getSegmentStartVertex(i));
+				assertEquals(tree.getSegmentEndVertex(i), glTree.getSegmentEndVertex(i));
+				assertEquals(tree.getSegmentLinedef(i), glTree.getSegmentLinedef(i));
+				assertEquals(tree.getSegmentPartner(i), glTree.getSegmentPartner(i));
+			}
+			assertThrows(IOException.class, () -> writeZDoomNodes(tree, NodeFormat.XNOD));
+		}
+
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			assertEquals(NodeFormat.DOOM, MapUtils.getNodeFormat(wad, 0));
+			ExtendedBSPTree tree = MapUtils.createExtendedBSPTree(wad, 0);
+			BSPTree vanilla = MapUtils.createBSPTree(wad, 0);
+			assertEquals(vanilla.getNodeCount(), tree.getNodeCount());
+			assertEquals(vanilla.getSegmentCount(), tree.getSegmentCount());
+			for (int i = 0; i < vanilla.getNodeCount(); i++)
+			{
+				assertEquals(vanilla.getNode(i).getPartitionLineX() << 16, tree.getNodeX(i));
+				assertArrayEquals(vanilla.getNode(i).getLeftRect(), tree.getNodeLeftRect(i));
+			}
+
+			byte[] extended = writeZDoomNodes(tree, NodeFormat.XNOD);
+			assertArrayEquals(extended, writeZDoomNodes(ExtendedBSPTree.readZDoomNodes(writeZDoomNodes(tree, NodeFormat.ZNOD)), NodeFormat.XNOD));
+
+			// uncompressed nodes are read exactly.
+			byte[] trailing = Arrays.copyOf(extended, extended.length + 3);
+			ByteArrayInputStream in = new ByteArrayInputStream(trailing);
+			assertArrayEquals(extended, writeZDoomNodes(ExtendedBSPTree.readZDoomNodes(in), NodeFormat.XNOD));
+			assertEquals(3, in.available());
+
+			WadBuffer buffer = WadBuffer.extract(wad, 0, MapUtils.getMapEntryCount(wad, 0));
+			buffer.replaceEntry(buffer.indexOf(MapUtils.LUMP_NODES), extended);
+			assertEquals(NodeFormat.XNOD, MapUtils.getNodeFormat(buffer, 0));
+			assertThrows(MapException.class, () -> MapUtils.createBSPTree(buffer, 0));
+			assertEquals(tree.getSegmentCount(), MapUtils.createExtendedBSPTree(buffer, 0).getSegmentCount());
+		}
+	}
+
+	private static byte[] writeZDoomNodes(ExtendedBSPTree tree, NodeFormat format) throws IOException
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		tree.writeZDoomNodes(bos, format);
+		return bos.toByteArray();
+	}
+
+}
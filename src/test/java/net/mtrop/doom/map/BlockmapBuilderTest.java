@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.data.Blockmap;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.object.BinaryObject;
+import net.mtrop.doom.util.MapUtils;
+
+public final class BlockmapBuilderTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void build() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			Blockmap original = wad.getDataAs("BLOCKMAP", Blockmap.class);
+			Blockmap built = new BlockmapBuilder().setParallel(true).build(map);
+			assertEquals(original.getStartX(), built.getStartX());
+			assertEquals(original.getStartY(), built.getStartY());
+
+			// every line is in the block of its first vertex.
+			for (int i = 0; i < map.getLinedefCount(); i++)
+			{
+				DoomVertex v = map.getVertex(map.getLinedef(i).getVertexStartIndex());
+				assertTrue(contains(original.getIndexListForPosition(v.getX(), v.getY()), i));
+				assertTrue(contains(built.getIndexListForPosition(v.getX(), v.getY()), i));
+			}
+
+			// built lists are exactly the lines that touch each block, edges included.
+			byte[] vanilla = built.toBytes();
+			assertArrayEquals(vanilla, new BlockmapBuilder().build(map).toBytes());
+			built.setCompressed(true);
+			byte[] compressed = built.toBytes();
+			assertTrue(compressed.length < vanilla.length);
+			Blockmap reread = BinaryObject.create(Blockmap.class, compressed);
+			for (int x = 0; x < 38; x++)
+				for (int y = 0; y < 29; y++)
+				{
+					List<Integer> expected = new ArrayList<>();
+					for (int i = 0; i < map.getLinedefCount(); i++)
+					{
+						DoomVertex v0 = map.getVertex(map.getLinedef(i).getVertexStartIndex());
+						DoomVertex v1 = map.getVertex(map.getLinedef(i).getVertexEndIndex());
+						int bx = -2944 + x * 128, by = -848 + y * 128;
+						if (touchesBox(v0.getX(), v0.getY(), v1.getX(), v1.getY(), bx, by, bx + 128, by + 128))
+							expected.add(i);
+					}
+					assertEquals(expected, toList(built.getIndexList(x, y)));
+					assertEquals(toList(built.getIndexList(x, y)), toList(reread.getIndexList(x, y)));
+				}
+			assertArrayEquals(vanilla, BinaryObject.create(Blockmap.class, vanilla).toBytes());
+			assertThrows(IllegalArgumentException.class, () -> new Blockmap(0, 0, 2, 1, new int[] {0, 2, 1}, new char[1]));
+		}
+	}
+
+	private static boolean touchesBox(long x0, long y0, long x1, long y1, long minX, long minY, long maxX, long maxY)
+	{
+		if (Math.max(x0, x1) < minX || Math.min(x0, x1) > maxX || Math.max(y0, y1) < minY || Math.min(y0, y1) > maxY)
+			return false;
+		long dx = x1 - x0, dy = y1 - y0;
+		long[] s = {
+			dx * (minY - y0) - dy * (minX - x0), dx * (minY - y0) - dy * (maxX - x0),
+			dx * (maxY - y0) - dy * (minX - x0), dx * (maxY - y0) - dy * (maxX - x0)
+		};
+		return !((s[0] > 0 && s[1] > 0 && s[2] > 0 && s[3] > 0) || (s[0] < 0 && s[1] < 0 && s[2] < 0 && s[3] < 0));
+	}
+
+	private static boolean contains(Iterable<Integer> list, int value)
+	{
+		for (int i : list)
+			if (i == value)
+				return true;
+		return false;
+	}
+
+	private static List<Integer> toList(Iterable<Integer> list)
+	{
+		List<Integer> out = new ArrayList<>();
+		for (int i : list)
+			out.add(i);
+		return out;
+	}
+
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.object.BinaryObject;
+import net.mtrop.doom.util.MapUtils;
+
+public final class CompactDoomMapTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void matchesDoomMap() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			TextureNameTable names = new TextureNameTable();
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			CompactDoomMap compact = MapUtils.createCompactDoomMap(wad, 0, names);
+			CompactDoomMap fromObjects = CompactDoomMap.create(names, map);
+			int nameCount = names.size();
+			
+			for (CompactDoomMap m : new CompactDoomMap[]{compact, fromObjects})
+			{
+				DoomMap converted = m.toDoomMap();
+				assertArrayEquals(BinaryObject.toBytes(map.getVertices().toArray(new BinaryObject[0])), BinaryObject.toBytes(converted.getVertices().toArray(new BinaryObject[0])));
+				assertArrayEquals(BinaryObject.toBytes(map.getLinedefs().toArray(new BinaryObject[0])), BinaryObject.toBytes(converted.getLinedefs().toArray(new BinaryObject[0])));
+				assertArrayEquals(BinaryObject.toBytes(map.getSidedefs().toArray(new BinaryObject[0])), BinaryObject.toBytes(converted.getSidedefs().toArray(new BinaryObject[0])));
+				assertArrayEquals(BinaryObject.toBytes(map.getSectors().toArray(new BinaryObject[0])), BinaryObject.toBytes(converted.getSectors().toArray(new BinaryObject[0])));
+				assertArrayEquals(BinaryObject.toBytes(map.getThings().toArray(new BinaryObject[0])), BinaryObject.toBytes(converted.getThings().toArray(new BinaryObject[0])));
+			}
+			
+			assertEquals(map.getSidedef(3).getTextureMiddle(), compact.getSidedefTextureMiddle(3));
+			assertEquals(compact.getSidedefTextureMiddleIndex(3), fromObjects.getSidedefTextureMiddleIndex(3));
+			assertEquals(map.getLinedef(2).getSidedefBackIndex(), compact.getLinedefSidedefBackIndex(2));
+			
+			// a second load shares the table.
+			MapUtils.createCompactDoomMap(wad, 0, names);
+			assertEquals(nameCount, names.size());
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.texture.TextureSet;
+import net.mtrop.doom.util.MapUtils;
+
+public final class MapCheckerTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void check() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			MapChecker.Report report = new MapChecker().check(map);
+			assertEquals(report.getProblems().toString(), new MapChecker().setParallel(true).check(map).getProblems().toString());
+			for (MapChecker.Problem problem : report.getProblems())
+				assertTrue(problem.getType() == MapChecker.ProblemType.MISSING_TEXTURE || problem.getType() == MapChecker.ProblemType.UNUSED_SECTOR_TAG, problem.toString());
+		}
+
+		DoomMap map = new DoomMap();
+		int[][] vertices = {{0, 0}, {128, 0}, {128, 128}, {0, 128}, {64, 0}};
+		for (int[] v : vertices)
+		{
+			DoomVertex vertex = new DoomVertex();
+			vertex.set(v[0], v[1]);
+			map.addVertex(vertex);
+		}
+		// closed square (0 to 3), overlapping line (4), zero-length line (5), bad vertex (6), bad sidedef and tag (7).
+		int[][] linedefs = {{0, 3, 0, -1}, {3, 2, 1, -1}, {2, 1, 2, -1}, {1, 0, 3, -1}, {0, 4, 4, -1}, {2, 2, 5, -1}, {0, 99, 0, -1}, {0, 2, 6, 42}};
+		for (int[] l : linedefs)
+		{
+			DoomLinedef linedef = new DoomLinedef();
+			linedef.setVertexStartIndex(l[0]);
+			linedef.setVertexEndIndex(l[1]);
+			linedef.setSidedefFrontIndex(l[2]);
+			linedef.setSidedefBackIndex(l[3]);
+			map.addLinedef(linedef);
+		}
+		map.getLinedef(7).setSpecial(1);
+		map.getLinedef(7).setTag(9);
+		String[] middles = {"WALL", "NOPE", "-", "WALL", "WALL", "WALL", "WALL"};
+		for (int i = 0; i < middles.length; i++)
+		{
+			DoomSidedef sidedef = new DoomSidedef();
+			sidedef.setTextureMiddle(middles[i]);
+			sidedef.setSectorIndex(i == 6 ? 7 : 0);
+			map.addSidedef(sidedef);
+		}
+		DoomSector sector = new DoomSector();
+		sector.setHeightCeiling(128);
+		sector.setTextureFloor("FLOOR");
+		sector.setTextureCeiling("NOFLAT");
+		sector.setTag(5);
+		map.addSector(sector);
+		for (int[] t : new int[][]{{64, 64}, {500, 500}})
+		{
+			DoomThing thing = new DoomThing();
+			thing.set(t[0], t[1]);
+			map.addThing(thing);
+		}
+
+		TextureSet textures = new TextureSet();
+		textures.createTexture("WALL");
+		MapChecker.Report report = new MapChecker().setTextures(textures).setFlats(Arrays.asList("floor")).check(map);
+		assertEquals(report.getProblems().toString(), new MapChecker().setTextures(textures).setFlats(Arrays.asList("floor")).setParallel(true).check(map).getProblems().toString());
+		assertProblem(report, MapChecker.ProblemType.BAD_VERTEX_REFERENCE, 6, 99);
+		assertProblem(report, MapChecker.ProblemType.BAD_SIDEDEF_REFERENCE, 7, 42);
+		assertProblem(report, MapChecker.ProblemType.BAD_SECTOR_REFERENCE, 6, 7);
+		assertProblem(report, MapChecker.ProblemType.UNCLOSED_SECTOR, 0, 0);
+		assertProblem(report, MapChecker.ProblemType.ZERO_LENGTH_LINEDEF, 5, -1);
+		assertProblem(report, MapChecker.ProblemType.OVERLAPPING_LINEDEF, 3, 4);
+		assertProblem(report, MapChecker.ProblemType.MISSING_TEXTURE, 2, 2);
+		assertProblem(report, MapChecker.ProblemType.UNKNOWN_TEXTURE, 1, -1);
+		assertProblem(report, MapChecker.ProblemType.UNKNOWN_FLAT, 0, -1);
+		assertProblem(report, MapChecker.ProblemType.THING_OUTSIDE_MAP, 1, -1);
+		assertProblem(report, MapChecker.ProblemType.UNMATCHED_LINEDEF_TAG, 7, 9);
+		assertProblem(report, MapChecker.ProblemType.UNUSED_SECTOR_TAG, 0, 5);
+		assertEquals(12, report.getProblems().size());
+	}
+
+	private static void assertProblem(MapChecker.Report report, MapChecker.ProblemType type, int index, int otherIndex)
+	{
+		List<MapChecker.Problem> problems = report.getProblems(type);
+		assertEquals(1, problems.size(), type + ": " + problems);
+		assertEquals(index, problems.get(0).getIndex());
+		assertEquals(otherIndex, problems.get(0).getOtherIndex());
+	}
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.util.MapUtils;
+
+public final class MapSpatialIndexTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void query() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			MapSpatialIndex index = MapSpatialIndex.create(map, 64);
+			int[][] boxes = {{0, 0, 256, 256}, {-512, -512, 512, 512}, {1000, -200, 1100, 900}, {-4096, -4096, 4096, 4096}};
+			for (int[] box : boxes)
+			{
+				List<Integer> linedefs = new ArrayList<>();
+				for (int i = 0; i < map.getLinedefCount(); i++)
+				{
+					DoomLinedef linedef = map.getLinedef(i);
+					DoomVertex v0 = map.getVertex(linedef.getVertexStartIndex());
+					DoomVertex v1 = map.getVertex(linedef.getVertexEndIndex());
+					if (crossesBox(v0.getX(), v0.getY(), v1.getX(), v1.getY(), box))
+						linedefs.add(i);
+				}
+				assertArrayEquals(linedefs.stream().mapToInt(Integer::intValue).toArray(), index.getLinedefsInBox(box[0], box[1], box[2], box[3]));
+
+				List<Integer> things = new ArrayList<>();
+				for (int i = 0; i < map.getThingCount(); i++)
+				{
+					DoomThing thing = map.getThing(i);
+					if (thing.getX() >= box[0] && thing.getX() <= box[2] && thing.getY() >= box[1] && thing.getY() <= box[3])
+						things.add(i);
+				}
+				assertArrayEquals(things.stream().mapToInt(Integer::intValue).toArray(), index.getThingsInBox(box[0], box[1], box[2], box[3]));
+			}
+
+			for (int i = 0; i < map.getThingCount(); i++)
+			{
+				DoomThing thing = map.getThing(i);
+				int nearest = -1;
+				long nearestDistance = Long.MAX_VALUE;
+				for (int v = 0; v < map.getVertexCount(); v++)
+				{
+					long dx = map.getVertex(v).getX() - (thing.getX() + 37);
+					long dy = map.getVertex(v).getY() - (thing.getY() - 11);
+					if (dx * dx + dy * dy < nearestDistance)
+					{
+						nearest = v;
+						nearestDistance = dx * dx + dy * dy;
+					}
+				}
+				assertEquals(nearest, index.getNearestVertex(thing.getX() + 37, thing.getY() - 11));
+				assertTrue(index.getSectorCandidates(thing.getX(), thing.getY()).length > 0);
+			}
+			assertEquals(-1, MapSpatialIndex.create(new DoomMap()).getNearestLinedef(0, 0));
+		}
+	}
+
+	private static boolean crossesBox(double x0, double y0, double x1, double y1, int[] box)
+	{
+		// sample the segment finely enough for map-unit boxes.
+		int steps = (int)Math.ceil(Math.max(Math.abs(x1 - x0), Math.abs(y1 - y0)) * 4) + 1;
+		for (int s = 0; s <= steps; s++)
+		{
+			double x = x0 + (x1 - x0) * s / steps;
+			double y = y0 + (y1 - y0) * s / steps;
+			if (x >= box[0] && x <= box[2] && y >= box[1] && y <= box[3])
+				return true;
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.map.data.Reject;
+import net.mtrop.doom.util.MapUtils;
+
+public final class RejectBuilderTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void build() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			int sectors = map.getSectorCount();
+			assertEquals(0, new RejectBuilder().setMode(RejectBuilder.Mode.ZERO).build(map).getRejectedCount());
+			Reject components = new RejectBuilder().setMode(RejectBuilder.Mode.COMPONENTS).build(map);
+			Reject sight = new RejectBuilder().setParallel(true).build(map);
+			assertArrayEquals(sight.toBytes(), new RejectBuilder().build(map).toBytes());
+
+			for (int i = 0; i < sectors; i++)
+			{
+				assertFalse(sight.isRejected(i, i));
+				for (int j = 0; j < sectors; j++)
+				{
+					assertEquals(sight.isRejected(i, j), sight.isRejected(j, i));
+					if (components.isRejected(i, j))
+						assertTrue(sight.isRejected(i, j));
+				}
+			}
+			for (int i = 0; i < map.getLinedefCount(); i++)
+			{
+				DoomLinedef linedef = map.getLinedef(i);
+				if (linedef.getSidedefBackIndex() < 0)
+					continue;
+				int front = map.getSidedef(linedef.getSidedefFrontIndex()).getSectorIndex();
+				int back = map.getSidedef(linedef.getSidedefBackIndex()).getSectorIndex();
+				assertFalse(components.isRejected(front, back));
+				assertFalse(sight.isRejected(front, back));
+			}
+
+			// any two things with a clear line between them must be able to see each other.
+			MapSpatialIndex index = MapSpatialIndex.create(map);
+			int[] thingSector = new int[map.getThingCount()];
+			for (int i = 0; i < thingSector.length; i++)
+			{
+				int[] candidates = index.getSectorCandidates(map.getThing(i).getX(), map.getThing(i).getY());
+				thingSector[i] = candidates.length == 1 ? candidates[0] : -1;
+			}
+			int checked = 0;
+			for (int a = 0; a < thingSector.length; a++)
+				for (int b = a + 1; b < thingSector.length; b++)
+				{
+					if (thingSector[a] < 0 || thingSector[b] < 0 || !sight.isRejected(thingSector[a], thingSector[b]))
+						continue;
+					DoomThing ta = map.getThing(a), tb = map.getThing(b);
+					boolean blocked = false;
+					for (int l : index.getLinedefsInBox(Math.min(ta.getX(), tb.getX()), Math.min(ta.getY(), tb.getY()), Math.max(ta.getX(), tb.getX()), Math.max(ta.getY(), tb.getY())))
+					{
+						DoomLinedef linedef = map.getLinedef(l);
+						if (linedef.getSidedefBackIndex() >= 0)
+							continue;
+						DoomVertex v0 = map.getVertex(linedef.getVertexStartIndex()), v1 = map.getVertex(linedef.getVertexEndIndex());
+						if (segmentsTouch(ta.getX(), ta.getY(), tb.getX(), tb.getY(), v0.getX(), v0.getY(), v1.getX(), v1.getY()))
+						{
+							blocked = true;
+							break;
+						}
+					}
+					assertTrue(blocked, "Things " + a + " and " + b + " can see each other, but their sectors are rejected.");
+					checked++;
+				}
+			assertTrue(checked > 0);
+		}
+	}
+
+	private static boolean segmentsTouch(long ax, long ay, long bx, long by, long cx, long cy, long dx, long dy)
+	{
+		long d1 = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+		long d2 = (bx - ax) * (dy - ay) - (by - ay) * (dx - ax);
+		long d3 = (dx - cx) * (ay - cy) - (dy - cy) * (ax - cx);
+		long d4 = (dx - cx) * (by - cy) - (dy - cy) * (bx - cx);
+		return Long.signum(d1) * Long.signum(d2) <= 0 && Long.signum(d3) * Long.signum(d4) <= 0;
+	}
+
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.cursor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.BlockmapBuilder;
+import net.mtrop.doom.map.DoomMap;
+import net.mtrop.doom.map.MapChecker;
+import net.mtrop.doom.map.MapContentReader;
+import net.mtrop.doom.map.MapGeometryReader;
+import net.mtrop.doom.map.MapSpatialIndex;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.util.MapUtils;
+
+public final class DoomMapCursorViewTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void matchesDoomMap() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			DoomMapCursorView view = MapUtils.createDoomMapView(wad, 0);
+			assertEquals(map.getVertexCount(), view.getVertexCount());
+			assertEquals(map.getLinedefCount(), view.getLinedefCount());
+			assertEquals(map.getSidedefCount(), view.getSidedefCount());
+			assertEquals(map.getSectorCount(), view.getSectorCount());
+			assertEquals(map.getThingCount(), view.getThingCount());
+			for (int i = 0; i < map.getLinedefCount(); i++)
+			{
+				DoomLinedef linedef = map.getLinedef(i);
+				LinedefCursor cursor = view.getLinedef(i);
+				assertEquals(linedef.getVertexStartIndex(), cursor.getVertexStartIndex());
+				assertEquals(linedef.getVertexEndIndex(), cursor.getVertexEndIndex());
+				assertEquals(linedef.getFlags(), cursor.getFlags());
+				assertEquals(linedef.getSpecial(), cursor.getSpecial());
+				assertEquals(linedef.getTag(), cursor.getTag());
+				assertEquals(linedef.getSidedefFrontIndex(), cursor.getSidedefFrontIndex());
+				assertEquals(linedef.getSidedefBackIndex(), cursor.getSidedefBackIndex());
+			}
+			SidedefCursor cursor = view.getSidedef(0).duplicate();
+			cursor.reset();
+			while (cursor.next())
+			{
+				DoomSidedef sidedef = map.getSidedef(cursor.getIndex());
+				assertSame(sidedef.getTextureTop(), cursor.getTextureTop());
+				assertSame(sidedef.getTextureMiddle(), cursor.getTextureMiddle());
+				assertSame(sidedef.getTextureBottom(), cursor.getTextureBottom());
+				assertEquals(sidedef.getSectorIndex(), cursor.getSectorIndex());
+			}
+			assertSame(map.getSector(0).getTextureFloor(), view.getSector(0).getTextureFloor());
+			assertEquals(map.getThing(0).getType(), view.getThing(0).getType());
+			assertEquals(map.getVertex(1).getY(), view.getVertex(1).getY());
+			assertNull(view.getVertex(view.getVertexCount()));
+		}
+	}
+
+	@Test
+	public void feedsMapTools() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			DoomMapCursorView view = MapUtils.createDoomMapView(wad, 0);
+
+			MapSpatialIndex expected = MapSpatialIndex.create(map);
+			MapSpatialIndex index = MapSpatialIndex.create(view, MapGeometryReader.DOOM_CURSOR, MapSpatialIndex.DEFAULT_CELL_SIZE);
+			assertArrayEquals(expected.getLinedefsInBox(-4096, -4096, 4096, 4096), index.getLinedefsInBox(-4096, -4096, 4096, 4096));
+			for (int i = 0; i < map.getThingCount(); i++)
+			{
+				DoomThing thing = map.getThing(i);
+				assertEquals(expected.getNearestVertex(thing.getX(), thing.getY()), index.getNearestVertex(thing.getX(), thing.getY()));
+				assertArrayEquals(expected.getSectorCandidates(thing.getX(), thing.getY()), index.getSectorCandidates(thing.getX(), thing.getY()));
+			}
+
+			assertArrayEquals(new BlockmapBuilder().build(map).toBytes(), new BlockmapBuilder().setParallel(true).build(view, MapGeometryReader.DOOM_CURSOR).toBytes());
+			assertEquals(new MapChecker().check(map).getProblems().toString(), new MapChecker().check(view, MapGeometryReader.DOOM_CURSOR, MapContentReader.DOOM_CURSOR).getProblems().toString());
+		}
+	}
+
+}
@@ -7,7 +7,17 @@
  ******************************************************************************/
 package net.mtrop.doom.map.data;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
 
 import net.mtrop.doom.WadFile;
 import net.mtrop.doom.LoggingFactory;
@@ -16,6 +26,58 @@ import net.mtrop.doom.LoggingFactory.Logger;
 
 public final class BlockmapTest
 {
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void readWriteAndEdit() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomLinedef[] linedefs = wad.getDataAs("LINEDEFS", DoomLinedef.class, DoomLinedef.LENGTH);
+			DoomVertex[] vertices = wad.getDataAs("VERTEXES", DoomVertex.class, DoomVertex.LENGTH);
+			Blockmap original = wad.getDataAs("BLOCKMAP", Blockmap.class);
+
+			// every line is in the block of its first vertex.
+			for (int i = 0; i < linedefs.length; i++)
+			{
+				DoomVertex v = vertices[linedefs[i].getVertexStartIndex()];
+				assertTrue(contains(original.getIndexListForPosition(v.getX(), v.getY()), i));
+			}
+
+			original.setCompressed(true);
+			byte[] compressed = original.toBytes();
+			Blockmap streamed = new Blockmap();
+			streamed.fromBytes(compressed);
+			Blockmap buffered = new Blockmap();
+			buffered.readBytes(ByteBuffer.wrap(compressed));
+			assertArrayEquals(compressed, streamed.toBytes());
+			assertArrayEquals(compressed, buffered.toBytes());
+			int[] total = new int[1];
+			for (int x = 0; x < original.getColumns(); x++)
+				for (int y = 0; y < original.getRows(); y++)
+				{
+					assertEquals(toList(original.getIndexList(x, y)), toList(buffered.getIndexList(x, y)));
+					assertEquals(original.getIndexCount(x, y), buffered.forEachIndex(x, y, (line) -> total[0] += line));
+				}
+			assertEquals(0, buffered.forEachIndexForPosition(-32768, 0, (line) -> total[0]++));
+			assertTrue(total[0] > 0);
+
+			DoomVertex v = vertices[linedefs[0].getVertexStartIndex()];
+			int bx = buffered.getColumnByMapPosition(v.getX()), by = buffered.getRowByMapPosition(v.getY());
+			int count = buffered.getIndexCount(bx, by);
+			assertTrue(buffered.removeIndex(bx, by, 0));
+			assertEquals(count - 1, buffered.getIndexCount(bx, by));
+			buffered.addIndex(bx, by, 0);
+			assertTrue(contains(buffered.getIndexList(bx, by), 0));
+			assertEquals(count, buffered.getIndexCount(bx, by));
+			assertEquals(count, buffered.forEachIndex(bx, by, (line) -> {}));
+			byte[] edited = buffered.toBytes();
+			buffered.pack();
+			assertArrayEquals(edited, buffered.toBytes());
+			assertEquals(count, buffered.getIndexCount(bx, by));
+		}
+	}
+
 	public static void main(String[] args) throws IOException
 	{
 		Logger logger = LoggingFactory.createConsoleLoggerFor(BlockmapTest.class);
@@ -24,4 +86,20 @@ public final class BlockmapTest
 		logger.info(blockmap.toBytes());
 		wad.close();
 	}
+
+	private static boolean contains(Iterable<Integer> list, int value)
+	{
+		for (int i : list)
+			if (i == value)
+				return true;
+		return false;
+	}
+
+	private static List<Integer> toList(Iterable<Integer> list)
+	{
+		List<Integer> out = new ArrayList<>();
+		for (int i : list)
+			out.add(i);
+		return out;
+	}
 }
@@ -7,12 +7,109 @@
  ******************************************************************************/
 package net.mtrop.doom.map.data;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
 
 import net.mtrop.doom.WadFile;
 
 public final class RejectTest
 {
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+
+	@Test
+	public void readAndEdit() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			int sectors = wad.getEntry("SECTORS").getSize() / DoomSector.LENGTH;
+			byte[] data = wad.getData("REJECT");
+			Reject reject = new Reject(sectors);
+			reject.fromBytes(data);
+			assertArrayEquals(data, reject.toBytes());
+
+			long bitCount = 0;
+			for (byte b : data)
+				bitCount += Integer.bitCount(b & 0x0ff);
+			assertEquals(bitCount, reject.getRejectedCount());
+			for (int i = 0; i < sectors; i += 97)
+			{
+				int rowCount = 0;
+				for (int j = 0; j < sectors; j++)
+				{
+					int bit = (i * sectors) + j;
+					boolean set = (data[bit >> 3] & (1 << (bit & 7))) != 0;
+					assertEquals(set, reject.isRejected(i, j));
+					assertEquals(!set, reject.getSectorIsVisibleTo(i, j));
+					rowCount += set ? 1 : 0;
+				}
+				assertEquals(rowCount, reject.getRejectedCount(i));
+			}
+
+			Reject copy = new Reject(sectors);
+			copy.readBytes(ByteBuffer.wrap(data));
+			copy.orRow(1, 2);
+			copy.andRow(3, 4);
+			for (int j = 0; j < sectors; j++)
+			{
+				assertEquals(reject.isRejected(1, j) || reject.isRejected(2, j), copy.isRejected(1, j));
+				assertEquals(reject.isRejected(3, j) && reject.isRejected(4, j), copy.isRejected(3, j));
+			}
+			copy.setRow(5, true);
+			copy.setColumn(6, false);
+			assertEquals(sectors - 1, copy.getRejectedCount(5));
+			assertFalse(copy.isRejected(5, 6));
+			copy.makeSymmetric();
+			for (int j = 0; j < sectors; j++)
+				assertEquals(copy.isRejected(j, 7), copy.isRejected(7, j));
+			copy.fill(true);
+			assertEquals((long)sectors * sectors, copy.getRejectedCount());
+			copy.and(reject);
+			assertArrayEquals(data, copy.toBytes());
+			copy.clear();
+			assertEquals(0, copy.getRejectedCount());
+		}
+	}
+
+	@Test
+	public void visibilityBitOrder() throws Exception
+	{
+		Reject reject = new Reject(3);
+		reject.setSectorIsVisibleTo(0, 2, false);
+		// bit (from * sectors) + target = 2.
+		assertArrayEquals(new byte[]{0x04, 0x00}, reject.toBytes());
+		assertTrue(reject.isRejected(0, 2));
+		assertFalse(reject.getSectorIsVisibleTo(0, 2));
+		assertTrue(reject.getSectorIsVisibleTo(2, 0));
+	}
+
+	@Test
+	public void makeSymmetric() throws Exception
+	{
+		Reject reject = new Reject(3);
+		// rejected one way: cleared both ways.
+		reject.setRejected(0, 1, true);
+		reject.setRejected(2, 1, true);
+		// rejected both ways: kept.
+		reject.setRejected(0, 2, true);
+		reject.setRejected(2, 0, true);
+		reject.makeSymmetric();
+		assertFalse(reject.isRejected(0, 1));
+		assertFalse(reject.isRejected(1, 0));
+		assertFalse(reject.isRejected(2, 1));
+		assertFalse(reject.isRejected(1, 2));
+		assertTrue(reject.isRejected(0, 2));
+		assertTrue(reject.isRejected(2, 0));
+		assertEquals(2, reject.getRejectedCount());
+	}
+
 	public static void main(String[] args) throws IOException
 	{
 		WadFile wad = new WadFile(args[0]);
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.map.udmf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.UDMFMap;
+import net.mtrop.doom.util.MapUtils;
+
+public final class UDMFBufferedWriterTest
+{
+	private static final File TEST_UDMF = new File("src/test/resources/udmfmap.wad");
+
+	@Test
+	public void writeAndScan() throws Exception
+	{
+		Random random = new Random(1234L);
+		float[] floats = new float[2000];
+		floats[0] = 0f;
+		floats[1] = -0f;
+		floats[2] = 0.1f;
+		floats[3] = 1.0e-5f;
+		floats[4] = 1.5e7f;
+		floats[5] = -123.456f;
+		floats[6] = Float.MAX_VALUE;
+		floats[7] = Float.MIN_VALUE;
+		floats[8] = 256f;
+		for (int i = 9; i < floats.length; i++)
+			floats[i] = i % 2 == 0 ? (random.nextInt(65536) - 32768) : (random.nextFloat() - 0.5f) * (float)Math.pow(10, random.nextInt(12) - 4);
+
+		StringWriter text = new StringWriter();
+		UDMFBufferedWriter writer = new UDMFBufferedWriter(text, 64);
+		UDMFBufferedWriter.Key x = UDMFBufferedWriter.createKey("X");
+		writer.writeField("namespace", "a \"quoted\" \\ string\n");
+		for (float f : floats)
+		{
+			writer.writeObjectStart("vertex", -1);
+			writer.writeField(x, f);
+			writer.writeField("id", random.nextInt() | 1);
+			writer.writeObjectEnd();
+		}
+		writer.flush();
+		assertTrue(text.toString().contains("x = 256.0;"), "integral floats");
+
+		UDMFScanner scanner = UDMFScanner.createScanner(text.toString());
+		assertEquals("a \"quoted\" \\ string\n", scanner.next().getValue());
+		for (float f : floats)
+			assertEquals(Float.floatToIntBits(f), Float.floatToIntBits(scanner.next().getUDMFObject().getFloat("x")), String.valueOf(f));
+		assertFalse(scanner.hasNext());
+
+		assertThrows(IllegalArgumentException.class, () -> UDMFBufferedWriter.createKey("bad key"));
+		assertThrows(IllegalArgumentException.class, () -> writer.writeField(x, Float.NaN));
+		assertThrows(IllegalStateException.class, () -> writer.writeObjectEnd());
+	}
+
+	@Test
+	public void mapRoundTrip() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_UDMF))
+		{
+			UDMFMap map = MapUtils.createUDMFMap(wad, 0);
+			StringWriter out = new StringWriter();
+			map.writeText(out);
+			UDMFMap copy = new UDMFMap();
+			copy.readText(new StringReader(out.toString()));
+			assertEquals(map.getNamespace(), copy.getNamespace());
+			assertUDMFEquals(map.getThings(), copy.getThings());
+			assertUDMFEquals(map.getVertices(), copy.getVertices());
+			assertUDMFEquals(map.getLinedefs(), copy.getLinedefs());
+			assertUDMFEquals(map.getSidedefs(), copy.getSidedefs());
+			assertUDMFEquals(map.getSectors(), copy.getSectors());
+		}
+	}
+
+	@Test
+	public void mapWithoutNamespace() throws Exception
+	{
+		StringWriter out = new StringWriter();
+		assertThrows(IllegalStateException.class, () -> new UDMFMap().writeText(out));
+		assertEquals("", out.toString());
+	}
+
+	private static void assertUDMFEquals(List<UDMFObject> expected, List<UDMFObject> actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			int count = 0;
+			for (Map.Entry<String, Object> entry : expected.get(i))
+			{
+				assertEquals(entry.getValue(), actual.get(i).get(entry.getKey()), entry.getKey());
+				count++;
+			}
+			for (Map.Entry<String, Object> entry : actual.get(i))
+				count--;
+			assertEquals(0, count);
+		}
+	}
+
+}
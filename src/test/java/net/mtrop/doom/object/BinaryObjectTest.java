@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.object;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.bsp.data.BSPNode;
+import net.mtrop.doom.bsp.data.BSPSegment;
+import net.mtrop.doom.bsp.data.BSPSubsector;
+import net.mtrop.doom.map.data.DoomLinedef;
+import net.mtrop.doom.map.data.DoomSector;
+import net.mtrop.doom.map.data.DoomSidedef;
+import net.mtrop.doom.map.data.DoomThing;
+import net.mtrop.doom.map.data.DoomVertex;
+import net.mtrop.doom.map.data.HexenLinedef;
+import net.mtrop.doom.map.data.HexenThing;
+import net.mtrop.doom.util.WadUtils;
+
+public final class BinaryObjectTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+	private static final File TEST_HEXEN = new File("src/test/resources/hexenmap.wad");
+
+	@Test
+	public void byteBufferDoomMap() throws Exception
+	{
+		checkByteBuffer(TEST_DOOM, "THINGS", DoomThing.class, DoomThing.LENGTH);
+		checkByteBuffer(TEST_DOOM, "LINEDEFS", DoomLinedef.class, DoomLinedef.LENGTH);
+		checkByteBuffer(TEST_DOOM, "SIDEDEFS", DoomSidedef.class, DoomSidedef.LENGTH);
+		checkByteBuffer(TEST_DOOM, "VERTEXES", DoomVertex.class, DoomVertex.LENGTH);
+		checkByteBuffer(TEST_DOOM, "SEGS", BSPSegment.class, BSPSegment.LENGTH);
+		checkByteBuffer(TEST_DOOM, "SSECTORS", BSPSubsector.class, BSPSubsector.LENGTH);
+		checkByteBuffer(TEST_DOOM, "NODES", BSPNode.class, BSPNode.LENGTH);
+		checkByteBuffer(TEST_DOOM, "SECTORS", DoomSector.class, DoomSector.LENGTH);
+	}
+
+	@Test
+	public void byteBufferHexenMap() throws Exception
+	{
+		checkByteBuffer(TEST_HEXEN, "THINGS", HexenThing.class, HexenThing.LENGTH);
+		checkByteBuffer(TEST_HEXEN, "LINEDEFS", HexenLinedef.class, HexenLinedef.LENGTH);
+	}
+
+	@Test
+	public void byteBufferNotEnoughBytes() throws Exception
+	{
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[DoomVertex.LENGTH - 1]);
+		assertThrows(EOFException.class, () -> new DoomVertex().readBytes(buffer));
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	public void streamDataAs() throws Exception
+	{
+		WadUtils.openWadAnd(TEST_DOOM, (wad) -> {
+			DoomLinedef[] linedefs = wad.getDataAs("LINEDEFS", DoomLinedef.class, DoomLinedef.LENGTH);
+			List<DoomLinedef> sequential = wad.streamDataAs("LINEDEFS", DoomLinedef.class, DoomLinedef.LENGTH).collect(Collectors.toList());
+			List<DoomLinedef> parallel = wad.streamDataAs("LINEDEFS", DoomLinedef.class, DoomLinedef.LENGTH).parallel().collect(Collectors.toList());
+			assertArrayEquals(BinaryObject.toBytes(linedefs), BinaryObject.toBytes(sequential.toArray(new DoomLinedef[0])));
+			assertArrayEquals(BinaryObject.toBytes(linedefs), BinaryObject.toBytes(parallel.toArray(new DoomLinedef[0])));
+			assertEquals(linedefs.length, wad.streamDataAs("LINEDEFS", DoomLinedef.class, DoomLinedef.LENGTH).spliterator().getExactSizeIfKnown());
+		});
+	}
+
+	@Test
+	public void streamSplits() throws Exception
+	{
+		byte[] data = new byte[DoomVertex.LENGTH * 1000 + 3];
+		ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < 1000; i++)
+			buffer.putShort((short)i).putShort((short)-i);
+		
+		int[] xs = BinaryObject.stream(DoomVertex.class, data, DoomVertex.LENGTH).parallel().mapToInt(DoomVertex::getX).toArray();
+		int[] expected = new int[1000];
+		Arrays.setAll(expected, (i) -> i);
+		assertArrayEquals(expected, xs);
+		assertEquals(-999 * 1000 / 2, BinaryObject.stream(DoomVertex.class, data, DoomVertex.LENGTH).parallel().mapToInt(DoomVertex::getY).sum());
+	}
+
+	private static <BO extends BinaryObject> void checkByteBuffer(File wadFile, String entryName, Class<BO> type, int length) throws IOException
+	{
+		byte[] data = WadUtils.openWadAndGet(wadFile, (wad) -> wad.getData(entryName));
+		int count = data.length / length;
+		
+		BO[] fromStream = BinaryObject.read(type, new ByteArrayInputStream(data), count);
+		BO[] fromBuffer = BinaryObject.read(type, ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN), count);
+		assertArrayEquals(BinaryObject.toBytes(fromStream), BinaryObject.toBytes(fromBuffer));
+
+		ByteBuffer out = ByteBuffer.allocate(count * length).order(ByteOrder.BIG_ENDIAN);
+		for (BO object : fromBuffer)
+			object.writeBytes(out);
+		assertEquals(out.capacity(), out.position());
+		assertArrayEquals(BinaryObject.toBytes(fromStream), out.array());
+	}
+
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.struct.trie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public final class RadixTrieMapTest
+{
+	@Test
+	public void putGet() throws Exception
+	{
+		StringRadixTrieMap<Integer> map = new StringRadixTrieMap<>();
+		assertEquals(map.isEmpty(), true);
+		assertNull(map.put("maps/map01.wad", 1));
+		assertNull(map.put("maps/map02.wad", 2));
+		assertNull(map.put("", 0));
+		assertEquals(map.put("maps/map01.wad", 10), (Integer)1);
+		assertEquals(map.size(), 3);
+		assertEquals(map.get("maps/map01.wad"), (Integer)10);
+		assertEquals(map.get("maps/map02.wad"), (Integer)2);
+		assertEquals(map.get(""), (Integer)0);
+		assertNull(map.get("maps/map03.wad"));
+		assertNull(map.get("MAPS/MAP01.WAD"));
+		assertEquals(map.containsKey("maps/"), false);
+		assertEquals(map.containsKey("maps/map01.wad"), true);
+	}
+
+	@Test
+	public void splitNodes() throws Exception
+	{
+		StringRadixTrieMap<String> map = new StringRadixTrieMap<>();
+		map.put("textures", "a");
+		// splits "textures" into "text" and "ures".
+		map.put("text", "b");
+		// splits "text" into "te" and "xt".
+		map.put("team", "c");
+		// adds a child to "te" between existing children.
+		map.put("tea", "d");
+		map.put("tex", "e");
+		assertEquals(map.size(), 5);
+		assertEquals(map.get("textures"), "a");
+		assertEquals(map.get("text"), "b");
+		assertEquals(map.get("team"), "c");
+		assertEquals(map.get("tea"), "d");
+		assertEquals(map.get("tex"), "e");
+		assertNull(map.get("te"));
+		assertNull(map.get("textu"));
+		assertNull(map.get("textures2"));
+	}
+
+	@Test
+	public void remove() throws Exception
+	{
+		StringRadixTrieMap<String> map = new StringRadixTrieMap<>();
+		map.put("text", "a");
+		map.put("textures", "b");
+		map.put("texels", "c");
+		assertNull(map.removeEntry("tex"));
+		assertNull(map.removeEntry("textures2"));
+		assertEquals(map.size(), 3);
+		
+		// leaves "text" with one child, which is merged into it.
+		assertEquals(map.removeEntry("text"), "a");
+		assertEquals(map.size(), 2);
+		assertNull(map.get("text"));
+		assertEquals(map.get("textures"), "b");
+		assertEquals(map.get("texels"), "c");
+
+		assertEquals(map.removeEntry("texels"), "c");
+		assertEquals(map.removeEntry("textures"), "b");
+		assertEquals(map.isEmpty(), true);
+		assertEquals(map.iterator().hasNext(), false);
+
+		map.put("tex", "d");
+		assertEquals(map.get("tex"), "d");
+	}
+
+	@Test
+	public void prefix() throws Exception
+	{
+		StringRadixTrieMap<Integer> map = new StringRadixTrieMap<>();
+		map.put("sprites/troo/trooa1.png", 1);
+		map.put("sprites/bal1/bal1a0.png", 2);
+		map.put("sprites/bal1c0.png", 3);
+		map.put("sounds/dspistol.ogg", 4);
+		map.put("sprites", 5);
+
+		List<String> keys = new ArrayList<>();
+		assertEquals(map.getKeysAfterKey("sprites/", keys), 3);
+		assertEquals(keys, Arrays.asList("sprites/bal1/bal1a0.png", "sprites/bal1c0.png", "sprites/troo/trooa1.png"));
+
+		// prefix that ends inside a node label.
+		keys.clear();
+		assertEquals(map.getKeysAfterKey("sprites/ba", keys), 2);
+		assertEquals(keys, Arrays.asList("sprites/bal1/bal1a0.png", "sprites/bal1c0.png"));
+
+		// prefix that is also a key.
+		List<Integer> values = new ArrayList<>();
+		assertEquals(map.getAfterKey("sprites", values), 4);
+		assertEquals(values, Arrays.asList(5, 2, 3, 1));
+
+		keys.clear();
+		assertEquals(map.getKeysAfterKey("sprites/x", keys), 0);
+		assertEquals(map.getKeysAfterKey("", keys), 5);
+		assertEquals(keys.get(0), "sounds/dspistol.ogg");
+	}
+
+	@Test
+	public void caseInsensitive() throws Exception
+	{
+		CaseInsensitiveRadixTrieMap<Integer> map = new CaseInsensitiveRadixTrieMap<>();
+		map.put("Maps/MAP01.wad", 1);
+		assertEquals(map.get("maps/map01.WAD"), (Integer)1);
+		assertEquals(map.put("MAPS/map01.wad", 2), (Integer)1);
+		assertEquals(map.size(), 1);
+
+		// the last key put is kept.
+		List<String> keys = new ArrayList<>();
+		map.getKeysAfterKey("mAPs/", keys);
+		assertEquals(keys, Arrays.asList("MAPS/map01.wad"));
+
+		assertEquals(map.removeEntry("maps/MAP01.WAD"), (Integer)2);
+		assertEquals(map.isEmpty(), true);
+	}
+
+	@Test
+	public void randomAgainstTreeMap() throws Exception
+	{
+		Random random = new Random(1234L);
+		StringRadixTrieMap<Integer> map = new StringRadixTrieMap<>();
+		TreeMap<String, Integer> expected = new TreeMap<>();
+		for (int i = 0; i < 5000; i++)
+		{
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(6);
+			for (int c = 0; c < length; c++)
+				sb.append((char)('a' + random.nextInt(3)));
+			String key = sb.toString();
+			if (random.nextInt(3) == 0)
+				assertEquals(map.removeEntry(key), expected.remove(key));
+			else
+				assertEquals(map.put(key, i), expected.put(key, i));
+			assertEquals(map.size(), expected.size());
+		}
+		
+		List<String> keys = new ArrayList<>();
+		for (Map.Entry<String, Integer> entry : map)
+		{
+			keys.add(entry.getKey());
+			assertEquals(entry.getValue(), expected.get(entry.getKey()));
+		}
+		assertEquals(keys, new ArrayList<>(expected.keySet()));
+	}
+
+}
@@ -8,6 +8,10 @@
 package net.mtrop.doom.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.junit.jupiter.api.Test;
 
@@ -61,4 +65,23 @@ public final class NameUtilsTest
 		assertEquals(NameUtils.isValidTextureName(""), false);
 		assertEquals(NameUtils.isValidTextureName("NOUMLÄUT"), false);
 	}
+
+	@Test
+	public void namePool() throws Exception
+	{
+		NamePool pool = new NamePool(String::toUpperCase);
+		byte[] data = {'s', 't', 'a', 'r', 't', 'a', 'n', '3', 'S', 'K', 'Y', '1', 0, 'x', 'x', 'x', 'S', 'K', 'Y', '1', 0, 0, 0, 0};
+		String name = pool.get(data, 0);
+		assertEquals("STARTAN3", name);
+		assertSame(name, pool.get(ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN), 0));
+		assertEquals("SKY1", pool.get(data, 8));
+		assertSame(pool.get(data, 8), pool.get(data, 16));
+		assertEquals(2, pool.size());
+		assertEquals("", pool.get(0L));
+		
+		NamePool small = new NamePool(String::toUpperCase, 1);
+		assertSame(name, small.get(data, 0));
+		assertEquals("SKY1", small.get(data, 8));
+		assertEquals(1, small.size());
+	}
 }
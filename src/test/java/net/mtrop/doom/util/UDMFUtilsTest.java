@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2026 Matt Tropiano
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package net.mtrop.doom.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mtrop.doom.WadBuffer;
+import net.mtrop.doom.WadFile;
+import net.mtrop.doom.map.CompactDoomMap;
+import net.mtrop.doom.map.DoomMap;
+import net.mtrop.doom.map.HexenMap;
+import net.mtrop.doom.map.MapFormat;
+import net.mtrop.doom.map.TextureNameTable;
+import net.mtrop.doom.map.cursor.DoomMapCursorView;
+import net.mtrop.doom.map.data.HexenLinedef;
+import net.mtrop.doom.map.udmf.UDMFObject;
+import net.mtrop.doom.object.BinaryObject;
+
+public final class UDMFUtilsTest
+{
+	private static final File TEST_DOOM = new File("src/test/resources/doommap.wad");
+	private static final File TEST_HEXEN = new File("src/test/resources/hexenmap.wad");
+
+	@Test
+	public void convert() throws Exception
+	{
+		String[] lumps = {MapUtils.LUMP_THINGS, MapUtils.LUMP_LINEDEFS, MapUtils.LUMP_SIDEDEFS, MapUtils.LUMP_VERTICES, MapUtils.LUMP_SECTORS};
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			WadBuffer udmf = UDMFUtils.convertToUDMF(wad, 0, UDMFUtils.NAMESPACE_DOOM);
+			assertEquals(MapFormat.UDMF, MapUtils.getMapFormat(udmf, 0));
+			WadBuffer binary = UDMFUtils.convertToBinary(udmf, 0);
+			assertEquals(MapFormat.DOOM, MapUtils.getMapFormat(binary, 0));
+			for (String lump : lumps)
+				assertArrayEquals(wad.getData(lump), binary.getData(lump), lump);
+
+			DoomMap map = UDMFUtils.toDoomMap(UDMFUtils.toUDMFMap(MapUtils.createDoomMap(wad, 0), UDMFUtils.NAMESPACE_DOOM));
+			assertArrayEquals(wad.getData(MapUtils.LUMP_THINGS), toBytes(map.getThings()));
+			assertArrayEquals(wad.getData(MapUtils.LUMP_LINEDEFS), toBytes(map.getLinedefs()));
+			assertThrows(IllegalArgumentException.class, () -> UDMFUtils.convertToUDMF(wad, 0, UDMFUtils.NAMESPACE_HEXEN));
+		}
+
+		try (WadFile wad = new WadFile(TEST_HEXEN))
+		{
+			for (String namespace : new String[]{UDMFUtils.NAMESPACE_HEXEN, UDMFUtils.NAMESPACE_ZDOOM})
+			{
+				WadBuffer binary = UDMFUtils.convertToBinary(UDMFUtils.convertToUDMF(wad, 0, namespace), 0);
+				assertEquals(MapFormat.HEXEN, MapUtils.getMapFormat(binary, 0));
+				for (String lump : lumps)
+					assertArrayEquals(wad.getData(lump), binary.getData(lump), namespace + " " + lump);
+				assertArrayEquals(wad.getData(MapUtils.LUMP_BEHAVIOR), binary.getData(MapUtils.LUMP_BEHAVIOR));
+
+				HexenMap map = UDMFUtils.toHexenMap(UDMFUtils.toUDMFMap(MapUtils.createHexenMap(wad, 0), namespace));
+				assertArrayEquals(wad.getData(MapUtils.LUMP_THINGS), toBytes(map.getThings()));
+				assertArrayEquals(wad.getData(MapUtils.LUMP_LINEDEFS), toBytes(map.getLinedefs()));
+			}
+		}
+
+		HexenLinedef linedef = new HexenLinedef();
+		linedef.setSpecial(121);
+		linedef.setArguments(0x34, 0x11, 0, 0, 0x12);
+		HexenMap map = new HexenMap();
+		map.addLinedef(linedef);
+		UDMFObject object = UDMFUtils.toUDMFMap(map, UDMFUtils.NAMESPACE_ZDOOM).getLinedef(0);
+		assertEquals(0x1234, object.getInteger("id"));
+		assertTrue(object.getBoolean("zoneboundary"));
+		assertTrue(object.getBoolean("wrapmidtex"));
+		assertNull(object.get("special"));
+	}
+
+	@Test
+	public void writeViews() throws Exception
+	{
+		try (WadFile wad = new WadFile(TEST_DOOM))
+		{
+			DoomMap map = MapUtils.createDoomMap(wad, 0);
+			DoomMapCursorView view = MapUtils.createDoomMapView(wad, 0);
+			CompactDoomMap compact = MapUtils.createCompactDoomMap(wad, 0, new TextureNameTable());
+			for (String namespace : new String[]{UDMFUtils.NAMESPACE_DOOM, UDMFUtils.NAMESPACE_HERETIC, UDMFUtils.NAMESPACE_STRIFE, UDMFUtils.NAMESPACE_ZDOOM_TRANSLATED})
+			{
+				StringWriter expected = new StringWriter();
+				UDMFUtils.writeUDMF(map, namespace, expected);
+				StringWriter fromView = new StringWriter();
+				UDMFUtils.writeUDMF(view, namespace, fromView);
+				StringWriter fromCompact = new StringWriter();
+				UDMFUtils.writeUDMF(compact, namespace, fromCompact);
+				assertEquals(expected.toString(), fromView.toString(), namespace);
+				assertEquals(expected.toString(), fromCompact.toString(), namespace);
+			}
+			assertThrows(IllegalArgumentException.class, () -> UDMFUtils.writeUDMF(view, UDMFUtils.NAMESPACE_ZDOOM, new StringWriter()));
+		}
+	}
+
+	private static byte[] toBytes(List<? extends BinaryObject> objects) throws IOException
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		for (BinaryObject object : objects)
+			object.writeBytes(bos);
+		return bos.toByteArray();
+	}
+
+}